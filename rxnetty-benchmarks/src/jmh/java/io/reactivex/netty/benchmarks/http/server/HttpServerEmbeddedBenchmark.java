@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.benchmarks.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpRequestDecoder;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.util.ReferenceCountUtil;
+import io.reactivex.netty.HandlerNames;
+import io.reactivex.netty.channel.WriteTransformer;
+import io.reactivex.netty.protocol.http.HttpHandlerNames;
+import io.reactivex.netty.protocol.http.server.HttpConnectionHandler;
+import io.reactivex.netty.protocol.http.server.HttpServerImpl;
+import io.reactivex.netty.protocol.http.server.HttpServerResponseImpl;
+import io.reactivex.netty.protocol.http.server.HttpServerToConnectionBridge;
+import io.reactivex.netty.protocol.http.server.RequestHandler;
+import io.reactivex.netty.protocol.http.server.events.HttpServerEventPublisher;
+import io.reactivex.netty.protocol.http.server.events.HttpServerEventsListener;
+import io.reactivex.netty.protocol.tcp.server.TcpServerConnectionToChannelBridge;
+import io.reactivex.netty.protocol.tcp.server.events.TcpServerEventListener;
+import io.reactivex.netty.protocol.tcp.server.events.TcpServerEventPublisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+
+/**
+ * Benchmarks the HTTP server request processing path i.e. {@link HttpServerToConnectionBridge} ->
+ * {@link HttpConnectionHandler} -> {@link RequestHandler} -> {@link HttpServerResponseImpl} without any network I/O.
+ *
+ * The channel pipeline is the same as the one created by {@link HttpServerImpl} for every accepted connection, but the
+ * channel is an {@link EmbeddedChannel}, so every benchmark operation feeds a raw HTTP request to the channel and
+ * drains the encoded response. Since, the connection is kept alive, this measures the per-request overhead of the
+ * server and not the connection setup.
+ */
+@State(Scope.Thread)
+public class HttpServerEmbeddedBenchmark {
+
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    private static final ByteBuf REQUEST = Unpooled.unreleasableBuffer(
+            Unpooled.directBuffer().writeBytes("GET /hello HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(US_ASCII)));
+
+    private static final ByteBuf RESPONSE_CONTENT = Unpooled.unreleasableBuffer(
+            Unpooled.directBuffer().writeBytes("Hello World!".getBytes(US_ASCII)));
+
+    private static final String CONTENT_LENGTH_HEADER_VAL = String.valueOf(RESPONSE_CONTENT.readableBytes());
+
+    /**
+     * Whether the server publishes events (this is the default for a server), the publishing overhead is usually
+     * interesting enough to be measured separately.
+     */
+    @Param({"true", "false"})
+    public boolean publishEvents;
+
+    private EmbeddedChannel channel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final TcpServerEventPublisher tcpEventPublisher = new TcpServerEventPublisher();
+        final HttpServerEventPublisher httpEventPublisher = new HttpServerEventPublisher(tcpEventPublisher);
+        if (publishEvents) {
+            /*Publishing is only enabled when there is a listener*/
+            tcpEventPublisher.subscribe(new TcpServerEventListener() { });
+            httpEventPublisher.subscribe(new HttpServerEventsListener() { });
+        }
+
+        final RequestHandler<ByteBuf, ByteBuf> handler = (request, response) ->
+                response.setHeader(CONTENT_LENGTH, CONTENT_LENGTH_HEADER_VAL)
+                        .write(Observable.just(RESPONSE_CONTENT.duplicate()));
+
+        channel = new EmbeddedChannel(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel ch) throws Exception {
+                ChannelPipeline pipeline = ch.pipeline();
+                pipeline.addLast(HandlerNames.WriteTransformer.getName(), new WriteTransformer());
+                pipeline.addLast(HttpHandlerNames.HttpServerEncoder.getName(), new HttpResponseEncoder());
+                pipeline.addLast(HttpHandlerNames.HttpServerDecoder.getName(), new HttpRequestDecoder());
+                pipeline.addLast(new HttpServerToConnectionBridge<>(httpEventPublisher));
+                TcpServerConnectionToChannelBridge.addToPipeline(pipeline,
+                                                                 new HttpConnectionHandler<>(handler,
+                                                                                             httpEventPublisher,
+                                                                                             false),
+                                                                 tcpEventPublisher, false);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int throughput(Blackhole bh) {
+        return handleRequest(bh);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int latency(Blackhole bh) {
+        return handleRequest(bh);
+    }
+
+    private int handleRequest(Blackhole bh) {
+        channel.writeInbound(REQUEST.duplicate());
+        channel.runPendingTasks();
+
+        int bytesWritten = 0;
+        Object out;
+        while ((out = channel.readOutbound()) != null) {
+            if (out instanceof ByteBuf) {
+                bytesWritten += ((ByteBuf) out).readableBytes();
+            }
+            bh.consume(out);
+            ReferenceCountUtil.release(out);
+        }
+
+        if (bytesWritten == 0) {
+            throw new IllegalStateException("No response written for the request.");
+        }
+
+        return bytesWritten;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.benchmarks.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.pool.SingleHostPoolingProviderFactory;
+import io.reactivex.netty.protocol.http.client.HttpClient;
+import io.reactivex.netty.protocol.http.server.HttpServer;
+import io.reactivex.netty.protocol.http.server.HttpServerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import rx.Observable;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+
+/**
+ * Benchmarks a "Hello World" {@link HttpServerImpl} over the loopback interface, using a pooled {@link HttpClient} so
+ * that connections are reused across requests.
+ *
+ * As opposed to {@link HttpServerEmbeddedBenchmark}, this includes the eventloop and socket overheads on both the
+ * client and the server, so the absolute numbers are lower, but it is the closest to a real deployment.
+ */
+@State(Scope.Benchmark)
+public class HttpServerLoopbackBenchmark {
+
+    private static final ByteBuf RESPONSE_CONTENT = Unpooled.unreleasableBuffer(
+            Unpooled.directBuffer().writeBytes("Hello World!".getBytes(Charset.forName("US-ASCII"))));
+
+    private static final String CONTENT_LENGTH_HEADER_VAL = String.valueOf(RESPONSE_CONTENT.readableBytes());
+
+    private HttpServer<ByteBuf, ByteBuf> server;
+    private HttpClient<ByteBuf, ByteBuf> client;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        server = HttpServer.newServer()
+                           .start((req, resp) ->
+                                          resp.setHeader(CONTENT_LENGTH, CONTENT_LENGTH_HEADER_VAL)
+                                              .flushOnlyOnReadComplete()
+                                              .write(Observable.just(RESPONSE_CONTENT.duplicate()))
+                           );
+        client = HttpClient.newClient(SingleHostPoolingProviderFactory.<ByteBuf, ByteBuf>createUnbounded(),
+                                      Observable.just(new Host(server.getServerAddress())));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.shutdown();
+        server.awaitShutdown();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Void throughput() {
+        return sendRequest();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Void latency() {
+        return sendRequest();
+    }
+
+    private Void sendRequest() {
+        return client.createGet("/hello")
+                     .flatMap(resp -> resp.discardContent())
+                     .toBlocking()
+                     .lastOrDefault(null);
+    }
+}
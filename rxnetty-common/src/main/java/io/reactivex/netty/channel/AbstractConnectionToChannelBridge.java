@@ -296,9 +296,13 @@ public abstract class AbstractConnectionToChannelBridge<R, W> extends Backpressu
 
     private void setNewReadProducer(Channel channel, Subscriber<? super R> subscriber) {
         final ReadProducer<R> producer = new ReadProducer<>(subscriber, channel);
-        subscriber.setProducer(producer);
         onNewReadSubscriber(subscriber);
         readProducer = producer;
+        /*
+         * Set the producer only after it is current, as the request for data reads synchronously from channels that
+         * have already buffered data (eg: HTTP/2 streams), and the data read is sent to the current producer.
+         */
+        subscriber.setProducer(producer);
     }
 
     private void replaceConnectionInputSubscriber(Channel channel, ConnectionInputSubscriberReplaceEvent<R, W> event) {
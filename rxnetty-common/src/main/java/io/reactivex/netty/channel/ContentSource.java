@@ -42,7 +42,12 @@ import rx.functions.Func1;
  */
 public final class ContentSource<T> extends Observable<T> {
 
-    private ContentSource(final Observable<T> source) {
+    /**
+     * Creates a source for content that is not read from a channel, eg: content replayed from a cache.
+     *
+     * @param source Source of the content.
+     */
+    public ContentSource(final Observable<T> source) {
         super(new OnSubscribe<T>() {
             @Override
             public void call(Subscriber<? super T> subscriber) {
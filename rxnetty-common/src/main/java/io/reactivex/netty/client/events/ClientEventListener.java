@@ -108,4 +108,31 @@ public class ClientEventListener extends ConnectionEventListener {
      */
     @SuppressWarnings("unused")
     public void onPoolAcquireFailed(long duration, TimeUnit timeUnit, Throwable throwable) {}
+
+    /**
+     * Event whenever an acquire from the pool has to wait for a connection, as the pool is exhausted.
+     *
+     * @param pendingAcquires Number of acquires waiting for a connection, including this one.
+     */
+    @SuppressWarnings("unused")
+    public void onPoolAcquireWaitStart(int pendingAcquires) {}
+
+    /**
+     * Event whenever an acquire waiting for a connection, gets a connection.
+     *
+     * @param duration Duration between wait start and getting a connection.
+     * @param timeUnit Timeunit for the duration.
+     */
+    @SuppressWarnings("unused")
+    public void onPoolAcquireWaitSuccess(long duration, TimeUnit timeUnit) {}
+
+    /**
+     * Event whenever an acquire waiting for a connection, fails i.e. times out.
+     *
+     * @param duration Duration between wait start and failure.
+     * @param timeUnit Timeunit for the duration.
+     * @param throwable Error that caused the failure.
+     */
+    @SuppressWarnings("unused")
+    public void onPoolAcquireWaitFailed(long duration, TimeUnit timeUnit, Throwable throwable) {}
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategy.OutstandingRequestsListener;
+import rx.Observable;
+import rx.Single;
+import rx.Subscription;
+import rx.functions.Func1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link HostCollector} that collects only a subset (aperture) of all hosts, so that every client instance talks to
+ * a slice of a large fleet of hosts, instead of opening connections to every host.
+ *
+ * <h2>Subset</h2>
+ *
+ * All hosts are ordered by their address, which gives the same ring of hosts to every client instance, and host
+ * {@code i} of {@code N} is placed at {@code i/N} on the ring. Every client instance is placed on the same ring at
+ * {@code instanceId/instanceCount} and its subset is the aperture number of hosts starting at its position. As both
+ * hosts and client instances are placed at equal distances on the ring, the number of client instances using any two
+ * hosts differ by at most one. The aperture is widened, within the maximum aperture, to at least
+ * {@code N/instanceCount} hosts, so that every host is used by some client instance. The subset is the same for a
+ * client instance across restarts. Adding or removing a host changes at most two hosts in every subset, if the size of
+ * the subset does not change. When {@code N} crosses a multiple of {@code instanceCount} and the subset is widened
+ * for coverage, the widened size ({@code N/instanceCount} rounded up) changes by one, so a subset gains or loses one
+ * more host, i.e. at most three hosts change.
+ *
+ * <h2>Aperture size</h2>
+ *
+ * Every time the refresh ticker emits, the average outstanding requests (connections borrowed from the pools and not
+ * yet released) for hosts in the subset are compared against the low and high load thresholds. The aperture grows by
+ * one host above the high threshold and shrinks by one host below the low threshold, within the minimum and maximum
+ * aperture.
+ */
+public class ApertureHostCollector implements RefreshingHostCollector {
+
+    public static final int DEFAULT_MIN_APERTURE = 10;
+    public static final double DEFAULT_LOW_LOAD = 0.5;
+    public static final double DEFAULT_HIGH_LOAD = 2.0;
+
+    private final int instanceId;
+    private final int instanceCount;
+    private final int minAperture;
+    private final int maxAperture;
+    private final double lowLoad;
+    private final double highLoad;
+    private final Observable<Long> refreshTicker;
+
+    public ApertureHostCollector(int instanceId, int instanceCount) {
+        this(instanceId, instanceCount, DEFAULT_MIN_APERTURE, Integer.MAX_VALUE, DEFAULT_LOW_LOAD, DEFAULT_HIGH_LOAD,
+             Observable.interval(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Creates a new collector.
+     *
+     * @param instanceId Identifier of this client instance, between {@code 0} and {@code instanceCount - 1}.
+     * @param instanceCount Total number of client instances.
+     * @param minAperture Minimum number of hosts in the subset.
+     * @param maxAperture Maximum number of hosts in the subset.
+     * @param lowLoad Average outstanding requests per host, below which the aperture shrinks.
+     * @param highLoad Average outstanding requests per host, above which the aperture grows.
+     * @param refreshTicker Ticker to re-evaluate the aperture size.
+     */
+    public ApertureHostCollector(int instanceId, int instanceCount, int minAperture, int maxAperture, double lowLoad,
+                                 double highLoad, Observable<Long> refreshTicker) {
+        if (instanceId < 0 || instanceId >= instanceCount) {
+            throw new IllegalArgumentException("Instance id must be between 0 and " + (instanceCount - 1)
+                                               + ". Provided: " + instanceId);
+        }
+        if (minAperture < 1 || maxAperture < minAperture) {
+            throw new IllegalArgumentException("Invalid aperture, min: " + minAperture + ", max: " + maxAperture);
+        }
+        this.instanceId = instanceId;
+        this.instanceCount = instanceCount;
+        this.minAperture = minAperture;
+        this.maxAperture = maxAperture;
+        this.lowLoad = lowLoad;
+        this.highLoad = highLoad;
+        this.refreshTicker = refreshTicker;
+    }
+
+    @Override
+    public Observable<Long> getRefreshTicker() {
+        return refreshTicker;
+    }
+
+    @Override
+    public <W, R> Func1<HostUpdate<W, R>, Single<List<HostHolder<W, R>>>> newCollector() {
+        return new Func1<HostUpdate<W, R>, Single<List<HostHolder<W, R>>>>() {
+
+            /*Updates are serialized by the load balancer, so no synchronization is required.*/
+            private final List<HostHolder<W, R>> ring = new ArrayList<>();
+            private final Map<HostHolder<W, R>, HostState> states = new HashMap<>();
+            private int aperture = minAperture;
+            private List<HostHolder<W, R>> currentList = Collections.emptyList();
+
+            @Override
+            public Single<List<HostHolder<W, R>>> call(HostUpdate<W, R> update) {
+                switch (update.getAction()) {
+                case Add:
+                    add(update.getHostHolder());
+                    break;
+                case Remove:
+                    remove(update.getHostHolder());
+                    break;
+                case Refresh:
+                    resize();
+                    break;
+                }
+
+                List<HostHolder<W, R>> newList = subset();
+                if (!newList.equals(currentList)) {
+                    currentList = newList;
+                }
+
+                return Single.just(currentList);
+            }
+
+            private void add(HostHolder<W, R> holder) {
+                if (states.containsKey(holder)) {
+                    return;
+                }
+
+                final String name = String.valueOf(holder.getConnector().getHost().getHost());
+                /*Insert after all hosts with a lower or same name.*/
+                int low = 0;
+                int high = ring.size();
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (states.get(ring.get(mid)).name.compareTo(name) <= 0) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+
+                OutstandingRequestsListener listener = new OutstandingRequestsListener();
+                Subscription subscription = holder.getConnector().subscribe(listener);
+                states.put(holder, new HostState(name, listener, subscription));
+                ring.add(low, holder);
+            }
+
+            private void remove(HostHolder<W, R> holder) {
+                HostState state = states.remove(holder);
+                if (null != state) {
+                    ring.remove(holder);
+                    state.subscription.unsubscribe();
+                }
+            }
+
+            private void resize() {
+                if (currentList.isEmpty()) {
+                    return;
+                }
+
+                long outstanding = 0;
+                for (HostHolder<W, R> holder : currentList) {
+                    outstanding += states.get(holder).listener.getOutstandingRequests();
+                }
+
+                final double load = (double) outstanding / currentList.size();
+                if (load > highLoad && currentList.size() < maxAperture && currentList.size() < ring.size()) {
+                    /*Aperture may be widened for coverage, so grow from the current subset.*/
+                    aperture = currentList.size() + 1;
+                } else if (load < lowLoad && aperture > minAperture) {
+                    aperture--;
+                }
+            }
+
+            private List<HostHolder<W, R>> subset() {
+                final int hosts = ring.size();
+                final int coverage = (int) Math.min(maxAperture, ((long) hosts + instanceCount - 1) / instanceCount);
+                final int size = Math.min(Math.max(aperture, coverage), hosts);
+                final int start = (int) ((long) instanceId * hosts / instanceCount);
+                final List<HostHolder<W, R>> subset = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    /*Wrap around the ring.*/
+                    subset.add(ring.get((start + i) % hosts));
+                }
+                return subset;
+            }
+        };
+    }
+
+    private static final class HostState {
+
+        private final String name;
+        private final OutstandingRequestsListener listener;
+        private final Subscription subscription;
+
+        private HostState(String name, OutstandingRequestsListener listener, Subscription subscription) {
+            this.name = name;
+            this.listener = listener;
+            this.subscription = subscription;
+        }
+    }
+}
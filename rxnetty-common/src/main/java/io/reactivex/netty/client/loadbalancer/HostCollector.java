@@ -28,7 +28,10 @@ public interface HostCollector {
 
     final class HostUpdate<W, R> {
 
-        public enum Action{ Add, Remove }
+        /**
+         * {@code Refresh} does not have a host and is sent to collectors that are {@link RefreshingHostCollector}.
+         */
+        public enum Action{ Add, Remove, Refresh }
 
         private final Action action;
         private final HostHolder<W, R> hostHolder;
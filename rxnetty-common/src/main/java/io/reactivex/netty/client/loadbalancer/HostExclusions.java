@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.reactivex.netty.client.Host;
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Subscriber;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hosts used by the attempts of a logical request, eg: a hedged or retried request, so that a provider created by
+ * {@link LoadBalancerFactory} selects a host not used by an earlier attempt, for the next attempt.
+ *
+ * Every attempt must be subscribed via {@link #wrap(Observable)}. A {@link LoadBalancerFactory} provider records the
+ * host it selects for a connection request made while subscribing to such an attempt, and excludes the hosts recorded
+ * earlier from the selection. If all hosts are excluded, the host is selected from all hosts.
+ *
+ * Connection requests are made on the thread subscribing to the request, so the exclusions are available to the
+ * provider on that thread for the duration of the subscription.
+ */
+public final class HostExclusions {
+
+    private static final ThreadLocal<HostExclusions> current = new ThreadLocal<>();
+
+    private final Set<Host> hosts = Collections.newSetFromMap(new ConcurrentHashMap<Host, Boolean>());
+
+    /**
+     * Returns an {@link Observable} that subscribes to the passed {@code source} with these exclusions.
+     */
+    public <T> Observable<T> wrap(final Observable<T> source) {
+        return Observable.create(new OnSubscribe<T>() {
+            @Override
+            public void call(Subscriber<? super T> subscriber) {
+                final HostExclusions previous = current.get();
+                current.set(HostExclusions.this);
+                try {
+                    source.unsafeSubscribe(subscriber);
+                } finally {
+                    if (null == previous) {
+                        current.remove();
+                    } else {
+                        current.set(previous);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the hosts used so far, which are excluded for the next attempt.
+     */
+    public Set<Host> getHosts() {
+        return Collections.unmodifiableSet(hosts);
+    }
+
+    void add(Host host) {
+        hosts.add(host);
+    }
+
+    boolean isExcluded(Host host) {
+        return hosts.contains(host);
+    }
+
+    boolean isEmpty() {
+        return hosts.isEmpty();
+    }
+
+    static HostExclusions current() {
+        return current.get();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.reactivex.netty.client.Host;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Successes and failures of a host, used for outlier detection. See {@link OutlierDetectionConfig}.
+ */
+public final class HostHealth {
+
+    private final Host host;
+    private final OutlierEjector<?, ?> ejector;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong intervalSuccesses = new AtomicLong();
+    private final AtomicLong intervalFailures = new AtomicLong();
+
+    /*Guarded by the ejector*/
+    private boolean ejected;
+    private int ejectionCount;
+    private long addedBackTimeMillis = Long.MIN_VALUE;
+
+    HostHealth(Host host, OutlierEjector<?, ?> ejector) {
+        this.host = host;
+        this.ejector = ejector;
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        intervalSuccesses.incrementAndGet();
+    }
+
+    public void recordFailure() {
+        intervalFailures.incrementAndGet();
+        if (consecutiveFailures.incrementAndGet() == ejector.getConsecutiveFailuresThreshold()) {
+            ejector.eject(this);
+        }
+    }
+
+    public Host getHost() {
+        return host;
+    }
+
+    public boolean isEjected() {
+        synchronized (ejector) {
+            return ejected;
+        }
+    }
+
+    boolean isEjectedUnsafe() {
+        return ejected;
+    }
+
+    int getEjectionCount() {
+        return ejectionCount;
+    }
+
+    long getAddedBackTimeMillis() {
+        return addedBackTimeMillis;
+    }
+
+    void eject() {
+        ejected = true;
+        ejectionCount++;
+    }
+
+    void addBack(long nowMillis) {
+        ejected = false;
+        addedBackTimeMillis = nowMillis;
+        consecutiveFailures.set(0);
+    }
+
+    void resetConsecutiveFailures() {
+        consecutiveFailures.set(0);
+    }
+
+    void onHealthyInterval() {
+        if (ejectionCount > 0) {
+            ejectionCount--;
+        }
+    }
+
+    long getIntervalSuccesses() {
+        return intervalSuccesses.get();
+    }
+
+    long getIntervalFailures() {
+        return intervalFailures.get();
+    }
+
+    void resetInterval() {
+        intervalSuccesses.set(0);
+        intervalFailures.set(0);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.events.ClientEventListener;
+import io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategy.OutstandingRequestsListener;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A power of two choices strategy that picks the host with the least outstanding requests out of two randomly chosen
+ * hosts. This is a constant time approximation of picking the least loaded host amongst all hosts, which does not
+ * suffer from all clients herding to the same least loaded host.
+ *
+ * Outstanding requests for a host are the connections borrowed from the pool of that host and not yet released, as
+ * a connection is used for a single request at a time. So, this strategy requires pooled connections for the hosts,
+ * without a pool, all hosts are equally loaded and the selection is random.
+ *
+ * This is a good fit for homogeneous hosts where the latency is not a differentiator.
+ */
+public class LeastOutstandingRequestsStrategy<W, R> extends AbstractP2CStrategy<W, R, OutstandingRequestsListener> {
+
+    @Override
+    protected OutstandingRequestsListener newListener(Host host) {
+        return new OutstandingRequestsListener();
+    }
+
+    @Override
+    protected double getWeight(OutstandingRequestsListener listener) {
+        /*Higher weight is preferred*/
+        return 1.0 / (listener.getOutstandingRequests() + 1);
+    }
+
+    public static class OutstandingRequestsListener extends ClientEventListener {
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        public int getOutstandingRequests() {
+            return Math.max(outstanding.get(), 0);
+        }
+
+        @Override
+        public void onPoolAcquireSuccess(long duration, TimeUnit timeUnit) {
+            outstanding.incrementAndGet();
+        }
+
+        @Override
+        public void onPoolReleaseStart() {
+            outstanding.decrementAndGet();
+        }
+    }
+}
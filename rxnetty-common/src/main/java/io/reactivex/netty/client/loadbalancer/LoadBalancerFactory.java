@@ -20,6 +20,7 @@ package io.reactivex.netty.client.loadbalancer;
 import io.reactivex.netty.channel.Connection;
 import io.reactivex.netty.client.ConnectionProvider;
 import io.reactivex.netty.client.ConnectionProviderFactory;
+import io.reactivex.netty.client.Host;
 import io.reactivex.netty.client.HostConnector;
 import io.reactivex.netty.client.loadbalancer.HostCollector.HostUpdate;
 import io.reactivex.netty.client.loadbalancer.HostCollector.HostUpdate.Action;
@@ -28,10 +29,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rx.Observable;
 import rx.Single;
+import rx.functions.Action0;
 import rx.functions.Action1;
 import rx.functions.Func1;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class LoadBalancerFactory<W, R> implements ConnectionProviderFactory<W, R> {
 
@@ -39,20 +45,29 @@ public class LoadBalancerFactory<W, R> implements ConnectionProviderFactory<W, R
 
     private final LoadBalancingStrategy<W, R> strategy;
     private final HostCollector collector;
+    private final OutlierDetectionConfig outlierDetection;
 
-    private LoadBalancerFactory(LoadBalancingStrategy<W, R> strategy, HostCollector collector) {
+    private LoadBalancerFactory(LoadBalancingStrategy<W, R> strategy, HostCollector collector,
+                                OutlierDetectionConfig outlierDetection) {
         this.strategy = strategy;
         this.collector = collector;
+        this.outlierDetection = outlierDetection;
     }
 
     @Override
     public ConnectionProvider<W, R> newProvider(Observable<HostConnector<W, R>> hosts) {
 
-        return new ConnectionProviderImpl(hosts.map(new Func1<HostConnector<W, R>, HostHolder<W, R>>() {
+        final OutlierEjector<W, R> ejector = null == outlierDetection ? null
+                                                                     : new OutlierEjector<W, R>(outlierDetection);
+
+        Observable<HostUpdate<W, R>> updates = hosts.map(new Func1<HostConnector<W, R>, HostHolder<W, R>>() {
             @Override
             public HostHolder<W, R> call(HostConnector<W, R> connector) {
-                HostHolder<W, R> newHolder = strategy.toHolder(connector);
+                HostHolder<W, R> newHolder = strategy.toHolder(recordSelection(connector));
                 connector.subscribe(newHolder.getEventListener());
+                if (null != ejector) {
+                    connector.subscribe(outlierDetection.getListenerFactory().call(ejector.newHealth(newHolder)));
+                }
                 return newHolder;
             }
         }).flatMap(new Func1<HostHolder<W, R>, Observable<HostUpdate<W, R>>>() {
@@ -67,7 +82,34 @@ public class LoadBalancerFactory<W, R> implements ConnectionProviderFactory<W, R
                              .concatWith(Observable.just(new HostUpdate<>(Action.Remove, holder)))
                              .mergeWith(Observable.just(new HostUpdate<>(Action.Add, holder)));
             }
-        }).flatMap(newCollector(collector.<W, R>newCollector()), 1).distinctUntilChanged());
+        });
+
+        if (collector instanceof RefreshingHostCollector) {
+            final Observable<HostUpdate<W, R>> refreshes =
+                    ((RefreshingHostCollector) collector).getRefreshTicker()
+                                                         .map(new Func1<Long, HostUpdate<W, R>>() {
+                                                             @Override
+                                                             public HostUpdate<W, R> call(Long tick) {
+                                                                 return new HostUpdate<>(Action.Refresh, null);
+                                                             }
+                                                         });
+            /*The ticker never completes, so it is stopped when the host updates terminate.*/
+            updates = updates.publish(new Func1<Observable<HostUpdate<W, R>>, Observable<HostUpdate<W, R>>>() {
+                @Override
+                public Observable<HostUpdate<W, R>> call(Observable<HostUpdate<W, R>> hostUpdates) {
+                    return hostUpdates.mergeWith(refreshes.takeUntil(hostUpdates.ignoreElements()));
+                }
+            });
+        }
+
+        return new ConnectionProviderImpl(updates.doOnNext(new Action1<HostUpdate<W, R>>() {
+            @Override
+            public void call(HostUpdate<W, R> update) {
+                if (null != ejector && update.getAction() == Action.Remove) {
+                    ejector.remove(update.getHostHolder());
+                }
+            }
+        }).flatMap(newCollector(collector.<W, R>newCollector()), 1).distinctUntilChanged(), ejector);
     }
 
     public static <WW, RR> LoadBalancerFactory<WW, RR> create(LoadBalancingStrategy<WW, RR> strategy) {
@@ -76,7 +118,22 @@ public class LoadBalancerFactory<W, R> implements ConnectionProviderFactory<W, R
 
     public static <WW, RR> LoadBalancerFactory<WW, RR> create(LoadBalancingStrategy<WW, RR> strategy,
                                                               HostCollector collector) {
-        return new LoadBalancerFactory<>(strategy, collector);
+        return new LoadBalancerFactory<>(strategy, collector, null);
+    }
+
+    /**
+     * Creates a factory that ejects outlier hosts, as configured by the passed {@link OutlierDetectionConfig}, from
+     * the hosts used by the passed strategy.
+     */
+    public static <WW, RR> LoadBalancerFactory<WW, RR> create(LoadBalancingStrategy<WW, RR> strategy,
+                                                              OutlierDetectionConfig outlierDetection) {
+        return create(strategy, new NoBufferHostCollector(), outlierDetection);
+    }
+
+    public static <WW, RR> LoadBalancerFactory<WW, RR> create(LoadBalancingStrategy<WW, RR> strategy,
+                                                              HostCollector collector,
+                                                              OutlierDetectionConfig outlierDetection) {
+        return new LoadBalancerFactory<>(strategy, collector, outlierDetection);
     }
 
     private class ConnectionProviderImpl implements ConnectionProvider<W, R> {
@@ -88,24 +145,186 @@ public class LoadBalancerFactory<W, R> implements ConnectionProviderFactory<W, R
             }
         };
 
-        public ConnectionProviderImpl(Observable<List<HostHolder<W, R>>> hosts) {
+        /*Hosts used by currentProvider and providers for these hosts without the hosts excluded by a request.*/
+        private volatile ExcludingProviders excludingProviders = new ExcludingProviders(
+                Collections.<HostHolder<W, R>>emptyList());
+
+        /*Provider without the hosts in slow start, null if no host is in slow start.*/
+        private volatile ConnectionProvider<W, R> warmedUpProvider;
+        private volatile long slowStartBeginMillis;
+        private final OutlierEjector<W, R> ejector;
+        private List<HostHolder<W, R>> hosts = Collections.emptyList(); // Guarded by this
+
+        public ConnectionProviderImpl(Observable<List<HostHolder<W, R>>> hosts, final OutlierEjector<W, R> ejector) {
+            this.ejector = ejector;
+            if (null != ejector) {
+                ejector.setChangeListener(new Action0() {
+                    @Override
+                    public void call() {
+                        refresh();
+                    }
+                });
+            }
+
             hosts.subscribe(new Action1<List<HostHolder<W, R>>>() {
                 @Override
                 public void call(List<HostHolder<W, R>> hostHolders) {
-                    currentProvider = strategy.newStrategy(hostHolders);
+                    if (null == ejector) {
+                        currentProvider = strategy.newStrategy(hostHolders);
+                        excludingProviders = new ExcludingProviders(hostHolders);
+                    } else {
+                        refresh(hostHolders);
+                    }
                 }
             }, new Action1<Throwable>() {
                 @Override
                 public void call(Throwable throwable) {
                     logger.error("Error while listening on the host stream. Hosts will not be refreshed.", throwable);
+                    if (null != ejector) {
+                        ejector.shutdown();
+                    }
+                }
+            }, new Action0() {
+                @Override
+                public void call() {
+                    if (null != ejector) {
+                        ejector.shutdown();
+                    }
                 }
             });
         }
 
         @Override
         public Observable<Connection<R, W>> newConnectionRequest() {
+            final HostExclusions exclusions = HostExclusions.current();
+            if (null != exclusions && !exclusions.isEmpty()) {
+                final ConnectionProvider<W, R> excluding = excludingProviders.get(exclusions);
+                if (null != excluding) {
+                    return excluding.newConnectionRequest();
+                }
+            }
+
+            final ConnectionProvider<W, R> warmedUp = warmedUpProvider;
+            /*A host in slow start gets a share of traffic proportional to the elapsed slow start window.*/
+            if (null != warmedUp
+                && ThreadLocalRandom.current().nextDouble() >= ejector.getSlowStartProgress(slowStartBeginMillis)) {
+                return warmedUp.newConnectionRequest();
+            }
             return currentProvider.newConnectionRequest();
         }
+
+        private synchronized void refresh(List<HostHolder<W, R>> newHosts) {
+            hosts = newHosts;
+            refresh();
+        }
+
+        private synchronized void refresh() {
+            final List<HostHolder<W, R>> usable = ejector.getUsableHosts(hosts);
+            final List<HostHolder<W, R>> warmedUp = ejector.getWarmedUpHosts(usable);
+
+            currentProvider = strategy.newStrategy(usable);
+            excludingProviders = new ExcludingProviders(usable);
+            if (warmedUp.isEmpty() || warmedUp.size() == usable.size()) {
+                warmedUpProvider = null;
+            } else {
+                slowStartBeginMillis = ejector.getSlowStartBeginMillis(usable);
+                warmedUpProvider = strategy.newStrategy(warmedUp);
+            }
+        }
+    }
+
+    /**
+     * Providers for the hosts of a provider without the hosts excluded by a request, created on demand. Attempts with
+     * exclusions are rare (hedges and retries), and exclude the few hosts used by earlier attempts, so only a few
+     * providers are created for a set of hosts.
+     */
+    private class ExcludingProviders {
+
+        private static final int MAX_PROVIDERS = 64;
+
+        private final List<HostHolder<W, R>> hosts;
+        private final ConcurrentHashMap<List<HostHolder<W, R>>, ConnectionProvider<W, R>> providers =
+                new ConcurrentHashMap<>();
+
+        private ExcludingProviders(List<HostHolder<W, R>> hosts) {
+            this.hosts = hosts;
+        }
+
+        /**
+         * Returns the provider without the excluded hosts, {@code null} if no host or all hosts are excluded.
+         */
+        private ConnectionProvider<W, R> get(HostExclusions exclusions) {
+            final List<HostHolder<W, R>> remaining = new ArrayList<>(hosts.size());
+            for (HostHolder<W, R> host : hosts) {
+                if (!exclusions.isExcluded(host.getConnector().getHost())) {
+                    remaining.add(host);
+                }
+            }
+
+            if (remaining.isEmpty() || remaining.size() == hosts.size()) {
+                return null;
+            }
+
+            ConnectionProvider<W, R> provider = providers.get(remaining);
+            if (null == provider) {
+                if (providers.size() >= MAX_PROVIDERS) {
+                    providers.clear();
+                }
+                provider = strategy.newStrategy(remaining);
+                ConnectionProvider<W, R> existing = providers.putIfAbsent(remaining, provider);
+                provider = null == existing ? provider : existing;
+            }
+            return provider;
+        }
+    }
+
+    /**
+     * Records the host of the passed connector in the {@link HostExclusions} of a request, when the host is selected.
+     */
+    private static <W, R> HostConnector<W, R> recordSelection(HostConnector<W, R> connector) {
+        return new HostConnector<>(connector, new SelectionRecorder<>(connector.getHost(),
+                                                                      connector.getConnectionProvider()));
+    }
+
+    /**
+     * Equal for the same host and provider, so that the holders for a duplicate host are equal.
+     */
+    private static final class SelectionRecorder<W, R> implements ConnectionProvider<W, R> {
+
+        private final Host host;
+        private final ConnectionProvider<W, R> delegate;
+
+        private SelectionRecorder(Host host, ConnectionProvider<W, R> delegate) {
+            this.host = host;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Observable<Connection<R, W>> newConnectionRequest() {
+            final HostExclusions exclusions = HostExclusions.current();
+            if (null != exclusions) {
+                exclusions.add(host);
+            }
+            return delegate.newConnectionRequest();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SelectionRecorder)) {
+                return false;
+            }
+
+            SelectionRecorder<?, ?> that = (SelectionRecorder<?, ?>) o;
+            return host.equals(that.host) && delegate.equals(that.delegate);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * host.hashCode() + delegate.hashCode();
+        }
     }
 
     private Func1<? super HostUpdate<W, R>, ? extends Observable<List<HostHolder<W, R>>>>
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ConnectionProvider;
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.HostConnector;
+import io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategy.OutstandingRequestsListener;
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Func0;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A consistent hashing strategy using a Maglev lookup table, that always selects the same host for the same key, as
+ * long as the host is available. This is useful for sharded caches, where spreading the same key across hosts reduces
+ * the hit rate. When a host is added or removed, only the keys of that host move to other hosts (and a small number of
+ * other keys, as the table entries are rebalanced).
+ *
+ * <h2>Key</h2>
+ *
+ * The key for a connection request is provided by a {@link Func0}, invoked on the thread requesting the connection, eg:
+ * a thread local set by the caller before subscribing to the request. A {@code null} key selects a random host.
+ *
+ * <h2>Bounded load</h2>
+ *
+ * A host can serve at most {@code loadFactor} times the average outstanding requests across all hosts. When the host
+ * for a key is over this limit, the next hosts in the lookup table are tried, so that a hot key spills over to other
+ * hosts, instead of overloading its host. Outstanding requests are counted the same way as
+ * {@link LeastOutstandingRequestsStrategy}.
+ *
+ * The lookup table is built when the hosts change, reusing the permutation of every host that is computed once when
+ * the host is added. The table is not patched incrementally, as the slots claimed by every host depend on the turns
+ * taken by all hosts, so only a full build gives the same table for the same hosts, irrespective of the order in which
+ * hosts were added or removed. A build for the same hosts as the last build reuses the last table.
+ */
+public class MaglevHashStrategy<W, R> implements LoadBalancingStrategy<W, R> {
+
+    public static final int DEFAULT_TABLE_SIZE = 65537;
+    public static final double DEFAULT_LOAD_FACTOR = 1.25;
+
+    private final Func0<?> keySupplier;
+    private final int tableSize;
+    private final double loadFactor;
+    private final AtomicInteger totalOutstanding = new AtomicInteger();
+    private volatile LookupTable lastTable;
+
+    public MaglevHashStrategy(Func0<?> keySupplier) {
+        this(keySupplier, DEFAULT_TABLE_SIZE, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a new strategy.
+     *
+     * @param keySupplier Supplier of the key for a connection request.
+     * @param tableSize Size of the lookup table, must be a prime and much larger than the number of hosts.
+     * @param loadFactor Maximum outstanding requests for a host, as a multiple of the average across hosts. Must be at
+     * least {@code 1}, {@link Double#POSITIVE_INFINITY} disables bounded load.
+     */
+    public MaglevHashStrategy(Func0<?> keySupplier, int tableSize, double loadFactor) {
+        if (!BigInteger.valueOf(tableSize).isProbablePrime(32)) {
+            throw new IllegalArgumentException("Table size must be a prime. Provided: " + tableSize);
+        }
+        if (loadFactor < 1.0) {
+            throw new IllegalArgumentException("Load factor must be at least 1. Provided: " + loadFactor);
+        }
+        this.keySupplier = keySupplier;
+        this.tableSize = tableSize;
+        this.loadFactor = loadFactor;
+    }
+
+    @Override
+    public ConnectionProvider<W, R> newStrategy(final List<HostHolder<W, R>> hosts) {
+        if (hosts.isEmpty()) {
+            return new ConnectionProvider<W, R>() {
+                @Override
+                public Observable<Connection<R, W>> newConnectionRequest() {
+                    return Observable.error(NoHostsAvailableException.EMPTY_INSTANCE);
+                }
+            };
+        }
+
+        final List<HostHolder<W, R>> sorted = new ArrayList<>(hosts);
+        /*Table depends on the order of hosts, so a stable order gives the same table for the same hosts.*/
+        Collections.sort(sorted, new Comparator<HostHolder<W, R>>() {
+            @Override
+            public int compare(HostHolder<W, R> h1, HostHolder<W, R> h2) {
+                return getListener(h1).name.compareTo(getListener(h2).name);
+            }
+        });
+        final int[] table = getTable(sorted);
+
+        return new ConnectionProvider<W, R>() {
+            @Override
+            public Observable<Connection<R, W>> newConnectionRequest() {
+                return sorted.get(select(sorted, table)).getConnector().getConnectionProvider().newConnectionRequest();
+            }
+        };
+    }
+
+    @Override
+    public HostHolder<W, R> toHolder(HostConnector<W, R> connector) {
+        final HostListener listener = new HostListener(connector.getHost(), tableSize, totalOutstanding);
+        /*Requests in flight on a removed host must not count towards the average of the remaining hosts.*/
+        connector.getHost()
+                 .getCloseNotifier()
+                 .onErrorResumeNext(Observable.<Void>empty())
+                 .doOnCompleted(new Action0() {
+                     @Override
+                     public void call() {
+                         listener.onHostRemoved();
+                     }
+                 })
+                 .subscribe();
+        return new HostHolder<>(connector, listener);
+    }
+
+    /*Visible for testing*/ int select(List<HostHolder<W, R>> hosts, int[] table) {
+        final Object key = keySupplier.call();
+        int slot = null == key ? ThreadLocalRandom.current().nextInt(tableSize) : slot(key.hashCode());
+        final int selected = table[slot];
+
+        if (Double.isInfinite(loadFactor) || hosts.size() == 1) {
+            return selected;
+        }
+
+        final double bound = Math.ceil(loadFactor * (totalOutstanding.get() + 1) / hosts.size());
+        int candidate = selected;
+        for (int i = 0; i < tableSize; i++) {
+            if (getListener(hosts.get(candidate)).getOutstandingRequests() < bound) {
+                return candidate;
+            }
+            slot = slot + 1 == tableSize ? 0 : slot + 1;
+            candidate = table[slot];
+        }
+
+        /*Counts raced with the selection, stick with the host for the key.*/
+        return selected;
+    }
+
+    private int[] getTable(List<HostHolder<W, R>> hosts) {
+        final HostListener[] listeners = new HostListener[hosts.size()];
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i] = getListener(hosts.get(i));
+        }
+
+        final LookupTable last = lastTable;
+        if (null != last && Arrays.equals(last.listeners, listeners)) {
+            return last.table;
+        }
+
+        final int[] table = newTable(hosts);
+        lastTable = new LookupTable(listeners, table);
+        return table;
+    }
+
+    /*Visible for testing*/ int[] newTable(List<HostHolder<W, R>> hosts) {
+        final int[] table = new int[tableSize];
+        final long[] next = new long[hosts.size()];
+        final HostListener[] listeners = new HostListener[hosts.size()];
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i] = getListener(hosts.get(i));
+        }
+
+        Arrays.fill(table, -1);
+        int filled = 0;
+        /*Every host, in turns, claims its next preferred slot that is not yet claimed, till the table is full.*/
+        while (true) {
+            for (int i = 0; i < listeners.length; i++) {
+                int slot = listeners[i].slot(next[i]++);
+                while (table[slot] >= 0) {
+                    slot = listeners[i].slot(next[i]++);
+                }
+                table[slot] = i;
+                if (++filled == tableSize) {
+                    return table;
+                }
+            }
+        }
+    }
+
+    private int slot(int hash) {
+        return (int) ((mix(hash) & Long.MAX_VALUE) % tableSize);
+    }
+
+    private static HostListener getListener(HostHolder<?, ?> holder) {
+        return (HostListener) holder.getEventListener();
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static long hash(String name, long seed) {
+        long h = seed;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + name.charAt(i);
+        }
+        return mix(h);
+    }
+
+    private static final class LookupTable {
+
+        private final HostListener[] listeners;
+        private final int[] table;
+
+        private LookupTable(HostListener[] listeners, int[] table) {
+            this.listeners = listeners;
+            this.table = table;
+        }
+    }
+
+    /**
+     * Listener for a host, holding the permutation of the lookup table slots preferred by the host and the
+     * outstanding requests.
+     */
+    private static final class HostListener extends OutstandingRequestsListener {
+
+        private final String name;
+        private final long offset;
+        private final long skip;
+        private final int tableSize;
+        private final AtomicInteger totalOutstanding;
+        private boolean removed; // Guarded by this
+
+        private HostListener(Host host, int tableSize, AtomicInteger totalOutstanding) {
+            this.tableSize = tableSize;
+            this.totalOutstanding = totalOutstanding;
+            name = String.valueOf(host.getHost());
+            offset = (hash(name, 0xcbf29ce484222325L) & Long.MAX_VALUE) % tableSize;
+            skip = (hash(name, 0x100000001b3L) & Long.MAX_VALUE) % (tableSize - 1) + 1;
+        }
+
+        private int slot(long index) {
+            return (int) ((offset + index % tableSize * skip) % tableSize);
+        }
+
+        @Override
+        public synchronized void onPoolAcquireSuccess(long duration, TimeUnit timeUnit) {
+            super.onPoolAcquireSuccess(duration, timeUnit);
+            if (!removed) {
+                totalOutstanding.incrementAndGet();
+            }
+        }
+
+        @Override
+        public synchronized void onPoolReleaseStart() {
+            super.onPoolReleaseStart();
+            if (!removed) {
+                totalOutstanding.decrementAndGet();
+            }
+        }
+
+        private synchronized void onHostRemoved() {
+            if (!removed) {
+                removed = true;
+                totalOutstanding.addAndGet(-getOutstandingRequests());
+            }
+        }
+    }
+}
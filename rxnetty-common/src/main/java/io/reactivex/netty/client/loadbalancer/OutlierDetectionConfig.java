@@ -0,0 +1,201 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.reactivex.netty.client.events.ClientEventListener;
+import rx.Scheduler;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A configuration for detecting outlier hosts in a {@link LoadBalancerFactory}. An outlier host is taken out of the
+ * list of hosts given to the {@link LoadBalancingStrategy}, i.e. ejected, when either:
+ *
+ * <ul>
+ * <li>It fails {@link #consecutiveFailures(int)} times in a row.</li>
+ * <li>Its success rate in an interval is lower than the mean success rate across all hosts by more than
+ * {@link #successRateStdevFactor(double)} times the standard deviation.</li>
+ * </ul>
+ *
+ * An ejected host is added back after {@link #baseEjectionTime(long, TimeUnit)}, which doubles every time the host is
+ * ejected again, upto {@link #maxEjectionTime(long, TimeUnit)}. A host added back starts with a fraction of its share
+ * of traffic, which grows linearly to a full share over {@link #slowStartWindow(long, TimeUnit)}.
+ *
+ * What is a success or failure for a host is determined by the listener created by
+ * {@link #listenerFactory(Func1)}, which by default, only considers connect successes and failures.
+ */
+public class OutlierDetectionConfig {
+
+    public static final int DEFAULT_CONSECUTIVE_FAILURES = 5;
+    public static final long DEFAULT_BASE_EJECTION_TIME_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final long DEFAULT_MAX_EJECTION_TIME_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    public static final int DEFAULT_MAX_EJECTION_PERCENT = 50;
+    public static final long DEFAULT_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    public static final int DEFAULT_SUCCESS_RATE_MIN_REQUESTS = 100;
+    public static final int DEFAULT_SUCCESS_RATE_MIN_HOSTS = 3;
+    public static final double DEFAULT_SUCCESS_RATE_STDEV_FACTOR = 1.9;
+    public static final long DEFAULT_SLOW_START_WINDOW_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private int consecutiveFailures;
+    private long baseEjectionTimeMillis;
+    private long maxEjectionTimeMillis;
+    private int maxEjectionPercent;
+    private long intervalMillis;
+    private int successRateMinRequests;
+    private int successRateMinHosts;
+    private double successRateStdevFactor;
+    private long slowStartWindowMillis;
+    private Scheduler scheduler;
+    private Func1<HostHealth, ? extends ClientEventListener> listenerFactory;
+
+    public OutlierDetectionConfig() {
+        consecutiveFailures = DEFAULT_CONSECUTIVE_FAILURES;
+        baseEjectionTimeMillis = DEFAULT_BASE_EJECTION_TIME_MILLIS;
+        maxEjectionTimeMillis = DEFAULT_MAX_EJECTION_TIME_MILLIS;
+        maxEjectionPercent = DEFAULT_MAX_EJECTION_PERCENT;
+        intervalMillis = DEFAULT_INTERVAL_MILLIS;
+        successRateMinRequests = DEFAULT_SUCCESS_RATE_MIN_REQUESTS;
+        successRateMinHosts = DEFAULT_SUCCESS_RATE_MIN_HOSTS;
+        successRateStdevFactor = DEFAULT_SUCCESS_RATE_STDEV_FACTOR;
+        slowStartWindowMillis = DEFAULT_SLOW_START_WINDOW_MILLIS;
+        scheduler = Schedulers.computation();
+        listenerFactory = OutlierDetectionListener.factory();
+    }
+
+    /**
+     * Number of consecutive failures after which a host is ejected. Zero disables ejection on consecutive failures.
+     */
+    public OutlierDetectionConfig consecutiveFailures(int consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+        return this;
+    }
+
+    public OutlierDetectionConfig baseEjectionTime(long ejectionTime, TimeUnit timeUnit) {
+        baseEjectionTimeMillis = timeUnit.toMillis(ejectionTime);
+        return this;
+    }
+
+    public OutlierDetectionConfig maxEjectionTime(long ejectionTime, TimeUnit timeUnit) {
+        maxEjectionTimeMillis = timeUnit.toMillis(ejectionTime);
+        return this;
+    }
+
+    /**
+     * Maximum percentage of hosts that can be ejected at any time. The last host is never ejected.
+     */
+    public OutlierDetectionConfig maxEjectionPercent(int maxEjectionPercent) {
+        this.maxEjectionPercent = maxEjectionPercent;
+        return this;
+    }
+
+    /**
+     * Interval over which the success rates of hosts are compared.
+     */
+    public OutlierDetectionConfig interval(long interval, TimeUnit timeUnit) {
+        intervalMillis = timeUnit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * Minimum requests in an interval for a host to be considered for success rate based ejection.
+     */
+    public OutlierDetectionConfig successRateMinRequests(int successRateMinRequests) {
+        this.successRateMinRequests = successRateMinRequests;
+        return this;
+    }
+
+    /**
+     * Minimum hosts with {@link #successRateMinRequests(int)} in an interval, for the success rates to be compared.
+     */
+    public OutlierDetectionConfig successRateMinHosts(int successRateMinHosts) {
+        this.successRateMinHosts = successRateMinHosts;
+        return this;
+    }
+
+    public OutlierDetectionConfig successRateStdevFactor(double successRateStdevFactor) {
+        this.successRateStdevFactor = successRateStdevFactor;
+        return this;
+    }
+
+    public OutlierDetectionConfig slowStartWindow(long window, TimeUnit timeUnit) {
+        slowStartWindowMillis = timeUnit.toMillis(window);
+        return this;
+    }
+
+    /**
+     * Scheduler used for the success rate intervals and for adding back ejected hosts.
+     */
+    public OutlierDetectionConfig scheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Factory for the listener subscribed to the events of every host, that records successes and failures on the
+     * passed {@link HostHealth}.
+     */
+    public OutlierDetectionConfig listenerFactory(Func1<HostHealth, ? extends ClientEventListener> listenerFactory) {
+        this.listenerFactory = listenerFactory;
+        return this;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public long getBaseEjectionTimeMillis() {
+        return baseEjectionTimeMillis;
+    }
+
+    public long getMaxEjectionTimeMillis() {
+        return maxEjectionTimeMillis;
+    }
+
+    public int getMaxEjectionPercent() {
+        return maxEjectionPercent;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public int getSuccessRateMinRequests() {
+        return successRateMinRequests;
+    }
+
+    public int getSuccessRateMinHosts() {
+        return successRateMinHosts;
+    }
+
+    public double getSuccessRateStdevFactor() {
+        return successRateStdevFactor;
+    }
+
+    public long getSlowStartWindowMillis() {
+        return slowStartWindowMillis;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public Func1<HostHealth, ? extends ClientEventListener> getListenerFactory() {
+        return listenerFactory;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.reactivex.netty.client.events.ClientEventListener;
+import rx.functions.Func1;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default listener for outlier detection, that records connect successes and failures of a host. Protocols can provide
+ * listeners that also record request failures, using {@link OutlierDetectionConfig#listenerFactory(Func1)}.
+ */
+public class OutlierDetectionListener extends ClientEventListener {
+
+    private final HostHealth health;
+
+    public OutlierDetectionListener(HostHealth health) {
+        this.health = health;
+    }
+
+    @Override
+    public void onConnectSuccess(long duration, TimeUnit timeUnit) {
+        health.recordSuccess();
+    }
+
+    @Override
+    public void onConnectFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        health.recordFailure();
+    }
+
+    public static Func1<HostHealth, ClientEventListener> factory() {
+        return new Func1<HostHealth, ClientEventListener>() {
+            @Override
+            public ClientEventListener call(HostHealth health) {
+                return new OutlierDetectionListener(health);
+            }
+        };
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import rx.Scheduler.Worker;
+import rx.functions.Action0;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the {@link HostHealth} of all hosts of a {@link LoadBalancerFactory} provider and ejects outliers as
+ * configured by {@link OutlierDetectionConfig}.
+ *
+ * Any change in the ejected hosts or hosts in slow start is notified to a listener, which is never invoked while
+ * holding the lock of this ejector.
+ *
+ * The periodic success rate evaluation only holds a weak reference to the ejector, so that the task is cancelled once
+ * the provider using the ejector is not referenced anymore, even if the host stream of the provider never terminates.
+ */
+class OutlierEjector<W, R> {
+
+    private final OutlierDetectionConfig config;
+    private final Worker worker;
+    private final ConcurrentHashMap<HostHolder<W, R>, HostHealth> healths = new ConcurrentHashMap<>();
+    private volatile Action0 changeListener;
+
+    OutlierEjector(OutlierDetectionConfig config) {
+        this.config = config;
+        worker = config.getScheduler().createWorker();
+        if (config.getIntervalMillis() > 0) {
+            worker.schedulePeriodically(new EvaluationTask(this, worker), config.getIntervalMillis(),
+                                        config.getIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void setChangeListener(Action0 changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    HostHealth newHealth(HostHolder<W, R> holder) {
+        HostHealth health = new HostHealth(holder.getConnector().getHost(), this);
+        healths.put(holder, health);
+        return health;
+    }
+
+    void remove(HostHolder<W, R> holder) {
+        healths.remove(holder);
+    }
+
+    void shutdown() {
+        worker.unsubscribe();
+    }
+
+    int getConsecutiveFailuresThreshold() {
+        return config.getConsecutiveFailures();
+    }
+
+    void eject(final HostHealth health) {
+        synchronized (this) {
+            if (health.isEjectedUnsafe() || !healths.containsValue(health)) {
+                health.resetConsecutiveFailures();
+                return;
+            }
+
+            int ejected = 0;
+            for (HostHealth h : healths.values()) {
+                if (h.isEjectedUnsafe()) {
+                    ejected++;
+                }
+            }
+
+            if ((ejected + 1) * 100 > healths.size() * config.getMaxEjectionPercent()) {
+                /*Count afresh, so that the host is ejected on the next run of failures, if allowed then.*/
+                health.resetConsecutiveFailures();
+                return;
+            }
+
+            health.eject();
+            final int backoff = Math.min(health.getEjectionCount() - 1, 20);
+            final long ejectionTime = Math.min(config.getBaseEjectionTimeMillis() << backoff,
+                                               config.getMaxEjectionTimeMillis());
+            worker.schedule(new Action0() {
+                @Override
+                public void call() {
+                    addBack(health);
+                }
+            }, ejectionTime, TimeUnit.MILLISECONDS);
+        }
+
+        notifyChange();
+    }
+
+    synchronized List<HostHolder<W, R>> getUsableHosts(List<HostHolder<W, R>> hosts) {
+        List<HostHolder<W, R>> usable = new ArrayList<>(hosts.size());
+        for (HostHolder<W, R> host : hosts) {
+            HostHealth health = healths.get(host);
+            if (null == health || !health.isEjectedUnsafe()) {
+                usable.add(host);
+            }
+        }
+        return usable;
+    }
+
+    synchronized List<HostHolder<W, R>> getWarmedUpHosts(List<HostHolder<W, R>> hosts) {
+        final long now = worker.now();
+        List<HostHolder<W, R>> warmedUp = new ArrayList<>(hosts.size());
+        for (HostHolder<W, R> host : hosts) {
+            HostHealth health = healths.get(host);
+            if (null == health || !isInSlowStart(health, now)) {
+                warmedUp.add(host);
+            }
+        }
+        return warmedUp;
+    }
+
+    /**
+     * Returns the time, the latest host in slow start amongst the passed hosts, was added back.
+     */
+    synchronized long getSlowStartBeginMillis(List<HostHolder<W, R>> hosts) {
+        final long now = worker.now();
+        long begin = Long.MIN_VALUE;
+        for (HostHolder<W, R> host : hosts) {
+            HostHealth health = healths.get(host);
+            if (null != health && isInSlowStart(health, now)) {
+                begin = Math.max(begin, health.getAddedBackTimeMillis());
+            }
+        }
+        return begin;
+    }
+
+    /**
+     * Returns the fraction of the slow start window elapsed since the passed time.
+     */
+    double getSlowStartProgress(long slowStartBeginMillis) {
+        return (double) (worker.now() - slowStartBeginMillis) / config.getSlowStartWindowMillis();
+    }
+
+    private boolean isInSlowStart(HostHealth health, long now) {
+        return health.getAddedBackTimeMillis() != Long.MIN_VALUE
+               && now - health.getAddedBackTimeMillis() < config.getSlowStartWindowMillis();
+    }
+
+    private void addBack(HostHealth health) {
+        synchronized (this) {
+            health.addBack(worker.now());
+            if (config.getSlowStartWindowMillis() > 0) {
+                /*Slow start ends after the window.*/
+                worker.schedule(new Action0() {
+                    @Override
+                    public void call() {
+                        notifyChange();
+                    }
+                }, config.getSlowStartWindowMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        notifyChange();
+    }
+
+    private void evaluateSuccessRates() {
+        final List<HostHealth> outliers = new ArrayList<>();
+
+        synchronized (this) {
+            final List<HostHealth> candidates = new ArrayList<>();
+            double sum = 0;
+            for (HostHealth health : healths.values()) {
+                long requests = health.getIntervalSuccesses() + health.getIntervalFailures();
+                if (!health.isEjectedUnsafe() && requests >= config.getSuccessRateMinRequests() && requests > 0) {
+                    candidates.add(health);
+                    sum += successRate(health);
+                }
+            }
+
+            if (!candidates.isEmpty() && candidates.size() >= config.getSuccessRateMinHosts()) {
+                final double mean = sum / candidates.size();
+                double variance = 0;
+                for (HostHealth candidate : candidates) {
+                    double diff = successRate(candidate) - mean;
+                    variance += diff * diff;
+                }
+                final double threshold = mean - config.getSuccessRateStdevFactor()
+                                                 * Math.sqrt(variance / candidates.size());
+                for (HostHealth candidate : candidates) {
+                    if (successRate(candidate) < threshold) {
+                        outliers.add(candidate);
+                    }
+                }
+            }
+
+            for (HostHealth health : healths.values()) {
+                if (!health.isEjectedUnsafe() && health.getIntervalFailures() == 0) {
+                    health.onHealthyInterval();
+                }
+                health.resetInterval();
+            }
+        }
+
+        for (HostHealth outlier : outliers) {
+            eject(outlier);
+        }
+    }
+
+    private void notifyChange() {
+        Action0 listener = changeListener;
+        if (null != listener) {
+            listener.call();
+        }
+    }
+
+    private static double successRate(HostHealth health) {
+        long successes = health.getIntervalSuccesses();
+        return (double) successes / (successes + health.getIntervalFailures());
+    }
+
+    private static final class EvaluationTask implements Action0 {
+
+        private final WeakReference<OutlierEjector<?, ?>> ejector;
+        private final Worker worker;
+
+        private EvaluationTask(OutlierEjector<?, ?> ejector, Worker worker) {
+            this.ejector = new WeakReference<OutlierEjector<?, ?>>(ejector);
+            this.worker = worker;
+        }
+
+        @Override
+        public void call() {
+            OutlierEjector<?, ?> e = ejector.get();
+            if (null == e) {
+                worker.unsubscribe();
+            } else {
+                e.evaluateSuccessRates();
+            }
+        }
+    }
+}
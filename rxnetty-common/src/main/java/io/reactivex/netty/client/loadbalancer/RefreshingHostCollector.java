@@ -0,0 +1,31 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.reactivex.netty.client.loadbalancer.HostCollector.HostUpdate.Action;
+import rx.Observable;
+
+/**
+ * A {@link HostCollector} that can change the collected hosts without any host being added or removed, eg: based on
+ * load. {@link LoadBalancerFactory} sends a {@link HostUpdate} with action {@link Action#Refresh} to the collector,
+ * every time the {@link #getRefreshTicker()} emits.
+ */
+public interface RefreshingHostCollector extends HostCollector {
+
+    Observable<Long> getRefreshTicker();
+
+}
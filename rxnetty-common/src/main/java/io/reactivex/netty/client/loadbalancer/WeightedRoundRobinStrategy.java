@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ConnectionProvider;
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.HostConnector;
+import io.reactivex.netty.client.events.ClientEventListener;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A smooth weighted round robin strategy, i.e. a host with weight {@code n} is selected {@code n} times in every round
+ * and the selections of a host are spread evenly across the round, instead of being consecutive.
+ *
+ * The order of selection for a round is computed once for every change in the hosts, so that a selection is a lookup
+ * in that order, which does not depend on the number of hosts. Since, the size of a round is the sum of all weights
+ * (divided by their greatest common divisor), weights should be small integers. A host with a weight less than one is
+ * never selected.
+ */
+public class WeightedRoundRobinStrategy<W, R> implements LoadBalancingStrategy<W, R> {
+
+    private final Func1<Host, Integer> weightFunction;
+
+    /**
+     * Creates a strategy where all hosts have the same weight, i.e. a plain round robin.
+     */
+    public WeightedRoundRobinStrategy() {
+        this(new Func1<Host, Integer>() {
+            @Override
+            public Integer call(Host host) {
+                return 1;
+            }
+        });
+    }
+
+    /**
+     * Creates a strategy where the weight of every host is provided by the passed function.
+     *
+     * @param weightFunction Function returning the weight of a host.
+     */
+    public WeightedRoundRobinStrategy(Func1<Host, Integer> weightFunction) {
+        this.weightFunction = weightFunction;
+    }
+
+    @Override
+    public ConnectionProvider<W, R> newStrategy(final List<HostHolder<W, R>> hosts) {
+        final int[] schedule = newSchedule(hosts);
+
+        if (schedule.length == 0) {
+            return new ConnectionProvider<W, R>() {
+                @Override
+                public Observable<Connection<R, W>> newConnectionRequest() {
+                    return Observable.error(NoHostsAvailableException.EMPTY_INSTANCE);
+                }
+            };
+        }
+
+        final AtomicInteger next = new AtomicInteger();
+        return new ConnectionProvider<W, R>() {
+            @Override
+            public Observable<Connection<R, W>> newConnectionRequest() {
+                final int pos = (next.getAndIncrement() & Integer.MAX_VALUE) % schedule.length;
+                return hosts.get(schedule[pos]).getConnector().getConnectionProvider().newConnectionRequest();
+            }
+        };
+    }
+
+    @Override
+    public HostHolder<W, R> toHolder(HostConnector<W, R> connector) {
+        return new HostHolder<>(connector, new ClientEventListener());
+    }
+
+    /*Visible for testing*/ int[] newSchedule(List<HostHolder<W, R>> hosts) {
+        final int[] weights = new int[hosts.size()];
+        int gcd = 0;
+        for (int i = 0; i < weights.length; i++) {
+            Integer weight = weightFunction.call(hosts.get(i).getConnector().getHost());
+            weights[i] = null == weight ? 0 : Math.max(weight, 0);
+            gcd = gcd(gcd, weights[i]);
+        }
+
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (gcd > 1) {
+                weights[i] /= gcd;
+            }
+            total += weights[i];
+        }
+
+        /*Every selection, adds the weight of every host to its current value, selects the host with the maximum current
+        value and reduces the current value of the selected host by the total. This spreads the selections of a host
+        evenly across the round.*/
+        final int[] schedule = new int[total];
+        final int[] current = new int[weights.length];
+        for (int s = 0; s < total; s++) {
+            int selected = -1;
+            for (int i = 0; i < weights.length; i++) {
+                if (weights[i] > 0) {
+                    current[i] += weights[i];
+                    if (selected < 0 || current[i] > current[selected]) {
+                        selected = i;
+                    }
+                }
+            }
+            current[selected] -= total;
+            schedule[s] = selected;
+        }
+
+        return schedule;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = b;
+            b = a % b;
+            a = t;
+        }
+        return a;
+    }
+}
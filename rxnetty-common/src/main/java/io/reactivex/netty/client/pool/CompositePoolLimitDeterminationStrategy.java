@@ -19,7 +19,11 @@ package io.reactivex.netty.client.pool;
 
 import java.util.concurrent.TimeUnit;
 
-public class CompositePoolLimitDeterminationStrategy implements PoolLimitDeterminationStrategy {
+/**
+ * A {@link PoolLimitDeterminationStrategy} that acquires a permit only if all the passed strategies give a permit.
+ * Latency callbacks are passed to all strategies that are {@link LatencyAwarePoolLimitDeterminationStrategy}.
+ */
+public class CompositePoolLimitDeterminationStrategy implements LatencyAwarePoolLimitDeterminationStrategy {
 
     private final PoolLimitDeterminationStrategy[] strategies;
 
@@ -72,4 +76,22 @@ public class CompositePoolLimitDeterminationStrategy implements PoolLimitDetermi
             strategy.releasePermit();
         }
     }
+
+    @Override
+    public void onConnectionReleased(long duration, TimeUnit timeUnit) {
+        for (PoolLimitDeterminationStrategy strategy : strategies) {
+            if (strategy instanceof LatencyAwarePoolLimitDeterminationStrategy) {
+                ((LatencyAwarePoolLimitDeterminationStrategy) strategy).onConnectionReleased(duration, timeUnit);
+            }
+        }
+    }
+
+    @Override
+    public void onConnectFailed() {
+        for (PoolLimitDeterminationStrategy strategy : strategies) {
+            if (strategy instanceof LatencyAwarePoolLimitDeterminationStrategy) {
+                ((LatencyAwarePoolLimitDeterminationStrategy) strategy).onConnectFailed();
+            }
+        }
+    }
 }
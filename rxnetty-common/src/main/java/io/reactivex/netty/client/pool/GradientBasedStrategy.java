@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.pool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link LatencyAwarePoolLimitDeterminationStrategy} that moves the maximum connections limit using a gradient
+ * computed from the latencies observed by the pool, so that every host settles at a limit that gives maximum
+ * throughput without building up queues at the host.
+ *
+ * <h2>Algorithm</h2>
+ *
+ * Latency samples are averaged over a window of {@link #DEFAULT_WINDOW_SIZE} samples (short term latency) and the
+ * short term latencies are averaged using an exponentially weighted moving average (long term latency). At the end of
+ * every window, the limit is updated as:
+ *
+ <PRE>
+ gradient = max(0.5, min(1.0, tolerance * longTermLatency / shortTermLatency))
+ newLimit = limit * gradient + sqrt(limit)
+ limit = limit * (1 - smoothing) + newLimit * smoothing
+ </PRE>
+ *
+ * i.e. the limit grows by a queue allowance of {@code sqrt(limit)} while latencies are stable and shrinks when
+ * latencies grow beyond the tolerance. The limit does not grow if less than half of it is in use, since, such samples
+ * do not say anything about a higher limit. Every connect failure reduces the limit by {@link #BACKOFF_RATIO}.
+ *
+ * The limit is always between the minimum and maximum limits passed to this strategy.
+ *
+ * <h2>Sharing</h2>
+ *
+ * A strategy instance must only be used for a single host, as the latencies of different hosts can not be compared.
+ */
+public class GradientBasedStrategy implements LatencyAwarePoolLimitDeterminationStrategy {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_WINDOW_SIZE = 10;
+    public static final double BACKOFF_RATIO = 0.9;
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_TERM_LATENCY_WEIGHT = 0.05;
+
+    private final MaxConnectionsBasedStrategy permits;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double estimatedLimit; /*Guarded by this*/
+    private double longTermLatencyNanos; /*Guarded by this*/
+    private long windowLatencySumNanos; /*Guarded by this*/
+    private int windowSamples; /*Guarded by this*/
+
+    public GradientBasedStrategy() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, MaxConnectionsBasedStrategy.DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public GradientBasedStrategy(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits, min: " + minLimit + ", max: " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        permits = new MaxConnectionsBasedStrategy((int) estimatedLimit);
+    }
+
+    @Override
+    public boolean acquireCreationPermit(long acquireStartTime, TimeUnit timeUnit) {
+        return permits.acquireCreationPermit(acquireStartTime, timeUnit);
+    }
+
+    @Override
+    public int getAvailablePermits() {
+        return permits.getAvailablePermits();
+    }
+
+    @Override
+    public void releasePermit() {
+        permits.releasePermit();
+    }
+
+    @Override
+    public synchronized void onConnectionReleased(long duration, TimeUnit timeUnit) {
+        windowLatencySumNanos += TimeUnit.NANOSECONDS.convert(duration, timeUnit);
+        if (++windowSamples < DEFAULT_WINDOW_SIZE) {
+            return;
+        }
+
+        final double shortTermLatencyNanos = Math.max(1, windowLatencySumNanos / windowSamples);
+        windowLatencySumNanos = 0;
+        windowSamples = 0;
+
+        if (longTermLatencyNanos == 0) {
+            longTermLatencyNanos = shortTermLatencyNanos;
+        } else {
+            longTermLatencyNanos += (shortTermLatencyNanos - longTermLatencyNanos) * LONG_TERM_LATENCY_WEIGHT;
+        }
+
+        if (longTermLatencyNanos > 2 * shortTermLatencyNanos) {
+            /*Latencies have dropped consistently, converge faster so that the gradient does not stay at maximum.*/
+            longTermLatencyNanos *= 0.95;
+        }
+
+        final double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longTermLatencyNanos / shortTermLatencyNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+
+        final int inUse = permits.getMaxConnections() - permits.getAvailablePermits();
+        if (newLimit > estimatedLimit && inUse < estimatedLimit / 2) {
+            return; /*Not enough load to say anything about a higher limit.*/
+        }
+
+        updateLimit(newLimit);
+    }
+
+    @Override
+    public synchronized void onConnectFailed() {
+        updateLimit(estimatedLimit * BACKOFF_RATIO);
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return The current limit.
+     */
+    public int getLimit() {
+        return permits.getMaxConnections();
+    }
+
+    /*Guarded by this*/
+    private void updateLimit(double newLimit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        final int delta = (int) estimatedLimit - permits.getMaxConnections();
+        if (delta > 0) {
+            permits.incrementMaxConnections(delta);
+        } else if (delta < 0) {
+            permits.decrementMaxConnections(-delta);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.pool;
+
+import io.reactivex.netty.client.pool.PreferCurrentEventLoopHolder.IdleConnectionsHolderFactory;
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Subscriber;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * An implementation of {@link IdleConnectionsHolder} with a LIFO strategy i.e. the most recently used connection is
+ * reused first.
+ *
+ * As opposed to {@link FIFOIdleConnectionsHolder}, which cycles through all idle connections, this concentrates the
+ * traffic on the least number of connections, so that the surplus connections stay idle and are evicted after the
+ * maximum idle time. {@link #peek()} returns connections starting from the most recently used.
+ *
+ * To use this holder per eventloop, use {@link #factory()} with {@link PreferCurrentEventLoopHolder}.
+ *
+ * @param <W> Type of object that is written to the client using this holder.
+ * @param <R> Type of object that is read from the the client using this holder.
+ */
+public class LIFOIdleConnectionsHolder<W, R> extends IdleConnectionsHolder<W, R> {
+
+    private final ConcurrentLinkedDeque<PooledConnection<R, W>> idleConnections;
+    private final Observable<PooledConnection<R, W>> pollObservable;
+    private final Observable<PooledConnection<R, W>> peekObservable;
+
+    public LIFOIdleConnectionsHolder() {
+        idleConnections = new ConcurrentLinkedDeque<>();
+
+        pollObservable = Observable.create(new OnSubscribe<PooledConnection<R, W>>() {
+            @Override
+            public void call(Subscriber<? super PooledConnection<R, W>> subscriber) {
+                PooledConnection<R, W> idleConnection;
+                while (!subscriber.isUnsubscribed() && (idleConnection = idleConnections.pollFirst()) != null) {
+                    subscriber.onNext(idleConnection);
+                }
+                if (!subscriber.isUnsubscribed()) {
+                    subscriber.onCompleted();
+                }
+            }
+        });
+
+        peekObservable = Observable.from(idleConnections);
+    }
+
+    @Override
+    public Observable<PooledConnection<R, W>> poll() {
+        return pollObservable;
+    }
+
+    @Override
+    public Observable<PooledConnection<R, W>> peek() {
+        return peekObservable;
+    }
+
+    @Override
+    public void add(PooledConnection<R, W> toAdd) {
+        idleConnections.addFirst(toAdd);
+    }
+
+    @Override
+    public boolean remove(PooledConnection<R, W> toRemove) {
+        /*Connections are removed mostly on expiry, and the least recently used connections are at the end.*/
+        return idleConnections.removeLastOccurrence(toRemove);
+    }
+
+    /**
+     * Returns an {@link IdleConnectionsHolderFactory} creating {@link LIFOIdleConnectionsHolder} instances, to be used
+     * with {@link PreferCurrentEventLoopHolder}.
+     *
+     * @return An {@link IdleConnectionsHolderFactory} creating {@link LIFOIdleConnectionsHolder} instances.
+     */
+    public static <W, R> IdleConnectionsHolderFactory<W, R> factory() {
+        return new IdleConnectionsHolderFactory<W, R>() {
+            @Override
+            public IdleConnectionsHolder<W, R> call() {
+                return new LIFOIdleConnectionsHolder<>();
+            }
+        };
+    }
+}
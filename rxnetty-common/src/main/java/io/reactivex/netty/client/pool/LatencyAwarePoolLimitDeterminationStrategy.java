@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.pool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link PoolLimitDeterminationStrategy} that adapts the pool limit based on the latencies observed by the pool.
+ * {@link PooledConnectionProviderImpl} and {@link PerEventLoopPooledConnectionProvider} feed these callbacks, for any
+ * strategy configured via
+ * {@link PoolConfig#limitDeterminationStrategy(PoolLimitDeterminationStrategy)} that implements this interface.
+ *
+ * Since, a pool does not know about requests, the latency is the time for which a connection was in use i.e. time
+ * between a successful acquire and the release of the connection back to the pool. For clients that release a
+ * connection after a request-response exchange (eg: HTTP), this is the request latency. Time spent in establishing a
+ * new connection and waiting for a connection in the pool is not included.
+ */
+public interface LatencyAwarePoolLimitDeterminationStrategy extends PoolLimitDeterminationStrategy {
+
+    /**
+     * Callback when a connection acquired from the pool is released.
+     *
+     * @param duration Duration for which the connection was in use.
+     * @param timeUnit Timeunit for the duration.
+     */
+    void onConnectionReleased(long duration, TimeUnit timeUnit);
+
+    /**
+     * Callback when a new connection could not be established, after acquiring a permit.
+     */
+    void onConnectFailed();
+}
@@ -0,0 +1,482 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.pool;
+
+import io.netty.channel.EventLoop;
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ClientConnectionToChannelBridge.PooledConnectionReleaseEvent;
+import io.reactivex.netty.client.HostConnector;
+import io.reactivex.netty.client.events.ClientEventListener;
+import io.reactivex.netty.events.Clock;
+import io.reactivex.netty.events.EventPublisher;
+import io.reactivex.netty.threads.PreferCurrentEventLoopGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Actions;
+import rx.functions.Func1;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.reactivex.netty.client.pool.PooledConnectionProviderImpl.ACQUIRE_TIME_NANOS;
+import static io.reactivex.netty.events.EventAttributeKeys.*;
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * An implementation of {@link PooledConnectionProvider} that keeps idle connections confined to the {@link EventLoop}
+ * that the connection is registered with.
+ *
+ * Every {@link EventLoop} gets its own idle connections queue which is only ever accessed from that {@link EventLoop}
+ * and hence does not need any synchronization. The pool behaves as below:
+ *
+ * <ul>
+ <li><b>Acquire:</b> If the caller is an {@link EventLoop} that has idle connections, a connection is handed out
+ synchronously from that queue. Otherwise, an idle connection is "stolen" from the {@link EventLoop} with the most idle
+ connections, by executing the acquire on that {@link EventLoop}. If there are no idle connections anywhere, a new
+ connection is created, if permitted by the {@link PoolLimitDeterminationStrategy}. If the strategy is a
+ {@link LatencyAwarePoolLimitDeterminationStrategy}, it is notified of the time every connection was in use and of
+ connect failures.</li>
+ <li><b>Release:</b> A connection is always released on the {@link EventLoop} of the connection, inline if the caller
+ is already on that {@link EventLoop}.</li>
+ </ul>
+ *
+ * Unlike {@link PooledConnectionProviderImpl}, there are no {@link IdleConnectionsHolder} streams involved in acquire
+ * and release, which removes the per-acquire operator chain and contention on shared idle connection queues. This
+ * works best with a {@link PreferCurrentEventLoopGroup} (the default for clients) and callers that acquire connections
+ * from an {@link EventLoop}, as then new connections are registered with, and later reused from, the calling
+ * {@link EventLoop}.
+ *
+ * {@link PoolConfig#getIdleConnectionsHolder()} and {@link PoolConfig#getMinIdleConnections()} are not used by this
+ * provider, so {@link #warmUp()} is a no-op. An acquire never waits for a connection when the pool is exhausted, so,
+ * a {@link PoolConfig} with {@link PoolConfig#getMaxPendingAcquires()} greater than zero is rejected with an
+ * {@link IllegalArgumentException}.
+ *
+ * @param <W> Type of object that is written to the client using this factory.
+ * @param <R> Type of object that is read from the the client using this factory.
+ */
+public final class PerEventLoopPooledConnectionProvider<W, R> extends PooledConnectionProvider<W, R> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerEventLoopPooledConnectionProvider.class);
+
+    private final CopyOnWriteArrayList<EventLoopIdleConnections> allLoops;
+    private final Subscription idleConnCleanupSubscription;
+    private final PoolLimitDeterminationStrategy limitDeterminationStrategy;
+    private final LatencyAwarePoolLimitDeterminationStrategy latencyAwareStrategy; /*null if not latency aware*/
+    private final long maxIdleTimeMillis;
+    private final long maxConnectionLifetimeMillis;
+    private final long maxConnectionLifetimeJitterMillis;
+    private final HostConnector<W, R> hostConnector;
+    private final Observable<Connection<R, W>> connectionRequest;
+    private volatile boolean isShutdown;
+
+    public PerEventLoopPooledConnectionProvider(PoolConfig<W, R> poolConfig, HostConnector<W, R> hostConnector) {
+        if (poolConfig.getMaxPendingAcquires() > 0) {
+            throw new IllegalArgumentException("Pending acquires are not supported by the per eventloop pool. Max "
+                                               + "pending acquires: " + poolConfig.getMaxPendingAcquires());
+        }
+        this.hostConnector = hostConnector;
+        allLoops = new CopyOnWriteArrayList<>();
+        limitDeterminationStrategy = poolConfig.getPoolLimitDeterminationStrategy();
+        latencyAwareStrategy = limitDeterminationStrategy instanceof LatencyAwarePoolLimitDeterminationStrategy
+                ? (LatencyAwarePoolLimitDeterminationStrategy) limitDeterminationStrategy
+                : null;
+        maxIdleTimeMillis = poolConfig.getMaxIdleTimeMillis();
+        maxConnectionLifetimeMillis = poolConfig.getMaxConnectionLifetimeMillis();
+        maxConnectionLifetimeJitterMillis = poolConfig.getMaxConnectionLifetimeJitterMillis();
+        connectionRequest = Observable.create(new AcquireOnSubscribe());
+
+        // In case, there is no cleanup required, this observable should never give a tick.
+        idleConnCleanupSubscription = poolConfig.getIdleConnectionsCleanupTimer()
+                                                .doOnError(new Action1<Throwable>() {
+                                                    @Override
+                                                    public void call(Throwable throwable) {
+                                                        logger.error("Error from idle connection cleanup timer. This "
+                                                                     + "will be retried.", throwable);
+                                                    }
+                                                })
+                                                .retry() // Retry when there is an error in timer.
+                                                .subscribe(new Action1<Long>() {
+                                                    @Override
+                                                    public void call(Long aLong) {
+                                                        for (int i = 0; i < allLoops.size(); i++) {
+                                                            EventLoopIdleConnections idle = allLoops.get(i);
+                                                            idle.eventLoop.execute(idle.cleanupTask);
+                                                        }
+                                                    }
+                                                });
+
+        hostConnector.getHost()
+                     .getCloseNotifier()
+                     .doOnTerminate(new Action0() {
+                         @Override
+                         public void call() {
+                             isShutdown = true;
+                             idleConnCleanupSubscription.unsubscribe();
+                         }
+                     })
+                     .onErrorResumeNext(new Func1<Throwable, Observable<Void>>() {
+                         @Override
+                         public Observable<Void> call(Throwable throwable) {
+                             logger.error("Error listening to Host close notifications. Shutting down the pool.",
+                                          throwable);
+                             return Observable.empty();
+                         }
+                     })
+                     .subscribe(Actions.empty());
+    }
+
+    @Override
+    public Observable<Connection<R, W>> newConnectionRequest() {
+        return connectionRequest;
+    }
+
+    @Override
+    public Observable<Void> release(final PooledConnection<?, ?> connection) {
+        @SuppressWarnings("unchecked")
+        final PooledConnection<R, W> c = (PooledConnection<R, W>) connection;
+        return Observable.create(new OnSubscribe<Void>() {
+            @Override
+            public void call(Subscriber<? super Void> subscriber) {
+                if (null == c) {
+                    subscriber.onCompleted();
+                    return;
+                }
+
+                final EventLoop eventLoop = c.unsafeNettyChannel().eventLoop();
+                if (eventLoop.inEventLoop()) {
+                    releaseNow(c, subscriber, Clock.newStartTimeNanos());
+                } else {
+                    /*
+                     * Executing the release on the eventloop to avoid race-conditions between code cleaning up
+                     * connection in the pipeline and the connecting being released to the pool.
+                     */
+                    eventLoop.execute(new ReleaseTask(c, subscriber));
+                }
+            }
+        });
+    }
+
+    @Override
+    public Observable<Void> discard(final PooledConnection<?, ?> connection) {
+        return connection.discard().doOnSubscribe(new Action0() {
+            @Override
+            public void call() {
+                EventPublisher eventPublisher = connection.unsafeNettyChannel().attr(EVENT_PUBLISHER).get();
+                if (eventPublisher.publishingEnabled()) {
+                    ClientEventListener eventListener = connection.unsafeNettyChannel()
+                                                                  .attr(CLIENT_EVENT_LISTENER).get();
+                    eventListener.onPooledConnectionEviction();
+                }
+                limitDeterminationStrategy.releasePermit();/*Since, an idle connection took a permit*/
+            }
+        });
+    }
+
+    /*Visible for testing*/ int getIdleConnectionsCount() {
+        int count = 0;
+        for (int i = 0; i < allLoops.size(); i++) {
+            count += allLoops.get(i).idleCount;
+        }
+        return count;
+    }
+
+    private void acquire(Subscriber<? super Connection<R, W>> subscriber, long startTimeNanos) {
+        if (isShutdown) {
+            subscriber.onError(new IllegalStateException("Connection provider is shutdown."));
+            return;
+        }
+
+        final EventLoopIdleConnections current = findCurrentEventLoop();
+        if (null != current) {
+            PooledConnection<R, W> idleConnection = current.pollUsable();
+            if (null != idleConnection) {
+                reuse(idleConnection, subscriber, startTimeNanos);
+                return;
+            }
+        }
+
+        final EventLoopIdleConnections stealFrom = findStealCandidate(current);
+        if (null != stealFrom) {
+            stealFrom.eventLoop.execute(new StealTask(stealFrom, subscriber, startTimeNanos));
+        } else {
+            connect(subscriber, startTimeNanos);
+        }
+    }
+
+    /**
+     * Emits the passed idle connection to the subscriber. This must be called from the eventloop of the connection,
+     * which makes the reuse (that emits the connection via the channel pipeline) synchronous.
+     */
+    private void reuse(PooledConnection<R, W> idleConnection, Subscriber<? super Connection<R, W>> subscriber,
+                       long startTimeNanos) {
+        EventPublisher eventPublisher = idleConnection.unsafeNettyChannel().attr(EVENT_PUBLISHER).get();
+        if (eventPublisher.publishingEnabled()) {
+            ClientEventListener eventListener = idleConnection.unsafeNettyChannel().attr(CLIENT_EVENT_LISTENER).get();
+            eventListener.onPooledConnectionReuse();
+            eventListener.onPoolAcquireStart();
+            eventListener.onPoolAcquireSuccess(Clock.onEndNanos(startTimeNanos), NANOSECONDS);
+        }
+        markAcquired(idleConnection);
+        idleConnection.reuse(subscriber); /*Reuse will on next to the subscriber*/
+        subscriber.onCompleted();
+    }
+
+    private void connect(Subscriber<? super Connection<R, W>> subscriber, long startTimeNanos) {
+        if (limitDeterminationStrategy.acquireCreationPermit(startTimeNanos, NANOSECONDS)) {
+            hostConnector.getConnectionProvider()
+                         .newConnectionRequest()
+                         .unsafeSubscribe(new NewConnectionSubscriber(subscriber, startTimeNanos));
+        } else {
+            subscriber.onError(new PoolExhaustedException("Client connection pool exhausted."));
+        }
+    }
+
+    private void releaseNow(PooledConnection<R, W> connection, Subscriber<? super Void> subscriber,
+                            long releaseStartTimeNanos) {
+        final EventPublisher eventPublisher = connection.unsafeNettyChannel().attr(EVENT_PUBLISHER).get();
+        final ClientEventListener eventListener = connection.unsafeNettyChannel().attr(CLIENT_EVENT_LISTENER).get();
+        try {
+            connection.unsafeNettyChannel().pipeline().fireUserEventTriggered(PooledConnectionReleaseEvent.INSTANCE);
+            if (eventPublisher.publishingEnabled()) {
+                eventListener.onPoolReleaseStart();
+            }
+            if (null != latencyAwareStrategy) {
+                Long acquireTimeNanos = connection.unsafeNettyChannel().attr(ACQUIRE_TIME_NANOS).getAndSet(null);
+                if (null != acquireTimeNanos) {
+                    latencyAwareStrategy.onConnectionReleased(System.nanoTime() - acquireTimeNanos, NANOSECONDS);
+                }
+            }
+            if (isShutdown || !connection.isUsable()) {
+                discardNow(connection);
+            } else {
+                findOrCreate(connection.unsafeNettyChannel().eventLoop()).add(connection);
+            }
+
+            if (eventPublisher.publishingEnabled()) {
+                eventListener.onPoolReleaseSuccess(Clock.onEndNanos(releaseStartTimeNanos), NANOSECONDS);
+            }
+            subscriber.onCompleted();
+        } catch (Throwable throwable) {
+            if (eventPublisher.publishingEnabled()) {
+                eventListener.onPoolReleaseFailed(Clock.onEndNanos(releaseStartTimeNanos), NANOSECONDS, throwable);
+            }
+            subscriber.onError(throwable);
+        }
+    }
+
+    private void markAcquired(Connection<R, W> connection) {
+        if (null != latencyAwareStrategy) {
+            connection.unsafeNettyChannel().attr(ACQUIRE_TIME_NANOS).set(System.nanoTime());
+        }
+    }
+
+    private EventLoopIdleConnections findCurrentEventLoop() {
+        for (int i = 0; i < allLoops.size(); i++) {
+            EventLoopIdleConnections idle = allLoops.get(i);
+            if (idle.eventLoop.inEventLoop()) {
+                return idle;
+            }
+        }
+        return null;
+    }
+
+    private EventLoopIdleConnections findStealCandidate(EventLoopIdleConnections exclude) {
+        EventLoopIdleConnections candidate = null;
+        int maxIdle = 0;
+        for (int i = 0; i < allLoops.size(); i++) {
+            EventLoopIdleConnections idle = allLoops.get(i);
+            /*Idle count is only a hint as it is updated by a different eventloop, the steal task re-checks.*/
+            int idleCount = idle.idleCount;
+            if (idle != exclude && idleCount > maxIdle) {
+                candidate = idle;
+                maxIdle = idleCount;
+            }
+        }
+        return candidate;
+    }
+
+    private EventLoopIdleConnections findOrCreate(EventLoop eventLoop) {
+        for (int i = 0; i < allLoops.size(); i++) {
+            EventLoopIdleConnections idle = allLoops.get(i);
+            if (idle.eventLoop == eventLoop) {
+                return idle;
+            }
+        }
+
+        /*Eventloops are only ever added from the same eventloop, so there can not be a duplicate add.*/
+        EventLoopIdleConnections newIdle = new EventLoopIdleConnections(eventLoop);
+        allLoops.add(newIdle);
+        return newIdle;
+    }
+
+    private void discardNow(PooledConnection<R, W> toDiscard) {
+        discard(toDiscard).subscribe(Actions.empty(), new Action1<Throwable>() {
+            @Override
+            public void call(Throwable throwable) {
+                logger.error("Error discarding connection.", throwable);
+            }
+        });
+    }
+
+    /**
+     * Idle connections for a single {@link EventLoop}. All methods, except reading {@link #idleCount}, must only be
+     * called from the {@link #eventLoop}.
+     */
+    private final class EventLoopIdleConnections {
+
+        private final EventLoop eventLoop;
+        private final ArrayDeque<PooledConnection<R, W>> idleConnections;
+        private final Runnable cleanupTask;
+        private volatile int idleCount; /*Only written by the owner eventloop.*/
+
+        private EventLoopIdleConnections(EventLoop eventLoop) {
+            this.eventLoop = eventLoop;
+            idleConnections = new ArrayDeque<>();
+            cleanupTask = new Runnable() {
+                @Override
+                public void run() {
+                    Iterator<PooledConnection<R, W>> iterator = idleConnections.iterator();
+                    while (iterator.hasNext()) {
+                        PooledConnection<R, W> next = iterator.next();
+                        if (!next.isUsable()) {
+                            iterator.remove();
+                            discardNow(next);
+                        }
+                    }
+                    idleCount = idleConnections.size();
+                }
+            };
+        }
+
+        private void add(PooledConnection<R, W> toAdd) {
+            idleConnections.addLast(toAdd);
+            idleCount = idleConnections.size();
+        }
+
+        private PooledConnection<R, W> pollUsable() {
+            PooledConnection<R, W> next;
+            while ((next = idleConnections.pollFirst()) != null) {
+                if (next.isUsable()) {
+                    break;
+                }
+                discardNow(next);
+            }
+            idleCount = idleConnections.size();
+            return next;
+        }
+    }
+
+    private class AcquireOnSubscribe implements OnSubscribe<Connection<R, W>> {
+
+        @Override
+        public void call(Subscriber<? super Connection<R, W>> subscriber) {
+            acquire(subscriber, Clock.newStartTimeNanos());
+        }
+    }
+
+    private class StealTask implements Runnable {
+
+        private final EventLoopIdleConnections stealFrom;
+        private final Subscriber<? super Connection<R, W>> subscriber;
+        private final long startTimeNanos;
+
+        private StealTask(EventLoopIdleConnections stealFrom, Subscriber<? super Connection<R, W>> subscriber,
+                          long startTimeNanos) {
+            this.stealFrom = stealFrom;
+            this.subscriber = subscriber;
+            this.startTimeNanos = startTimeNanos;
+        }
+
+        @Override
+        public void run() {
+            PooledConnection<R, W> idleConnection = stealFrom.pollUsable();
+            if (null != idleConnection) {
+                reuse(idleConnection, subscriber, startTimeNanos);
+            } else {
+                connect(subscriber, startTimeNanos);
+            }
+        }
+    }
+
+    private class ReleaseTask implements Runnable {
+
+        private final PooledConnection<R, W> connection;
+        private final Subscriber<? super Void> subscriber;
+        private final long releaseStartTimeNanos;
+
+        private ReleaseTask(PooledConnection<R, W> connection, Subscriber<? super Void> subscriber) {
+            this.connection = connection;
+            this.subscriber = subscriber;
+            releaseStartTimeNanos = Clock.newStartTimeNanos();
+        }
+
+        @Override
+        public void run() {
+            releaseNow(connection, subscriber, releaseStartTimeNanos);
+        }
+    }
+
+    private class NewConnectionSubscriber extends Subscriber<Connection<R, W>> {
+
+        private final Subscriber<? super Connection<R, W>> delegate;
+        private final long startTimeNanos;
+        private ClientEventListener eventListener;
+
+        private NewConnectionSubscriber(Subscriber<? super Connection<R, W>> delegate, long startTimeNanos) {
+            super(delegate);
+            this.delegate = delegate;
+            this.startTimeNanos = startTimeNanos;
+        }
+
+        @Override
+        public void onCompleted() {
+            if (null != eventListener) {
+                eventListener.onPoolAcquireStart();
+                eventListener.onPoolAcquireSuccess(Clock.onEndNanos(startTimeNanos), NANOSECONDS);
+            }
+            delegate.onCompleted();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            limitDeterminationStrategy.releasePermit(); /*Before connect we acquired.*/
+            if (null != latencyAwareStrategy) {
+                latencyAwareStrategy.onConnectFailed();
+            }
+            delegate.onError(e);
+        }
+
+        @Override
+        public void onNext(Connection<R, W> connection) {
+            EventPublisher eventPublisher = connection.unsafeNettyChannel().attr(EVENT_PUBLISHER).get();
+            if (eventPublisher.publishingEnabled()) {
+                eventListener = connection.unsafeNettyChannel().attr(CLIENT_EVENT_LISTENER).get();
+            }
+            markAcquired(connection);
+            delegate.onNext(PooledConnection.create(PerEventLoopPooledConnectionProvider.this, maxIdleTimeMillis,
+                                                    maxConnectionLifetimeMillis, maxConnectionLifetimeJitterMillis,
+                                                    connection));
+        }
+    }
+}
@@ -17,6 +17,8 @@
 package io.reactivex.netty.client.pool;
 
 import rx.Observable;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
 
 import java.util.concurrent.TimeUnit;
 
@@ -29,14 +31,26 @@ import java.util.concurrent.TimeUnit;
 public class PoolConfig<W, R> {
 
     public static final long DEFAULT_MAX_IDLE_TIME_MILLIS = TimeUnit.MILLISECONDS.convert(30, TimeUnit.SECONDS);
+    public static final long DEFAULT_PENDING_ACQUIRE_TIMEOUT_MILLIS =
+            TimeUnit.MILLISECONDS.convert(5, TimeUnit.SECONDS);
 
     private Observable<Long> idleConnCleanupTicker;
     private PoolLimitDeterminationStrategy limitDeterminationStrategy;
     private IdleConnectionsHolder<W, R> idleConnectionsHolder;
     private long maxIdleTimeMillis;
+    private boolean perEventLoopPool;
+    private long maxConnectionLifetimeMillis;
+    private long maxConnectionLifetimeJitterMillis;
+    private int maxPendingAcquires;
+    private int minIdleConnections;
+    private long pendingAcquireTimeoutMillis;
+    private Scheduler pendingAcquireTimeoutScheduler;
 
     public PoolConfig() {
         maxIdleTimeMillis = DEFAULT_MAX_IDLE_TIME_MILLIS;
+        maxConnectionLifetimeMillis = -1;
+        pendingAcquireTimeoutMillis = DEFAULT_PENDING_ACQUIRE_TIMEOUT_MILLIS;
+        pendingAcquireTimeoutScheduler = Schedulers.computation();
         idleConnCleanupTicker = Observable.timer(maxIdleTimeMillis, TimeUnit.MILLISECONDS);
         idleConnectionsHolder = new FIFOIdleConnectionsHolder<>();
         limitDeterminationStrategy = UnboundedPoolLimitDeterminationStrategy.INSTANCE;
@@ -64,6 +78,59 @@ public class PoolConfig<W, R> {
         return this;
     }
 
+    /**
+     * Sets the maximum lifetime of a pooled connection, after which the connection is retired i.e. discarded when it is
+     * released to the pool, so that a connection does not stay with the same host forever (eg: behind a load balancer
+     * that scales out). A connection in use is never closed because of its lifetime.
+     *
+     * By default, connections have no maximum lifetime.
+     *
+     * @param maxLifetime Maximum lifetime of a connection.
+     * @param jitter Maximum random duration to be subtracted from the lifetime of every connection, so that the
+     * connections created together are not all retired together.
+     * @param timeUnit Timeunit for the lifetime and jitter.
+     *
+     * @return This config.
+     */
+    public PoolConfig<W, R> maxConnectionLifetime(long maxLifetime, long jitter, TimeUnit timeUnit) {
+        maxConnectionLifetimeMillis = TimeUnit.MILLISECONDS.convert(maxLifetime, timeUnit);
+        maxConnectionLifetimeJitterMillis = TimeUnit.MILLISECONDS.convert(jitter, timeUnit);
+        return this;
+    }
+
+    public long getMaxConnectionLifetimeMillis() {
+        return maxConnectionLifetimeMillis;
+    }
+
+    public long getMaxConnectionLifetimeJitterMillis() {
+        return maxConnectionLifetimeJitterMillis;
+    }
+
+    /**
+     * Sets the minimum number of idle connections that the pool keeps for a host. Idle connections are created, in the
+     * background, when the pool is created and whenever the number of idle connections drops below this minimum.
+     * Creating these connections still requires a permit from the {@link PoolLimitDeterminationStrategy}.
+     *
+     * This is ignored in the {@link #perEventLoopPool(boolean)} mode, where no idle connections are created in advance
+     * and {@link PooledConnectionProvider#warmUp()} is a no-op.
+     *
+     * By default, there is no minimum.
+     *
+     * @param minIdleConnections Minimum number of idle connections.
+     *
+     * @return This config.
+     *
+     * @see PooledConnectionProvider#warmUp()
+     */
+    public PoolConfig<W, R> minIdleConnections(int minIdleConnections) {
+        this.minIdleConnections = minIdleConnections;
+        return this;
+    }
+
+    public int getMinIdleConnections() {
+        return minIdleConnections;
+    }
+
     public PoolConfig<W, R> limitDeterminationStrategy(PoolLimitDeterminationStrategy strategy) {
         limitDeterminationStrategy = strategy;
         return this;
@@ -82,6 +149,15 @@ public class PoolConfig<W, R> {
         return idleConnectionsHolder;
     }
 
+    /**
+     * A timer, on every tick of which, all idle connections are checked and the ones that are not usable are evicted.
+     * {@link PooledConnectionProviderImpl} evicts every idle connection when it expires, so this timer is only required
+     * to evict connections that become unusable before they expire, eg: when the peer closes the connection.
+     *
+     * @param timer Timer for cleaning up idle connections.
+     *
+     * @return This config.
+     */
     public PoolConfig<W, R> idleConnectionsCleanupTimer(Observable<Long> timer) {
         idleConnCleanupTicker = timer;
         return this;
@@ -90,4 +166,82 @@ public class PoolConfig<W, R> {
     public Observable<Long> getIdleConnCleanupTicker() {
         return idleConnCleanupTicker;
     }
+
+    /**
+     * Enables/disables the per eventloop pool mode, i.e. {@link PerEventLoopPooledConnectionProvider}, where idle
+     * connections are confined to the eventloop of the connection.
+     * {@link #idleConnectionsHolder(IdleConnectionsHolder)} is ignored in this mode. Acquires never wait for a
+     * connection in this mode, so, creating the {@link PooledConnectionProvider} fails with an
+     * {@link IllegalArgumentException} if {@link #maxPendingAcquires(int)} is greater than zero.
+     *
+     * @param perEventLoopPool {@code true} to enable the per eventloop pool mode.
+     *
+     * @return This config.
+     */
+    public PoolConfig<W, R> perEventLoopPool(boolean perEventLoopPool) {
+        this.perEventLoopPool = perEventLoopPool;
+        return this;
+    }
+
+    public boolean isPerEventLoopPool() {
+        return perEventLoopPool;
+    }
+
+    /**
+     * Sets the maximum number of connection acquires that can wait for a connection when the pool is exhausted, i.e.
+     * when {@link PoolLimitDeterminationStrategy#acquireCreationPermit(long, TimeUnit)} fails and there is no idle
+     * connection. A waiting acquire gets the next connection released to the pool or, if a connection is discarded,
+     * a new connection. Acquires beyond this limit fail immediately with {@link PoolExhaustedException}. Not supported
+     * with {@link #perEventLoopPool(boolean)}.
+     *
+     * By default, no acquire waits for a connection.
+     *
+     * @param maxPendingAcquires Maximum number of waiting acquires. {@code 0} disables waiting.
+     *
+     * @return This config.
+     */
+    public PoolConfig<W, R> maxPendingAcquires(int maxPendingAcquires) {
+        this.maxPendingAcquires = maxPendingAcquires;
+        return this;
+    }
+
+    public int getMaxPendingAcquires() {
+        return maxPendingAcquires;
+    }
+
+    /**
+     * Maximum time an acquire waits for a connection, after which it fails with {@link PoolExhaustedException}. This is
+     * only applicable when {@link #maxPendingAcquires(int)} is set.
+     *
+     * @param timeout Timeout for a waiting acquire.
+     * @param timeUnit Timeunit for the timeout.
+     *
+     * @return This config.
+     */
+    public PoolConfig<W, R> pendingAcquireTimeout(long timeout, TimeUnit timeUnit) {
+        return pendingAcquireTimeout(timeout, timeUnit, Schedulers.computation());
+    }
+
+    /**
+     * Same as {@link #pendingAcquireTimeout(long, TimeUnit)} but uses the passed {@code scheduler} for the timeout.
+     *
+     * @param timeout Timeout for a waiting acquire.
+     * @param timeUnit Timeunit for the timeout.
+     * @param scheduler Scheduler for the timeout.
+     *
+     * @return This config.
+     */
+    public PoolConfig<W, R> pendingAcquireTimeout(long timeout, TimeUnit timeUnit, Scheduler scheduler) {
+        pendingAcquireTimeoutMillis = TimeUnit.MILLISECONDS.convert(timeout, timeUnit);
+        pendingAcquireTimeoutScheduler = scheduler;
+        return this;
+    }
+
+    public long getPendingAcquireTimeoutMillis() {
+        return pendingAcquireTimeoutMillis;
+    }
+
+    public Scheduler getPendingAcquireTimeoutScheduler() {
+        return pendingAcquireTimeoutScheduler;
+    }
 }
@@ -26,6 +26,9 @@ import io.reactivex.netty.channel.AllocatingTransformer;
 import io.reactivex.netty.channel.Connection;
 import io.reactivex.netty.client.ClientConnectionToChannelBridge;
 import io.reactivex.netty.client.ClientConnectionToChannelBridge.ConnectionReuseEvent;
+import io.reactivex.netty.client.events.ClientEventListener;
+import io.reactivex.netty.events.Clock;
+import io.reactivex.netty.events.EventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rx.Observable;
@@ -37,6 +40,11 @@ import rx.functions.Action1;
 import rx.functions.Actions;
 import rx.functions.Func1;
 
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.reactivex.netty.events.EventAttributeKeys.*;
+import static java.util.concurrent.TimeUnit.*;
+
 /**
  * An implementation of {@link Connection} which is pooled and reused.
  *
@@ -58,9 +66,11 @@ public class PooledConnection<R, W> extends Connection<R, W> {
     private volatile long lastReturnToPoolTimeMillis;
     private volatile boolean releasedAtLeastOnce;
     private volatile long maxIdleTimeMillis;
+    private final long lifetimeExpiryTimeMillis;
     private final Observable<Void> releaseObservable;
 
-    private PooledConnection(Owner owner, long maxIdleTimeMillis, Connection<R, W> unpooledDelegate) {
+    private PooledConnection(Owner owner, long maxIdleTimeMillis, long maxLifetimeMillis,
+                             Connection<R, W> unpooledDelegate) {
         super(unpooledDelegate);
         if (null == owner) {
             throw new IllegalArgumentException("Pooled connection owner can not be null");
@@ -73,12 +83,15 @@ public class PooledConnection<R, W> extends Connection<R, W> {
         this.unpooledDelegate = unpooledDelegate;
         this.maxIdleTimeMillis = maxIdleTimeMillis;
         lastReturnToPoolTimeMillis = System.currentTimeMillis();
+        lifetimeExpiryTimeMillis = maxLifetimeMillis > 0 ? lastReturnToPoolTimeMillis + maxLifetimeMillis
+                                                         : Long.MAX_VALUE;
         releaseObservable = Observable.create(new OnSubscribe<Void>() {
             @Override
             public void call(Subscriber<? super Void> subscriber) {
                 if (!isUsable()) {
-                    PooledConnection.this.owner.discard(PooledConnection.this)
-                                               .unsafeSubscribe(subscriber);
+                    /*For the user of this connection, this still is a release, so publish the release events for
+                      listeners tracking borrowed connections (eg: load balancers counting outstanding requests).*/
+                    discardOnRelease().unsafeSubscribe(subscriber);
                 } else {
                     Long keepAliveTimeout = unsafeNettyChannel().attr(DYNAMIC_CONN_KEEP_ALIVE_TIMEOUT_MS).get();
                     if (null != keepAliveTimeout) {
@@ -106,6 +119,7 @@ public class PooledConnection<R, W> extends Connection<R, W> {
         lastReturnToPoolTimeMillis = toCopy.lastReturnToPoolTimeMillis;
         releasedAtLeastOnce = toCopy.releasedAtLeastOnce;
         maxIdleTimeMillis = toCopy.maxIdleTimeMillis;
+        lifetimeExpiryTimeMillis = toCopy.lifetimeExpiryTimeMillis;
         releaseObservable = toCopy.releaseObservable;
     }
 
@@ -286,10 +300,37 @@ public class PooledConnection<R, W> extends Connection<R, W> {
         return unpooledDelegate.close();
     }
 
+    private Observable<Void> discardOnRelease() {
+        final EventPublisher eventPublisher = unsafeNettyChannel().attr(EVENT_PUBLISHER).get();
+        final ClientEventListener eventListener = unsafeNettyChannel().attr(CLIENT_EVENT_LISTENER).get();
+        if (null == eventPublisher || null == eventListener || !eventPublisher.publishingEnabled()) {
+            return owner.discard(this);
+        }
+
+        final long startTimeNanos = Clock.newStartTimeNanos();
+        eventListener.onPoolReleaseStart();
+        return owner.discard(this)
+                    .doOnCompleted(new Action0() {
+                        @Override
+                        public void call() {
+                            eventListener.onPoolReleaseSuccess(Clock.onEndNanos(startTimeNanos), NANOSECONDS);
+                        }
+                    })
+                    .doOnError(new Action1<Throwable>() {
+                        @Override
+                        public void call(Throwable throwable) {
+                            eventListener.onPoolReleaseFailed(Clock.onEndNanos(startTimeNanos), NANOSECONDS,
+                                                              throwable);
+                        }
+                    });
+    }
+
     /**
      * Returns whether this connection is safe to be used at this moment. <br/>
      * This makes sure that the underlying netty's channel is active as returned by
-     * {@link Channel#isActive()} and it has not passed the maximum idle time in the pool.
+     * {@link Channel#isActive()}, it has not passed the maximum idle time in the pool and it has not passed its maximum
+     * lifetime (if any). Since, this is checked when the connection is released or acquired from the pool, a connection
+     * that passes its lifetime while in use is retired only on release.
      *
      * @return {@code true} if the connection is usable.
      */
@@ -303,7 +344,7 @@ public class PooledConnection<R, W> extends Connection<R, W> {
 
         long nowMillis = System.currentTimeMillis();
         long idleTime = nowMillis - lastReturnToPoolTimeMillis;
-        return idleTime < maxIdleTimeMillis;
+        return idleTime < maxIdleTimeMillis && nowMillis < lifetimeExpiryTimeMillis;
     }
 
     /**
@@ -317,8 +358,32 @@ public class PooledConnection<R, W> extends Connection<R, W> {
 
     public static <R, W> PooledConnection<R, W> create(Owner owner, long maxIdleTimeMillis,
                                                        Connection<R, W> unpooledDelegate) {
-        final PooledConnection<R, W> toReturn = new PooledConnection<>(owner, maxIdleTimeMillis, unpooledDelegate
-        );
+        return create(owner, maxIdleTimeMillis, -1, 0, unpooledDelegate);
+    }
+
+    /**
+     * Creates a new {@link PooledConnection} that is retired after a maximum lifetime. The lifetime of the connection
+     * is randomly picked between {@code maxLifetimeMillis - maxLifetimeJitterMillis} and {@code maxLifetimeMillis}, so
+     * that connections created together, eg: on startup, are not all retired together.
+     *
+     * @param owner Owner of the connection.
+     * @param maxIdleTimeMillis Maximum time the connection can be idle in the pool.
+     * @param maxLifetimeMillis Maximum lifetime of the connection, a non-positive value means no maximum lifetime.
+     * @param maxLifetimeJitterMillis Maximum random time to be subtracted from the maximum lifetime.
+     * @param unpooledDelegate Physical connection.
+     *
+     * @return A new pooled connection.
+     */
+    public static <R, W> PooledConnection<R, W> create(Owner owner, long maxIdleTimeMillis, long maxLifetimeMillis,
+                                                       long maxLifetimeJitterMillis,
+                                                       Connection<R, W> unpooledDelegate) {
+        long lifetimeMillis = maxLifetimeMillis;
+        if (maxLifetimeMillis > 0 && maxLifetimeJitterMillis > 0) {
+            long jitter = Math.min(maxLifetimeJitterMillis, maxLifetimeMillis - 1);
+            lifetimeMillis -= ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        final PooledConnection<R, W> toReturn = new PooledConnection<>(owner, maxIdleTimeMillis, lifetimeMillis,
+                                                                       unpooledDelegate);
         toReturn.connectCloseToChannelClose();
         return toReturn;
     }
@@ -337,6 +402,18 @@ public class PooledConnection<R, W> extends Connection<R, W> {
         return markAwarePipeline; // Always return mark aware as, we always have to reset state on release to pool.
     }
 
+    /*package private, used by the pool for idle expiry.*/ long getLastReturnToPoolTimeMillis() {
+        return lastReturnToPoolTimeMillis;
+    }
+
+    /*package private, used by the pool for idle expiry.*/ long getMaxIdleTimeMillis() {
+        return maxIdleTimeMillis;
+    }
+
+    /*package private, used by the pool for idle expiry.*/ long getLifetimeExpiryTimeMillis() {
+        return lifetimeExpiryTimeMillis;
+    }
+
     /*Visible for testin*/ void setLastReturnToPoolTimeMillis(long lastReturnToPoolTimeMillis) {
         this.lastReturnToPoolTimeMillis = lastReturnToPoolTimeMillis;
     }
@@ -20,6 +20,7 @@ import io.reactivex.netty.client.ConnectionProvider;
 import io.reactivex.netty.client.ConnectionProviderFactory;
 import io.reactivex.netty.client.HostConnector;
 import io.reactivex.netty.client.pool.PooledConnection.Owner;
+import rx.Observable;
 
 /**
  * An implementation of {@link PooledConnectionProvider} that pools connections.
@@ -31,8 +32,14 @@ import io.reactivex.netty.client.pool.PooledConnection.Owner;
  created as part of the user request.</li>
  <li>{@link PoolConfig#getIdleConnectionsCleanupTimer()}: The schedule for cleaning up idle connections in the pool.</li>
  <li>{@link PoolConfig#getMaxIdleTimeMillis()}: Maximum time a connection can be idle in this pool.</li>
+ <li>{@link PoolConfig#getMinIdleConnections()}: Minimum number of idle connections kept in this pool.</li>
  </ul>
  *
+ * <h2>Per eventloop pool</h2>
+ *
+ * If {@link PoolConfig#isPerEventLoopPool()} is set, {@link PerEventLoopPooledConnectionProvider} is used, which keeps
+ * idle connections confined to the eventloop of the connection.
+ *
  * <h2>Usage</h2>
  *
  * <h4>Complementing a {@link ConnectionProviderFactory}</h4>
@@ -47,6 +54,19 @@ import io.reactivex.netty.client.pool.PooledConnection.Owner;
  */
 public abstract class PooledConnectionProvider<W, R> implements ConnectionProvider<W, R> , Owner {
 
+    /**
+     * Creates connections, in parallel, till the pool has {@link PoolConfig#getMinIdleConnections()} idle connections.
+     * This is useful to avoid paying the connect latency for the first requests to a host, eg: after startup.
+     *
+     * This is a no-op for providers that do not support a minimum number of idle connections.
+     *
+     * @return An {@link Observable} that completes when the connections are created. Every subscription to this,
+     * creates the connections required at that time.
+     */
+    public Observable<Void> warmUp() {
+        return Observable.empty();
+    }
+
     public static <W, R> PooledConnectionProvider<W, R> createUnbounded(final HostConnector<W, R> delegate) {
         return create(new PoolConfig<W, R>(), delegate);
     }
@@ -58,6 +78,9 @@ public abstract class PooledConnectionProvider<W, R> implements ConnectionProvid
 
     public static <W, R> PooledConnectionProvider<W, R> create(final PoolConfig<W, R> config,
                                                                final HostConnector<W, R> delegate) {
+        if (config.isPerEventLoopPool()) {
+            return new PerEventLoopPooledConnectionProvider<>(config, delegate);
+        }
         return new PooledConnectionProviderImpl<>(config, delegate);
     }
 }
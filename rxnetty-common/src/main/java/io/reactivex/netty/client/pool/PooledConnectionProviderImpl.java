@@ -16,6 +16,9 @@
  */
 package io.reactivex.netty.client.pool;
 
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
 import io.reactivex.netty.channel.Connection;
 import io.reactivex.netty.client.ClientConnectionToChannelBridge.PooledConnectionReleaseEvent;
 import io.reactivex.netty.client.HostConnector;
@@ -27,12 +30,22 @@ import org.slf4j.LoggerFactory;
 import rx.Observable;
 import rx.Observable.OnSubscribe;
 import rx.Observable.Operator;
+import rx.Scheduler;
 import rx.Subscriber;
 import rx.Subscription;
 import rx.functions.Action0;
 import rx.functions.Action1;
 import rx.functions.Actions;
 import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+import rx.subscriptions.Subscriptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.reactivex.netty.events.EventAttributeKeys.*;
 import static java.util.concurrent.TimeUnit.*;
@@ -44,11 +57,30 @@ import static java.util.concurrent.TimeUnit.*;
  *
  * <ul>
  <li>{@link PoolLimitDeterminationStrategy}: A strategy to determine whether a new physical connection should be
- created as part of the user request.</li>
- <li>{@link PoolConfig#getIdleConnectionsCleanupTimer()}: The schedule for cleaning up idle connections in the pool.</li>
+ created as part of the user request. If the strategy is a {@link LatencyAwarePoolLimitDeterminationStrategy}, it is
+ notified of the time every connection was in use and of connect failures.</li>
+ <li>{@link PoolConfig#getIdleConnectionsCleanupTimer()}: The schedule for cleaning up idle connections in the pool.
+ This is optional as every idle connection is evicted by a task scheduled on its eventloop, see below.</li>
  <li>{@link PoolConfig#getMaxIdleTimeMillis()}: Maximum time a connection can be idle in this pool.</li>
+ <li>{@link PoolConfig#getMinIdleConnections()}: Minimum number of idle connections kept in this pool. Connections are
+ created in the background to keep this minimum and on {@link #warmUp()}. If the idle connections holder is a
+ {@link PreferCurrentEventLoopHolder}, the connections are created across all its eventloops.</li>
+ <li>{@link PoolConfig#getMaxPendingAcquires()}: Maximum number of acquires that wait for a connection when the pool is
+ exhausted. Waiting acquires are served in FIFO order, by the connections released to the pool (on the eventloop of the
+ released connection) or by new connections when a permit is released by discarding a connection. A waiting acquire
+ fails with {@link PoolExhaustedException} after {@link PoolConfig#getPendingAcquireTimeoutMillis()}.</li>
  </ul>
  *
+ *
+ * <h2>Idle connection expiry</h2>
+ *
+ * When a connection is added to the idle connections, a task is scheduled on the eventloop of the connection for the
+ * time the connection expires, i.e. passes its maximum idle time or its maximum lifetime
+ * ({@link PoolConfig#getMaxConnectionLifetimeMillis()}), whichever is earlier. When the task runs, it evicts the
+ * connection if it is still idle and has expired, or re-schedules itself if the connection was reused and released in
+ * the meantime. So, there is at most one scheduled task per connection and a connection is evicted when its maximum
+ * idle time elapses instead of on the next run of {@link PoolConfig#getIdleConnectionsCleanupTimer()}.
+ *
  * @param <W> Type of object that is written to the client using this factory.
  * @param <R> Type of object that is read from the the client using this factory.
  */
@@ -56,19 +88,52 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
 
     private static final Logger logger = LoggerFactory.getLogger(PooledConnectionProviderImpl.class);
 
+    /*On the channel as opposed to the connection, since, the released connection can be a copy of the acquired one.*/
+    static final AttributeKey<Long> ACQUIRE_TIME_NANOS =
+            AttributeKey.valueOf("rxnetty_pool_connection_acquire_time_nanos");
+
+    private static final AttributeKey<IdleExpiryTask<?, ?>> IDLE_EXPIRY_TASK =
+            AttributeKey.valueOf("rxnetty_pool_connection_idle_expiry_task");
+
     private final Subscription idleConnCleanupSubscription;
     private final IdleConnectionsHolder<W, R> idleConnectionsHolder;
 
     private final PoolLimitDeterminationStrategy limitDeterminationStrategy;
+    private final LatencyAwarePoolLimitDeterminationStrategy latencyAwareStrategy; /*null if not latency aware*/
     private final long maxIdleTimeMillis;
+    private final long maxConnectionLifetimeMillis;
+    private final long maxConnectionLifetimeJitterMillis;
     private final HostConnector<W, R> hostConnector;
+    private final int maxPendingAcquires;
+    private final long pendingAcquireTimeoutMillis;
+    private final Scheduler pendingAcquireTimeoutScheduler;
+    private final ConcurrentLinkedQueue<PendingAcquire> pendingAcquires = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingAcquiresCount = new AtomicInteger();
+    private final int minIdleConnections;
+    private final AtomicInteger idleConnectionsCount = new AtomicInteger();
+    private final AtomicInteger warmingUpCount = new AtomicInteger();
+    private final Scheduler[] warmUpSchedulers; /*null if the holder is not eventloop aware*/
     private volatile boolean isShutdown;
 
     public PooledConnectionProviderImpl(PoolConfig<W, R> poolConfig, HostConnector<W, R> hostConnector) {
         this.hostConnector = hostConnector;
-        idleConnectionsHolder = poolConfig.getIdleConnectionsHolder();
+        minIdleConnections = poolConfig.getMinIdleConnections();
+        if (minIdleConnections > 0) {
+            idleConnectionsHolder = new CountingIdleConnectionsHolder(poolConfig.getIdleConnectionsHolder());
+        } else {
+            idleConnectionsHolder = poolConfig.getIdleConnectionsHolder();
+        }
+        warmUpSchedulers = newWarmUpSchedulers(poolConfig.getIdleConnectionsHolder());
         limitDeterminationStrategy = poolConfig.getPoolLimitDeterminationStrategy();
+        latencyAwareStrategy = limitDeterminationStrategy instanceof LatencyAwarePoolLimitDeterminationStrategy
+                ? (LatencyAwarePoolLimitDeterminationStrategy) limitDeterminationStrategy
+                : null;
         maxIdleTimeMillis = poolConfig.getMaxIdleTimeMillis();
+        maxConnectionLifetimeMillis = poolConfig.getMaxConnectionLifetimeMillis();
+        maxConnectionLifetimeJitterMillis = poolConfig.getMaxConnectionLifetimeJitterMillis();
+        maxPendingAcquires = poolConfig.getMaxPendingAcquires();
+        pendingAcquireTimeoutMillis = poolConfig.getPendingAcquireTimeoutMillis();
+        pendingAcquireTimeoutScheduler = poolConfig.getPendingAcquireTimeoutScheduler();
         // In case, there is no cleanup required, this observable should never give a tick.
         idleConnCleanupSubscription = poolConfig.getIdleConnectionsCleanupTimer()
                                                 .doOnError(LogErrorAction.INSTANCE)
@@ -90,6 +155,7 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
                          public void call() {
                              isShutdown = true;
                              idleConnCleanupSubscription.unsubscribe();
+                             failPendingAcquires();
                          }
                      })
                      .onErrorResumeNext(new Func1<Throwable, Observable<Void>>() {
@@ -101,6 +167,8 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
                          }
                      })
                      .subscribe(Actions.empty());
+
+        topUpIdleConnections();
     }
 
     @Override
@@ -153,6 +221,30 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
         });
     }
 
+    @Override
+    public Observable<Void> warmUp() {
+        return Observable.create(new OnSubscribe<Void>() {
+            @Override
+            public void call(Subscriber<? super Void> subscriber) {
+                final int toCreate = reserveWarmUps();
+                if (toCreate <= 0) {
+                    subscriber.onCompleted();
+                    return;
+                }
+
+                List<Observable<Void>> warmUps = new ArrayList<>(toCreate);
+                for (int i = 0; i < toCreate; i++) {
+                    Observable<Void> warmUp = newWarmUpConnection();
+                    if (null != warmUpSchedulers) {
+                        warmUp = warmUp.subscribeOn(warmUpSchedulers[i % warmUpSchedulers.length]);
+                    }
+                    warmUps.add(warmUp);
+                }
+                Observable.mergeDelayError(Observable.from(warmUps)).unsafeSubscribe(subscriber);
+            }
+        });
+    }
+
     @Override
     public Observable<Void> discard(final PooledConnection<?, ?> connection) {
         return connection.discard().doOnSubscribe(new Action0() {
@@ -165,6 +257,7 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
                     eventListener.onPooledConnectionEviction();
                 }
                 limitDeterminationStrategy.releasePermit();/*Since, an idle connection took a permit*/
+                connectForPendingAcquire();
             }
         });
     }
@@ -175,30 +268,225 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
             public void call(Subscriber<? super PooledConnection<R, W>> subscriber) {
                 final long startTimeNanos = Clock.newStartTimeNanos();
                 if (limitDeterminationStrategy.acquireCreationPermit(startTimeNanos, NANOSECONDS)) {
-                    Observable<Connection<R, W>> newConnObsv = hostConnector.getConnectionProvider()
-                                                                            .newConnectionRequest();
-                    newConnObsv.map(new Func1<Connection<R, W>, PooledConnection<R, W>>() {
-                        @Override
-                        public PooledConnection<R, W> call(Connection<R, W> connection) {
-                            return PooledConnection.create(PooledConnectionProviderImpl.this,
-                                                           maxIdleTimeMillis, connection);
-                        }
-                    }).doOnError(new Action1<Throwable>() {
-                        @Override
-                        public void call(Throwable throwable) {
-                            limitDeterminationStrategy.releasePermit(); /*Before connect we acquired.*/
-                        }
-                    }).unsafeSubscribe(subscriber);
+                    connect().unsafeSubscribe(subscriber);
                 } else {
                     idleConnectionsHolder.poll()
-                                         .switchIfEmpty(Observable.<PooledConnection<R, W>>error(
-                                                 new PoolExhaustedException("Client connection pool exhausted.")))
+                                         .switchIfEmpty(waitForConnection())
                                          .unsafeSubscribe(subscriber);
                 }
             }
         });
     }
 
+    /*A creation permit must be acquired before calling this method.*/
+    private Observable<PooledConnection<R, W>> connect() {
+        Observable<Connection<R, W>> newConnObsv = hostConnector.getConnectionProvider()
+                                                                .newConnectionRequest();
+        return newConnObsv.map(new Func1<Connection<R, W>, PooledConnection<R, W>>() {
+            @Override
+            public PooledConnection<R, W> call(Connection<R, W> connection) {
+                return PooledConnection.create(PooledConnectionProviderImpl.this, maxIdleTimeMillis,
+                                               maxConnectionLifetimeMillis, maxConnectionLifetimeJitterMillis,
+                                               connection);
+            }
+        }).doOnError(new Action1<Throwable>() {
+            @Override
+            public void call(Throwable throwable) {
+                limitDeterminationStrategy.releasePermit(); /*Before connect we acquired.*/
+                if (null != latencyAwareStrategy) {
+                    latencyAwareStrategy.onConnectFailed();
+                }
+            }
+        });
+    }
+
+    /*Returns the number of connections to create, which are counted as warming up.*/
+    private int reserveWarmUps() {
+        for (;;) {
+            final int warmingUp = warmingUpCount.get();
+            final int required = minIdleConnections - idleConnectionsCount.get() - warmingUp;
+            if (required <= 0 || isShutdown) {
+                return 0;
+            }
+            if (warmingUpCount.compareAndSet(warmingUp, warmingUp + required)) {
+                return required;
+            }
+        }
+    }
+
+    private Observable<Void> newWarmUpConnection() {
+        return Observable.create(new OnSubscribe<Void>() {
+            @Override
+            public void call(Subscriber<? super Void> subscriber) {
+                if (isShutdown
+                    || !limitDeterminationStrategy.acquireCreationPermit(Clock.newStartTimeNanos(), NANOSECONDS)) {
+                    warmingUpCount.decrementAndGet(); /*Pool is at it's limit, nothing to warm up.*/
+                    subscriber.onCompleted();
+                    return;
+                }
+
+                connect().map(new Func1<PooledConnection<R, W>, Void>() {
+                    @Override
+                    public Void call(PooledConnection<R, W> connection) {
+                        addWarmConnection(connection);
+                        return null;
+                    }
+                }).doOnTerminate(new Action0() {
+                    @Override
+                    public void call() {
+                        warmingUpCount.decrementAndGet();
+                    }
+                }).ignoreElements().unsafeSubscribe(subscriber);
+            }
+        });
+    }
+
+    private void addWarmConnection(final PooledConnection<R, W> connection) {
+        final Channel channel = connection.unsafeNettyChannel();
+        if (channel.eventLoop().inEventLoop()) {
+            if (isShutdown) {
+                discardNow(connection);
+            } else if (!handOverToPendingAcquire(connection)) {
+                idleConnectionsHolder.add(connection);
+                scheduleIdleExpiry(connection);
+            }
+        } else {
+            channel.eventLoop().execute(new Runnable() {
+                @Override
+                public void run() {
+                    addWarmConnection(connection);
+                }
+            });
+        }
+    }
+
+    private void topUpIdleConnections() {
+        if (minIdleConnections > 0 && !isShutdown
+            && idleConnectionsCount.get() + warmingUpCount.get() < minIdleConnections) {
+            warmUp().subscribe(Actions.empty(), new Action1<Throwable>() {
+                @Override
+                public void call(Throwable throwable) {
+                    logger.error("Failed to create minimum idle connections.", throwable);
+                }
+            });
+        }
+    }
+
+    private static Scheduler[] newWarmUpSchedulers(IdleConnectionsHolder<?, ?> holder) {
+        if (!(holder instanceof PreferCurrentEventLoopHolder)) {
+            return null;
+        }
+
+        List<Scheduler> schedulers = new ArrayList<>();
+        for (EventExecutor eventLoop : ((PreferCurrentEventLoopHolder<?, ?>) holder).getEventLoopGroup()) {
+            schedulers.add(Schedulers.from(eventLoop));
+        }
+        return schedulers.toArray(new Scheduler[schedulers.size()]);
+    }
+
+    private Observable<PooledConnection<R, W>> waitForConnection() {
+        return Observable.create(new OnSubscribe<PooledConnection<R, W>>() {
+            @Override
+            public void call(Subscriber<? super PooledConnection<R, W>> subscriber) {
+                final int pending = pendingAcquiresCount.incrementAndGet();
+                if (pending > maxPendingAcquires || isShutdown) {
+                    pendingAcquiresCount.decrementAndGet();
+                    subscriber.onError(new PoolExhaustedException("Client connection pool exhausted."));
+                    return;
+                }
+
+                final PendingAcquire pendingAcquire = new PendingAcquire(subscriber);
+                if (isEventPublishingEnabled()) {
+                    hostConnector.getClientPublisher().onPoolAcquireWaitStart(pending);
+                }
+                pendingAcquires.add(pendingAcquire);
+                pendingAcquire.startTimeout();
+
+                /*A connection may have been released or discarded after the poll above, which would then not see this
+                acquire in the queue.*/
+                serveFromIdleConnections();
+            }
+        });
+    }
+
+    private PendingAcquire pollPendingAcquire() {
+        PendingAcquire pendingAcquire;
+        while ((pendingAcquire = pendingAcquires.poll()) != null) {
+            if (pendingAcquire.claim()) {
+                return pendingAcquire;
+            }
+        }
+        return null;
+    }
+
+    /*Returns false if there is no pending acquire to hand over this connection.*/
+    private boolean handOverToPendingAcquire(PooledConnection<R, W> connection) {
+        if (pendingAcquires.isEmpty()) {
+            return false;
+        }
+
+        PendingAcquire pendingAcquire = pollPendingAcquire();
+        if (null == pendingAcquire) {
+            return false;
+        }
+
+        pendingAcquire.onConnection(connection);
+        return true;
+    }
+
+    private void serveFromIdleConnections() {
+        idleConnectionsHolder.poll()
+                             .take(1)
+                             .unsafeSubscribe(new Subscriber<PooledConnection<R, W>>() {
+
+                                 private boolean received; /*Callbacks are serial*/
+
+                                 @Override
+                                 public void onCompleted() {
+                                     if (!received) {
+                                         connectForPendingAcquire();
+                                     }
+                                 }
+
+                                 @Override
+                                 public void onError(Throwable e) {
+                                     logger.error("Error polling idle connections for a pending acquire.", e);
+                                 }
+
+                                 @Override
+                                 public void onNext(PooledConnection<R, W> c) {
+                                     received = true;
+                                     if (!c.isUsable()) {
+                                         discardNow(c); /*Discard releases a permit and hence connects.*/
+                                     } else if (!handOverToPendingAcquire(c)) {
+                                         idleConnectionsHolder.add(c);
+                                     }
+                                 }
+                             });
+    }
+
+    private void connectForPendingAcquire() {
+        if (pendingAcquires.isEmpty() || isShutdown) {
+            return;
+        }
+
+        if (limitDeterminationStrategy.acquireCreationPermit(Clock.newStartTimeNanos(), NANOSECONDS)) {
+            PendingAcquire pendingAcquire = pollPendingAcquire();
+            if (null == pendingAcquire) {
+                limitDeterminationStrategy.releasePermit(); /*Nothing to connect for.*/
+            } else {
+                pendingAcquire.connect();
+            }
+        }
+    }
+
+    private void failPendingAcquires() {
+        PendingAcquire pendingAcquire;
+        while ((pendingAcquire = pollPendingAcquire()) != null) {
+            pendingAcquire.onError(new IllegalStateException("Connection provider is shutdown."));
+        }
+    }
+
     private void discardNow(PooledConnection<R, W> toDiscard) {
         discard(toDiscard).subscribe(Actions.empty(), new Action1<Throwable>() {
             @Override
@@ -235,6 +523,120 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
         }
     }
 
+    /*Always called on the eventloop of the connection.*/
+    private void scheduleIdleExpiry(PooledConnection<R, W> connection) {
+        final long delayMillis = Math.min(connection.getMaxIdleTimeMillis(),
+                                          connection.getLifetimeExpiryTimeMillis() - System.currentTimeMillis());
+        Channel channel = connection.unsafeNettyChannel();
+        @SuppressWarnings("unchecked")
+        IdleExpiryTask<W, R> task = (IdleExpiryTask<W, R>) channel.attr(IDLE_EXPIRY_TASK).get();
+        if (null == task) {
+            task = new IdleExpiryTask<>(this);
+            channel.attr(IDLE_EXPIRY_TASK).set(task);
+        }
+
+        task.connection = connection; /*The released connection may be a copy of the one previously idle.*/
+
+        if (!task.scheduled) {
+            task.scheduled = true;
+            channel.eventLoop().schedule(task, delayMillis, MILLISECONDS);
+        }
+    }
+
+    /**
+     * An {@link IdleConnectionsHolder} that keeps a count of idle connections, used to keep a minimum number of idle
+     * connections.
+     */
+    private class CountingIdleConnectionsHolder extends IdleConnectionsHolder<W, R> {
+
+        private final IdleConnectionsHolder<W, R> delegate;
+        private final Observable<PooledConnection<R, W>> pollObservable;
+        private final Observable<PooledConnection<R, W>> pollThisEventLoopObservable;
+
+        private CountingIdleConnectionsHolder(IdleConnectionsHolder<W, R> delegate) {
+            this.delegate = delegate;
+            Action1<PooledConnection<R, W>> onPolled = new Action1<PooledConnection<R, W>>() {
+                @Override
+                public void call(PooledConnection<R, W> connection) {
+                    idleConnectionsCount.decrementAndGet();
+                    topUpIdleConnections();
+                }
+            };
+            pollObservable = delegate.poll().doOnNext(onPolled);
+            pollThisEventLoopObservable = delegate.pollThisEventLoopConnections().doOnNext(onPolled);
+        }
+
+        @Override
+        public Observable<PooledConnection<R, W>> poll() {
+            return pollObservable;
+        }
+
+        @Override
+        public Observable<PooledConnection<R, W>> pollThisEventLoopConnections() {
+            return pollThisEventLoopObservable;
+        }
+
+        @Override
+        public Observable<PooledConnection<R, W>> peek() {
+            return delegate.peek();
+        }
+
+        @Override
+        public void add(PooledConnection<R, W> toAdd) {
+            idleConnectionsCount.incrementAndGet();
+            delegate.add(toAdd);
+        }
+
+        @Override
+        public boolean remove(PooledConnection<R, W> toRemove) {
+            if (delegate.remove(toRemove)) {
+                idleConnectionsCount.decrementAndGet();
+                topUpIdleConnections();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A task, one per connection, that evicts the connection from the idle connections when it expires. All state is
+     * only accessed from the eventloop of the connection.
+     */
+    private static class IdleExpiryTask<W, R> implements Runnable {
+
+        private final PooledConnectionProviderImpl<W, R> provider;
+        private PooledConnection<R, W> connection;
+        private boolean scheduled;
+
+        private IdleExpiryTask(PooledConnectionProviderImpl<W, R> provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public void run() {
+            scheduled = false;
+            if (provider.isShutdown) {
+                return;
+            }
+
+            final PooledConnection<R, W> _connection = connection;
+            final Channel channel = _connection.unsafeNettyChannel();
+            final long expiryTimeMillis = Math.min(_connection.getLastReturnToPoolTimeMillis()
+                                                   + _connection.getMaxIdleTimeMillis(),
+                                                   _connection.getLifetimeExpiryTimeMillis());
+            final long remainingMillis = expiryTimeMillis - System.currentTimeMillis();
+
+            if (remainingMillis > 0 && _connection.isUsable()) {
+                /*Connection is in use or was released after this task was scheduled.*/
+                scheduled = true;
+                channel.eventLoop().schedule(this, remainingMillis, MILLISECONDS);
+            } else if (provider.idleConnectionsHolder.remove(_connection)) {
+                provider.discardNow(_connection);
+            }
+            /*Else, the connection is in use or already discarded, next release schedules the expiry again.*/
+        }
+    }
+
     private class ReleaseTask implements Runnable {
 
         private final PooledConnection<R, W> connection;
@@ -258,10 +660,17 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
                 if (eventPublisher.publishingEnabled()) {
                     eventListener.onPoolReleaseStart();
                 }
+                if (null != latencyAwareStrategy) {
+                    Long acquireTimeNanos = connection.unsafeNettyChannel().attr(ACQUIRE_TIME_NANOS).getAndSet(null);
+                    if (null != acquireTimeNanos) {
+                        latencyAwareStrategy.onConnectionReleased(System.nanoTime() - acquireTimeNanos, NANOSECONDS);
+                    }
+                }
                 if (isShutdown || !connection.isUsable()) {
                     discardNow(connection);
-                } else {
+                } else if (!handOverToPendingAcquire(connection)) {
                     idleConnectionsHolder.add(connection);
+                    scheduleIdleExpiry(connection);
                 }
 
                 if (eventPublisher.publishingEnabled()) {
@@ -277,6 +686,93 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
         }
     }
 
+    /**
+     * An acquire waiting for a connection. Exactly one of, handing over a connection, timeout, unsubscription or
+     * shutdown, claims this acquire.
+     */
+    private class PendingAcquire {
+
+        private final Subscriber<? super PooledConnection<R, W>> subscriber;
+        private final long waitStartTimeNanos;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile Subscription timeoutSubscription;
+
+        private PendingAcquire(Subscriber<? super PooledConnection<R, W>> subscriber) {
+            this.subscriber = subscriber;
+            waitStartTimeNanos = Clock.newStartTimeNanos();
+            subscriber.add(Subscriptions.create(new Action0() {
+                @Override
+                public void call() {
+                    if (claim()) {
+                        pendingAcquires.remove(PendingAcquire.this);
+                        publishWaitFailed(new CancellationException("Pending acquire unsubscribed."));
+                    }
+                }
+            }));
+        }
+
+        private void startTimeout() {
+            timeoutSubscription = Observable.timer(pendingAcquireTimeoutMillis, MILLISECONDS,
+                                                   pendingAcquireTimeoutScheduler)
+                                            .subscribe(new Action1<Long>() {
+                                                @Override
+                                                public void call(Long aLong) {
+                                                    if (claim()) {
+                                                        pendingAcquires.remove(PendingAcquire.this);
+                                                        onError(new PoolExhaustedException(
+                                                                "Timed out waiting for a connection from the pool."));
+                                                    }
+                                                }
+                                            });
+            if (claimed.get()) {
+                timeoutSubscription.unsubscribe(); /*Claimed before the timeout started.*/
+            }
+        }
+
+        private boolean claim() {
+            if (claimed.compareAndSet(false, true)) {
+                pendingAcquiresCount.decrementAndGet();
+                Subscription _timeoutSubscription = timeoutSubscription;
+                if (null != _timeoutSubscription) {
+                    _timeoutSubscription.unsubscribe();
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private void onConnection(PooledConnection<R, W> connection) {
+            publishWaitSuccess();
+            subscriber.onNext(connection);
+            subscriber.onCompleted();
+        }
+
+        /*A creation permit must be acquired before calling this method.*/
+        private void connect() {
+            publishWaitSuccess();
+            PooledConnectionProviderImpl.this.connect().unsafeSubscribe(subscriber);
+        }
+
+        private void onError(Throwable throwable) {
+            publishWaitFailed(throwable);
+            subscriber.onError(throwable);
+        }
+
+        private void publishWaitSuccess() {
+            if (isEventPublishingEnabled()) {
+                hostConnector.getClientPublisher().onPoolAcquireWaitSuccess(Clock.onEndNanos(waitStartTimeNanos),
+                                                                            NANOSECONDS);
+            }
+        }
+
+        private void publishWaitFailed(Throwable throwable) {
+            if (isEventPublishingEnabled()) {
+                hostConnector.getClientPublisher().onPoolAcquireWaitFailed(Clock.onEndNanos(waitStartTimeNanos),
+                                                                           NANOSECONDS, throwable);
+            }
+        }
+    }
+
     private class ConnectMetricsOperator implements Operator<Connection<R, W>, PooledConnection<R, W>> {
 
         @Override
@@ -309,6 +805,9 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
 
                 @Override
                 public void onNext(PooledConnection<R, W> c) {
+                    if (null != latencyAwareStrategy) {
+                        c.unsafeNettyChannel().attr(ACQUIRE_TIME_NANOS).set(System.nanoTime());
+                    }
                     EventPublisher eventPublisher = c.unsafeNettyChannel().attr(EVENT_PUBLISHER).get();
                     if (eventPublisher.publishingEnabled()) {
                         publishingEnabled = true;
@@ -376,7 +875,7 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
 
         private boolean terminated; /*Guarded by this*/
         private Throwable error; /*Guarded by this*/
-        private boolean onNextArrived; /*Guarded by this*/
+        private boolean onNextDelivered; /*Guarded by this*/
         private final Subscriber<? super  PooledConnection<R, W>> delegate;
 
         private ScalarAsyncSubscriber(Subscriber<? super PooledConnection<R, W>> delegate) {
@@ -385,48 +884,48 @@ public final class PooledConnectionProviderImpl<W, R> extends PooledConnectionPr
 
         @Override
         public void onCompleted() {
-            boolean _onNextArrived;
+            boolean _onNextDelivered;
 
             synchronized (this) {
-                _onNextArrived = onNextArrived;
+                terminated = true;
+                _onNextDelivered = onNextDelivered;
             }
 
-            terminated = true;
-
-            if (_onNextArrived) {
+            /*Otherwise, onNext (possibly in progress on the eventloop) completes after delivering the connection.*/
+            if (_onNextDelivered) {
                 delegate.onCompleted();
             }
         }
 
         @Override
         public void onError(Throwable e) {
-            boolean _onNextArrived;
+            boolean _onNextDelivered;
 
             synchronized (this) {
-                _onNextArrived = onNextArrived;
+                terminated = true;
+                error = e;
+                _onNextDelivered = onNextDelivered;
             }
-            terminated = true;
-            error = e;
 
-            if (_onNextArrived) {
+            if (_onNextDelivered) {
                 delegate.onError(e);
             }
         }
 
         @Override
         public void onNext(PooledConnection<R, W> conn) {
+            delegate.onNext(conn);
+
             boolean _terminated;
             Throwable _error;
             synchronized (this) {
-                onNextArrived = true;
+                onNextDelivered = true;
                 _terminated = terminated;
                 _error = error;
             }
 
-            delegate.onNext(conn);
-
             if (_terminated) {
-                if (null != error) {
+                if (null != _error) {
                     delegate.onError(_error);
                 } else {
                     delegate.onCompleted();
@@ -52,15 +52,17 @@ public class PreferCurrentEventLoopHolder<W, R> extends IdleConnectionsHolder<W,
 
     private final FastThreadLocal<IdleConnectionsHolder<W, R>> perElHolder = new FastThreadLocal<>();
     private final ArrayList<IdleConnectionsHolder<W, R>> allElHolders;
+    private final PreferCurrentEventLoopGroup eventLoopGroup;
     private final Observable<PooledConnection<R, W>> pollObservable;
     private final Observable<PooledConnection<R, W>> peekObservable;
 
-    PreferCurrentEventLoopHolder(PreferCurrentEventLoopGroup eventLoopGroup) {
+    public PreferCurrentEventLoopHolder(PreferCurrentEventLoopGroup eventLoopGroup) {
         this(eventLoopGroup, new FIFOIdleConnectionsHolderFactory<W, R>());
     }
 
-    PreferCurrentEventLoopHolder(PreferCurrentEventLoopGroup eventLoopGroup,
-                                 final IdleConnectionsHolderFactory<W, R> holderFactory) {
+    public PreferCurrentEventLoopHolder(PreferCurrentEventLoopGroup eventLoopGroup,
+                                        final IdleConnectionsHolderFactory<W, R> holderFactory) {
+        this.eventLoopGroup = eventLoopGroup;
         final ArrayList<IdleConnectionsHolder<W, R>> _allElHolders = new ArrayList<>();
         allElHolders = _allElHolders;
         for (final EventExecutor child : eventLoopGroup) {
@@ -155,6 +157,11 @@ public class PreferCurrentEventLoopHolder<W, R> extends IdleConnectionsHolder<W,
         return false;
     }
 
+    /*package private, used by the pool to spread new connections across eventloops.*/
+    PreferCurrentEventLoopGroup getEventLoopGroup() {
+        return eventLoopGroup;
+    }
+
     public interface IdleConnectionsHolderFactory<W, R> extends Func0<IdleConnectionsHolder<W, R>> {
     }
 
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ConnectionProvider;
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.HostConnector;
+import io.reactivex.netty.client.events.ClientEventListener;
+import io.reactivex.netty.client.loadbalancer.HostCollector.HostUpdate;
+import io.reactivex.netty.client.loadbalancer.HostCollector.HostUpdate.Action;
+import io.reactivex.netty.events.EventSource;
+import io.reactivex.netty.test.util.MockEventPublisher;
+import org.junit.Test;
+import rx.Observable;
+import rx.Single;
+import rx.Subscription;
+import rx.functions.Func1;
+import rx.subscriptions.Subscriptions;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class ApertureHostCollectorTest {
+
+    private final List<ClientEventListener> listeners = new ArrayList<>();
+
+    @Test(timeout = 60000)
+    public void testDeterministicSubset() throws Exception {
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(100);
+
+        List<HostHolder<ByteBuf, ByteBuf>> subset1 = collect(newCollector(3, 20), hosts);
+        List<HostHolder<ByteBuf, ByteBuf>> subset2 = collect(newCollector(3, 20), hosts);
+
+        assertThat("Unexpected subset size.", subset1, hasSize(5));
+        assertThat("Subset not deterministic.", subset2, equalTo(subset1));
+    }
+
+    @Test(timeout = 60000)
+    public void testSubsetsSpread() throws Exception {
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(100);
+
+        Set<HostHolder<ByteBuf, ByteBuf>> covered = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            covered.addAll(collect(newCollector(i, 20), hosts));
+        }
+
+        /*20 clients with 5 hosts each, cover all 100 hosts when evenly spread*/
+        assertThat("Subsets not spread across hosts.", covered, hasSize(100));
+    }
+
+    @Test(timeout = 60000)
+    public void testEvenClientsPerHost() throws Exception {
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(100);
+
+        Map<HostHolder<ByteBuf, ByteBuf>, Integer> clientsPerHost = new HashMap<>();
+        for (HostHolder<ByteBuf, ByteBuf> host : hosts) {
+            clientsPerHost.put(host, 0);
+        }
+        for (int i = 0; i < 30; i++) {
+            for (HostHolder<ByteBuf, ByteBuf> host : collect(newCollector(i, 30), hosts)) {
+                clientsPerHost.put(host, clientsPerHost.get(host) + 1);
+            }
+        }
+
+        /*30 clients with 5 hosts each, use every host once or twice.*/
+        assertThat("Clients not evenly spread.", new HashSet<>(clientsPerHost.values()), contains(1, 2));
+    }
+
+    @Test(timeout = 60000)
+    public void testApertureWidenedForCoverage() throws Exception {
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(28);
+
+        Set<HostHolder<ByteBuf, ByteBuf>> covered = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            List<HostHolder<ByteBuf, ByteBuf>> subset = collect(newCollector(i, 4), hosts);
+            assertThat("Aperture not widened.", subset, hasSize(7));
+            covered.addAll(subset);
+        }
+
+        assertThat("Not all hosts covered.", covered, hasSize(28));
+    }
+
+    @Test(timeout = 60000)
+    public void testSmallChurnOnRemove() throws Exception {
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(100);
+        Func1<HostUpdate<ByteBuf, ByteBuf>, Single<List<HostHolder<ByteBuf, ByteBuf>>>> collector =
+                newCollector(3, 20);
+        List<HostHolder<ByteBuf, ByteBuf>> before = new ArrayList<>(collect(collector, hosts));
+
+        List<HostHolder<ByteBuf, ByteBuf>> after =
+                collector.call(new HostUpdate<>(Action.Remove, before.get(0))).toBlocking().value();
+
+        assertThat("Unexpected subset size.", after, hasSize(5));
+        List<HostHolder<ByteBuf, ByteBuf>> retained = new ArrayList<>(after);
+        retained.retainAll(before);
+        assertThat("More than one host changed.", retained, hasSize(4));
+    }
+
+    @Test(timeout = 60000)
+    public void testApertureGrowsAndShrinks() throws Exception {
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(20);
+        Func1<HostUpdate<ByteBuf, ByteBuf>, Single<List<HostHolder<ByteBuf, ByteBuf>>>> collector =
+                newCollector(0, 4);
+        List<HostHolder<ByteBuf, ByteBuf>> subset = collect(collector, hosts);
+        assertThat("Unexpected subset size.", subset, hasSize(5));
+
+        /*Collector listeners are subscribed after the listeners for the hosts themselves.*/
+        for (ClientEventListener listener : listeners.subList(hosts.size(), listeners.size())) {
+            for (int i = 0; i < 3; i++) {
+                listener.onPoolAcquireSuccess(1, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        subset = refresh(collector);
+        assertThat("Aperture did not grow on high load.", subset, hasSize(6));
+
+        for (ClientEventListener listener : listeners.subList(hosts.size(), listeners.size())) {
+            for (int i = 0; i < 3; i++) {
+                listener.onPoolReleaseStart();
+            }
+        }
+
+        subset = refresh(collector);
+        assertThat("Aperture did not shrink on low load.", subset, hasSize(5));
+        subset = refresh(collector);
+        assertThat("Aperture shrunk below minimum.", subset, hasSize(5));
+    }
+
+    private static List<HostHolder<ByteBuf, ByteBuf>> refresh(
+            Func1<HostUpdate<ByteBuf, ByteBuf>, Single<List<HostHolder<ByteBuf, ByteBuf>>>> collector) {
+        return collector.call(new HostUpdate<ByteBuf, ByteBuf>(Action.Refresh, null)).toBlocking().value();
+    }
+
+    private static List<HostHolder<ByteBuf, ByteBuf>> collect(
+            Func1<HostUpdate<ByteBuf, ByteBuf>, Single<List<HostHolder<ByteBuf, ByteBuf>>>> collector,
+            List<HostHolder<ByteBuf, ByteBuf>> hosts) {
+        List<HostHolder<ByteBuf, ByteBuf>> current = null;
+        for (HostHolder<ByteBuf, ByteBuf> host : hosts) {
+            current = collector.call(new HostUpdate<>(Action.Add, host)).toBlocking().value();
+        }
+        return current;
+    }
+
+    private static Func1<HostUpdate<ByteBuf, ByteBuf>, Single<List<HostHolder<ByteBuf, ByteBuf>>>> newCollector(
+            int instanceId, int instanceCount) {
+        return new ApertureHostCollector(instanceId, instanceCount, 5, 10, 1.0, 2.0, Observable.<Long>never())
+                .newCollector();
+    }
+
+    private List<HostHolder<ByteBuf, ByteBuf>> newHosts(int count) {
+        EventSource<ClientEventListener> eventSource = new EventSource<ClientEventListener>() {
+            @Override
+            public Subscription subscribe(ClientEventListener listener) {
+                listeners.add(listener);
+                return Subscriptions.empty();
+            }
+        };
+        ConnectionProvider<ByteBuf, ByteBuf> dummy = new ConnectionProvider<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Connection<ByteBuf, ByteBuf>> newConnectionRequest() {
+                return Observable.empty();
+            }
+        };
+
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Host host = new Host(new InetSocketAddress("127.0.0." + (i % 250 + 1), 7001 + i));
+            HostConnector<ByteBuf, ByteBuf> connector = new HostConnector<>(host, dummy, eventSource,
+                                                                            MockEventPublisher.disabled(), null);
+            ClientEventListener listener = new ClientEventListener();
+            connector.subscribe(listener);
+            hosts.add(new HostHolder<>(connector, listener));
+        }
+        return hosts;
+    }
+}
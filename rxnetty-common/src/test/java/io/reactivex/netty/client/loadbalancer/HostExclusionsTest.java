@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ConnectionProvider;
+import io.reactivex.netty.client.HostConnector;
+import io.reactivex.netty.client.events.ClientEventListener;
+import io.reactivex.netty.events.EventSource;
+import io.reactivex.netty.test.util.MockEventPublisher;
+import org.junit.Test;
+import rx.Observable;
+import rx.Subscription;
+import rx.functions.Func0;
+import rx.subscriptions.Subscriptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategyTest.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class HostExclusionsTest {
+
+    private final List<AtomicInteger> selections = new ArrayList<>();
+
+    @Test(timeout = 60000)
+    public void testAttemptsUseDifferentHosts() throws Exception {
+        final ConnectionProvider<ByteBuf, ByteBuf> provider = newProvider(3);
+        Observable<Connection<ByteBuf, ByteBuf>> attempt = new HostExclusions().wrap(newRequest(provider));
+
+        for (int i = 0; i < 3; i++) {
+            attempt.subscribe();
+        }
+
+        for (AtomicInteger selection : selections) {
+            assertThat("Host not selected once.", selection.get(), is(1));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testAllHostsExcluded() throws Exception {
+        final ConnectionProvider<ByteBuf, ByteBuf> provider = newProvider(2);
+        Observable<Connection<ByteBuf, ByteBuf>> attempt = new HostExclusions().wrap(newRequest(provider));
+
+        for (int i = 0; i < 3; i++) {
+            attempt.subscribe();
+        }
+
+        assertThat("First host not selected after all hosts are excluded.", selections.get(0).get(), is(2));
+        assertThat("Unexpected selections of second host.", selections.get(1).get(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testNoExclusionsOutsideAttempt() throws Exception {
+        final ConnectionProvider<ByteBuf, ByteBuf> provider = newProvider(2);
+        new HostExclusions().wrap(newRequest(provider)).subscribe();
+
+        provider.newConnectionRequest().subscribe();
+
+        assertThat("Request without exclusions did not select the first host.", selections.get(0).get(), is(2));
+    }
+
+    private ConnectionProvider<ByteBuf, ByteBuf> newProvider(int count) {
+        List<HostConnector<ByteBuf, ByteBuf>> connectors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AtomicInteger selection = new AtomicInteger();
+            selections.add(selection);
+            HostConnector<ByteBuf, ByteBuf> connector = newConnector(selection, i + 1);
+            connectors.add(new HostConnector<>(connector.getHost(), connector.getConnectionProvider(),
+                                               new EventSource<ClientEventListener>() {
+                                                   @Override
+                                                   public Subscription subscribe(ClientEventListener listener) {
+                                                       return Subscriptions.empty();
+                                                   }
+                                               }, MockEventPublisher.disabled(), null));
+        }
+
+        /*Always selects the first host, unless excluded.*/
+        LoadBalancingStrategy<ByteBuf, ByteBuf> first = new LoadBalancingStrategy<ByteBuf, ByteBuf>() {
+            @Override
+            public ConnectionProvider<ByteBuf, ByteBuf> newStrategy(final List<HostHolder<ByteBuf, ByteBuf>> hosts) {
+                return new ConnectionProvider<ByteBuf, ByteBuf>() {
+                    @Override
+                    public Observable<Connection<ByteBuf, ByteBuf>> newConnectionRequest() {
+                        return hosts.get(0).getConnector().getConnectionProvider().newConnectionRequest();
+                    }
+                };
+            }
+
+            @Override
+            public HostHolder<ByteBuf, ByteBuf> toHolder(HostConnector<ByteBuf, ByteBuf> connector) {
+                return new HostHolder<>(connector, new LeastOutstandingRequestsStrategy.OutstandingRequestsListener());
+            }
+        };
+
+        return LoadBalancerFactory.create(first).newProvider(Observable.from(connectors));
+    }
+
+    private static Observable<Connection<ByteBuf, ByteBuf>> newRequest(
+            final ConnectionProvider<ByteBuf, ByteBuf> provider) {
+        return Observable.defer(new Func0<Observable<Connection<ByteBuf, ByteBuf>>>() {
+            @Override
+            public Observable<Connection<ByteBuf, ByteBuf>> call() {
+                return provider.newConnectionRequest();
+            }
+        });
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ConnectionProvider;
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.HostConnector;
+import io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategy.OutstandingRequestsListener;
+import io.reactivex.netty.events.EventPublisher;
+import io.reactivex.netty.test.util.MockEventPublisher;
+import org.junit.Test;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class LeastOutstandingRequestsStrategyTest {
+
+    @Test(timeout = 60000)
+    public void testOutstandingRequestsCount() throws Exception {
+        OutstandingRequestsListener listener = new OutstandingRequestsListener();
+        listener.onPoolAcquireSuccess(1, TimeUnit.MILLISECONDS);
+        listener.onPoolAcquireSuccess(1, TimeUnit.MILLISECONDS);
+
+        assertThat("Unexpected outstanding requests.", listener.getOutstandingRequests(), is(2));
+
+        listener.onPoolReleaseStart();
+        assertThat("Unexpected outstanding requests post release.", listener.getOutstandingRequests(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testLeastOutstandingSelected() throws Exception {
+        LeastOutstandingRequestsStrategy<ByteBuf, ByteBuf> strategy = new LeastOutstandingRequestsStrategy<>();
+        AtomicInteger busySelections = new AtomicInteger();
+        AtomicInteger idleSelections = new AtomicInteger();
+
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = new ArrayList<>();
+        hosts.add(strategy.toHolder(newConnector(busySelections, 1)));
+        hosts.add(strategy.toHolder(newConnector(idleSelections, 2)));
+
+        acquire(hosts.get(0), 3);
+        acquire(hosts.get(1), 1);
+
+        ConnectionProvider<ByteBuf, ByteBuf> cp = strategy.newStrategy(hosts);
+        for (int i = 0; i < 10; i++) {
+            TestSubscriber<Connection<ByteBuf, ByteBuf>> sub = new TestSubscriber<>();
+            cp.newConnectionRequest().subscribe(sub);
+            sub.assertNoErrors();
+        }
+
+        assertThat("Busy host selected.", busySelections.get(), is(0));
+        assertThat("Idle host not selected.", idleSelections.get(), is(10));
+    }
+
+    static HostConnector<ByteBuf, ByteBuf> newConnector(final AtomicInteger selections, int port) {
+        ConnectionProvider<ByteBuf, ByteBuf> counting = new ConnectionProvider<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Connection<ByteBuf, ByteBuf>> newConnectionRequest() {
+                selections.incrementAndGet();
+                return Observable.empty();
+            }
+        };
+        Host h = new Host(new InetSocketAddress("127.0.0.1", port));
+        EventPublisher publisher = MockEventPublisher.disabled();
+        return new HostConnector<>(h, counting, null, publisher, null);
+    }
+
+    private static void acquire(HostHolder<ByteBuf, ByteBuf> holder, int count) {
+        for (int i = 0; i < count; i++) {
+            holder.getEventListener().onPoolAcquireSuccess(1, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -35,6 +35,7 @@ import rx.Observable;
 import rx.functions.Func1;
 import rx.observers.TestSubscriber;
 import rx.subjects.PublishSubject;
+import rx.subscriptions.Subscriptions;
 
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
@@ -107,6 +108,29 @@ public class LoadBalancerFactoryTest {
         assertThat("Unexpected number of hosts lists received", testSubscriber.getOnNextEvents(), hasSize(1));
     }
 
+    @Test(timeout = 60000)
+    public void testRefreshTickerStoppedOnHostStreamCompletion() throws Exception {
+        PublishSubject<Long> ticker = PublishSubject.create();
+        TestSubscriber<List<HostHolder<String, String>>> testSubscriber = rule.newHostsListListener();
+
+        rule.initProvider(new ApertureHostCollector(0, 1, 1, 10, ApertureHostCollector.DEFAULT_LOW_LOAD,
+                                                    ApertureHostCollector.DEFAULT_HIGH_LOAD, ticker));
+        Host host = rule.emitHost();
+
+        assertThat("Unexpected number of hosts lists received", testSubscriber.getOnNextEvents(), hasSize(1));
+        assertThat("Refresh ticker not subscribed.", ticker.hasObservers(), is(true));
+
+        rule.hostStream.onCompleted();
+
+        assertThat("Refresh ticker stopped with an open host.", ticker.hasObservers(), is(true));
+
+        rule.completeHost(host);
+
+        testSubscriber.assertNoErrors();
+        assertThat("Unexpected number of hosts lists received", testSubscriber.getOnNextEvents(), hasSize(2));
+        assertThat("Refresh ticker not stopped on host stream completion.", ticker.hasObservers(), is(false));
+    }
+
     public static class LBFactoryRule extends ExternalResource {
 
         private PublishSubject<List<HostHolder<String, String>>> lists = PublishSubject.create();
@@ -116,6 +140,7 @@ public class LoadBalancerFactoryTest {
         private EventSource<ClientEventListener> eventSourceMock;
         private EventPublisher eventPublisherMock;
         private ClientEventListener eventListenerMock;
+        private LoadBalancingStrategy<String, String> strategy;
         private LoadBalancerFactory<String, String> factory;
 
         @Override
@@ -130,12 +155,14 @@ public class LoadBalancerFactoryTest {
 
                     @SuppressWarnings("unchecked")
                     EventSource<ClientEventListener> es = (EventSource<ClientEventListener>)Mockito.mock(EventSource.class);
+                    Mockito.when(es.subscribe(Mockito.any(ClientEventListener.class)))
+                           .thenReturn(Subscriptions.empty());
                     eventSourceMock = es;
 
                     eventPublisherMock = Mockito.mock(EventPublisher.class);
                     eventListenerMock = Mockito.mock(ClientEventListener.class);
 
-                    factory = LoadBalancerFactory.create(new LoadBalancingStrategy<String, String>() {
+                    strategy = new LoadBalancingStrategy<String, String>() {
                        @Override
                        public ConnectionProvider<String, String> newStrategy(List<HostHolder<String, String>> hosts) {
                            lists.onNext(hosts);
@@ -151,13 +178,22 @@ public class LoadBalancerFactoryTest {
                        public HostHolder<String, String> toHolder(HostConnector<String, String> connector) {
                            return new HostHolder<>(connector, eventListenerMock);
                        }
-                   });
+                   };
+                    factory = LoadBalancerFactory.create(strategy);
                     base.evaluate();
                 }
             };
         }
 
         public ConnectionProvider<String, String> initProvider() {
+            return initProvider(factory);
+        }
+
+        public ConnectionProvider<String, String> initProvider(HostCollector collector) {
+            return initProvider(LoadBalancerFactory.create(strategy, collector));
+        }
+
+        private ConnectionProvider<String, String> initProvider(LoadBalancerFactory<String, String> factory) {
             return factory.newProvider(hostStream.map(new Func1<Host, HostConnector<String, String>>() {
                 @Override
                 public HostConnector<String, String> call(Host host) {
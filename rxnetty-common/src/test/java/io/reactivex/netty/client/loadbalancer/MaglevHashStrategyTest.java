@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.HostConnector;
+import org.junit.Test;
+import rx.functions.Func0;
+import rx.subjects.PublishSubject;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategyTest.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class MaglevHashStrategyTest {
+
+    private static final int TABLE_SIZE = 1021;
+
+    private final AtomicReference<Object> key = new AtomicReference<>();
+
+    @Test(timeout = 60000)
+    public void testTableBalanced() throws Exception {
+        MaglevHashStrategy<ByteBuf, ByteBuf> strategy = newStrategy(Double.POSITIVE_INFINITY);
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(strategy, 5);
+
+        int[] slotsPerHost = new int[hosts.size()];
+        for (int host : strategy.newTable(hosts)) {
+            slotsPerHost[host]++;
+        }
+
+        for (int slots : slotsPerHost) {
+            assertThat("Table not balanced.", slots, allOf(greaterThanOrEqualTo(TABLE_SIZE / 5 - 1),
+                                                           lessThanOrEqualTo(TABLE_SIZE / 5 + 1)));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testSameKeySameHost() throws Exception {
+        MaglevHashStrategy<ByteBuf, ByteBuf> strategy = newStrategy(Double.POSITIVE_INFINITY);
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(strategy, 5);
+        int[] table = strategy.newTable(hosts);
+
+        key.set("key-1");
+        int selected = strategy.select(hosts, table);
+        for (int i = 0; i < 10; i++) {
+            assertThat("Same key selected a different host.", strategy.select(hosts, table), is(selected));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testMinimalDisruptionOnRemove() throws Exception {
+        MaglevHashStrategy<ByteBuf, ByteBuf> strategy = newStrategy(Double.POSITIVE_INFINITY);
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(strategy, 5);
+        int[] table = strategy.newTable(hosts);
+
+        List<HostHolder<ByteBuf, ByteBuf>> remaining = new ArrayList<>(hosts.subList(0, 4));
+        int[] newTable = strategy.newTable(remaining);
+
+        int moved = 0;
+        int keysOnRemaining = 0;
+        for (int i = 0; i < 1000; i++) {
+            key.set("key-" + i);
+            HostHolder<ByteBuf, ByteBuf> before = hosts.get(strategy.select(hosts, table));
+            if (before != hosts.get(4)) {
+                keysOnRemaining++;
+                if (remaining.get(strategy.select(remaining, newTable)) != before) {
+                    moved++;
+                }
+            }
+        }
+
+        assertThat("Too many keys moved between remaining hosts.", moved, lessThan(keysOnRemaining / 10));
+    }
+
+    @Test(timeout = 60000)
+    public void testBoundedLoadSpillover() throws Exception {
+        MaglevHashStrategy<ByteBuf, ByteBuf> strategy = newStrategy(MaglevHashStrategy.DEFAULT_LOAD_FACTOR);
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(strategy, 4);
+        int[] table = strategy.newTable(hosts);
+
+        key.set("hot-key");
+        int home = strategy.select(hosts, table);
+
+        /*Bound is ceil(1.25 * (4 + 1) / 4) = 2*/
+        for (int i = 0; i < 4; i++) {
+            hosts.get(home).getEventListener().onPoolAcquireSuccess(1, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat("Overloaded host selected.", strategy.select(hosts, table), is(not(home)));
+
+        for (int i = 0; i < 4; i++) {
+            hosts.get(home).getEventListener().onPoolReleaseStart();
+        }
+
+        assertThat("Host for the key not selected after load dropped.", strategy.select(hosts, table), is(home));
+    }
+
+    @Test(timeout = 60000)
+    public void testRemovedHostOutstandingNotCounted() throws Exception {
+        MaglevHashStrategy<ByteBuf, ByteBuf> strategy = newStrategy(MaglevHashStrategy.DEFAULT_LOAD_FACTOR);
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(strategy, 2);
+        int[] table = strategy.newTable(hosts);
+
+        PublishSubject<Void> closeNotifier = PublishSubject.create();
+        Host removedHost = new Host(new InetSocketAddress("127.0.0.1", 3), closeNotifier);
+        HostHolder<ByteBuf, ByteBuf> removed = strategy.toHolder(new HostConnector<>(removedHost, null, null,
+                                                                                     null, null));
+        for (int i = 0; i < 10; i++) {
+            removed.getEventListener().onPoolAcquireSuccess(1, TimeUnit.MILLISECONDS);
+        }
+        closeNotifier.onCompleted();
+
+        key.set("hot-key");
+        int home = strategy.select(hosts, table);
+
+        /*Bound is ceil(1.25 * (4 + 1) / 2) = 4, would be 7 if the removed host was still counted.*/
+        for (int i = 0; i < 4; i++) {
+            hosts.get(home).getEventListener().onPoolAcquireSuccess(1, TimeUnit.MILLISECONDS);
+        }
+        assertThat("Overloaded host selected.", strategy.select(hosts, table), is(not(home)));
+
+        for (int i = 0; i < 10; i++) {
+            removed.getEventListener().onPoolReleaseStart();
+        }
+        assertThat("Releases on a removed host changed the load.", strategy.select(hosts, table), is(not(home)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPrimeTableSize() throws Exception {
+        new MaglevHashStrategy<ByteBuf, ByteBuf>(newKeySupplier(), 1000, MaglevHashStrategy.DEFAULT_LOAD_FACTOR);
+    }
+
+    private MaglevHashStrategy<ByteBuf, ByteBuf> newStrategy(double loadFactor) {
+        return new MaglevHashStrategy<>(newKeySupplier(), TABLE_SIZE, loadFactor);
+    }
+
+    private Func0<Object> newKeySupplier() {
+        return new Func0<Object>() {
+            @Override
+            public Object call() {
+                return key.get();
+            }
+        };
+    }
+
+    private static List<HostHolder<ByteBuf, ByteBuf>> newHosts(MaglevHashStrategy<ByteBuf, ByteBuf> strategy,
+                                                               int count) {
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            hosts.add(strategy.toHolder(newConnector(new AtomicInteger(), i + 1)));
+        }
+        return hosts;
+    }
+}
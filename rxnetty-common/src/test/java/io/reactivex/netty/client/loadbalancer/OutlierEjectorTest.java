@@ -0,0 +1,276 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ConnectionProvider;
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.HostConnector;
+import io.reactivex.netty.client.events.ClientEventListener;
+import io.reactivex.netty.events.EventSource;
+import io.reactivex.netty.test.util.MockEventPublisher;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Scheduler.Worker;
+import rx.Subscription;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+import rx.subscriptions.Subscriptions;
+
+import java.lang.ref.WeakReference;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategyTest.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class OutlierEjectorTest {
+
+    private TestScheduler testScheduler;
+    private OutlierDetectionConfig config;
+    private final List<HostHealth> healths = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        testScheduler = Schedulers.test();
+        config = new OutlierDetectionConfig().scheduler(testScheduler)
+                                             .consecutiveFailures(3)
+                                             .baseEjectionTime(10, TimeUnit.SECONDS)
+                                             .slowStartWindow(10, TimeUnit.SECONDS)
+                                             .successRateMinRequests(10);
+    }
+
+    @Test(timeout = 60000)
+    public void testEjectOnConsecutiveFailures() throws Exception {
+        OutlierEjector<ByteBuf, ByteBuf> ejector = new OutlierEjector<>(config);
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(ejector, 3);
+        HostHealth health = healths.get(0);
+
+        health.recordFailure();
+        health.recordFailure();
+        health.recordSuccess();
+        health.recordFailure();
+        health.recordFailure();
+        assertThat("Host ejected without consecutive failures.", ejector.getUsableHosts(hosts), hasSize(3));
+
+        health.recordFailure();
+        assertThat("Host not ejected.", health.isEjected(), is(true));
+        assertThat("Ejected host usable.", ejector.getUsableHosts(hosts), not(hasItem(hosts.get(0))));
+
+        testScheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+        assertThat("Host not added back.", ejector.getUsableHosts(hosts), hasItem(hosts.get(0)));
+    }
+
+    @Test(timeout = 60000)
+    public void testEjectionTimeGrows() throws Exception {
+        OutlierEjector<ByteBuf, ByteBuf> ejector = new OutlierEjector<>(config.interval(0, TimeUnit.SECONDS));
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(ejector, 3);
+        HostHealth health = healths.get(0);
+
+        fail(health, 3);
+        testScheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+        assertThat("Host not added back after first ejection.", health.isEjected(), is(false));
+
+        fail(health, 3);
+        testScheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+        assertThat("Ejection time did not grow.", health.isEjected(), is(true));
+        testScheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+        assertThat("Host not added back after second ejection.", health.isEjected(), is(false));
+    }
+
+    @Test(timeout = 60000)
+    public void testMaxEjectionPercent() throws Exception {
+        OutlierEjector<ByteBuf, ByteBuf> ejector = new OutlierEjector<>(config);
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(ejector, 2);
+
+        fail(healths.get(0), 3);
+        fail(healths.get(1), 3);
+
+        assertThat("More than max ejection percent ejected.", ejector.getUsableHosts(hosts),
+                   contains(hosts.get(1)));
+    }
+
+    @Test(timeout = 60000)
+    public void testEjectAfterRefusedEjection() throws Exception {
+        OutlierEjector<ByteBuf, ByteBuf> ejector = new OutlierEjector<>(config);
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(ejector, 2);
+
+        fail(healths.get(0), 3);
+        fail(healths.get(1), 3);
+        testScheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+        assertThat("Host not added back.", ejector.getUsableHosts(hosts), hasSize(2));
+
+        fail(healths.get(1), 3);
+        assertThat("Host not ejected after a refused ejection.", ejector.getUsableHosts(hosts),
+                   contains(hosts.get(0)));
+    }
+
+    @Test(timeout = 60000)
+    public void testShutdownOnHostStreamCompletion() throws Exception {
+        final List<Worker> workers = new ArrayList<>();
+        LoadBalancerFactory<ByteBuf, ByteBuf> factory = LoadBalancerFactory.create(
+                new WeightedRoundRobinStrategy<ByteBuf, ByteBuf>(), config.scheduler(new Scheduler() {
+                    @Override
+                    public Worker createWorker() {
+                        Worker worker = testScheduler.createWorker();
+                        workers.add(worker);
+                        return worker;
+                    }
+                }));
+
+        factory.newProvider(Observable.<HostConnector<ByteBuf, ByteBuf>>empty());
+
+        assertThat("Unexpected workers.", workers, hasSize(1));
+        assertThat("Worker not shutdown.", workers.get(0).isUnsubscribed(), is(true));
+    }
+
+    @Test(timeout = 60000)
+    public void testEvaluationCancelledWhenUnreferenced() throws Exception {
+        final List<Worker> workers = new ArrayList<>();
+        OutlierEjector<ByteBuf, ByteBuf> ejector = new OutlierEjector<>(config.scheduler(new Scheduler() {
+            @Override
+            public Worker createWorker() {
+                Worker worker = testScheduler.createWorker();
+                workers.add(worker);
+                return worker;
+            }
+        }));
+        WeakReference<OutlierEjector<ByteBuf, ByteBuf>> ref = new WeakReference<>(ejector);
+        ejector = null;
+
+        while (null != ref.get()) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        testScheduler.advanceTimeBy(config.getIntervalMillis(), TimeUnit.MILLISECONDS);
+        assertThat("Worker not shutdown.", workers.get(0).isUnsubscribed(), is(true));
+    }
+
+    @Test(timeout = 60000)
+    public void testSuccessRateOutlier() throws Exception {
+        OutlierEjector<ByteBuf, ByteBuf> ejector = new OutlierEjector<>(config.consecutiveFailures(0)
+                                                                              .maxEjectionPercent(100));
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(ejector, 5);
+        for (int i = 0; i < hosts.size(); i++) {
+            HostHealth health = healths.get(i);
+            for (int j = 0; j < 20; j++) {
+                if (i == 0 && j % 2 == 0) {
+                    health.recordFailure();
+                } else {
+                    health.recordSuccess();
+                }
+            }
+        }
+
+        testScheduler.advanceTimeBy(config.getIntervalMillis(), TimeUnit.MILLISECONDS);
+
+        assertThat("Unexpected usable hosts.", ejector.getUsableHosts(hosts), hasSize(4));
+        assertThat("Outlier not ejected.", ejector.getUsableHosts(hosts), not(hasItem(hosts.get(0))));
+    }
+
+    @Test(timeout = 60000)
+    public void testSlowStart() throws Exception {
+        OutlierEjector<ByteBuf, ByteBuf> ejector = new OutlierEjector<>(config);
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = newHosts(ejector, 3);
+
+        fail(healths.get(0), 3);
+        testScheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+
+        assertThat("Host in slow start considered warmed up.", ejector.getWarmedUpHosts(hosts), hasSize(2));
+        long begin = ejector.getSlowStartBeginMillis(hosts);
+
+        testScheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+        assertThat("Unexpected slow start progress.", ejector.getSlowStartProgress(begin), closeTo(0.5, 0.001));
+
+        testScheduler.advanceTimeBy(5, TimeUnit.SECONDS);
+        assertThat("Host not warmed up after slow start.", ejector.getWarmedUpHosts(hosts), hasSize(3));
+    }
+
+    @Test(timeout = 60000)
+    public void testFactoryEjectsHost() throws Exception {
+        final List<List<HostHolder<ByteBuf, ByteBuf>>> lists = new ArrayList<>();
+        LoadBalancerFactory<ByteBuf, ByteBuf> factory = LoadBalancerFactory.create(
+                new WeightedRoundRobinStrategy<ByteBuf, ByteBuf>() {
+                    @Override
+                    public ConnectionProvider<ByteBuf, ByteBuf> newStrategy(List<HostHolder<ByteBuf, ByteBuf>> hosts) {
+                        lists.add(hosts);
+                        return super.newStrategy(hosts);
+                    }
+                }, config);
+
+        final List<ClientEventListener> listeners = new ArrayList<>();
+        EventSource<ClientEventListener> eventSource = new EventSource<ClientEventListener>() {
+            @Override
+            public Subscription subscribe(ClientEventListener listener) {
+                listeners.add(listener);
+                return Subscriptions.empty();
+            }
+        };
+
+        List<HostConnector<ByteBuf, ByteBuf>> connectors = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            connectors.add(new HostConnector<>(new Host(new InetSocketAddress("127.0.0.1", i)),
+                                               newConnector(new AtomicInteger(), i).getConnectionProvider(),
+                                               eventSource, MockEventPublisher.disabled(), null));
+        }
+
+        ConnectionProvider<ByteBuf, ByteBuf> provider = factory.newProvider(Observable.from(connectors));
+        assertThat("Unexpected hosts.", lists.get(lists.size() - 1), hasSize(3));
+
+        /*Every host has the strategy listener and the outlier detection listener.*/
+        ClientEventListener outlierListener = listeners.get(1);
+        for (int i = 0; i < 3; i++) {
+            outlierListener.onConnectFailed(1, TimeUnit.MILLISECONDS, new IllegalStateException());
+        }
+
+        assertThat("Host not ejected.", lists.get(lists.size() - 1), hasSize(2));
+
+        testScheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+        assertThat("Host not added back.", lists.get(lists.size() - 2), hasSize(3));
+        assertThat("Host in slow start considered warmed up.", lists.get(lists.size() - 1), hasSize(2));
+
+        testScheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+        assertThat("Host not warmed up after slow start.", lists.get(lists.size() - 1), hasSize(3));
+
+        provider.newConnectionRequest().subscribe();
+    }
+
+    private static void fail(HostHealth health, int times) {
+        for (int i = 0; i < times; i++) {
+            health.recordFailure();
+        }
+    }
+
+    private List<HostHolder<ByteBuf, ByteBuf>> newHosts(OutlierEjector<ByteBuf, ByteBuf> ejector, int count) {
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            HostHolder<ByteBuf, ByteBuf> holder = new HostHolder<>(newConnector(new AtomicInteger(), i + 1),
+                                                                   new ClientEventListener());
+            hosts.add(holder);
+            healths.add(ejector.newHealth(holder));
+        }
+        return hosts;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.loadbalancer;
+
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ConnectionProvider;
+import io.reactivex.netty.client.Host;
+import org.junit.Test;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategyTest.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class WeightedRoundRobinStrategyTest {
+
+    @Test(timeout = 60000)
+    public void testNoHosts() throws Exception {
+        ConnectionProvider<ByteBuf, ByteBuf> cp = new WeightedRoundRobinStrategy<ByteBuf, ByteBuf>()
+                .newStrategy(Collections.<HostHolder<ByteBuf, ByteBuf>>emptyList());
+        TestSubscriber<Connection<ByteBuf, ByteBuf>> sub = new TestSubscriber<>();
+        cp.newConnectionRequest().subscribe(sub);
+
+        sub.assertError(NoHostsAvailableException.class);
+    }
+
+    @Test(timeout = 60000)
+    public void testSmoothSchedule() throws Exception {
+        AtomicInteger[] selections = newSelections(3);
+        WeightedRoundRobinStrategy<ByteBuf, ByteBuf> strategy = newStrategy(5, 1, 1);
+
+        /*Smooth weighted round robin with weights 5, 1, 1*/
+        assertThat("Unexpected schedule.", strategy.newSchedule(newHosts(strategy, selections)),
+                   is(new int[] {0, 0, 1, 0, 2, 0, 0}));
+    }
+
+    @Test(timeout = 60000)
+    public void testWeightsHonored() throws Exception {
+        AtomicInteger[] selections = newSelections(3);
+        WeightedRoundRobinStrategy<ByteBuf, ByteBuf> strategy = newStrategy(20, 10, 0);
+        ConnectionProvider<ByteBuf, ByteBuf> cp = strategy.newStrategy(newHosts(strategy, selections));
+
+        for (int i = 0; i < 30; i++) {
+            TestSubscriber<Connection<ByteBuf, ByteBuf>> sub = new TestSubscriber<>();
+            cp.newConnectionRequest().subscribe(sub);
+            sub.assertNoErrors();
+        }
+
+        assertThat("Unexpected selections for host 1.", selections[0].get(), is(20));
+        assertThat("Unexpected selections for host 2.", selections[1].get(), is(10));
+        assertThat("Host with zero weight selected.", selections[2].get(), is(0));
+    }
+
+    private static AtomicInteger[] newSelections(int count) {
+        AtomicInteger[] selections = new AtomicInteger[count];
+        for (int i = 0; i < count; i++) {
+            selections[i] = new AtomicInteger();
+        }
+        return selections;
+    }
+
+    private static WeightedRoundRobinStrategy<ByteBuf, ByteBuf> newStrategy(final int... weights) {
+        return new WeightedRoundRobinStrategy<>(new Func1<Host, Integer>() {
+            @Override
+            public Integer call(Host host) {
+                return weights[((InetSocketAddress) host.getHost()).getPort() - 1];
+            }
+        });
+    }
+
+    private static List<HostHolder<ByteBuf, ByteBuf>> newHosts(WeightedRoundRobinStrategy<ByteBuf, ByteBuf> strategy,
+                                                               AtomicInteger[] selections) {
+        List<HostHolder<ByteBuf, ByteBuf>> hosts = new ArrayList<>();
+        for (int i = 0; i < selections.length; i++) {
+            hosts.add(strategy.toHolder(newConnector(selections[i], i + 1)));
+        }
+        return hosts;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.pool;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class GradientBasedStrategyTest {
+
+    @Test(timeout = 60000)
+    public void testLimitGrowsWithStableLatency() throws Exception {
+        GradientBasedStrategy strategy = new GradientBasedStrategy(10, 1, 100);
+        acquireAll(strategy);
+
+        feedWindows(strategy, 5, 1);
+
+        assertThat("Limit did not grow.", strategy.getLimit(), greaterThan(10));
+    }
+
+    @Test(timeout = 60000)
+    public void testLimitShrinksWithGrowingLatency() throws Exception {
+        GradientBasedStrategy strategy = new GradientBasedStrategy(10, 1, 100);
+        acquireAll(strategy);
+        feedWindows(strategy, 1, 1);
+        int limitAtStableLatency = strategy.getLimit();
+
+        feedWindows(strategy, 5, 10);
+
+        assertThat("Limit did not shrink.", strategy.getLimit(), lessThan(limitAtStableLatency));
+    }
+
+    @Test(timeout = 60000)
+    public void testLimitDoesNotGrowWhenUnderUsed() throws Exception {
+        GradientBasedStrategy strategy = new GradientBasedStrategy(10, 1, 100);
+
+        feedWindows(strategy, 5, 1);
+
+        assertThat("Limit grew without load.", strategy.getLimit(), is(10));
+    }
+
+    @Test(timeout = 60000)
+    public void testConnectFailureBacksOff() throws Exception {
+        GradientBasedStrategy strategy = new GradientBasedStrategy(10, 1, 100);
+
+        strategy.onConnectFailed();
+
+        assertThat("Limit did not back off.", strategy.getLimit(), is(9));
+    }
+
+    @Test(timeout = 60000)
+    public void testLimitBounds() throws Exception {
+        GradientBasedStrategy strategy = new GradientBasedStrategy(2, 2, 3);
+        acquireAll(strategy);
+
+        feedWindows(strategy, 20, 1);
+        assertThat("Limit above max.", strategy.getLimit(), is(3));
+
+        for (int i = 0; i < 20; i++) {
+            strategy.onConnectFailed();
+        }
+        assertThat("Limit below min.", strategy.getLimit(), is(2));
+    }
+
+    @Test(timeout = 60000)
+    public void testPermitsFollowLimit() throws Exception {
+        GradientBasedStrategy strategy = new GradientBasedStrategy(2, 1, 100);
+        acquireAll(strategy);
+
+        assertThat("Permit acquired beyond limit.",
+                   strategy.acquireCreationPermit(System.nanoTime(), TimeUnit.NANOSECONDS), is(false));
+
+        strategy.releasePermit();
+        strategy.onConnectFailed(); /*Limit 1.8, rounds down to 1*/
+
+        assertThat("Permit acquired beyond limit.",
+                   strategy.acquireCreationPermit(System.nanoTime(), TimeUnit.NANOSECONDS), is(false));
+        assertThat("Unexpected available permits.", strategy.getAvailablePermits(), is(0));
+    }
+
+    private static void acquireAll(GradientBasedStrategy strategy) {
+        while (strategy.acquireCreationPermit(System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            // Acquire all permits so that the limit is in use.
+        }
+    }
+
+    private static void feedWindows(GradientBasedStrategy strategy, int windows, long latencyMillis) {
+        for (int i = 0; i < windows * GradientBasedStrategy.DEFAULT_WINDOW_SIZE; i++) {
+            strategy.onConnectionReleased(latencyMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
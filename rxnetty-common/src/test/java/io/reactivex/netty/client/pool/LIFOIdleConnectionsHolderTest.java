@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.pool;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import rx.observers.TestSubscriber;
+
+import static io.reactivex.netty.client.pool.FIFOIdleConnectionsHolderTest.HolderRule.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class LIFOIdleConnectionsHolderTest {
+
+    private final LIFOIdleConnectionsHolder<String, String> holder = new LIFOIdleConnectionsHolder<>();
+
+    @Test(timeout = 60000)
+    public void testPollMostRecentFirst() throws Exception {
+        PooledConnection<String, String> added = addAConnection();
+        PooledConnection<String, String> added2 = addAConnection();
+
+        TestSubscriber<PooledConnection<String, String>> subscriber = new TestSubscriber<>();
+        holder.poll().take(1).subscribe(subscriber);
+
+        subscriber.assertNoErrors();
+        subscriber.assertValue(added2);
+
+        peekNow(holder, added); // Poll removes the item.
+    }
+
+    @Test(timeout = 60000)
+    public void testPeek() throws Exception {
+        peekNow(holder);
+
+        PooledConnection<String, String> added = addAConnection();
+        PooledConnection<String, String> added2 = addAConnection();
+
+        peekNow(holder, added2, added);
+        peekNow(holder, added2, added); // Peek does not removes the item.
+    }
+
+    @Test(timeout = 60000)
+    public void testRemove() throws Exception {
+        PooledConnection<String, String> added = addAConnection();
+        PooledConnection<String, String> added2 = addAConnection();
+
+        assertThat("Connection not removed.", holder.remove(added), is(true));
+        assertThat("Removed connection removed again.", holder.remove(added), is(false));
+
+        peekNow(holder, added2);
+    }
+
+    @Test(timeout = 60000)
+    public void testFactory() throws Exception {
+        assertThat("Unexpected holder created by factory.",
+                   LIFOIdleConnectionsHolder.<String, String>factory().call(),
+                   instanceOf(LIFOIdleConnectionsHolder.class));
+    }
+
+    private PooledConnection<String, String> addAConnection() {
+        @SuppressWarnings("unchecked")
+        PooledConnection<String, String> mock = Mockito.mock(PooledConnection.class);
+        Mockito.when(mock.isUsable()).thenReturn(true);
+
+        holder.add(mock);
+
+        return mock;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.client.pool;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ClientConnectionToChannelBridge;
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.HostConnector;
+import io.reactivex.netty.client.events.ClientEventListener;
+import io.reactivex.netty.client.pool.PooledConnectionProviderImplTest.CountingLatencyAwareStrategy;
+import io.reactivex.netty.client.pool.PooledConnectionProviderImplTest.EmbeddedConnectionProvider;
+import io.reactivex.netty.events.EventPublisher;
+import io.reactivex.netty.events.EventSource;
+import io.reactivex.netty.test.util.MockEventPublisher;
+import io.reactivex.netty.test.util.TrackableMetricEventsListener;
+import org.junit.Test;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class PerEventLoopPooledConnectionProviderTest {
+
+    private PerEventLoopPooledConnectionProvider<String, String> provider;
+    private TestScheduler testScheduler;
+
+    @Test(timeout = 60000)
+    public void testCreatedFromConfig() throws Exception {
+        PoolConfig<String, String> config = new PoolConfig<String, String>().perEventLoopPool(true);
+        Host host = new Host(new InetSocketAddress("127.0.0.1", 0));
+        MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.disabled();
+        ClientEventListener listener = new ClientEventListener();
+        HostConnector<String, String> connector =
+                new HostConnector<>(host, new EmbeddedConnectionProvider(publisher, listener), publisher, publisher,
+                                    listener);
+
+        assertThat("Unexpected provider.", PooledConnectionProvider.create(config, connector),
+                   instanceOf(PerEventLoopPooledConnectionProvider.class));
+    }
+
+    @Test(timeout = 60000, expected = IllegalArgumentException.class)
+    public void testPendingAcquiresRejected() throws Exception {
+        PoolConfig<String, String> config = new PoolConfig<String, String>().perEventLoopPool(true)
+                                                                            .maxPendingAcquires(100);
+        Host host = new Host(new InetSocketAddress("127.0.0.1", 0));
+        MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.disabled();
+        ClientEventListener listener = new ClientEventListener();
+        HostConnector<String, String> connector =
+                new HostConnector<>(host, new EmbeddedConnectionProvider(publisher, listener), publisher, publisher,
+                                    listener);
+
+        PooledConnectionProvider.create(config, connector);
+    }
+
+    @Test(timeout = 60000)
+    public void testReuse() throws Exception {
+        init(1);
+        PooledConnection<String, String> conn1 = getAConnection();
+
+        release(conn1);
+        assertThat("Connection not returned to idle.", provider.getIdleConnectionsCount(), is(1));
+
+        PooledConnection<String, String> conn2 = getAConnection();
+
+        assertThat("Connection not reused.", conn2, is(conn1));
+        assertThat("Idle connection not removed on reuse.", provider.getIdleConnectionsCount(), is(0));
+    }
+
+    @Test(timeout = 60000)
+    public void testExpiredIdleConnectionNotReused() throws Exception {
+        init(2);
+        PooledConnection<String, String> conn1 = getAConnection();
+
+        release(conn1);
+        conn1.setLastReturnToPoolTimeMillis(System.currentTimeMillis() - 60000);
+
+        PooledConnection<String, String> conn2 = getAConnection();
+
+        assertThat("Expired connection reused.", conn2, is(not(conn1)));
+        assertThat("Expired connection not discarded.", conn1.unsafeNettyChannel().isActive(), is(false));
+        assertThat("Unexpected idle connections.", provider.getIdleConnectionsCount(), is(0));
+    }
+
+    @Test(timeout = 60000)
+    public void testStealFromAnotherEventLoop() throws Exception {
+        init(2);
+        PooledConnection<String, String> conn1 = getAConnection();
+        PooledConnection<String, String> conn2 = getAConnection();
+
+        /*Registers the eventloop of conn1 and leaves it empty.*/
+        release(conn1);
+        assertThat("Connection not reused.", getAConnection(), is(conn1));
+
+        release(conn2);
+
+        TestSubscriber<Connection<String, String>> subscriber = new TestSubscriber<>();
+        provider.newConnectionRequest().subscribe(subscriber);
+
+        /*Steal executes on the eventloop of conn2*/
+        subscriber.assertNoTerminalEvent();
+        ((EmbeddedChannel) conn2.unsafeNettyChannel()).runPendingTasks();
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        subscriber.assertValue(conn2);
+        assertThat("Unexpected idle connections.", provider.getIdleConnectionsCount(), is(0));
+    }
+
+    @Test(timeout = 60000)
+    public void testIdleConnectionCleanup() throws Exception {
+        init(1);
+        PooledConnection<String, String> conn1 = getAConnection();
+        release(conn1);
+
+        /*Force discard by next idle connection reap*/
+        conn1.unsafeNettyChannel().attr(ClientConnectionToChannelBridge.DISCARD_CONNECTION).set(true);
+
+        testScheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        ((EmbeddedChannel) conn1.unsafeNettyChannel()).runPendingTasks();
+
+        assertThat("Idle connection not cleaned up.", provider.getIdleConnectionsCount(), is(0));
+    }
+
+    @Test(timeout = 60000)
+    public void testPoolExhaustion() throws Exception {
+        init(1);
+        getAConnection();
+
+        TestSubscriber<Connection<String, String>> subscriber = new TestSubscriber<>();
+        provider.newConnectionRequest().subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertError(PoolExhaustedException.class);
+    }
+
+    @Test(timeout = 60000)
+    public void testLatencyAwareStrategyNotified() throws Exception {
+        CountingLatencyAwareStrategy strategy = new CountingLatencyAwareStrategy();
+        MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.disabled();
+        ClientEventListener listener = new ClientEventListener();
+        Host host = new Host(new InetSocketAddress("127.0.0.1", 0));
+        PoolConfig<String, String> config = new PoolConfig<String, String>().limitDeterminationStrategy(strategy);
+
+        provider = new PerEventLoopPooledConnectionProvider<>(config, new HostConnector<>(
+                host, new EmbeddedConnectionProvider(publisher, listener), publisher, publisher, listener));
+        PooledConnection<String, String> conn1 = getAConnection();
+        release(conn1);
+
+        assertThat("Unexpected release notifications.", strategy.releases.get(), is(1));
+
+        PooledConnection<String, String> conn2 = getAConnection();
+        assertThat("Connection not reused.", conn2, is(conn1));
+        release(conn2);
+
+        assertThat("Unexpected release notifications after reuse.", strategy.releases.get(), is(2));
+
+        provider = new PerEventLoopPooledConnectionProvider<>(config, new HostConnector<>(
+                host, new EmbeddedConnectionProvider(publisher, true, listener), publisher, publisher, listener));
+        TestSubscriber<Connection<String, String>> subscriber = new TestSubscriber<>();
+        provider.newConnectionRequest().subscribe(subscriber);
+        subscriber.awaitTerminalEvent();
+
+        assertThat("Unexpected connect failure notifications.", strategy.connectFailures.get(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testMetricEventCallback() throws Exception {
+        TrackableMetricEventsListener eventsListener = new TrackableMetricEventsListener();
+        init(1, MockEventPublisher.<ClientEventListener>enabled(), MockEventPublisher.enabled(), eventsListener);
+
+        PooledConnection<String, String> conn1 = getAConnection();
+
+        assertThat("Unexpected acquire attempted count.", eventsListener.getAcquireAttemptedCount(), is(1L));
+        assertThat("Unexpected acquire succeeded count.", eventsListener.getAcquireSucceededCount(), is(1L));
+
+        release(conn1);
+
+        assertThat("Unexpected release attempted count.", eventsListener.getReleaseAttemptedCount(), is(1L));
+        assertThat("Unexpected release succeeded count.", eventsListener.getReleaseSucceededCount(), is(1L));
+
+        getAConnection();
+
+        assertThat("Unexpected acquire attempted count.", eventsListener.getAcquireAttemptedCount(), is(2L));
+        assertThat("Unexpected acquire succeeded count.", eventsListener.getAcquireSucceededCount(), is(2L));
+        assertThat("Unexpected reuse count.", eventsListener.getReuseCount(), is(1L));
+    }
+
+    private void init(int maxConnections) {
+        MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.disabled();
+        init(maxConnections, publisher, publisher, new ClientEventListener());
+    }
+
+    private void init(int maxConnections, EventSource<? extends ClientEventListener> eventSource,
+                      EventPublisher publisher, ClientEventListener clientListener) {
+        testScheduler = Schedulers.test();
+        PoolConfig<String, String> config = new PoolConfig<>();
+        config.idleConnectionsCleanupTimer(Observable.interval(1, TimeUnit.MINUTES, testScheduler))
+              .maxConnections(maxConnections)
+              .perEventLoopPool(true);
+        Host host = new Host(new InetSocketAddress("127.0.0.1", 0));
+        EmbeddedConnectionProvider cp = new EmbeddedConnectionProvider(publisher, clientListener);
+        HostConnector<String, String> connector = new HostConnector<>(host, cp, eventSource, publisher,
+                                                                      clientListener);
+        provider = new PerEventLoopPooledConnectionProvider<>(config, connector);
+    }
+
+    private PooledConnection<String, String> getAConnection() {
+        TestSubscriber<Connection<String, String>> connSub = new TestSubscriber<>();
+        provider.newConnectionRequest().subscribe(connSub);
+
+        connSub.awaitTerminalEvent();
+        connSub.assertNoErrors();
+        assertThat("Unexpected connections returned on connect.", connSub.getOnNextEvents(), hasSize(1));
+
+        return (PooledConnection<String, String>) connSub.getOnNextEvents().get(0);
+    }
+
+    private static void release(PooledConnection<String, String> connection) {
+        TestSubscriber<Void> subscriber = new TestSubscriber<>();
+        connection.close().subscribe(subscriber);
+        ((EmbeddedChannel) connection.unsafeNettyChannel()).runPendingTasks();
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+    }
+}
@@ -51,6 +51,7 @@ import java.net.InetSocketAddress;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.reactivex.netty.client.pool.MaxConnectionsBasedStrategy.*;
 import static java.lang.annotation.ElementType.*;
@@ -216,6 +217,257 @@ public class PooledConnectionProviderImplTest {
         assertThat("Unexpected connection eviction count.", eventsListener.getEvictionCount(), is(1L));
     }
 
+    @MaxConnections(1)
+    @MaxPendingAcquires(1)
+    @Test(timeout = 60000)
+    public void testPendingAcquireGetsReleasedConnection() throws Exception {
+        final PooledConnection<String, String> conn1 = pooledFactoryRule.getAConnection();
+
+        TestSubscriber<Connection<String, String>> pending = new TestSubscriber<>();
+        pooledFactoryRule.getProvider().newConnectionRequest().subscribe(pending);
+
+        pending.assertNoTerminalEvent();
+
+        pooledFactoryRule.closeAndAwait(conn1);
+
+        pending.awaitTerminalEvent();
+        pending.assertNoErrors();
+        pending.assertValue(conn1);
+
+        pooledFactoryRule.assertNoIdleConnection();
+    }
+
+    @MaxConnections(1)
+    @MaxPendingAcquires(1)
+    @Test(timeout = 60000)
+    public void testPendingAcquireConnectsOnDiscard() throws Exception {
+        final PooledConnection<String, String> conn1 = pooledFactoryRule.getAConnection();
+
+        TestSubscriber<Connection<String, String>> pending = new TestSubscriber<>();
+        pooledFactoryRule.getProvider().newConnectionRequest().subscribe(pending);
+
+        pending.assertNoTerminalEvent();
+
+        /*This attribute will discard on close*/
+        conn1.unsafeNettyChannel().attr(ClientConnectionToChannelBridge.DISCARD_CONNECTION).set(true);
+        pooledFactoryRule.closeAndAwait(conn1);
+
+        pending.awaitTerminalEvent();
+        pending.assertNoErrors();
+        assertThat("Unexpected connections returned on connect.", pending.getOnNextEvents(), hasSize(1));
+        assertThat("Discarded connection returned.", pending.getOnNextEvents().get(0),
+                   is(not((Connection<String, String>) conn1)));
+    }
+
+    @MaxConnections(1)
+    @MaxPendingAcquires(1)
+    @Test(timeout = 60000)
+    public void testPendingAcquiresExhausted() throws Exception {
+        pooledFactoryRule.getAConnection();
+
+        TestSubscriber<Connection<String, String>> pending = new TestSubscriber<>();
+        pooledFactoryRule.getProvider().newConnectionRequest().subscribe(pending);
+
+        TestSubscriber<Connection<String, String>> rejected = new TestSubscriber<>();
+        pooledFactoryRule.getProvider().newConnectionRequest().subscribe(rejected);
+
+        pending.assertNoTerminalEvent();
+        rejected.awaitTerminalEvent();
+        rejected.assertError(PoolExhaustedException.class);
+    }
+
+    @Test(timeout = 60000)
+    public void testPendingAcquireTimeout() throws Exception {
+        TrackableMetricEventsListener eventsListener = new TrackableMetricEventsListener();
+
+        pooledFactoryRule.init(1, 1, MockEventPublisher.<ClientEventListener>enabled(), MockEventPublisher.enabled(),
+                               eventsListener);
+        pooledFactoryRule.getAConnection();
+
+        TestSubscriber<Connection<String, String>> pending = new TestSubscriber<>();
+        pooledFactoryRule.getProvider().newConnectionRequest().subscribe(pending);
+
+        assertThat("Unexpected acquire wait start count.", eventsListener.getAcquireWaitStartCount(), is(1L));
+        assertThat("Unexpected pending acquires.", eventsListener.getLastPendingAcquires(), is(1));
+
+        pooledFactoryRule.testScheduler.advanceTimeBy(PoolConfig.DEFAULT_PENDING_ACQUIRE_TIMEOUT_MILLIS,
+                                                      TimeUnit.MILLISECONDS);
+
+        pending.awaitTerminalEvent();
+        pending.assertError(PoolExhaustedException.class);
+
+        assertThat("Unexpected acquire wait success count.", eventsListener.getAcquireWaitSucceededCount(), is(0L));
+        assertThat("Unexpected acquire wait failed count.", eventsListener.getAcquireWaitFailedCount(), is(1L));
+
+        /*Timed out acquire must not be in the queue anymore*/
+        TestSubscriber<Connection<String, String>> next = new TestSubscriber<>();
+        pooledFactoryRule.getProvider().newConnectionRequest().subscribe(next);
+
+        next.assertNoTerminalEvent();
+        assertThat("Unexpected pending acquires.", eventsListener.getLastPendingAcquires(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testLatencyAwareStrategyNotified() throws Exception {
+        CountingLatencyAwareStrategy strategy = new CountingLatencyAwareStrategy();
+
+        MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.disabled();
+        ClientEventListener listener = new ClientEventListener();
+        Host host = new Host(new InetSocketAddress("127.0.0.1", 0));
+        PoolConfig<String, String> config = new PoolConfig<String, String>().limitDeterminationStrategy(strategy);
+
+        pooledFactoryRule.provider = new PooledConnectionProviderImpl<>(config, new HostConnector<>(
+                host, new EmbeddedConnectionProvider(publisher, listener), publisher, publisher, listener));
+        pooledFactoryRule.closeAndAwait(pooledFactoryRule.getAConnection());
+
+        assertThat("Unexpected release notifications.", strategy.releases.get(), is(1));
+
+        /*New config, so that the idle connection above is not reused.*/
+        config = new PoolConfig<String, String>().limitDeterminationStrategy(strategy);
+        PooledConnectionProviderImpl<String, String> failingProvider = new PooledConnectionProviderImpl<>(
+                config, new HostConnector<>(host, new EmbeddedConnectionProvider(publisher, true, listener),
+                                            publisher, publisher, listener));
+        TestSubscriber<Connection<String, String>> subscriber = new TestSubscriber<>();
+        failingProvider.newConnectionRequest().subscribe(subscriber);
+        subscriber.awaitTerminalEvent();
+
+        assertThat("Unexpected connect failure notifications.", strategy.connectFailures.get(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testIdleConnectionExpiry() throws Exception {
+        pooledFactoryRule.init(DEFAULT_MAX_CONNECTIONS, 0, 100);
+        PooledConnection<String, String> idleConnection = _testRelease();
+
+        awaitIdleExpiry(idleConnection);
+
+        pooledFactoryRule.assertNoIdleConnection();
+        assertThat("Expired connection not discarded.", idleConnection.unsafeNettyChannel().isActive(), is(false));
+    }
+
+    @Test(timeout = 60000)
+    public void testReusedConnectionNotExpired() throws Exception {
+        pooledFactoryRule.init(DEFAULT_MAX_CONNECTIONS, 0, 100);
+        PooledConnection<String, String> idleConnection = _testRelease();
+
+        PooledConnection<String, String> reused = pooledFactoryRule.getAConnection();
+        assertThat("Connection not reused.", reused, is(idleConnection));
+
+        awaitIdleExpiry(idleConnection);
+
+        assertThat("Connection in use, discarded.", reused.unsafeNettyChannel().isActive(), is(true));
+    }
+
+    @Test(timeout = 60000)
+    public void testConnectionRetiredOnReleaseAfterLifetime() throws Exception {
+        TrackableMetricEventsListener eventsListener = new TrackableMetricEventsListener();
+        MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.enabled();
+        Host host = new Host(new InetSocketAddress("127.0.0.1", 0));
+        PoolConfig<String, String> config = new PoolConfig<String, String>()
+                .maxConnectionLifetime(50, 0, TimeUnit.MILLISECONDS)
+                .idleConnectionsHolder(pooledFactoryRule.holder);
+        pooledFactoryRule.provider = new PooledConnectionProviderImpl<>(config, new HostConnector<>(
+                host, new EmbeddedConnectionProvider(publisher, eventsListener), publisher, publisher,
+                eventsListener));
+
+        PooledConnection<String, String> connection = pooledFactoryRule.getAConnection();
+
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        assertThat("Connection in use closed after lifetime.", connection.unsafeNettyChannel().isActive(), is(true));
+
+        pooledFactoryRule.closeAndAwait(connection);
+
+        pooledFactoryRule.assertNoIdleConnection();
+        assertThat("Connection not retired on release.", connection.unsafeNettyChannel().isActive(), is(false));
+        assertThat("Unexpected connection eviction count.", eventsListener.getEvictionCount(), is(1L));
+    }
+
+    @Test(timeout = 60000)
+    public void testIdleConnectionRetiredAfterLifetime() throws Exception {
+        PoolConfig<String, String> config = new PoolConfig<String, String>()
+                .maxConnectionLifetime(100, 0, TimeUnit.MILLISECONDS)
+                .idleConnectionsHolder(pooledFactoryRule.holder);
+        MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.disabled();
+        ClientEventListener listener = new ClientEventListener();
+        Host host = new Host(new InetSocketAddress("127.0.0.1", 0));
+        pooledFactoryRule.provider = new PooledConnectionProviderImpl<>(config, new HostConnector<>(
+                host, new EmbeddedConnectionProvider(publisher, listener), publisher, publisher, listener));
+
+        PooledConnection<String, String> idleConnection = _testRelease();
+
+        awaitIdleExpiry(idleConnection);
+
+        pooledFactoryRule.assertNoIdleConnection();
+        assertThat("Connection not retired after lifetime.", idleConnection.unsafeNettyChannel().isActive(),
+                   is(false));
+    }
+
+    @Test(timeout = 60000)
+    public void testConnectionLifetimeJitter() throws Exception {
+        MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.disabled();
+        EmbeddedConnectionProvider cp = new EmbeddedConnectionProvider(publisher, new ClientEventListener());
+
+        for (int i = 0; i < 100; i++) {
+            long now = System.currentTimeMillis();
+            PooledConnection<String, String> connection =
+                    PooledConnection.create(pooledFactoryRule.provider, PoolConfig.DEFAULT_MAX_IDLE_TIME_MILLIS, 1000,
+                                            500, cp.newConnectionRequest().toBlocking().single());
+            long lifetime = connection.getLifetimeExpiryTimeMillis() - now;
+            assertThat("Lifetime beyond max.", lifetime, lessThanOrEqualTo(1000L + (System.currentTimeMillis() - now)));
+            assertThat("Lifetime beyond jitter.", lifetime, greaterThanOrEqualTo(500L));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testMinIdleConnections() throws Exception {
+        PooledConnectionProvider<String, String> provider = newMinIdleProvider(2, DEFAULT_MAX_CONNECTIONS);
+
+        assertThat("Pool not warmed up on creation.", getIdleConnectionsCount(), is(2));
+
+        PooledConnection<String, String> connection = pooledFactoryRule.getAConnection(provider.newConnectionRequest());
+
+        assertThat("Connection not acquired from warmed up connections.", connection.isReused(), is(false));
+        assertThat("Minimum idle connections not topped up.", getIdleConnectionsCount(), is(2));
+    }
+
+    @Test(timeout = 60000)
+    public void testWarmUpHonorsLimit() throws Exception {
+        PooledConnectionProvider<String, String> provider = newMinIdleProvider(3, 2);
+
+        TestSubscriber<Void> subscriber = new TestSubscriber<>();
+        provider.warmUp().subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+
+        assertThat("Connections created beyond the pool limit.", getIdleConnectionsCount(), is(2));
+    }
+
+    private PooledConnectionProvider<String, String> newMinIdleProvider(int minIdleConnections, int maxConnections) {
+        MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.disabled();
+        ClientEventListener listener = new ClientEventListener();
+        Host host = new Host(new InetSocketAddress("127.0.0.1", 0));
+        PoolConfig<String, String> config = new PoolConfig<String, String>()
+                .minIdleConnections(minIdleConnections)
+                .maxConnections(maxConnections)
+                .idleConnectionsHolder(pooledFactoryRule.holder);
+        return new PooledConnectionProviderImpl<>(config, new HostConnector<>(
+                host, new EmbeddedConnectionProvider(publisher, listener), publisher, publisher, listener));
+    }
+
+    private int getIdleConnectionsCount() {
+        return pooledFactoryRule.holder.peek().count().toBlocking().single();
+    }
+
+    private static void awaitIdleExpiry(PooledConnection<String, String> connection) throws InterruptedException {
+        EmbeddedChannel channel = (EmbeddedChannel) connection.unsafeNettyChannel();
+        long nextTaskDelayNanos;
+        while ((nextTaskDelayNanos = channel.runScheduledPendingTasks()) != -1) {
+            TimeUnit.NANOSECONDS.sleep(nextTaskDelayNanos);
+        }
+    }
+
     private PooledConnection<String, String> _testRelease() throws Exception {
         final Connection<String, String> connection = pooledFactoryRule.getAConnection();
 
@@ -244,11 +496,13 @@ public class PooledConnectionProviderImplTest {
                 @Override
                 public void evaluate() throws Throwable {
                     MaxConnections maxConnections1 = description.getAnnotation(MaxConnections.class);
+                    MaxPendingAcquires maxPendingAcquires = description.getAnnotation(MaxPendingAcquires.class);
                     ClientEventListener listener = new ClientEventListener();
                     final MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.disabled();
                     int maxConnections = null == maxConnections1? DEFAULT_MAX_CONNECTIONS
                             : maxConnections1.value();
-                    init(maxConnections, publisher, publisher, listener);
+                    init(maxConnections, null == maxPendingAcquires ? 0 : maxPendingAcquires.value(), publisher,
+                         publisher, listener);
                     base.evaluate();
                 }
             };
@@ -256,13 +510,36 @@ public class PooledConnectionProviderImplTest {
 
         protected void init(int maxConnections, EventSource<? extends ClientEventListener> eventSource,
                             EventPublisher publisher, ClientEventListener clientListener) {
+            init(maxConnections, 0, eventSource, publisher, clientListener);
+        }
+
+        protected void init(int maxConnections, int maxPendingAcquires, long maxIdleTimeMillis) {
+            MockEventPublisher<ClientEventListener> publisher = MockEventPublisher.disabled();
+            init(maxConnections, maxPendingAcquires, maxIdleTimeMillis, publisher, publisher,
+                 new ClientEventListener());
+        }
+
+        protected void init(int maxConnections, int maxPendingAcquires,
+                            EventSource<? extends ClientEventListener> eventSource, EventPublisher publisher,
+                            ClientEventListener clientListener) {
+            init(maxConnections, maxPendingAcquires, PoolConfig.DEFAULT_MAX_IDLE_TIME_MILLIS, eventSource, publisher,
+                 clientListener);
+        }
+
+        protected void init(int maxConnections, int maxPendingAcquires, long maxIdleTimeMillis,
+                            EventSource<? extends ClientEventListener> eventSource, EventPublisher publisher,
+                            ClientEventListener clientListener) {
             testScheduler = Schedulers.test();
             Observable<Long> idleConnCleaner = Observable.timer(1, TimeUnit.MINUTES, testScheduler);
             holder = new FIFOIdleConnectionsHolder<>();
             PoolConfig<String, String> config = new PoolConfig<>();
             config.idleConnectionsCleanupTimer(idleConnCleaner)
                   .maxConnections(maxConnections)
-                  .idleConnectionsHolder(holder);
+                  .idleConnectionsHolder(holder)
+                  .maxPendingAcquires(maxPendingAcquires)
+                  .maxIdleTimeoutMillis(maxIdleTimeMillis)
+                  .pendingAcquireTimeout(PoolConfig.DEFAULT_PENDING_ACQUIRE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS,
+                                         testScheduler);
             Host host = new Host(new InetSocketAddress("127.0.0.1", 0));
             ConnectionProvider<String, String> cp = new EmbeddedConnectionProvider(publisher, clientListener);
             HostConnector<String, String> connector = new HostConnector<>(host, cp, eventSource, publisher,
@@ -334,7 +611,7 @@ public class PooledConnectionProviderImplTest {
 
     }
 
-    private static class EmbeddedConnectionProvider implements ConnectionProvider<String, String> {
+    static class EmbeddedConnectionProvider implements ConnectionProvider<String, String> {
 
         private final EventPublisher publisher;
         private final boolean failConnect;
@@ -374,9 +651,45 @@ public class PooledConnectionProviderImplTest {
         }
     }
 
+    static class CountingLatencyAwareStrategy implements LatencyAwarePoolLimitDeterminationStrategy {
+
+        final AtomicInteger releases = new AtomicInteger();
+        final AtomicInteger connectFailures = new AtomicInteger();
+
+        @Override
+        public void onConnectionReleased(long duration, TimeUnit timeUnit) {
+            releases.incrementAndGet();
+        }
+
+        @Override
+        public void onConnectFailed() {
+            connectFailures.incrementAndGet();
+        }
+
+        @Override
+        public boolean acquireCreationPermit(long acquireStartTime, TimeUnit timeUnit) {
+            return true;
+        }
+
+        @Override
+        public int getAvailablePermits() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void releasePermit() {
+        }
+    }
+
     @Retention(RetentionPolicy.RUNTIME)
     @Target(METHOD)
     public @interface MaxConnections {
         int value() default DEFAULT_MAX_CONNECTIONS;
     }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(METHOD)
+    public @interface MaxPendingAcquires {
+        int value();
+    }
 }
\ No newline at end of file
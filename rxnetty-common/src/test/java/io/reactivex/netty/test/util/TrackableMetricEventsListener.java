@@ -34,6 +34,10 @@ public class TrackableMetricEventsListener extends ClientEventListener {
     private final AtomicLong releaseAttemptedCount = new AtomicLong();
     private final AtomicLong releaseSucceededCount = new AtomicLong();
     private final AtomicLong releaseFailedCount = new AtomicLong();
+    private final AtomicLong acquireWaitStartCount = new AtomicLong();
+    private final AtomicLong acquireWaitSucceededCount = new AtomicLong();
+    private final AtomicLong acquireWaitFailedCount = new AtomicLong();
+    private volatile int lastPendingAcquires;
 
     @Override
     public void onConnectSuccess(long duration, TimeUnit timeUnit) {
@@ -85,6 +89,22 @@ public class TrackableMetricEventsListener extends ClientEventListener {
         acquireFailedCount.incrementAndGet();
     }
 
+    @Override
+    public void onPoolAcquireWaitStart(int pendingAcquires) {
+        lastPendingAcquires = pendingAcquires;
+        acquireWaitStartCount.incrementAndGet();
+    }
+
+    @Override
+    public void onPoolAcquireWaitSuccess(long duration, TimeUnit timeUnit) {
+        acquireWaitSucceededCount.incrementAndGet();
+    }
+
+    @Override
+    public void onPoolAcquireWaitFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        acquireWaitFailedCount.incrementAndGet();
+    }
+
     public long getAcquireAttemptedCount() {
         return acquireAttemptedCount.longValue();
     }
@@ -124,4 +144,20 @@ public class TrackableMetricEventsListener extends ClientEventListener {
     public long getReuseCount() {
         return reuseCount.longValue();
     }
+
+    public long getAcquireWaitStartCount() {
+        return acquireWaitStartCount.longValue();
+    }
+
+    public long getAcquireWaitSucceededCount() {
+        return acquireWaitSucceededCount.longValue();
+    }
+
+    public long getAcquireWaitFailedCount() {
+        return acquireWaitFailedCount.longValue();
+    }
+
+    public int getLastPendingAcquires() {
+        return lastPendingAcquires;
+    }
 }
@@ -22,8 +22,21 @@ package io.reactivex.netty.protocol.http;
 public enum HttpHandlerNames {
 
     HttpClientCodec("http-client-codec"),
+    HttpClientDecompressor("http-client-content-decompressor"),
+    HttpClientAcceptEncoding("http-client-accept-encoding"),
+    Http2ClientCodec("http2-client-codec"),
+    Http2ClientStreamCodec("http2-client-stream-codec"),
+    Http2StreamContentEncoder("http2-stream-content-encoder"),
+    Http2StreamControlFrameFilter("http2-stream-control-frame-filter"),
     HttpServerDecoder("http-server-request-decoder"),
     HttpServerEncoder("http-server-response-encoder"),
+    HttpServerCompressor("http-server-response-compressor"),
+    HttpServerChunkedWriter("http-server-chunked-writer"),
+    Http2ServerPrefaceDetector("http2-server-preface-detector"),
+    Http2ServerUpgradeHandler("http2-server-upgrade-handler"),
+    Http2ServerCodec("http2-server-codec"),
+    Http2ServerConnectionFrameHandler("http2-server-connection-frame-handler"),
+    Http2ServerStreamCodec("http2-server-stream-codec"),
     WsServerDecoder("ws-server-request-decoder"),
     WsServerEncoder("ws-server-response-encoder"),
     WsServerUpgradeHandler("ws-server-upgrade-handler"),
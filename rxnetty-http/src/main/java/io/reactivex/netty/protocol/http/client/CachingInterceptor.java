@@ -0,0 +1,559 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+import io.reactivex.netty.protocol.http.client.DecoratedHttpClientRequest.RequestDecorator;
+import io.reactivex.netty.protocol.http.client.internal.HttpClientResponseImpl;
+import rx.Observable;
+import rx.Observable.Transformer;
+import rx.Scheduler;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+
+/**
+ * An {@link Interceptor} that caches responses of {@code GET} requests in memory, as per the {@code Cache-Control},
+ * {@code Expires}, {@code ETag} and {@code Last-Modified} headers of the response. A cached response is served, without
+ * sending the request, till it is fresh. A stale response, that has an {@code ETag} or {@code Last-Modified} header, is
+ * revalidated by sending a conditional request ({@code If-None-Match} or {@code If-Modified-Since}) and if the server
+ * responds with {@code 304 Not Modified}, the cached response is served. This is transparent to the caller, who always
+ * receives a complete response.
+ *
+ * A cached response is a normal {@link HttpClientResponse} which is not associated with any connection, and it's
+ * content, like any other response, must be consumed or discarded.
+ *
+ * <h2>What is cached</h2>
+ *
+ * Only {@code 200 OK} responses of {@code GET} requests without an {@code Authorization} header are cached. This is a
+ * private cache, so {@code s-maxage} and {@code private} are ignored. Responses with {@code Cache-Control: no-store}
+ * or {@code Vary: *} are never cached, and a request with {@code Cache-Control: no-store} or {@code no-cache}, or with
+ * its own conditional headers, bypasses the cache. Responses are keyed by the request URI and the values of the request
+ * headers listed in the {@code Vary} header of the response.
+ *
+ * A response is cached only after its content is completely read by the caller, so a response whose content is
+ * discarded or is larger than the maximum entry size, is not cached.
+ *
+ * <h2>Memory</h2>
+ *
+ * The content of the cached responses is stored in pooled direct buffers and the total size of the cached content is
+ * bounded. When a new response exceeds the bound, the least recently used responses are evicted.
+ *
+ * <h2>Content type</h2>
+ *
+ * The cached content is the {@link ByteBuf} read from the connection, so this interceptor must be added before any
+ * interceptor that transforms the response content, and the response content of the intercepted requests must not be
+ * transformed using {@link HttpClientRequest#transformResponseContent(Transformer)}.
+ *
+ * @param <I> The type of the content of request.
+ */
+public final class CachingInterceptor<I> implements Interceptor<I, ByteBuf> {
+
+    private static final int DEFAULT_MAX_ENTRY_BYTES = 1024 * 1024;
+    private static final String[] NO_VARY = {};
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final Scheduler scheduler;
+    private final ByteBufAllocator allocator;
+    private final RequestDecorator decorator;
+    /*Guarded by this*/
+    private final LinkedHashMap<String, CacheEntry> entries;
+    /*Guarded by this*/
+    private long cachedBytes;
+
+    /*Visible for testing*/ CachingInterceptor(long maxBytes, int maxEntryBytes, Scheduler scheduler) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Maximum cache size must be positive. Provided: " + maxBytes);
+        }
+        if (maxEntryBytes <= 0) {
+            throw new IllegalArgumentException("Maximum entry size must be positive. Provided: " + maxEntryBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = (int) Math.min(maxEntryBytes, maxBytes);
+        this.scheduler = scheduler;
+        allocator = PooledByteBufAllocator.DEFAULT;
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        decorator = new RequestDecorator() {
+            @Override
+            public <T> Observable<HttpClientResponse<T>> decorate(HttpClientRequest<?, T> request) {
+                return cache(request);
+            }
+        };
+    }
+
+    /**
+     * Creates an interceptor that caches at most the passed number of bytes of content, and at most 1 MB of content
+     * per response.
+     */
+    public static <I> CachingInterceptor<I> create(long maxBytes) {
+        return create(maxBytes, DEFAULT_MAX_ENTRY_BYTES);
+    }
+
+    /**
+     * Creates an interceptor that caches at most {@code maxBytes} of content, and at most {@code maxEntryBytes} of
+     * content per response.
+     */
+    public static <I> CachingInterceptor<I> create(long maxBytes, int maxEntryBytes) {
+        return new CachingInterceptor<>(maxBytes, maxEntryBytes, Schedulers.immediate());
+    }
+
+    @Override
+    public RequestProvider<I, ByteBuf> intercept(final RequestProvider<I, ByteBuf> provider) {
+        return new RequestProvider<I, ByteBuf>() {
+            @Override
+            public HttpClientRequest<I, ByteBuf> createRequest(HttpVersion version, HttpMethod method, String uri) {
+                return new DecoratedHttpClientRequest<>(provider.createRequest(version, method, uri), decorator);
+            }
+        };
+    }
+
+    /**
+     * Returns the number of cached responses.
+     */
+    public synchronized int getCachedResponsesCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the total size of the content of the cached responses.
+     */
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public synchronized void invalidateAll() {
+        for (CacheEntry entry : entries.values()) {
+            entry.content.release();
+        }
+        entries.clear();
+        cachedBytes = 0;
+    }
+
+    <T> Observable<HttpClientResponse<T>> cache(final HttpClientRequest<?, T> request) {
+        if (!isCacheable(request)) {
+            return request;
+        }
+
+        final String key = request.getUri();
+        return Observable.defer(new Func0<Observable<HttpClientResponse<T>>>() {
+            @Override
+            public Observable<HttpClientResponse<T>> call() {
+                final CacheHit hit = lookup(key, request);
+                if (null == hit) {
+                    return request.map(new Func1<HttpClientResponse<T>, HttpClientResponse<T>>() {
+                        @Override
+                        public HttpClientResponse<T> call(HttpClientResponse<T> response) {
+                            return storeOnRead(key, request, response);
+                        }
+                    });
+                }
+
+                if (hit.entry.isFresh(scheduler.now())) {
+                    return Observable.just(hit.entry.<T>newResponse(hit.claim(), scheduler.now()));
+                }
+
+                return revalidate(key, request, hit);
+            }
+        });
+    }
+
+    private <T> Observable<HttpClientResponse<T>> revalidate(final String key, final HttpClientRequest<?, T> request,
+                                                             final CacheHit hit) {
+        HttpClientRequest<?, T> conditional = request;
+        if (null != hit.entry.etag) {
+            conditional = conditional.setHeader(IF_NONE_MATCH, hit.entry.etag);
+        }
+        if (null != hit.entry.lastModified) {
+            conditional = conditional.setHeader(IF_MODIFIED_SINCE, hit.entry.lastModified);
+        }
+
+        return conditional.flatMap(new Func1<HttpClientResponse<T>, Observable<HttpClientResponse<T>>>() {
+            @Override
+            public Observable<HttpClientResponse<T>> call(final HttpClientResponse<T> response) {
+                if (response.getStatus().code() != HttpResponseStatus.NOT_MODIFIED.code()) {
+                    hit.release();
+                    return Observable.just(storeOnRead(key, request, response));
+                }
+
+                return response.discardContent()
+                               .map(new Func1<Void, HttpClientResponse<T>>() {
+                                   @Override
+                                   public HttpClientResponse<T> call(Void aVoid) {
+                                       return null;
+                                   }
+                               })
+                               .concatWith(Observable.defer(new Func0<Observable<HttpClientResponse<T>>>() {
+                                   @Override
+                                   public Observable<HttpClientResponse<T>> call() {
+                                       return Observable.just(refresh(key, hit, response));
+                                   }
+                               }));
+            }
+        }).doOnUnsubscribe(new Action0() {
+            @Override
+            public void call() {
+                hit.release();
+            }
+        });
+    }
+
+    private <T> HttpClientResponse<T> refresh(String key, CacheHit hit, HttpClientResponse<T> notModified) {
+        final long now = scheduler.now();
+        HttpHeaders headers = hit.entry.headers.copy();
+        Iterator<Entry<CharSequence, CharSequence>> updates = notModified.headerIterator();
+        while (updates.hasNext()) {
+            Entry<CharSequence, CharSequence> update = updates.next();
+            if (!CONTENT_LENGTH.contentEqualsIgnoreCase(update.getKey())
+                && !TRANSFER_ENCODING.contentEqualsIgnoreCase(update.getKey())) {
+                headers.set(update.getKey(), update.getValue());
+            }
+        }
+
+        ByteBuf content = hit.claim();
+        CacheEntry refreshed = new CacheEntry(hit.entry.version, hit.entry.status, headers, content,
+                                              hit.entry.varyNames, hit.entry.varyValues, now);
+        ByteBuf served = content.retainedDuplicate();
+        put(key, refreshed);
+        return refreshed.newResponse(served, now);
+    }
+
+    private <T> HttpClientResponse<T> storeOnRead(final String key, final HttpClientRequest<?, T> request,
+                                                  final HttpClientResponse<T> response) {
+        if (!isCacheable(response)) {
+            return response;
+        }
+
+        final String[] varyNames = varyNames(response);
+        final String[] varyValues = new String[varyNames.length];
+        for (int i = 0; i < varyNames.length; i++) {
+            varyValues[i] = request.getHeader(varyNames[i]);
+        }
+
+        return response.transformContent(new Transformer<T, T>() {
+            @Override
+            public Observable<T> call(Observable<T> content) {
+                final CacheFill fill = new CacheFill(response.getContentLength(-1));
+                return content.doOnNext(new Action1<T>() {
+                    @Override
+                    public void call(T t) {
+                        fill.append(t);
+                    }
+                }).doOnCompleted(new Action0() {
+                    @Override
+                    public void call() {
+                        ByteBuf filled = fill.complete();
+                        if (null != filled) {
+                            put(key, new CacheEntry(response.getHttpVersion(), response.getStatus(),
+                                                    copyHeaders(response), filled, varyNames, varyValues,
+                                                    scheduler.now()));
+                        }
+                    }
+                }).doOnUnsubscribe(new Action0() {
+                    @Override
+                    public void call() {
+                        fill.abandon();
+                    }
+                });
+            }
+        });
+    }
+
+    private synchronized CacheHit lookup(String key, HttpClientRequest<?, ?> request) {
+        CacheEntry entry = entries.get(key);
+        if (null == entry || !entry.matchesVary(request)) {
+            return null;
+        }
+        /*Retained under the lock, so that an eviction does not release the content while it is being served.*/
+        return new CacheHit(entry, entry.content.retainedDuplicate());
+    }
+
+    private synchronized void put(String key, CacheEntry entry) {
+        CacheEntry existing = entries.put(key, entry);
+        if (null != existing) {
+            cachedBytes -= existing.size();
+            existing.content.release();
+        }
+        cachedBytes += entry.size();
+
+        Iterator<CacheEntry> lru = entries.values().iterator();
+        while (cachedBytes > maxBytes && lru.hasNext()) {
+            CacheEntry eldest = lru.next();
+            lru.remove();
+            cachedBytes -= eldest.size();
+            eldest.content.release();
+        }
+    }
+
+    private static boolean isCacheable(HttpClientRequest<?, ?> request) {
+        if (!HttpMethod.GET.equals(request.getMethod()) || request.containsHeader(AUTHORIZATION)
+            || request.containsHeader(IF_NONE_MATCH) || request.containsHeader(IF_MODIFIED_SINCE)
+            || request.containsHeader(RANGE)) {
+            return false;
+        }
+        String cacheControl = request.getHeader(CACHE_CONTROL);
+        return null == cacheControl
+               || !hasDirective(cacheControl, "no-store") && !hasDirective(cacheControl, "no-cache");
+    }
+
+    private boolean isCacheable(HttpClientResponse<?> response) {
+        if (response.getStatus().code() != HttpResponseStatus.OK.code()
+            || response.getContentLength(-1) > maxEntryBytes) {
+            return false;
+        }
+        String cacheControl = response.getHeader(CACHE_CONTROL);
+        if (null != cacheControl && hasDirective(cacheControl, "no-store")) {
+            return false;
+        }
+        String vary = response.getHeader(VARY);
+        return null == vary || !"*".equals(vary.trim());
+    }
+
+    private static String[] varyNames(HttpClientResponse<?> response) {
+        String vary = response.getHeader(VARY);
+        if (null == vary || vary.trim().isEmpty()) {
+            return NO_VARY;
+        }
+        String[] names = vary.split(",");
+        for (int i = 0; i < names.length; i++) {
+            names[i] = names[i].trim();
+        }
+        return names;
+    }
+
+    static HttpHeaders copyHeaders(HttpClientResponse<?> response) {
+        HttpHeaders headers = new DefaultHttpHeaders();
+        Iterator<Entry<CharSequence, CharSequence>> iterator = response.headerIterator();
+        while (iterator.hasNext()) {
+            Entry<CharSequence, CharSequence> header = iterator.next();
+            headers.add(header.getKey(), header.getValue());
+        }
+        return headers;
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        return null != directiveValue(cacheControl, directive);
+    }
+
+    /**
+     * Returns the value of the passed directive, an empty string if the directive has no value, and {@code null} if
+     * the directive is absent.
+     */
+    private static String directiveValue(String cacheControl, String directive) {
+        for (String token : cacheControl.split(",")) {
+            token = token.trim();
+            int eq = token.indexOf('=');
+            String name = eq < 0 ? token : token.substring(0, eq).trim();
+            if (directive.equalsIgnoreCase(name)) {
+                if (eq < 0) {
+                    return "";
+                }
+                String value = token.substring(eq + 1).trim();
+                if (value.length() > 1 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+                    value = value.substring(1, value.length() - 1);
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static long dateHeader(HttpHeaders headers, CharSequence name) {
+        try {
+            return headers.getTimeMillis(name, -1);
+        } catch (Exception e) {
+            return -1; /*Invalid dates are treated as absent*/
+        }
+    }
+
+    private static final class CacheEntry {
+
+        private final HttpVersion version;
+        private final HttpResponseStatus status;
+        private final HttpHeaders headers;
+        private final ByteBuf content;
+        private final String[] varyNames;
+        private final String[] varyValues;
+        private final String etag;
+        private final String lastModified;
+        private final long responseTimeMillis;
+        private final long freshnessLifetimeMillis;
+
+        private CacheEntry(HttpVersion version, HttpResponseStatus status, HttpHeaders headers, ByteBuf content,
+                           String[] varyNames, String[] varyValues, long nowMillis) {
+            this.version = version;
+            this.status = status;
+            this.headers = headers;
+            this.content = content;
+            this.varyNames = varyNames;
+            this.varyValues = varyValues;
+            etag = headers.get(ETAG);
+            lastModified = headers.get(LAST_MODIFIED);
+            long ageSeconds = Math.max(0, headers.getInt(AGE, 0));
+            responseTimeMillis = nowMillis - TimeUnit.SECONDS.toMillis(ageSeconds);
+            freshnessLifetimeMillis = freshnessLifetime(headers, nowMillis);
+        }
+
+        private static long freshnessLifetime(HttpHeaders headers, long nowMillis) {
+            String cacheControl = headers.get(CACHE_CONTROL);
+            if (null != cacheControl) {
+                if (hasDirective(cacheControl, "no-cache")) {
+                    return 0;
+                }
+                String maxAge = directiveValue(cacheControl, "max-age");
+                if (null != maxAge) {
+                    try {
+                        return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(maxAge)));
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+
+            long date = dateHeader(headers, DATE);
+            if (date < 0) {
+                date = nowMillis;
+            }
+            if (headers.contains(EXPIRES)) {
+                return Math.max(0, dateHeader(headers, EXPIRES) - date);
+            }
+
+            /*Heuristic freshness, 10% of the time since the last modification, as suggested by RFC 7234*/
+            long lastModified = dateHeader(headers, LAST_MODIFIED);
+            return lastModified < 0 ? 0 : Math.max(0, (date - lastModified) / 10);
+        }
+
+        private boolean isFresh(long nowMillis) {
+            return nowMillis - responseTimeMillis < freshnessLifetimeMillis;
+        }
+
+        private boolean matchesVary(HttpClientRequest<?, ?> request) {
+            for (int i = 0; i < varyNames.length; i++) {
+                String value = request.getHeader(varyNames[i]);
+                if (null == value ? null != varyValues[i] : !value.equals(varyValues[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int size() {
+            return content.readableBytes();
+        }
+
+        private <T> HttpClientResponse<T> newResponse(ByteBuf content, long nowMillis) {
+            HttpHeaders responseHeaders = headers.copy();
+            responseHeaders.setInt(AGE, (int) TimeUnit.MILLISECONDS.toSeconds(nowMillis - responseTimeMillis));
+            return HttpClientResponseImpl.newDetachedInstance(new DefaultHttpResponse(version, status, responseHeaders),
+                                                              content);
+        }
+    }
+
+    /**
+     * A cache entry along with a reference to its content, that is released or claimed exactly once.
+     */
+    private static final class CacheHit {
+
+        private final CacheEntry entry;
+        private final ByteBuf content;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private CacheHit(CacheEntry entry, ByteBuf content) {
+            this.entry = entry;
+            this.content = content;
+        }
+
+        private ByteBuf claim() {
+            if (!done.compareAndSet(false, true)) {
+                throw new IllegalStateException("Cached content already claimed.");
+            }
+            return content;
+        }
+
+        private void release() {
+            if (done.compareAndSet(false, true)) {
+                content.release();
+            }
+        }
+    }
+
+    /**
+     * Copies the content of a response, as it is read, into a pooled direct buffer.
+     */
+    private final class CacheFill {
+
+        private ByteBuf buffer;
+        private boolean abandoned;
+
+        private CacheFill(long contentLength) {
+            buffer = allocator.directBuffer((int) Math.max(0, Math.min(contentLength, maxEntryBytes)), maxEntryBytes);
+        }
+
+        private synchronized void append(Object content) {
+            if (abandoned) {
+                return;
+            }
+            if (!(content instanceof ByteBuf)
+                || ((ByteBuf) content).readableBytes() > buffer.maxWritableBytes()) {
+                abandon();
+                return;
+            }
+            ByteBuf buf = (ByteBuf) content;
+            buffer.writeBytes(buf, buf.readerIndex(), buf.readableBytes());
+        }
+
+        private synchronized ByteBuf complete() {
+            if (abandoned) {
+                return null;
+            }
+            abandoned = true;
+            ByteBuf filled = buffer;
+            buffer = null;
+            return filled;
+        }
+
+        private synchronized void abandon() {
+            if (!abandoned) {
+                abandoned = true;
+                ReferenceCountUtil.release(buffer);
+                buffer = null;
+            }
+        }
+    }
+}
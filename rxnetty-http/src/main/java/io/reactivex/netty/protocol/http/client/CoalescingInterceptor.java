@@ -0,0 +1,318 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+import io.reactivex.netty.protocol.http.client.DecoratedHttpClientRequest.RequestDecorator;
+import io.reactivex.netty.protocol.http.client.internal.HttpClientResponseImpl;
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.subscriptions.Subscriptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An {@link Interceptor} that coalesces identical concurrent {@code GET} and {@code HEAD} requests (also known as
+ * single-flight), i.e. if a request is sent while an identical request is in flight, the new request is not sent and
+ * instead receives the response of the in flight request. Requests are identical if they have the same method, URI and
+ * values for the headers passed to {@link #create(CharSequence...)}, other headers of the coalesced requests are
+ * ignored.
+ *
+ * The content of the response is read completely, before the response is emitted to all the coalesced requests, and
+ * the content is shared between them, i.e. every response emits a {@link ByteBuf#retainedDuplicate()} of the same
+ * buffer, which must be released as usual.
+ *
+ * Requests are coalesced only while in flight, once a response is emitted, a new request is sent as usual. If all
+ * coalesced requests are unsubscribed, the in flight request is unsubscribed.
+ *
+ * @param <I> The type of the content of request.
+ */
+public final class CoalescingInterceptor<I> implements Interceptor<I, ByteBuf> {
+
+    private final CharSequence[] keyHeaders;
+    private final ConcurrentMap<String, Flight> flights;
+    private final RequestDecorator decorator;
+
+    private CoalescingInterceptor(CharSequence[] keyHeaders) {
+        this.keyHeaders = keyHeaders;
+        flights = new ConcurrentHashMap<>();
+        decorator = new RequestDecorator() {
+            @Override
+            public <T> Observable<HttpClientResponse<T>> decorate(HttpClientRequest<?, T> request) {
+                return coalesce(request);
+            }
+        };
+    }
+
+    /**
+     * Creates an interceptor that coalesces requests with the same method, URI and values for the passed headers.
+     */
+    public static <I> CoalescingInterceptor<I> create(CharSequence... keyHeaders) {
+        return new CoalescingInterceptor<>(Arrays.copyOf(keyHeaders, keyHeaders.length));
+    }
+
+    @Override
+    public RequestProvider<I, ByteBuf> intercept(final RequestProvider<I, ByteBuf> provider) {
+        return new RequestProvider<I, ByteBuf>() {
+            @Override
+            public HttpClientRequest<I, ByteBuf> createRequest(HttpVersion version, HttpMethod method, String uri) {
+                return new DecoratedHttpClientRequest<>(provider.createRequest(version, method, uri), decorator);
+            }
+        };
+    }
+
+    /**
+     * Returns the number of requests currently in flight, that new identical requests are coalesced with.
+     */
+    public int getInFlightRequestsCount() {
+        return flights.size();
+    }
+
+    <T> Observable<HttpClientResponse<T>> coalesce(final HttpClientRequest<?, T> request) {
+        if (!HttpMethod.GET.equals(request.getMethod()) && !HttpMethod.HEAD.equals(request.getMethod())) {
+            return request;
+        }
+
+        final String key = newKey(request);
+        return Observable.create(new OnSubscribe<HttpClientResponse<T>>() {
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            public void call(Subscriber<? super HttpClientResponse<T>> subscriber) {
+                for (;;) {
+                    Flight flight = flights.get(key);
+                    boolean leader = false;
+                    if (null == flight) {
+                        Flight newFlight = new Flight(key, request);
+                        flight = flights.putIfAbsent(key, newFlight);
+                        if (null == flight) {
+                            flight = newFlight;
+                            leader = true;
+                        }
+                    }
+                    if (flight.join((Subscriber) subscriber)) {
+                        if (leader) {
+                            flight.start();
+                        }
+                        return;
+                    }
+                    /*Flight completed after the lookup, so remove it (if not already removed) and retry.*/
+                    flights.remove(key, flight);
+                }
+            }
+        });
+    }
+
+    private String newKey(HttpClientRequest<?, ?> request) {
+        StringBuilder key = new StringBuilder().append(request.getMethod().name()).append(' ')
+                                               .append(request.getUri());
+        for (CharSequence keyHeader : keyHeaders) {
+            key.append('\n').append(keyHeader).append(':').append(request.getHeader(keyHeader));
+        }
+        return key.toString();
+    }
+
+    /**
+     * A request in flight along with all the subscribers that are waiting for its response.
+     */
+    private final class Flight {
+
+        private final String key;
+        private final Observable<? extends HttpClientResponse<?>> request;
+        /*Guarded by this*/
+        private final List<Subscriber<? super HttpClientResponse<?>>> subscribers = new ArrayList<>();
+        /*Guarded by this*/
+        private boolean done;
+        private volatile Subscriber<?> upstream;
+
+        private Flight(String key, Observable<? extends HttpClientResponse<?>> request) {
+            this.key = key;
+            this.request = request;
+        }
+
+        private boolean join(final Subscriber<? super HttpClientResponse<?>> subscriber) {
+            synchronized (this) {
+                if (done) {
+                    return false;
+                }
+                subscribers.add(subscriber);
+            }
+            subscriber.add(Subscriptions.create(new Action0() {
+                @Override
+                public void call() {
+                    leave(subscriber);
+                }
+            }));
+            return true;
+        }
+
+        private void start() {
+            Subscriber<BufferedResponse> responseSubscriber = new Subscriber<BufferedResponse>() {
+                @Override
+                public void onCompleted() {
+                    onError(new IllegalStateException("No response received for the request."));
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    for (Subscriber<? super HttpClientResponse<?>> subscriber : finish()) {
+                        subscriber.onError(e);
+                    }
+                }
+
+                @Override
+                public void onNext(BufferedResponse response) {
+                    List<Subscriber<? super HttpClientResponse<?>>> waiting = finish();
+                    /*Duplicates are retained before the shared content is released.*/
+                    List<HttpClientResponse<?>> responses = new ArrayList<>(waiting.size());
+                    for (int i = 0; i < waiting.size(); i++) {
+                        responses.add(response.newResponse());
+                    }
+                    response.content.release();
+
+                    for (int i = 0; i < waiting.size(); i++) {
+                        Subscriber<? super HttpClientResponse<?>> subscriber = waiting.get(i);
+                        if (subscriber.isUnsubscribed()) {
+                            responses.get(i).discardContent().subscribe();
+                        } else {
+                            subscriber.onNext(responses.get(i));
+                            subscriber.onCompleted();
+                        }
+                    }
+                }
+            };
+            /*Assigned before subscribing, so that a leave() concurrent with the subscription, cancels it.*/
+            upstream = responseSubscriber;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+            }
+            request.flatMap(new Func1<HttpClientResponse<?>, Observable<BufferedResponse>>() {
+                @Override
+                public Observable<BufferedResponse> call(HttpClientResponse<?> response) {
+                    return readContent(response);
+                }
+            }).unsafeSubscribe(responseSubscriber);
+        }
+
+        private void leave(Subscriber<? super HttpClientResponse<?>> subscriber) {
+            synchronized (this) {
+                if (done || !subscribers.remove(subscriber) || !subscribers.isEmpty()) {
+                    return;
+                }
+                done = true;
+            }
+            flights.remove(key, this);
+            Subscriber<?> toCancel = upstream;
+            if (null != toCancel) {
+                toCancel.unsubscribe();
+            }
+        }
+
+        private List<Subscriber<? super HttpClientResponse<?>>> finish() {
+            flights.remove(key, this);
+            synchronized (this) {
+                if (done) {
+                    return new ArrayList<>();
+                }
+                done = true;
+                return new ArrayList<>(subscribers);
+            }
+        }
+    }
+
+    private static Observable<BufferedResponse> readContent(final HttpClientResponse<?> response) {
+        return Observable.defer(new Func0<Observable<BufferedResponse>>() {
+            @Override
+            public Observable<BufferedResponse> call() {
+                final CompositeByteBuf content = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+                final AtomicBoolean handedOff = new AtomicBoolean();
+                final Action0 releaseIfNotHandedOff = new Action0() {
+                    @Override
+                    public void call() {
+                        if (handedOff.compareAndSet(false, true)) {
+                            content.release();
+                        }
+                    }
+                };
+
+                return response.getContent()
+                               .reduce(content, new Func2<CompositeByteBuf, Object, CompositeByteBuf>() {
+                                   @Override
+                                   public CompositeByteBuf call(CompositeByteBuf composite, Object next) {
+                                       if (!(next instanceof ByteBuf)) {
+                                           ReferenceCountUtil.release(next);
+                                           throw new IllegalStateException("Only ByteBuf content can be coalesced. "
+                                                                           + "Found: " + next.getClass());
+                                       }
+                                       return composite.addComponent(true, (ByteBuf) next);
+                                   }
+                               })
+                               .map(new Func1<CompositeByteBuf, BufferedResponse>() {
+                                   @Override
+                                   public BufferedResponse call(CompositeByteBuf composite) {
+                                       handedOff.set(true);
+                                       return new BufferedResponse(response, composite);
+                                   }
+                               })
+                               .doOnTerminate(releaseIfNotHandedOff)
+                               .doOnUnsubscribe(releaseIfNotHandedOff);
+            }
+        });
+    }
+
+    /**
+     * A response with its content read completely.
+     */
+    private static final class BufferedResponse {
+
+        private final HttpVersion version;
+        private final HttpResponseStatus status;
+        private final HttpHeaders headers;
+        private final ByteBuf content;
+
+        private BufferedResponse(HttpClientResponse<?> response, ByteBuf content) {
+            version = response.getHttpVersion();
+            status = response.getStatus();
+            headers = CachingInterceptor.copyHeaders(response);
+            this.content = content;
+        }
+
+        private HttpClientResponse<?> newResponse() {
+            return HttpClientResponseImpl.newDetachedInstance(new DefaultHttpResponse(version, status, headers.copy()),
+                                                              content.retainedDuplicate());
+        }
+    }
+}
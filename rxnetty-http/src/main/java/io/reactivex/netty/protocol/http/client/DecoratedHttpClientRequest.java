@@ -0,0 +1,323 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.cookie.Cookie;
+import io.reactivex.netty.channel.AllocatingTransformer;
+import io.reactivex.netty.protocol.http.TrailingHeaders;
+import io.reactivex.netty.protocol.http.ws.client.WebSocketRequest;
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func2;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request created by an interceptor (eg: {@link HedgingInterceptor}), that decorates the execution of the request
+ * with a {@link RequestDecorator}, when subscribed. Requests with content (i.e. {@code write*Content}) are not
+ * decorated by default, as the decorators may subscribe to a request more than once and the content source may not be
+ * re-subscribed. Decorators that subscribe to a request at most once can opt-in to decorate requests with content.
+ */
+final class DecoratedHttpClientRequest<I, O> extends HttpClientRequest<I, O> {
+
+    private final HttpClientRequest<I, O> delegate;
+    private final RequestDecorator decorator;
+    private final boolean decorateContent;
+
+    DecoratedHttpClientRequest(final HttpClientRequest<I, O> delegate, final RequestDecorator decorator) {
+        this(delegate, decorator, false);
+    }
+
+    DecoratedHttpClientRequest(final HttpClientRequest<I, O> delegate, final RequestDecorator decorator,
+                               boolean decorateContent) {
+        super(new OnSubscribe<HttpClientResponse<O>>() {
+            @Override
+            public void call(Subscriber<? super HttpClientResponse<O>> subscriber) {
+                decorator.decorate(delegate).unsafeSubscribe(subscriber);
+            }
+        });
+        this.delegate = delegate;
+        this.decorator = decorator;
+        this.decorateContent = decorateContent;
+    }
+
+    @Override
+    public Observable<HttpClientResponse<O>> writeContent(Observable<I> contentSource) {
+        return decorateContent(delegate.writeContent(contentSource));
+    }
+
+    @Override
+    public Observable<HttpClientResponse<O>> writeContentAndFlushOnEach(Observable<I> contentSource) {
+        return decorateContent(delegate.writeContentAndFlushOnEach(contentSource));
+    }
+
+    @Override
+    public Observable<HttpClientResponse<O>> writeContent(Observable<I> contentSource,
+                                                          Func1<I, Boolean> flushSelector) {
+        return decorateContent(delegate.writeContent(contentSource, flushSelector));
+    }
+
+    @Override
+    public <T extends TrailingHeaders> Observable<HttpClientResponse<O>> writeContent(Observable<I> contentSource,
+                                                                                      Func0<T> trailerFactory,
+                                                                                      Func2<T, I, T> trailerMutator) {
+        return decorateContent(delegate.writeContent(contentSource, trailerFactory, trailerMutator));
+    }
+
+    @Override
+    public <T extends TrailingHeaders> Observable<HttpClientResponse<O>> writeContent(Observable<I> contentSource,
+                                                                                      Func0<T> trailerFactory,
+                                                                                      Func2<T, I, T> trailerMutator,
+                                                                                      Func1<I, Boolean> flushSelector) {
+        return decorateContent(delegate.writeContent(contentSource, trailerFactory, trailerMutator, flushSelector));
+    }
+
+    @Override
+    public Observable<HttpClientResponse<O>> writeStringContent(Observable<String> contentSource) {
+        return decorateContent(delegate.writeStringContent(contentSource));
+    }
+
+    @Override
+    public Observable<HttpClientResponse<O>> writeStringContent(Observable<String> contentSource,
+                                                                Func1<String, Boolean> flushSelector) {
+        return decorateContent(delegate.writeStringContent(contentSource, flushSelector));
+    }
+
+    @Override
+    public <T extends TrailingHeaders> Observable<HttpClientResponse<O>> writeStringContent(
+            Observable<String> contentSource, Func0<T> trailerFactory, Func2<T, String, T> trailerMutator) {
+        return decorateContent(delegate.writeStringContent(contentSource, trailerFactory, trailerMutator));
+    }
+
+    @Override
+    public <T extends TrailingHeaders> Observable<HttpClientResponse<O>> writeStringContent(
+            Observable<String> contentSource, Func0<T> trailerFactory, Func2<T, String, T> trailerMutator,
+            Func1<String, Boolean> flushSelector) {
+        return decorateContent(delegate.writeStringContent(contentSource, trailerFactory, trailerMutator,
+                                                           flushSelector));
+    }
+
+    @Override
+    public Observable<HttpClientResponse<O>> writeBytesContent(Observable<byte[]> contentSource) {
+        return decorateContent(delegate.writeBytesContent(contentSource));
+    }
+
+    @Override
+    public Observable<HttpClientResponse<O>> writeBytesContent(Observable<byte[]> contentSource,
+                                                               Func1<byte[], Boolean> flushSelector) {
+        return decorateContent(delegate.writeBytesContent(contentSource, flushSelector));
+    }
+
+    @Override
+    public <T extends TrailingHeaders> Observable<HttpClientResponse<O>> writeBytesContent(
+            Observable<byte[]> contentSource, Func0<T> trailerFactory, Func2<T, byte[], T> trailerMutator) {
+        return decorateContent(delegate.writeBytesContent(contentSource, trailerFactory, trailerMutator));
+    }
+
+    @Override
+    public <T extends TrailingHeaders> Observable<HttpClientResponse<O>> writeBytesContent(
+            Observable<byte[]> contentSource, Func0<T> trailerFactory, Func2<T, byte[], T> trailerMutator,
+            Func1<byte[], Boolean> flushSelector) {
+        return decorateContent(delegate.writeBytesContent(contentSource, trailerFactory, trailerMutator,
+                                                          flushSelector));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> readTimeOut(int timeOut, TimeUnit timeUnit) {
+        return wrap(delegate.readTimeOut(timeOut, timeUnit));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> followRedirects(int maxRedirects) {
+        return wrap(delegate.followRedirects(maxRedirects));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> followRedirects(boolean follow) {
+        return wrap(delegate.followRedirects(follow));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> setMethod(HttpMethod method) {
+        return wrap(delegate.setMethod(method));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> setUri(String newUri) {
+        return wrap(delegate.setUri(newUri));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> addHeader(CharSequence name, Object value) {
+        return wrap(delegate.addHeader(name, value));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> addHeaders(Map<? extends CharSequence, ? extends Iterable<Object>> headers) {
+        return wrap(delegate.addHeaders(headers));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> addCookie(Cookie cookie) {
+        return wrap(delegate.addCookie(cookie));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> addDateHeader(CharSequence name, Date value) {
+        return wrap(delegate.addDateHeader(name, value));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> addDateHeader(CharSequence name, Iterable<Date> values) {
+        return wrap(delegate.addDateHeader(name, values));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> addHeaderValues(CharSequence name, Iterable<Object> values) {
+        return wrap(delegate.addHeaderValues(name, values));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> setDateHeader(CharSequence name, Date value) {
+        return wrap(delegate.setDateHeader(name, value));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> setHeader(CharSequence name, Object value) {
+        return wrap(delegate.setHeader(name, value));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> setHeaders(Map<? extends CharSequence, ? extends Iterable<Object>> headers) {
+        return wrap(delegate.setHeaders(headers));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> setDateHeader(CharSequence name, Iterable<Date> values) {
+        return wrap(delegate.setDateHeader(name, values));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> setHeaderValues(CharSequence name, Iterable<Object> values) {
+        return wrap(delegate.setHeaderValues(name, values));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> removeHeader(CharSequence name) {
+        return wrap(delegate.removeHeader(name));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> setKeepAlive(boolean keepAlive) {
+        return wrap(delegate.setKeepAlive(keepAlive));
+    }
+
+    @Override
+    public HttpClientRequest<I, O> setTransferEncodingChunked() {
+        return wrap(delegate.setTransferEncodingChunked());
+    }
+
+    @Override
+    public <II> HttpClientRequest<II, O> transformContent(AllocatingTransformer<II, I> transformer) {
+        return new DecoratedHttpClientRequest<>(delegate.transformContent(transformer), decorator, decorateContent);
+    }
+
+    @Override
+    public <OO> HttpClientRequest<I, OO> transformResponseContent(Transformer<O, OO> transformer) {
+        return new DecoratedHttpClientRequest<>(delegate.transformResponseContent(transformer), decorator,
+                                                decorateContent);
+    }
+
+    @Override
+    public WebSocketRequest<O> requestWebSocketUpgrade() {
+        return delegate.requestWebSocketUpgrade();
+    }
+
+    @Override
+    public boolean containsHeader(CharSequence name) {
+        return delegate.containsHeader(name);
+    }
+
+    @Override
+    public boolean containsHeaderWithValue(CharSequence name, CharSequence value, boolean caseInsensitiveValueMatch) {
+        return delegate.containsHeaderWithValue(name, value, caseInsensitiveValueMatch);
+    }
+
+    @Override
+    public String getHeader(CharSequence name) {
+        return delegate.getHeader(name);
+    }
+
+    @Override
+    public List<String> getAllHeaders(CharSequence name) {
+        return delegate.getAllHeaders(name);
+    }
+
+    @Override
+    public Iterator<Entry<CharSequence, CharSequence>> headerIterator() {
+        return delegate.headerIterator();
+    }
+
+    @Override
+    public Set<String> getHeaderNames() {
+        return delegate.getHeaderNames();
+    }
+
+    @Override
+    public HttpVersion getHttpVersion() {
+        return delegate.getHttpVersion();
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+        return delegate.getMethod();
+    }
+
+    @Override
+    public String getUri() {
+        return delegate.getUri();
+    }
+
+    private Observable<HttpClientResponse<O>> decorateContent(Observable<HttpClientResponse<O>> withContent) {
+        if (decorateContent && withContent instanceof HttpClientRequest) {
+            @SuppressWarnings("unchecked")
+            HttpClientRequest<I, O> request = (HttpClientRequest<I, O>) withContent;
+            return decorator.decorate(request);
+        }
+        return withContent;
+    }
+
+    private HttpClientRequest<I, O> wrap(HttpClientRequest<I, O> newDelegate) {
+        return new DecoratedHttpClientRequest<>(newDelegate, decorator, decorateContent);
+    }
+
+    interface RequestDecorator {
+
+        <T> Observable<HttpClientResponse<T>> decorate(HttpClientRequest<?, T> request);
+
+    }
+}
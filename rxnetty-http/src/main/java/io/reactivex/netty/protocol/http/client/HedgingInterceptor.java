@@ -0,0 +1,312 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.reactivex.netty.client.loadbalancer.HostExclusions;
+import io.reactivex.netty.protocol.http.client.DecoratedHttpClientRequest.RequestDecorator;
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Scheduler;
+import rx.Scheduler.Worker;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.functions.Actions;
+import rx.schedulers.Schedulers;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An {@link Interceptor} that hedges idempotent requests ({@code GET}, {@code HEAD} and {@code OPTIONS}), i.e. if a
+ * response is not received within a delay, the same request is sent again, and the first response received is used.
+ * The other request is then unsubscribed, which releases its connection. A response received by the other request
+ * concurrently with the first response, is discarded.
+ *
+ * The hedged request acquires a new connection from the client. With a load balanced client (see
+ * {@code LoadBalancerFactory}), the hedged request is sent to a host other than the host of the first request, if any
+ * such host is available (see {@link HostExclusions}).
+ *
+ * <h2>Delay</h2>
+ *
+ * The delay is either fixed ({@link #fixedDelay(long, TimeUnit)}) or a percentile of the response latencies observed
+ * by this interceptor ({@link #latencyPercentile(double, long, TimeUnit)}). In the latter case, requests are not
+ * hedged till enough latencies are observed. The latency of a request is measured from the start of the first request,
+ * irrespective of which request receives the response first.
+ *
+ * An error from a request is propagated only if the other request is not in flight. Requests are not retried on
+ * errors.
+ *
+ * @param <I> The type of the content of request.
+ * @param <O> The type of the content of response.
+ */
+public final class HedgingInterceptor<I, O> implements Interceptor<I, O> {
+
+    private final long fixedDelayNanos;
+    private final LatencyHistogram latencies;
+    private final Scheduler scheduler;
+    private final RequestDecorator decorator;
+
+    private HedgingInterceptor(long fixedDelayNanos, LatencyHistogram latencies, Scheduler scheduler) {
+        this.fixedDelayNanos = fixedDelayNanos;
+        this.latencies = latencies;
+        this.scheduler = scheduler;
+        decorator = new RequestDecorator() {
+            @Override
+            public <T> Observable<HttpClientResponse<T>> decorate(HttpClientRequest<?, T> request) {
+                return hedge(request.getMethod(), request);
+            }
+        };
+    }
+
+    /**
+     * Creates an interceptor that hedges a request, if a response is not received within the passed delay.
+     */
+    public static <I, O> HedgingInterceptor<I, O> fixedDelay(long delay, TimeUnit timeUnit) {
+        return fixedDelay(delay, timeUnit, Schedulers.computation());
+    }
+
+    public static <I, O> HedgingInterceptor<I, O> fixedDelay(long delay, TimeUnit timeUnit, Scheduler scheduler) {
+        return new HedgingInterceptor<>(timeUnit.toNanos(delay), new LatencyHistogram(-1, 0), scheduler);
+    }
+
+    /**
+     * Creates an interceptor that hedges a request, if a response is not received within the passed percentile (eg:
+     * {@code 0.95}) of the observed response latencies, or the passed minimum delay, whichever is higher.
+     */
+    public static <I, O> HedgingInterceptor<I, O> latencyPercentile(double percentile, long minDelay,
+                                                                    TimeUnit timeUnit) {
+        return latencyPercentile(percentile, minDelay, timeUnit, Schedulers.computation());
+    }
+
+    public static <I, O> HedgingInterceptor<I, O> latencyPercentile(double percentile, long minDelay,
+                                                                    TimeUnit timeUnit, Scheduler scheduler) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1. Provided: " + percentile);
+        }
+        return new HedgingInterceptor<>(-1, new LatencyHistogram(percentile, timeUnit.toNanos(minDelay)), scheduler);
+    }
+
+    @Override
+    public RequestProvider<I, O> intercept(final RequestProvider<I, O> provider) {
+        return new RequestProvider<I, O>() {
+            @Override
+            public HttpClientRequest<I, O> createRequest(HttpVersion version, HttpMethod method, String uri) {
+                return new DecoratedHttpClientRequest<>(provider.createRequest(version, method, uri), decorator);
+            }
+        };
+    }
+
+    /**
+     * Returns the current delay after which a request is hedged, {@code -1} if requests are not hedged.
+     */
+    public long getHedgeDelay(TimeUnit timeUnit) {
+        long delayNanos = fixedDelayNanos >= 0 ? fixedDelayNanos : latencies.getPercentileNanos();
+        return delayNanos < 0 ? -1 : timeUnit.convert(delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    <T> Observable<HttpClientResponse<T>> hedge(HttpMethod method, Observable<HttpClientResponse<T>> source) {
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method) && !HttpMethod.OPTIONS.equals(method)) {
+            return source;
+        }
+        return Observable.create(new HedgedOnSubscribe<>(source, getHedgeDelay(TimeUnit.NANOSECONDS)));
+    }
+
+    /*Visible for testing*/ void recordLatency(long latencyNanos) {
+        latencies.record(latencyNanos);
+    }
+
+    private final class HedgedOnSubscribe<T> implements OnSubscribe<HttpClientResponse<T>> {
+
+        private final Observable<HttpClientResponse<T>> source;
+        private final long delayNanos;
+
+        private HedgedOnSubscribe(Observable<HttpClientResponse<T>> source, long delayNanos) {
+            this.source = source;
+            this.delayNanos = delayNanos;
+        }
+
+        @Override
+        public void call(final Subscriber<? super HttpClientResponse<T>> subscriber) {
+            final HedgeState<T> state = new HedgeState<>(subscriber);
+            final Observable<HttpClientResponse<T>> attempt = new HostExclusions().wrap(source);
+
+            state.primary = state.newAttempt();
+            attempt.unsafeSubscribe(state.primary);
+
+            if (delayNanos >= 0 && null == state.winner.get()) {
+                state.worker = scheduler.createWorker();
+                subscriber.add(state.worker);
+                state.worker.schedule(new Action0() {
+                    @Override
+                    public void call() {
+                        if (null == state.winner.get()) {
+                            state.hedge = state.newAttempt();
+                            attempt.unsafeSubscribe(state.hedge);
+                        }
+                    }
+                }, delayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private final class HedgeState<T> {
+
+        private final Subscriber<? super HttpClientResponse<T>> subscriber;
+        private final long startNanos = System.nanoTime();
+        private final AtomicReference<Attempt> winner = new AtomicReference<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile Attempt primary;
+        private volatile Attempt hedge;
+        private volatile Worker worker;
+
+        private HedgeState(Subscriber<? super HttpClientResponse<T>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private Attempt newAttempt() {
+            inFlight.incrementAndGet();
+            Attempt attempt = new Attempt();
+            subscriber.add(attempt);
+            return attempt;
+        }
+
+        private boolean win(Attempt attempt) {
+            if (!winner.compareAndSet(null, attempt)) {
+                return false;
+            }
+
+            Worker w = worker;
+            if (null != w) {
+                w.unsubscribe();
+            }
+            unsubscribeIfLoser(primary, attempt);
+            unsubscribeIfLoser(hedge, attempt);
+            return true;
+        }
+
+        private void unsubscribeIfLoser(Attempt candidate, Attempt winner) {
+            if (null != candidate && candidate != winner) {
+                candidate.unsubscribe();
+            }
+        }
+
+        private final class Attempt extends Subscriber<HttpClientResponse<T>> {
+
+            @Override
+            public void onNext(HttpClientResponse<T> response) {
+                if (winner.get() == this || win(this)) {
+                    latencies.record(System.nanoTime() - startNanos);
+                    subscriber.onNext(response);
+                } else {
+                    /*Lost the race, release the connection.*/
+                    response.discardContent().subscribe(Actions.empty(), Actions.<Throwable>toAction1(Actions.empty()));
+                }
+            }
+
+            @Override
+            public void onCompleted() {
+                if (winner.get() == this || inFlight.decrementAndGet() == 0 && win(this)) {
+                    subscriber.onCompleted();
+                }
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                if (winner.get() == this || inFlight.decrementAndGet() == 0 && win(this)) {
+                    subscriber.onError(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A histogram of latencies with logarithmic buckets, each bucket about 19% wider than the previous, from 1
+     * microsecond to about an hour. Older latencies are decayed by halving all counts periodically, so that the
+     * percentile follows changes in latencies.
+     */
+    private static final class LatencyHistogram {
+
+        private static final int BUCKETS = 128;
+        private static final int MIN_SAMPLES = 100;
+        private static final int DECAY_SAMPLES = 10000;
+        private static final int RECOMPUTE_SAMPLES = 64;
+        private static final long[] UPPER_BOUNDS_NANOS = new long[BUCKETS];
+
+        static {
+            for (int i = 0; i < BUCKETS; i++) {
+                UPPER_BOUNDS_NANOS[i] = (long) (1000 * Math.pow(2, i / 4.0));
+            }
+        }
+
+        private final double percentile;
+        private final long minDelayNanos;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong samples = new AtomicLong();
+        private volatile long percentileNanos = -1;
+
+        private LatencyHistogram(double percentile, long minDelayNanos) {
+            this.percentile = percentile;
+            this.minDelayNanos = minDelayNanos;
+        }
+
+        private long getPercentileNanos() {
+            return percentileNanos;
+        }
+
+        private void record(long latencyNanos) {
+            if (percentile < 0) {
+                return;
+            }
+
+            int index = Arrays.binarySearch(UPPER_BOUNDS_NANOS, latencyNanos);
+            index = index < 0 ? Math.min(-index - 1, BUCKETS - 1) : index;
+            counts.incrementAndGet(index);
+
+            final long sampleCount = samples.incrementAndGet();
+            if (sampleCount % DECAY_SAMPLES == 0) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts.set(i, counts.get(i) / 2);
+                }
+            }
+            if (sampleCount >= MIN_SAMPLES && sampleCount % RECOMPUTE_SAMPLES == 0 || sampleCount == MIN_SAMPLES) {
+                percentileNanos = Math.max(computePercentile(), minDelayNanos);
+            }
+        }
+
+        private long computePercentile() {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += counts.get(i);
+            }
+            final long target = (long) Math.ceil(total * percentile);
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                cumulative += counts.get(i);
+                if (cumulative >= target) {
+                    return UPPER_BOUNDS_NANOS[i];
+                }
+            }
+            return UPPER_BOUNDS_NANOS[BUCKETS - 1];
+        }
+    }
+}
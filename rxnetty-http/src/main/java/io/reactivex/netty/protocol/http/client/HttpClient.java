@@ -360,4 +360,61 @@ public abstract class HttpClient<I, O> extends InterceptingHttpClient<I,O> {
      * @return A new {@link HttpClient} instance.
      */
     public abstract HttpClient<I, O> followRedirects(boolean follow);
+
+    /**
+     * Creates a new client instances, inheriting all configurations from this client and decompressing {@code gzip}
+     * and {@code deflate} encoded response content. Requests without an {@code Accept-Encoding} header are sent with
+     * {@code Accept-Encoding: gzip, deflate}. <p>
+     *
+     * Content is decompressed as it is read, so {@link HttpClientResponse#getContent()} emits decompressed chunks as
+     * they arrive, and the content is read only as demanded by the subscriber of the content. The
+     * {@code Content-Encoding} and {@code Content-Length} headers are removed from decompressed responses.
+     *
+     * @return A new {@link HttpClient} instance.
+     */
+    public abstract HttpClient<I, O> enableDecompression();
+
+    /**
+     * Creates a new client instances, inheriting all configurations from this client and pipelining requests on the
+     * connections of the client, i.e. upto the passed number of requests are written on a connection without waiting
+     * for the responses. Responses are matched to the requests in the order the requests were written. <p>
+     *
+     * Only idempotent HTTP/1.1 requests without content, created by a client that does not follow redirects, are
+     * pipelined, all other requests use a connection exclusively, as usual. If the response for the oldest request
+     * on a connection is not received within the passed head of line timeout, the connection is discarded, that request
+     * fails with a {@link java.util.concurrent.TimeoutException} and the other requests written on the connection are
+     * replayed on another connection. <p>
+     *
+     * Since, responses are read in order, the content of a pipelined response is read eagerly and buffered till it is
+     * subscribed.
+     *
+     * @param maxPipelinedRequests Maximum number of outstanding requests on a connection, must be at least 1.
+     * @param headOfLineTimeout Timeout for the oldest outstanding request on a connection, a timeout {@code <= 0}
+     * disables the timeout.
+     * @param timeUnit Timeunit for the timeout.
+     *
+     * @return A new {@link HttpClient} instance.
+     */
+    public abstract HttpClient<I, O> pipelining(int maxPipelinedRequests, long headOfLineTimeout, TimeUnit timeUnit);
+
+    /**
+     * Creates a new client instances, inheriting all configurations from this client and sending requests as HTTP/2
+     * streams, i.e. upto the passed number of requests are sent concurrently on a connection, each as a separate
+     * stream. A new connection is acquired only when all connections have the maximum concurrent streams active. <p>
+     *
+     * Cleartext connections use HTTP/2 with prior knowledge (h2c). Secure connections use HTTP/2 only if the server
+     * selects {@code h2} via ALPN, so the {@link SSLEngine} of the client must be configured for ALPN, otherwise
+     * all requests use HTTP/1.1. Requests created by a client that follows redirects always use HTTP/1.1. <p>
+     *
+     * The API for requests and responses does not change, the content of a response is read from the stream only
+     * when requested by the subscriber of the content, so the HTTP/2 flow control of a stream follows the
+     * backpressure of the content subscriber. Any handlers added to the client are added to the connection and not
+     * the streams.
+     *
+     * @param maxConcurrentStreams Maximum number of concurrent streams on a connection, must be at least 1. If the
+     * server allows less concurrent streams, the limit of the server is used.
+     *
+     * @return A new {@link HttpClient} instance.
+     */
+    public abstract HttpClient<I, O> http2(int maxConcurrentStreams);
 }
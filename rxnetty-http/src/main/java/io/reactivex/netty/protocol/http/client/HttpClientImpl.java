@@ -34,13 +34,18 @@ import io.reactivex.netty.client.HostConnector;
 import io.reactivex.netty.protocol.http.HttpHandlerNames;
 import io.reactivex.netty.protocol.http.client.events.HttpClientEventPublisher;
 import io.reactivex.netty.protocol.http.client.events.HttpClientEventsListener;
+import io.reactivex.netty.protocol.http.client.internal.Http2Multiplexer;
 import io.reactivex.netty.protocol.http.client.internal.HttpChannelProviderFactory;
+import io.reactivex.netty.protocol.http.client.internal.HttpClientDecompressor;
 import io.reactivex.netty.protocol.http.client.internal.HttpClientRequestImpl;
 import io.reactivex.netty.protocol.http.client.internal.HttpClientToConnectionBridge;
+import io.reactivex.netty.protocol.http.client.DecoratedHttpClientRequest.RequestDecorator;
 import io.reactivex.netty.protocol.http.client.internal.Redirector;
+import io.reactivex.netty.protocol.http.client.internal.RequestPipeliner;
 import io.reactivex.netty.protocol.http.ws.client.Ws7To13UpgradeHandler;
 import io.reactivex.netty.protocol.tcp.client.TcpClient;
 import io.reactivex.netty.protocol.tcp.client.TcpClientImpl;
+import io.reactivex.netty.protocol.tcp.client.events.TcpClientEventPublisher;
 import io.reactivex.netty.ssl.SslCodec;
 import rx.Observable;
 import rx.Subscription;
@@ -56,22 +61,70 @@ import static io.reactivex.netty.protocol.http.client.internal.HttpClientRequest
 
 public final class HttpClientImpl<I, O> extends HttpClient<I, O> {
 
+    private static final int NO_PIPELINING = 0;
+    private static final int NO_HTTP2 = 0;
+
     private final TcpClient<?, HttpClientResponse<O>> client;
     private final int maxRedirects;
+    private final int maxPipelinedRequests;
+    private final long headOfLineTimeoutMillis;
+    private final int maxConcurrentStreams;
     private final HttpClientEventPublisher clientEventPublisher;
     private final RequestProvider<I, O> requestProvider;
 
     private HttpClientImpl(final TcpClient<?, HttpClientResponse<O>> client, final int maxRedirects,
                            HttpClientEventPublisher clientEventPublisher) {
+        this(client, maxRedirects, NO_PIPELINING, 0, NO_HTTP2, clientEventPublisher);
+    }
+
+    private HttpClientImpl(final TcpClient<?, HttpClientResponse<O>> client, final int maxRedirects,
+                           int maxPipelinedRequests, long headOfLineTimeoutMillis, int maxConcurrentStreams,
+                           HttpClientEventPublisher clientEventPublisher) {
         this.client = client;
         this.maxRedirects = maxRedirects;
+        this.maxPipelinedRequests = maxPipelinedRequests;
+        this.headOfLineTimeoutMillis = headOfLineTimeoutMillis;
+        this.maxConcurrentStreams = maxConcurrentStreams;
         this.clientEventPublisher = clientEventPublisher;
-        requestProvider = new RequestProvider<I, O>() {
-            @Override
-            public HttpClientRequest<I, O> createRequest(HttpVersion version, HttpMethod method, String uri) {
-                return HttpClientRequestImpl.create(version, method, uri, client, maxRedirects);
-            }
-        };
+        if (NO_PIPELINING == maxPipelinedRequests && NO_HTTP2 == maxConcurrentStreams) {
+            requestProvider = new RequestProvider<I, O>() {
+                @Override
+                public HttpClientRequest<I, O> createRequest(HttpVersion version, HttpMethod method, String uri) {
+                    return HttpClientRequestImpl.create(version, method, uri, client, maxRedirects);
+                }
+            };
+        } else {
+            final RequestPipeliner pipeliner = NO_PIPELINING == maxPipelinedRequests
+                    ? null
+                    : new RequestPipeliner(client, maxPipelinedRequests, headOfLineTimeoutMillis,
+                                           TimeUnit.MILLISECONDS);
+            final Http2Multiplexer multiplexer = NO_HTTP2 == maxConcurrentStreams
+                    ? null
+                    : new Http2Multiplexer(client, maxConcurrentStreams);
+            final RequestDecorator decorator = new RequestDecorator() {
+                @Override
+                public <T> Observable<HttpClientResponse<T>> decorate(HttpClientRequest<?, T> request) {
+                    if (request instanceof HttpClientRequestImpl) {
+                        HttpClientRequestImpl<?, T> impl = (HttpClientRequestImpl<?, T>) request;
+                        if (null != multiplexer && multiplexer.canMultiplex(impl)) {
+                            return multiplexer.submit(impl);
+                        }
+                        if (null != pipeliner && pipeliner.canPipeline(impl)) {
+                            return pipeliner.submit(impl);
+                        }
+                    }
+                    return request;
+                }
+            };
+            requestProvider = new RequestProvider<I, O>() {
+                @Override
+                public HttpClientRequest<I, O> createRequest(HttpVersion version, HttpMethod method, String uri) {
+                    return new DecoratedHttpClientRequest<>(HttpClientRequestImpl.<I, O>create(version, method, uri,
+                                                                                               client, maxRedirects),
+                                                            decorator, true);
+                }
+            };
+        }
     }
 
     @Override
@@ -149,6 +202,36 @@ public final class HttpClientImpl<I, O> extends HttpClient<I, O> {
         return _copy(client, follow ? Redirector.DEFAULT_MAX_REDIRECTS : NO_REDIRECTS);
     }
 
+    @Override
+    public HttpClientImpl<I, O> pipelining(int maxPipelinedRequests, long headOfLineTimeout, TimeUnit timeUnit) {
+        if (maxPipelinedRequests < 1) {
+            throw new IllegalArgumentException("Maximum pipelined requests must be at least 1. Provided: "
+                                               + maxPipelinedRequests);
+        }
+        return new HttpClientImpl<>(client, maxRedirects, maxPipelinedRequests, timeUnit.toMillis(headOfLineTimeout),
+                                    maxConcurrentStreams, clientEventPublisher);
+    }
+
+    @Override
+    public HttpClientImpl<I, O> enableDecompression() {
+        return _copy(HttpClientImpl.<O>castClient(client.pipelineConfigurator(new Action1<ChannelPipeline>() {
+            @Override
+            public void call(ChannelPipeline pipeline) {
+                HttpClientDecompressor.addAfter(pipeline, HttpHandlerNames.HttpClientCodec.getName());
+            }
+        })), maxRedirects);
+    }
+
+    @Override
+    public HttpClientImpl<I, O> http2(int maxConcurrentStreams) {
+        if (maxConcurrentStreams < 1) {
+            throw new IllegalArgumentException("Maximum concurrent streams must be at least 1. Provided: "
+                                               + maxConcurrentStreams);
+        }
+        return new HttpClientImpl<>(client, maxRedirects, maxPipelinedRequests, headOfLineTimeoutMillis,
+                                    maxConcurrentStreams, clientEventPublisher);
+    }
+
     @Override
     public <T> HttpClientImpl<I, O> channelOption(ChannelOption<T> option, T value) {
         return _copy(client.channelOption(option, value), maxRedirects);
@@ -269,7 +352,10 @@ public final class HttpClientImpl<I, O> extends HttpClient<I, O> {
                             public HostConnector<ByteBuf, ByteBuf> call(HostConnector<ByteBuf, ByteBuf> hc) {
                                 HttpClientEventPublisher hcep = new HttpClientEventPublisher();
                                 hc.subscribe(hcep);
-                                return new HostConnector<>(hc.getHost(), hc.getConnectionProvider(), hcep, hcep, hcep);
+                                return new HostConnector<>(hc.getHost(), hc.getConnectionProvider(),
+                                                           TcpClientEventPublisher.asClientEventSource(
+                                                                   hcep.asTcpEventSource()),
+                                                           hcep, hcep);
                             }
                         }));
             }
@@ -307,6 +393,7 @@ public final class HttpClientImpl<I, O> extends HttpClient<I, O> {
     }
 
     private <II, OO> HttpClientImpl<II, OO> _copy(TcpClient<?, HttpClientResponse<OO>> newClient, int maxRedirects) {
-        return new HttpClientImpl<>(newClient, maxRedirects, clientEventPublisher);
+        return new HttpClientImpl<>(newClient, maxRedirects, maxPipelinedRequests, headOfLineTimeoutMillis,
+                                    maxConcurrentStreams, clientEventPublisher);
     }
 }
@@ -72,6 +72,16 @@ public interface HttpClientInterceptorChain<I, O> {
      */
     <II, OO> HttpClientInterceptorChain<II, OO> nextWithTransform(TransformingInterceptor<I, O, II, OO> interceptor);
 
+    /**
+     * Adds an interceptor that retries the requests as per the passed policy. Retries are published as
+     * {@code HttpClientEventsListener#onRequestRetry(int, long, TimeUnit)} events of the client.
+     *
+     * @param policy Policy for the retries.
+     *
+     * @return {@code this}
+     */
+    HttpClientInterceptorChain<I, O> nextWithRetry(RetryPolicy policy);
+
     /**
      * Finish the addition of interceptors and create a new client instance.
      *
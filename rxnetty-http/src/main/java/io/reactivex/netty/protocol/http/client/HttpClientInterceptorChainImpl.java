@@ -49,6 +49,11 @@ final class HttpClientInterceptorChainImpl<I, O> implements HttpClientIntercepto
         return new HttpClientInterceptorChainImpl<>(i.intercept(rp), cep);
     }
 
+    @Override
+    public HttpClientInterceptorChain<I, O> nextWithRetry(RetryPolicy policy) {
+        return new HttpClientInterceptorChainImpl<>(new RetryingInterceptor<I, O>(policy, cep).intercept(rp), cep);
+    }
+
     @Override
     public InterceptingHttpClient<I, O> finish() {
         return new InterceptingHttpClientImpl<>(rp, cep);
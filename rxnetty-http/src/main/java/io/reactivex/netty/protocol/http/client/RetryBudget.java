@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that caps the retries made by a {@link RetryPolicy} to a fraction of the successful requests, so that
+ * retries do not multiply the load on a backend that is already failing. <p>
+ *
+ * Every successful request deposits {@code retryRatio} of a token and every retry withdraws a token. Independent of
+ * the successful requests, the bucket is refilled with {@code minRetriesPerSecond} tokens every second, so that a
+ * client with little traffic can still retry. The balance never exceeds {@code maxBalance} tokens, so retries after a
+ * long period of successes are still bounded. <p>
+ *
+ * A budget can be shared by multiple policies and clients, to cap the retries across all of them.
+ */
+public final class RetryBudget {
+
+    public static final double DEFAULT_RETRY_RATIO = 0.2;
+    public static final int DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+    public static final int DEFAULT_MAX_BALANCE = 100;
+
+    /*Balance is in thousandths of a token, so that fractional deposits do not need floating point CAS.*/
+    private static final long TOKEN = 1000;
+
+    private final long depositPerSuccess;
+    private final long refillPerSecond;
+    private final long maxBalance;
+    private final Scheduler scheduler;
+    private final AtomicLong balance;
+    private final AtomicLong lastRefillMillis;
+
+    public RetryBudget() {
+        this(DEFAULT_RETRY_RATIO, DEFAULT_MIN_RETRIES_PER_SECOND, DEFAULT_MAX_BALANCE);
+    }
+
+    public RetryBudget(double retryRatio, int minRetriesPerSecond, int maxBalance) {
+        this(retryRatio, minRetriesPerSecond, maxBalance, Schedulers.computation());
+    }
+
+    /**
+     * Creates a new budget.
+     *
+     * @param retryRatio Retries allowed per successful request, eg: {@code 0.2} allows 20% extra requests as retries.
+     * @param minRetriesPerSecond Retries allowed every second, irrespective of successful requests.
+     * @param maxBalance Maximum retries that can be accumulated.
+     * @param scheduler Scheduler used as a clock for the refill.
+     */
+    public RetryBudget(double retryRatio, int minRetriesPerSecond, int maxBalance, Scheduler scheduler) {
+        if (retryRatio < 0) {
+            throw new IllegalArgumentException("Retry ratio can not be negative. Provided: " + retryRatio);
+        }
+        if (minRetriesPerSecond < 0) {
+            throw new IllegalArgumentException("Minimum retries can not be negative. Provided: "
+                                               + minRetriesPerSecond);
+        }
+        if (maxBalance < 1) {
+            throw new IllegalArgumentException("Maximum balance must be at least 1. Provided: " + maxBalance);
+        }
+        depositPerSuccess = (long) (retryRatio * TOKEN);
+        refillPerSecond = minRetriesPerSecond * TOKEN;
+        this.maxBalance = maxBalance * TOKEN;
+        this.scheduler = scheduler;
+        balance = new AtomicLong(Math.min(refillPerSecond, this.maxBalance));
+        lastRefillMillis = new AtomicLong(scheduler.now());
+    }
+
+    /**
+     * Records a successful request.
+     */
+    public void deposit() {
+        add(depositPerSuccess);
+    }
+
+    /**
+     * Withdraws a token for a retry, if available.
+     *
+     * @return {@code true} if the retry is allowed.
+     */
+    public boolean tryWithdraw() {
+        refill();
+        for (;;) {
+            final long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of retries currently allowed by this budget.
+     */
+    public double getBalance() {
+        refill();
+        return (double) balance.get() / TOKEN;
+    }
+
+    private void refill() {
+        if (refillPerSecond == 0) {
+            return;
+        }
+
+        final long now = scheduler.now();
+        final long last = lastRefillMillis.get();
+        final long elapsed = now - last;
+        final long refill = elapsed * refillPerSecond / TimeUnit.SECONDS.toMillis(1);
+        if (refill > 0 && lastRefillMillis.compareAndSet(last, now)) {
+            add(refill);
+        }
+    }
+
+    private void add(long amount) {
+        for (;;) {
+            final long current = balance.get();
+            final long next = Math.min(current + amount, maxBalance);
+            if (next == current || balance.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.handler.codec.http.HttpMethod;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A configuration for retrying requests, added to a client via
+ * {@link HttpClientInterceptorChain#nextWithRetry(RetryPolicy)}. A request is retried, upto {@link #maxRetries(int)}
+ * times, when either:
+ *
+ * <ul>
+ * <li>The connection could not be established (a {@link ConnectException}), as the request was never sent.</li>
+ * <li>The request method is idempotent and the request failed with an exception of one of the types passed to
+ * {@link #retryOnExceptions(Class[])}.</li>
+ * <li>The request method is idempotent and the response has one of the statuses passed to
+ * {@link #retryOnStatuses(int...)}. The content of such a response is discarded.</li>
+ * </ul>
+ *
+ * Every retry is made after a backoff chosen randomly between zero and an exponentially increasing ceiling (i.e. full
+ * jitter), see {@link #backoff(long, long, TimeUnit)}, and only if the {@link RetryBudget} of the policy allows it.
+ * Retries acquire a new connection from the client, so with a load balanced client, the host of a retry is selected
+ * again by the load balancing strategy.
+ */
+public class RetryPolicy {
+
+    public static final int DEFAULT_MAX_RETRIES = 2;
+    public static final long DEFAULT_BASE_BACKOFF_MILLIS = 25;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = new HashSet<>(
+            Arrays.asList(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.TRACE, HttpMethod.PUT,
+                          HttpMethod.DELETE));
+
+    private int maxRetries;
+    private Set<Integer> retryableStatuses;
+    private List<Class<? extends Throwable>> retryableExceptions;
+    private long baseBackoffMillis;
+    private long maxBackoffMillis;
+    private RetryBudget budget;
+    private Scheduler scheduler;
+
+    public RetryPolicy() {
+        maxRetries = DEFAULT_MAX_RETRIES;
+        retryableStatuses = new HashSet<>(Arrays.asList(502, 503, 504));
+        retryableExceptions = new ArrayList<>();
+        retryableExceptions.add(IOException.class);
+        baseBackoffMillis = DEFAULT_BASE_BACKOFF_MILLIS;
+        maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+        budget = new RetryBudget();
+        scheduler = Schedulers.computation();
+    }
+
+    public RetryPolicy maxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * Response statuses on which idempotent requests are retried, replacing the defaults ({@code 502}, {@code 503}
+     * and {@code 504}).
+     */
+    public RetryPolicy retryOnStatuses(int... statuses) {
+        retryableStatuses = new HashSet<>();
+        for (int status : statuses) {
+            retryableStatuses.add(status);
+        }
+        return this;
+    }
+
+    /**
+     * Exception types (including subtypes) on which idempotent requests are retried, replacing the default
+     * ({@link IOException}).
+     */
+    @SafeVarargs
+    public final RetryPolicy retryOnExceptions(Class<? extends Throwable>... exceptionTypes) {
+        retryableExceptions = new ArrayList<>(Arrays.asList(exceptionTypes));
+        return this;
+    }
+
+    /**
+     * Backoff before a retry is chosen randomly between zero and {@code base * 2^(retry - 1)}, capped at
+     * {@code max}.
+     */
+    public RetryPolicy backoff(long base, long max, TimeUnit timeUnit) {
+        baseBackoffMillis = timeUnit.toMillis(base);
+        maxBackoffMillis = timeUnit.toMillis(max);
+        return this;
+    }
+
+    public RetryPolicy budget(RetryBudget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    /**
+     * Scheduler used to schedule the retries after backoff.
+     */
+    public RetryPolicy scheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public boolean isIdempotent(HttpMethod method) {
+        return IDEMPOTENT_METHODS.contains(method);
+    }
+
+    public boolean isRetryable(HttpMethod method, int status) {
+        return isIdempotent(method) && retryableStatuses.contains(status);
+    }
+
+    public boolean isRetryable(HttpMethod method, Throwable error) {
+        if (error instanceof ConnectException) {
+            return true;
+        }
+        if (!isIdempotent(method)) {
+            return false;
+        }
+        for (Class<? extends Throwable> retryableException : retryableExceptions) {
+            if (retryableException.isInstance(error)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the backoff in milliseconds before the passed retry.
+     *
+     * @param retryCount The number of the retry, starting at 1.
+     */
+    public long getBackoffMillis(int retryCount) {
+        final int shift = Math.min(retryCount - 1, 30);
+        final long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << shift);
+        if (ceiling <= 0) {
+            return 0;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
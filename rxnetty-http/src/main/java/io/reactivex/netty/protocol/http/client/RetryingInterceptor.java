@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.reactivex.netty.client.loadbalancer.HostExclusions;
+import io.reactivex.netty.protocol.http.client.DecoratedHttpClientRequest.RequestDecorator;
+import io.reactivex.netty.protocol.http.client.events.HttpClientEventPublisher;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An interceptor that retries requests as per a {@link RetryPolicy}, publishing the retries to the event publisher of
+ * the client. With a load balanced client (see {@code LoadBalancerFactory}), every retry is sent to a host not used by
+ * an earlier attempt of the request, if any such host is available (see {@link HostExclusions}).
+ */
+final class RetryingInterceptor<I, O> implements Interceptor<I, O> {
+
+    private final RetryPolicy policy;
+    private final HttpClientEventPublisher eventPublisher;
+    private final RequestDecorator decorator;
+
+    RetryingInterceptor(RetryPolicy policy, HttpClientEventPublisher eventPublisher) {
+        this.policy = policy;
+        this.eventPublisher = eventPublisher;
+        decorator = new RequestDecorator() {
+            @Override
+            public <T> Observable<HttpClientResponse<T>> decorate(HttpClientRequest<?, T> request) {
+                return retry(request.getMethod(), request);
+            }
+        };
+    }
+
+    @Override
+    public RequestProvider<I, O> intercept(final RequestProvider<I, O> provider) {
+        return new RequestProvider<I, O>() {
+            @Override
+            public HttpClientRequest<I, O> createRequest(HttpVersion version, HttpMethod method, String uri) {
+                return new DecoratedHttpClientRequest<>(provider.createRequest(version, method, uri), decorator);
+            }
+        };
+    }
+
+    <T> Observable<HttpClientResponse<T>> retry(final HttpMethod method,
+                                                final Observable<HttpClientResponse<T>> source) {
+        return Observable.defer(new Func0<Observable<HttpClientResponse<T>>>() {
+            @Override
+            public Observable<HttpClientResponse<T>> call() {
+                final AtomicInteger retries = new AtomicInteger();
+                final Func1<HttpClientResponse<T>, Observable<HttpClientResponse<T>>> retryOnStatus =
+                        new Func1<HttpClientResponse<T>, Observable<HttpClientResponse<T>>>() {
+                            @Override
+                            public Observable<HttpClientResponse<T>> call(HttpClientResponse<T> response) {
+                                final int status = response.getStatus().code();
+                                if (status < 500) {
+                                    policy.getBudget().deposit();
+                                }
+                                if (policy.isRetryable(method, status) && acquireRetry(retries)) {
+                                    return discardAndRetry(response);
+                                }
+                                return Observable.just(response);
+                            }
+                        };
+                final Func1<Observable<? extends Throwable>, Observable<?>> retryOnError =
+                        new Func1<Observable<? extends Throwable>, Observable<?>>() {
+                            @Override
+                            public Observable<?> call(Observable<? extends Throwable> errors) {
+                                return errors.flatMap(new Func1<Throwable, Observable<?>>() {
+                                    @Override
+                                    public Observable<?> call(Throwable error) {
+                                        if (error != RetryableStatusException.INSTANCE
+                                            && !(policy.isRetryable(method, error) && acquireRetry(retries))) {
+                                            return Observable.error(error);
+                                        }
+                                        final int retryCount = retries.get();
+                                        final long backoff = policy.getBackoffMillis(retryCount);
+                                        eventPublisher.onRequestRetry(retryCount, backoff, TimeUnit.MILLISECONDS);
+                                        return Observable.timer(backoff, TimeUnit.MILLISECONDS,
+                                                                policy.getScheduler());
+                                    }
+                                });
+                            }
+                        };
+                return new HostExclusions().wrap(source)
+                                           .flatMap(retryOnStatus)
+                                           .retryWhen(retryOnError);
+            }
+        });
+    }
+
+    private boolean acquireRetry(AtomicInteger retries) {
+        if (retries.get() >= policy.getMaxRetries()) {
+            return false;
+        }
+        if (!policy.getBudget().tryWithdraw()) {
+            eventPublisher.onRetryBudgetExhausted();
+            return false;
+        }
+        retries.incrementAndGet();
+        return true;
+    }
+
+    private static <T> Observable<HttpClientResponse<T>> discardAndRetry(HttpClientResponse<T> response) {
+        return response.discardContent()
+                       .onErrorResumeNext(Observable.<Void>empty())
+                       .flatMap(new Func1<Void, Observable<HttpClientResponse<T>>>() {
+                           @Override
+                           public Observable<HttpClientResponse<T>> call(Void aVoid) {
+                               return Observable.empty();
+                           }
+                       })
+                       .concatWith(Observable.<HttpClientResponse<T>>error(RetryableStatusException.INSTANCE));
+    }
+
+    /**
+     * Signals a response with a retryable status, for which a retry is already acquired.
+     */
+    private static final class RetryableStatusException extends RuntimeException {
+
+        private static final long serialVersionUID = 2938263871498472163L;
+
+        private static final RetryableStatusException INSTANCE = new RetryableStatusException();
+
+        private RetryableStatusException() {
+            super("Retryable response status.", null, false, false);
+        }
+    }
+}
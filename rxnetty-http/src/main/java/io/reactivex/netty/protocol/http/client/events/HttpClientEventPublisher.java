@@ -107,6 +107,23 @@ public final class HttpClientEventPublisher extends HttpClientEventsListener
                 }
             };
 
+    private static final Action4<HttpClientEventsListener, Long, TimeUnit, Integer> REQUEST_RETRY_ACTION =
+            new Action4<HttpClientEventsListener, Long, TimeUnit, Integer>() {
+                @Override
+                public void call(HttpClientEventsListener listener, Long backoff, TimeUnit timeUnit,
+                                 Integer retryCount) {
+                    listener.onRequestRetry(retryCount, backoff, timeUnit);
+                }
+            };
+
+    private static final Action1<HttpClientEventsListener> RETRY_BUDGET_EXHAUSTED_ACTION =
+            new Action1<HttpClientEventsListener>() {
+                @Override
+                public void call(HttpClientEventsListener listener) {
+                    listener.onRetryBudgetExhausted();
+                }
+            };
+
     private final ListenersHolder<HttpClientEventsListener> listeners;
     private final TcpClientEventPublisher tcpDelegate;
 
@@ -165,6 +182,16 @@ public final class HttpClientEventPublisher extends HttpClientEventsListener
         listeners.invokeListeners(PROCESSING_COMPLETE_ACTION, duration, timeUnit);
     }
 
+    @Override
+    public void onRequestRetry(final int retryCount, final long backoff, final TimeUnit timeUnit) {
+        listeners.invokeListeners(REQUEST_RETRY_ACTION, backoff, timeUnit, retryCount);
+    }
+
+    @Override
+    public void onRetryBudgetExhausted() {
+        listeners.invokeListeners(RETRY_BUDGET_EXHAUSTED_ACTION);
+    }
+
     @Override
     public void onConnectionCloseFailed(long duration, TimeUnit timeUnit,
                                         Throwable throwable) {
@@ -229,6 +256,21 @@ public final class HttpClientEventPublisher extends HttpClientEventsListener
         tcpDelegate.onPoolAcquireFailed(duration, timeUnit, throwable);
     }
 
+    @Override
+    public void onPoolAcquireWaitStart(int pendingAcquires) {
+        tcpDelegate.onPoolAcquireWaitStart(pendingAcquires);
+    }
+
+    @Override
+    public void onPoolAcquireWaitSuccess(long duration, TimeUnit timeUnit) {
+        tcpDelegate.onPoolAcquireWaitSuccess(duration, timeUnit);
+    }
+
+    @Override
+    public void onPoolAcquireWaitFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        tcpDelegate.onPoolAcquireWaitFailed(duration, timeUnit, throwable);
+    }
+
     @Override
     public void onByteRead(long bytesRead) {
         tcpDelegate.onByteRead(bytesRead);
@@ -96,4 +96,19 @@ public abstract class HttpClientEventsListener extends TcpClientEventListener {
      */
     @SuppressWarnings("unused")
     public void onRequestProcessingComplete(long duration, TimeUnit timeUnit) {}
+
+    /**
+     * Event when a request is retried after a failure or a retryable response status.
+     *
+     * @param retryCount The number of this retry for the request, starting at 1.
+     * @param backoff The time after which the request is retried.
+     * @param timeUnit Time unit for the backoff.
+     */
+    @SuppressWarnings("unused")
+    public void onRequestRetry(int retryCount, long backoff, TimeUnit timeUnit) {}
+
+    /**
+     * Event when a request that could have been retried, is not retried as the retry budget is exhausted.
+     */
+    public void onRetryBudgetExhausted() {}
 }
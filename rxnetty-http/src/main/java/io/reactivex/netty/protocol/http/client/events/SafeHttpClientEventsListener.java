@@ -102,6 +102,20 @@ final class SafeHttpClientEventsListener extends HttpClientEventsListener implem
         }
     }
 
+    @Override
+    public void onRequestRetry(int retryCount, long backoff, TimeUnit timeUnit) {
+        if (!completed.get()) {
+            delegate.onRequestRetry(retryCount, backoff, timeUnit);
+        }
+    }
+
+    @Override
+    public void onRetryBudgetExhausted() {
+        if (!completed.get()) {
+            delegate.onRetryBudgetExhausted();
+        }
+    }
+
     @Override
     public void onConnectStart() {
         if (!completed.get()) {
@@ -181,6 +195,27 @@ final class SafeHttpClientEventsListener extends HttpClientEventsListener implem
         }
     }
 
+    @Override
+    public void onPoolAcquireWaitStart(int pendingAcquires) {
+        if (!completed.get()) {
+            delegate.onPoolAcquireWaitStart(pendingAcquires);
+        }
+    }
+
+    @Override
+    public void onPoolAcquireWaitSuccess(long duration, TimeUnit timeUnit) {
+        if (!completed.get()) {
+            delegate.onPoolAcquireWaitSuccess(duration, timeUnit);
+        }
+    }
+
+    @Override
+    public void onPoolAcquireWaitFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        if (!completed.get()) {
+            delegate.onPoolAcquireWaitFailed(duration, timeUnit, throwable);
+        }
+    }
+
     @Override
     public void onByteRead(long bytesRead) {
         if (!completed.get()) {
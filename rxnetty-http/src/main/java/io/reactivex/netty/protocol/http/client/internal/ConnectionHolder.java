@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.internal;
+
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import io.reactivex.netty.protocol.tcp.client.TcpClient;
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Subscriber;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds connections of a client (i.e. does not release them to the pool after every request) on which multiple
+ * requests are sent concurrently, see {@link RequestPipeliner} and {@link Http2Multiplexer}. <p>
+ *
+ * A request is sent on the held connection with the most available reservations, and a new connection is acquired
+ * from the client only when no held connection has an available reservation.
+ *
+ * @param <R> The type of objects read from the held connections.
+ */
+abstract class ConnectionHolder<R> {
+
+    private final TcpClient<?, ?> client;
+    private final List<HeldConnection<R>> connections = new CopyOnWriteArrayList<>();
+
+    protected ConnectionHolder(TcpClient<?, ?> client) {
+        this.client = client;
+    }
+
+    /**
+     * Sends the passed request on a held connection, when subscribed.
+     */
+    public <O> Observable<HttpClientResponse<O>> submit(final HttpClientRequestImpl<?, O> request) {
+        return Observable.create(new OnSubscribe<HttpClientResponse<O>>() {
+            @Override
+            public void call(Subscriber<? super HttpClientResponse<O>> subscriber) {
+                submit(new Exchange<>(request, subscriber));
+            }
+        });
+    }
+
+    /**
+     * Returns the number of connections currently held.
+     */
+    public int getConnectionsCount() {
+        return connections.size();
+    }
+
+    /*package private*/ void submit(Exchange<?> exchange) {
+        for (;;) {
+            HeldConnection<R> mostAvailable = null;
+            int maxAvailable = 0;
+            for (HeldConnection<R> connection : connections) {
+                final int available = connection.getAvailableReservations();
+                if (available > maxAvailable) {
+                    maxAvailable = available;
+                    mostAvailable = connection;
+                }
+            }
+
+            if (null == mostAvailable) {
+                HeldConnection<R> newConnection = newConnection();
+                newConnection.tryReserve();
+                connections.add(newConnection);
+                newConnection.enqueue(exchange);
+                newConnection.connect();
+                return;
+            }
+
+            if (mostAvailable.tryReserve()) {
+                mostAvailable.enqueue(exchange);
+                return;
+            }
+            /*Lost a race with another request or the connection stopped accepting requests, select again.*/
+        }
+    }
+
+    /*package private*/ void remove(HeldConnection<R> connection) {
+        connections.remove(connection);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    /*package private*/ Observable<Connection<R, Object>> newConnectionRequest() {
+        Observable connectionRequest = client.createConnectionRequest();
+        return connectionRequest;
+    }
+
+    /**
+     * Returns {@code true} if the passed request is created from the client of this holder.
+     */
+    protected boolean isFromClient(HttpClientRequestImpl<?, ?> request) {
+        return request.getClient() == client;
+    }
+
+    /**
+     * Creates a new connection held by this holder, which acquires a connection from the client on
+     * {@link HeldConnection#connect()}.
+     */
+    protected abstract HeldConnection<R> newConnection();
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.internal;
+
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import rx.Subscriber;
+
+import java.nio.channels.ClosedChannelException;
+
+/**
+ * A request submitted to a {@link ConnectionHolder} and the subscriber waiting for its response.
+ *
+ * @param <O> The type of the content of the response.
+ */
+final class Exchange<O> {
+
+    private final HttpClientRequestImpl<?, O> request;
+    private final Subscriber<? super HttpClientResponse<O>> subscriber;
+    /*Only accessed on the eventloop of the connection, the request was last sent on.*/
+    private int replays;
+
+    Exchange(HttpClientRequestImpl<?, O> request, Subscriber<? super HttpClientResponse<O>> subscriber) {
+        this.request = request;
+        this.subscriber = subscriber;
+    }
+
+    HttpClientRequestImpl<?, O> getRequest() {
+        return request;
+    }
+
+    boolean isUnsubscribed() {
+        return subscriber.isUnsubscribed();
+    }
+
+    /**
+     * Executes the request on the passed connection, which is used exclusively for this request, eg: an HTTP/2
+     * stream.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void execute(Connection connection) {
+        request.execute(connection).unsafeSubscribe(subscriber);
+    }
+
+    /**
+     * Executes the request on a connection acquired from the client, as if the request was never submitted to a
+     * {@link ConnectionHolder}.
+     */
+    void executeOnClient() {
+        if (!subscriber.isUnsubscribed()) {
+            request.unsafeSubscribe(subscriber);
+        }
+    }
+
+    /**
+     * Emits the passed response, already read from a connection, as the response of this request.
+     */
+    void onResponse(HttpClientResponse<?> response) {
+        subscriber.onNext(request.transformResponse(response));
+        subscriber.onCompleted();
+    }
+
+    /**
+     * Returns {@code true} if this request can be sent again, after being written on a connection that broke, and
+     * counts the replay.
+     */
+    boolean tryReplay(int maxReplays) {
+        return replays++ < maxReplays && !subscriber.isUnsubscribed();
+    }
+
+    void onError(Throwable cause) {
+        if (!subscriber.isUnsubscribed()) {
+            subscriber.onError(null == cause ? new ClosedChannelException() : cause);
+        }
+    }
+}
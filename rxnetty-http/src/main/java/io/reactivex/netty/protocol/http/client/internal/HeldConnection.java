@@ -0,0 +1,235 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.internal;
+
+import io.netty.channel.Channel;
+import io.reactivex.netty.channel.Connection;
+import rx.Subscriber;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A connection held by a {@link ConnectionHolder}, on which multiple requests are sent concurrently. <p>
+ *
+ * Requests are reserved on this connection from any thread (see {@link #tryReserve()}) and are queued till they are
+ * processed on the eventloop of the connection, after the connection is acquired from the client and is ready (see
+ * {@link #ready(Connection)}).
+ *
+ * @param <R> The type of objects read from the connection.
+ */
+abstract class HeldConnection<R> {
+
+    private static final int CLOSED = -1;
+
+    private final ConnectionHolder<R> holder;
+    /*Reserved requests that are not yet complete, CLOSED once no more requests are accepted.*/
+    private final AtomicInteger reservations = new AtomicInteger();
+    private final Queue<Exchange<?>> pending = new ConcurrentLinkedQueue<>();
+    private volatile Connection<R, Object> connection;
+    private volatile Throwable connectFailure;
+
+    private final Runnable processPendingTask = new Runnable() {
+        @Override
+        public void run() {
+            processPending();
+        }
+    };
+
+    protected HeldConnection(ConnectionHolder<R> holder) {
+        this.holder = holder;
+    }
+
+    /**
+     * Returns the number of requests that can be reserved on this connection, {@code -1} if the connection does not
+     * accept more requests.
+     */
+    int getAvailableReservations() {
+        final int current = reservations.get();
+        return current < 0 || !acceptsReservations() ? -1 : getMaxReservations() - current;
+    }
+
+    /**
+     * Reserves a request on this connection, if the connection has less than the maximum reservations.
+     *
+     * @return {@code true} if the request is reserved, after which it must be passed to {@link #enqueue(Exchange)}.
+     */
+    boolean tryReserve() {
+        for (;;) {
+            final int current = reservations.get();
+            if (current < 0 || !acceptsReservations() || current >= getMaxReservations()) {
+                return false;
+            }
+            if (reservations.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void enqueue(Exchange<?> exchange) {
+        pending.add(exchange);
+        final Connection<?, ?> c = connection;
+        if (null != c) {
+            final Channel channel = c.unsafeNettyChannel();
+            if (channel.eventLoop().inEventLoop()) {
+                processPending();
+            } else {
+                channel.eventLoop().execute(processPendingTask);
+            }
+        } else if (null != connectFailure) {
+            failPending(connectFailure);
+        }
+    }
+
+    void connect() {
+        holder.newConnectionRequest()
+              .take(1)
+              .subscribe(new Subscriber<Connection<R, Object>>() {
+                  @Override
+                  public void onCompleted() {
+                      // No Op.
+                  }
+
+                  @Override
+                  public void onError(Throwable e) {
+                      connectFailure = e;
+                      closeReservations();
+                      failPending(e);
+                  }
+
+                  @Override
+                  public void onNext(final Connection<R, Object> c) {
+                      final Channel channel = c.unsafeNettyChannel();
+                      if (channel.eventLoop().inEventLoop()) {
+                          onConnected(c);
+                      } else {
+                          channel.eventLoop().execute(new Runnable() {
+                              @Override
+                              public void run() {
+                                  onConnected(c);
+                              }
+                          });
+                      }
+                  }
+              });
+    }
+
+    /**
+     * Returns the maximum number of requests that can be reserved on this connection at a time.
+     */
+    protected abstract int getMaxReservations();
+
+    /**
+     * Returns {@code false} if this connection temporarily does not accept requests, in addition to after
+     * {@link #closeReservations()}.
+     */
+    protected boolean acceptsReservations() {
+        return true;
+    }
+
+    /**
+     * Callback on the eventloop of the connection, when the connection is acquired from the client. The connection must
+     * be passed to {@link #ready(Connection)} once requests can be sent on it.
+     */
+    protected abstract void onConnected(Connection<R, Object> c);
+
+    /**
+     * Sends the queued requests (see {@link #pollPending()}), called on the eventloop of the connection once ready.
+     */
+    protected abstract void processPending();
+
+    protected void ready(Connection<R, Object> c) {
+        connection = c;
+        processPending();
+    }
+
+    protected Connection<R, Object> getConnection() {
+        return connection;
+    }
+
+    protected Exchange<?> pollPending() {
+        return pending.poll();
+    }
+
+    protected boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Releases the reservation of a completed request.
+     *
+     * @return {@code true} if this was the last reservation.
+     */
+    protected boolean releaseReservation() {
+        for (;;) {
+            final int current = reservations.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (reservations.compareAndSet(current, current - 1)) {
+                return current == 1;
+            }
+        }
+    }
+
+    /**
+     * Stops accepting requests, if there are no reservations.
+     *
+     * @return {@code true} if this connection stopped accepting requests.
+     */
+    protected boolean closeReservationsIfIdle() {
+        if (reservations.compareAndSet(0, CLOSED)) {
+            holder.remove(this);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stops accepting requests and removes this connection from the holder.
+     */
+    protected void closeReservations() {
+        reservations.set(CLOSED);
+        holder.remove(this);
+    }
+
+    protected boolean isClosedForReservations() {
+        return reservations.get() == CLOSED;
+    }
+
+    protected boolean hasReservations() {
+        return reservations.get() > 0;
+    }
+
+    /**
+     * Submits all queued requests, that were never sent on this connection, again to the holder.
+     */
+    protected void resubmitPending() {
+        Exchange<?> exchange;
+        while (null != (exchange = pending.poll())) {
+            holder.submit(exchange);
+        }
+    }
+
+    protected void failPending(Throwable cause) {
+        Exchange<?> exchange;
+        while (null != (exchange = pending.poll())) {
+            exchange.onError(cause);
+        }
+    }
+}
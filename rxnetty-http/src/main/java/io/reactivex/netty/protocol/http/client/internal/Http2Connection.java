@@ -0,0 +1,307 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.internal;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http2.Http2GoAwayFrame;
+import io.netty.handler.codec.http2.Http2MultiplexCodec;
+import io.netty.handler.codec.http2.Http2MultiplexCodecBuilder;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamChannelBootstrap;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.reactivex.netty.HandlerNames;
+import io.reactivex.netty.channel.ChannelSubscriberEvent;
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.channel.ConnectionImpl;
+import io.reactivex.netty.channel.WriteTransformer;
+import io.reactivex.netty.client.ClientConnectionToChannelBridge;
+import io.reactivex.netty.events.EventAttributeKeys;
+import io.reactivex.netty.protocol.http.HttpHandlerNames;
+import io.reactivex.netty.protocol.http.internal.Http2StreamContentEncoder;
+import io.reactivex.netty.protocol.http.internal.Http2StreamControlFrameFilter;
+import rx.Subscriber;
+
+/**
+ * A connection held by a {@link Http2Multiplexer}, on which every request is sent as a separate HTTP/2 stream. <p>
+ *
+ * When acquired from the client, the HTTP/1.1 codec of the connection is replaced by a {@link Http2MultiplexCodec} and
+ * every stream is a child channel with the same HTTP handlers that a HTTP/1.1 connection has, so a stream is used
+ * exactly like an HTTP/1.1 connection used for a single request. Streams are created with auto-read disabled, so the
+ * content of a response is read (and the flow control window of the stream is returned to the server) only when there
+ * is demand from the subscriber of the content. <p>
+ *
+ * Streams are reserved on this connection from any thread (see {@link #tryReserve()}), but are opened on the eventloop
+ * of the connection.
+ */
+final class Http2Connection extends HeldConnection<Object> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AttributeKey[] INHERITED_ATTRIBUTES = {
+            EventAttributeKeys.EVENT_PUBLISHER, EventAttributeKeys.CLIENT_EVENT_LISTENER,
+            EventAttributeKeys.CONNECTION_EVENT_LISTENER, HttpChannelProvider.HTTP_CLIENT_EVENT_LISTENER
+    };
+
+    private final Http2Multiplexer multiplexer;
+    private volatile Http2MultiplexCodec codec;
+    private volatile boolean goingAway;
+
+    /*Only accessed on the eventloop of the connection*/
+    private boolean closed;
+
+    private final ChannelFutureListener streamCloseListener = new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+            onStreamClosed();
+        }
+    };
+
+    Http2Connection(Http2Multiplexer multiplexer) {
+        super(multiplexer);
+        this.multiplexer = multiplexer;
+    }
+
+    @Override
+    protected int getMaxReservations() {
+        final int max = multiplexer.getMaxConcurrentStreams();
+        final Http2MultiplexCodec c = codec;
+        /*The server may allow less concurrent streams than configured.*/
+        return null == c ? max : Math.min(max, c.connection().local().maxActiveStreams());
+    }
+
+    @Override
+    protected boolean acceptsReservations() {
+        return !goingAway;
+    }
+
+    @Override
+    protected void onConnected(Connection<Object, Object> c) {
+        final Channel channel = c.unsafeNettyChannel();
+        final ChannelPipeline pipeline = channel.pipeline();
+
+        final SslHandler sslHandler = pipeline.get(SslHandler.class);
+        if (null != sslHandler && !ApplicationProtocolNames.HTTP_2.equals(sslHandler.applicationProtocol())) {
+            /*Server did not select h2 via ALPN, so this connection is closed & all requests use HTTP/1.1 connections*/
+            multiplexer.disable();
+            closed = true;
+            closeReservations();
+            c.closeNow();
+            Exchange<?> exchange;
+            while (null != (exchange = pollPending())) {
+                exchange.executeOnClient();
+            }
+            return;
+        }
+
+        /*An HTTP/2 connection must never be reused for HTTP/1.1*/
+        channel.attr(ClientConnectionToChannelBridge.DISCARD_CONNECTION).set(true);
+        pipeline.remove(HttpClientToConnectionBridge.class);
+        if (null != pipeline.get(HttpHandlerNames.WsClientUpgradeHandler.getName())) {
+            pipeline.remove(HttpHandlerNames.WsClientUpgradeHandler.getName());
+        }
+        final Http2MultiplexCodec http2Codec =
+                Http2MultiplexCodecBuilder.forClient(PushedStreamRejector.INSTANCE)
+                                          .initialSettings(Http2Settings.defaultSettings().pushEnabled(false))
+                                          .build();
+        pipeline.replace(HttpHandlerNames.HttpClientCodec.getName(), HttpHandlerNames.Http2ClientCodec.getName(),
+                         http2Codec);
+
+        /*Only connection level frames are read here, frames of a stream are read by the stream.*/
+        c.getInput().unsafeSubscribe(new ConnectionFrameSubscriber());
+        codec = http2Codec;
+        ready(c);
+    }
+
+    @Override
+    protected void processPending() {
+        Exchange<?> exchange;
+        while (null != (exchange = pollPending())) {
+            if (closed || goingAway) {
+                onStreamClosed();
+                multiplexer.submit(exchange);
+            } else if (exchange.isUnsubscribed()) {
+                onStreamClosed();
+            } else {
+                openStream(exchange);
+            }
+        }
+    }
+
+    private void openStream(final Exchange<?> exchange) {
+        new Http2StreamChannelBootstrap(getConnection().unsafeNettyChannel())
+                .option(ChannelOption.AUTO_READ, false)
+                .handler(new StreamInitializer(exchange))
+                .open()
+                .addListener(new GenericFutureListener<Future<Http2StreamChannel>>() {
+                    @Override
+                    public void operationComplete(Future<Http2StreamChannel> future) throws Exception {
+                        if (future.isSuccess()) {
+                            future.getNow().closeFuture().addListener(streamCloseListener);
+                        } else {
+                            onStreamClosed();
+                            exchange.onError(future.cause());
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Releases the reservation of a stream and closes this connection if it is going away and this was the last
+     * active stream.
+     */
+    private void onStreamClosed() {
+        if (releaseReservation() && goingAway) {
+            close();
+        }
+    }
+
+    private void onGoAway() {
+        goingAway = true;
+        multiplexer.remove(this);
+        if (!hasReservations()) {
+            close();
+        }
+    }
+
+    private void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeReservations();
+        getConnection().closeNow();
+    }
+
+    private void onClosed() {
+        closed = true;
+        goingAway = true;
+        closeReservations();
+        /*Active streams are closed by the codec, pending requests were never sent.*/
+        resubmitPending();
+    }
+
+    private final class ConnectionFrameSubscriber extends Subscriber<Object> {
+
+        @Override
+        public void onCompleted() {
+            onClosed();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            onClosed();
+        }
+
+        @Override
+        public void onNext(Object frame) {
+            try {
+                if (frame instanceof Http2GoAwayFrame) {
+                    onGoAway();
+                }
+            } finally {
+                ReferenceCountUtil.release(frame);
+            }
+        }
+    }
+
+    /**
+     * Initializes a stream with the same handlers as an HTTP/1.1 connection, with the HTTP/2 frame to HTTP object
+     * conversion replacing the HTTP/1.1 codec.
+     */
+    private static final class StreamInitializer extends ChannelInitializer<Channel> {
+
+        private final Exchange<?> exchange;
+
+        private StreamInitializer(Exchange<?> exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void initChannel(Channel stream) throws Exception {
+            final Channel parent = stream.parent();
+            for (AttributeKey<Object> key : INHERITED_ATTRIBUTES) {
+                stream.attr(key).set(parent.attr(key).get());
+            }
+
+            final ChannelPipeline pipeline = stream.pipeline();
+            pipeline.addLast(HandlerNames.WriteTransformer.getName(), new WriteTransformer());
+            pipeline.addLast(HttpHandlerNames.Http2ClientStreamCodec.getName(),
+                             new Http2StreamFrameToHttpObjectCodec(false));
+            pipeline.addLast(HttpHandlerNames.Http2StreamControlFrameFilter.getName(),
+                             Http2StreamControlFrameFilter.INSTANCE);
+            pipeline.addLast(HttpHandlerNames.Http2StreamContentEncoder.getName(),
+                             Http2StreamContentEncoder.INSTANCE);
+            if (HttpClientDecompressor.isAdded(parent.pipeline())) {
+                /*Handlers of the connection only see connection level frames, so streams decompress themselves.*/
+                HttpClientDecompressor.addAfter(pipeline, HttpHandlerNames.Http2StreamContentEncoder.getName());
+            }
+            pipeline.addLast(new HttpClientToConnectionBridge<>());
+            ClientConnectionToChannelBridge.addToPipeline(pipeline, false);
+
+            /*Stream is emitted as a connection, when active.*/
+            pipeline.fireUserEventTriggered(new ChannelSubscriberEvent<>(new Subscriber<Channel>() {
+                @Override
+                public void onCompleted() {
+                    // No Op.
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    exchange.onError(e);
+                }
+
+                @Override
+                public void onNext(Channel stream) {
+                    if (exchange.isUnsubscribed()) {
+                        stream.close();
+                    } else {
+                        exchange.execute(ConnectionImpl.fromChannel(stream));
+                    }
+                }
+            }));
+        }
+    }
+
+    /**
+     * Server initiated streams are not expected as server push is disabled.
+     */
+    @Sharable
+    private static final class PushedStreamRejector extends ChannelInboundHandlerAdapter {
+
+        private static final PushedStreamRejector INSTANCE = new PushedStreamRejector();
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            ctx.close();
+        }
+    }
+}
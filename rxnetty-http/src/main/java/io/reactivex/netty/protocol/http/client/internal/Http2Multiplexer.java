@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.internal;
+
+import io.reactivex.netty.protocol.tcp.client.TcpClient;
+
+/**
+ * Multiplexes requests as HTTP/2 streams on the connections of a client, i.e. upto {@code maxConcurrentStreams}
+ * requests are concurrently sent on a connection, each as a separate stream. <p>
+ *
+ * A request is sent on the connection with the most available streams, and a new connection is acquired from the
+ * client only when all connections have {@code maxConcurrentStreams} active streams (or the maximum concurrent streams
+ * advertised by the server, if lower). A connection is held (i.e. not released to the pool) till it is closed or the
+ * server sends a {@code GOAWAY} and there are no active streams on the connection. <p>
+ *
+ * Cleartext connections use HTTP/2 with prior knowledge (h2c). Secure connections use HTTP/2 only if {@code h2} is
+ * negotiated via ALPN, otherwise, all requests of this multiplexer use HTTP/1.1 as if HTTP/2 was not enabled. <p>
+ *
+ * Only requests without redirects are multiplexed, see {@link #canMultiplex(HttpClientRequestImpl)}.
+ */
+public final class Http2Multiplexer extends ConnectionHolder<Object> {
+
+    private final int maxConcurrentStreams;
+    private volatile boolean http1Only;
+
+    public Http2Multiplexer(TcpClient<?, ?> client, int maxConcurrentStreams) {
+        super(client);
+        if (maxConcurrentStreams < 1) {
+            throw new IllegalArgumentException("Maximum concurrent streams must be at least 1. Provided: "
+                                               + maxConcurrentStreams);
+        }
+        this.maxConcurrentStreams = maxConcurrentStreams;
+    }
+
+    /**
+     * Returns {@code true} if the passed request can be multiplexed, i.e. it is a request without redirects, created
+     * from the client of this multiplexer, and the server has not refused HTTP/2 during ALPN.
+     */
+    public boolean canMultiplex(HttpClientRequestImpl<?, ?> request) {
+        return !http1Only && isFromClient(request) && null == request.unsafeRawRequest().getRedirector();
+    }
+
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    @Override
+    /*package private*/ void submit(Exchange<?> exchange) {
+        if (http1Only) {
+            exchange.executeOnClient();
+        } else {
+            super.submit(exchange);
+        }
+    }
+
+    /**
+     * Sends all requests, including the ones submitted after this call, on HTTP/1.1 connections.
+     */
+    /*package private*/ void disable() {
+        http1Only = true;
+    }
+
+    @Override
+    protected HeldConnection<Object> newConnection() {
+        return new Http2Connection(this);
+    }
+}
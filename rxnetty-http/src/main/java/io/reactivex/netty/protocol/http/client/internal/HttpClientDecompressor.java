@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.internal;
+
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.util.AsciiString;
+import io.reactivex.netty.protocol.http.HttpHandlerNames;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+
+/**
+ * Decompresses {@code gzip} and {@code deflate} encoded response content, as it is read, and advertises these encodings
+ * with an {@code Accept-Encoding} header on requests that do not have one. <p>
+ *
+ * Since, every content chunk read is decompressed before it is passed on, content is never aggregated and the content
+ * is read from the channel only as demanded by the subscriber of the content. Decompressed buffers are allocated by the
+ * allocator of the channel.
+ */
+public final class HttpClientDecompressor extends HttpContentDecompressor {
+
+    private static final AsciiString ACCEPTED_ENCODINGS = AsciiString.cached("gzip, deflate");
+
+    private HttpClientDecompressor() {
+    }
+
+    /**
+     * Adds the decompressor to the passed pipeline, after the handler with the passed name.
+     */
+    public static void addAfter(ChannelPipeline pipeline, String baseName) {
+        pipeline.addAfter(baseName, HttpHandlerNames.HttpClientDecompressor.getName(), new HttpClientDecompressor());
+        pipeline.addAfter(HttpHandlerNames.HttpClientDecompressor.getName(),
+                          HttpHandlerNames.HttpClientAcceptEncoding.getName(), AcceptEncodingHandler.INSTANCE);
+    }
+
+    /**
+     * Returns {@code true} if the passed pipeline decompresses response content.
+     */
+    public static boolean isAdded(ChannelPipeline pipeline) {
+        return null != pipeline.get(HttpHandlerNames.HttpClientDecompressor.getName());
+    }
+
+    @Sharable
+    private static final class AcceptEncodingHandler extends ChannelOutboundHandlerAdapter {
+
+        private static final AcceptEncodingHandler INSTANCE = new AcceptEncodingHandler();
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof HttpRequest && !((HttpRequest) msg).headers().contains(ACCEPT_ENCODING)) {
+                ((HttpRequest) msg).headers().set(ACCEPT_ENCODING, ACCEPTED_ENCODINGS);
+            }
+            super.write(ctx, msg, promise);
+        }
+    }
+}
@@ -389,6 +389,32 @@ public final class HttpClientRequestImpl<I, O> extends HttpClientRequest<I, O> {
         return client;
     }
 
+    /*Visible for the pipeliner*/ HttpClientResponse<O> transformResponse(HttpClientResponse<?> response) {
+        return transformResponse(response, immutableResponseTransformers);
+    }
+
+    /*Visible for the HTTP/2 multiplexer*/ Observable<HttpClientResponse<O>> execute(
+            Connection<HttpClientResponse<O>, ?> connection) {
+        return new ConnToResponseFunc<>(rawRequest, immutableResponseTransformers, immutableTransformers)
+                .call(connection);
+    }
+
+    private static <O> HttpClientResponse<O> newResponse(HttpClientResponse<O> unsafeResponse,
+                                                         Connection<?, ?> connection,
+                                                         List<Transformer> responseTransformers) {
+        return transformResponse(HttpClientResponseImpl.newInstance(unsafeResponse, connection), responseTransformers);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <O> HttpClientResponse<O> transformResponse(HttpClientResponse<?> response,
+                                                               List<Transformer> responseTransformers) {
+        HttpClientResponse rp = response;
+        for (Transformer transformer : responseTransformers) {
+            rp = rp.transformContent(transformer);
+        }
+        return (HttpClientResponse<O>) rp;
+    }
+
     @SuppressWarnings("unchecked")
     private <II, OO> HttpClientRequestImpl<II, OO> _copy(TcpClient<?, HttpClientResponse<OO>> c) {
         return _copy(c, (RawRequest<II, OO>)rawRequest);
@@ -481,14 +507,9 @@ public final class HttpClientRequestImpl<I, O> extends HttpClientRequest<I, O> {
                                      .ignoreElements()
                                      .concatWith(input.take(1))
                                      .map(new Func1<HttpClientResponse<O>, HttpClientResponse<O>>() {
-                                         @SuppressWarnings("unchecked")
                                          @Override
                                          public HttpClientResponse<O> call(HttpClientResponse<O> r) {
-                                             HttpClientResponse rp = HttpClientResponseImpl.newInstance(r, conn);
-                                             for (Transformer transformer : responseTransformers) {
-                                                 rp = rp.transformContent(transformer);
-                                             }
-                                             return (HttpClientResponse<O>) rp;
+                                             return newResponse(r, conn, responseTransformers);
                                          }
                                      });
         }
@@ -499,7 +520,7 @@ public final class HttpClientRequestImpl<I, O> extends HttpClientRequest<I, O> {
         }
     }
 
-    private static class RequestWriteMetricsOperator implements Operator<Void, Void> {
+    /*Visible for the pipeliner*/ static class RequestWriteMetricsOperator implements Operator<Void, Void> {
 
         private final EventPublisher eventPublisher;
         private final HttpClientEventsListener eventsListener;
@@ -16,6 +16,7 @@
  */
 package io.reactivex.netty.protocol.http.client.internal;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
@@ -37,6 +38,7 @@ import io.reactivex.netty.protocol.http.sse.client.ServerSentEventDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rx.Observable;
+import rx.Observable.OnSubscribe;
 import rx.Observable.Transformer;
 import rx.Subscriber;
 import rx.functions.Func1;
@@ -47,6 +49,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 import static io.netty.handler.codec.http.HttpHeaderNames.*;
@@ -76,6 +79,13 @@ public final class HttpClientResponseImpl<T> extends HttpClientResponse<T> {
         contentSource = new ContentSource<>(unsafeNettyChannel(), new ContentSourceSubscriptionFactory<T>());
     }
 
+    private HttpClientResponseImpl(HttpResponse nettyResponse, ContentSource<T> contentSource) {
+        this.nettyResponse = nettyResponse;
+        connection = UnusableConnection.create();
+        cookiesHolder = CookiesHolder.newClientResponseHolder(nettyResponse.headers());
+        this.contentSource = contentSource;
+    }
+
     private HttpClientResponseImpl(HttpClientResponseImpl<?> toCopy, ContentSource<T> newSource) {
         nettyResponse = toCopy.nettyResponse;
         connection = toCopy.connection;
@@ -256,7 +266,10 @@ public final class HttpClientResponseImpl<T> extends HttpClientResponse<T> {
     public ContentSource<ServerSentEvent> getContentAsServerSentEvents() {
         if (containsHeader(CONTENT_TYPE) && getHeader(CONTENT_TYPE).startsWith("text/event-stream")) {
             ChannelPipeline pipeline = unsafeNettyChannel().pipeline();
-            ChannelHandlerContext decoderCtx = pipeline.context(HttpHandlerNames.HttpClientCodec.getName());
+            /*Events are decoded after the content is decompressed.*/
+            ChannelHandlerContext decoderCtx = HttpClientDecompressor.isAdded(pipeline)
+                    ? pipeline.context(HttpHandlerNames.HttpClientDecompressor.getName())
+                    : pipeline.context(HttpHandlerNames.HttpClientCodec.getName());
             if (null != decoderCtx) {
                 pipeline.addAfter(decoderCtx.name(), HttpHandlerNames.SseClientCodec.getName(),
                                   new ServerSentEventDecoder());
@@ -344,6 +357,36 @@ public final class HttpClientResponseImpl<T> extends HttpClientResponse<T> {
         return new HttpClientResponseImpl<>(nettyResponse, connection);
     }
 
+    /**
+     * Creates a response that is not read from a connection, eg: a response served from a cache. The returned response
+     * is not associated with any connection.
+     */
+    public static <C> HttpClientResponse<C> newDetachedInstance(HttpResponse nettyResponse, Observable<C> content) {
+        return new HttpClientResponseImpl<>(nettyResponse, new ContentSource<>(content));
+    }
+
+    /**
+     * Creates a response that is not read from a connection, with the passed buffer as its only content. The returned
+     * response owns the passed buffer and its content can only be subscribed once.
+     */
+    public static <C> HttpClientResponse<C> newDetachedInstance(HttpResponse nettyResponse, final ByteBuf content) {
+        return newDetachedInstance(nettyResponse, Observable.create(new OnSubscribe<C>() {
+            private final AtomicBoolean subscribed = new AtomicBoolean();
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void call(Subscriber<? super C> subscriber) {
+                if (!subscribed.compareAndSet(false, true)) {
+                    subscriber.onError(new IllegalStateException("Content of a detached response can only be "
+                                                                 + "subscribed once."));
+                    return;
+                }
+                subscriber.onNext((C) content);
+                subscriber.onCompleted();
+            }
+        }));
+    }
+
     private static class ContentSourceSubscriptionFactory<T> implements Func1<Subscriber<? super T>, Object> {
         @Override
         public Object call(Subscriber<? super T> subscriber) {
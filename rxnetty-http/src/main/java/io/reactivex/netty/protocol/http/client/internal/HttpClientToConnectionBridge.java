@@ -39,6 +39,8 @@ import io.reactivex.netty.protocol.http.internal.AbstractHttpConnectionBridge;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.Queue;
 
 import static java.util.concurrent.TimeUnit.*;
 
@@ -53,10 +55,18 @@ public class HttpClientToConnectionBridge<C> extends AbstractHttpConnectionBridg
     public static final AttributeKey<Long> KEEP_ALIVE_TIMEOUT_MILLIS_ATTR =
             PooledConnection.DYNAMIC_CONN_KEEP_ALIVE_TIMEOUT_MS;
 
+    /**
+     * This attribute is set when the connection is used for pipelining requests, i.e. the connection input subscriber
+     * reads multiple responses, in order, and the connection is not released when a response completes.
+     */
+    public static final AttributeKey<Boolean> PIPELINING_ATTR = AttributeKey.valueOf("rxnetty_http_pipelining");
+
     private HttpClientEventsListener eventsListener;
     private EventPublisher eventPublisher;
     private String hostHeader;
-    private long requestWriteCompletionTimeNanos;
+    /*Queues as there can be multiple requests in flight when pipelining*/
+    private final Queue<Long> headerWriteStartTimesNanos = new ArrayDeque<>();
+    private final Queue<Long> requestWriteCompletionTimesNanos = new ArrayDeque<>();
 
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
@@ -78,15 +88,13 @@ public class HttpClientToConnectionBridge<C> extends AbstractHttpConnectionBridg
 
     @Override
     protected void beforeOutboundHeaderWrite(HttpMessage httpMsg, ChannelPromise promise, long startTimeNanos) {
-        /*Reset on every request write, we do not currently support pipelining, otherwise, this should be stored in a
-        queue.*/
-        requestWriteCompletionTimeNanos = -1;
         if (null != hostHeader) {
             if (!httpMsg.headers().contains(HttpHeaderNames.HOST)) {
                 httpMsg.headers().set(HttpHeaderNames.HOST, hostHeader);
             }
         }
         if (eventPublisher.publishingEnabled()) {
+            headerWriteStartTimesNanos.add(startTimeNanos);
             eventsListener.onRequestWriteStart();
         }
     }
@@ -99,7 +107,7 @@ public class HttpClientToConnectionBridge<C> extends AbstractHttpConnectionBridg
                 @Override
                 public void operationComplete(ChannelFuture future) throws Exception {
                     if (eventPublisher.publishingEnabled()) {
-                        requestWriteCompletionTimeNanos = Clock.newStartTimeNanos();
+                        requestWriteCompletionTimesNanos.add(Clock.newStartTimeNanos());
                         if (future.isSuccess()) {
                             eventsListener.onRequestWriteComplete(Clock.onEndNanos(headerWriteStartTimeNanos),
                                                                   NANOSECONDS);
@@ -118,6 +126,8 @@ public class HttpClientToConnectionBridge<C> extends AbstractHttpConnectionBridg
         if (evt instanceof ConnectionReuseEvent) {
             resetSubscriptionState(connectionInputSubscriber);
             connectionInputSubscriber = null;
+            headerWriteStartTimesNanos.clear();
+            requestWriteCompletionTimesNanos.clear();
         } else if (PooledConnectionReleaseEvent.INSTANCE == evt) {
             onPooledConnectionRelease(connectionInputSubscriber);
         }
@@ -135,6 +145,11 @@ public class HttpClientToConnectionBridge<C> extends AbstractHttpConnectionBridg
         }
     }
 
+    @Override
+    protected boolean isPipelining(Channel channel) {
+        return Boolean.TRUE == channel.attr(PIPELINING_ATTR).get();
+    }
+
     @Override
     protected boolean isInboundHeader(Object nextItem) {
         return nextItem instanceof HttpResponse;
@@ -151,7 +166,8 @@ public class HttpClientToConnectionBridge<C> extends AbstractHttpConnectionBridg
 
         if (eventPublisher.publishingEnabled()) {
             long duration = -1;
-            if (requestWriteCompletionTimeNanos != -1) {
+            Long requestWriteCompletionTimeNanos = requestWriteCompletionTimesNanos.poll();
+            if (null != requestWriteCompletionTimeNanos) {
                 duration = Clock.onEndNanos(requestWriteCompletionTimeNanos);
             }
             eventsListener.onResponseHeadersReceived(nettyResponse.status().code(), duration, NANOSECONDS);
@@ -179,9 +195,13 @@ public class HttpClientToConnectionBridge<C> extends AbstractHttpConnectionBridg
 
     @Override
     protected void onContentReceiveComplete(long receiveStartTimeNanos) {
-        connectionInputSubscriber.onCompleted(); /*Unsubscribe from the input and hence close/release connection*/
+        if (!isPipelining(connectionInputSubscriber.getChannel())) {
+            connectionInputSubscriber.onCompleted(); /*Unsubscribe from the input and hence close/release connection*/
+        }
         if (eventPublisher.publishingEnabled()) {
-            long headerWriteStart = getHeaderWriteStartTimeNanos();
+            Long headerWriteStartTimeNanos = headerWriteStartTimesNanos.poll();
+            long headerWriteStart = null != headerWriteStartTimeNanos ? headerWriteStartTimeNanos
+                                                                      : getHeaderWriteStartTimeNanos();
             eventsListener.onResponseReceiveComplete(Clock.onEndNanos(receiveStartTimeNanos), NANOSECONDS);
             eventsListener.onRequestProcessingComplete(Clock.onEndNanos(headerWriteStart), NANOSECONDS);
         }
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.internal;
+
+import io.netty.channel.Channel;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ClientConnectionToChannelBridge;
+import io.reactivex.netty.events.EventAttributeKeys;
+import io.reactivex.netty.events.EventPublisher;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import io.reactivex.netty.protocol.http.client.events.HttpClientEventsListener;
+import io.reactivex.netty.protocol.http.client.internal.HttpClientRequestImpl.RequestWriteMetricsOperator;
+import rx.Observable;
+import rx.Observable.Transformer;
+import rx.Subscriber;
+import rx.functions.Action1;
+import rx.functions.Actions;
+import rx.subjects.UnicastSubject;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A connection held by a {@link RequestPipeliner}, on which multiple requests are written without waiting for the
+ * responses. <p>
+ *
+ * Requests are reserved on this connection from any thread (see {@link #tryReserve()}), but all writes and reads
+ * happen on the eventloop of the connection, so that the order of the written requests is the same as the order of
+ * the requests waiting for a response.
+ */
+final class PipelinedConnection extends HeldConnection<HttpClientResponse<Object>> {
+
+    /*Requests written on a connection that broke, are replayed at most once.*/
+    private static final int MAX_REPLAYS = 1;
+
+    private final RequestPipeliner pipeliner;
+
+    /*Following are only accessed on the eventloop of the connection*/
+    private final Queue<Exchange<?>> inFlight = new ArrayDeque<>();
+    private ResponseSubscriber responseSubscriber;
+    private ScheduledFuture<?> headOfLineTimeout;
+    private boolean closed;
+
+    PipelinedConnection(RequestPipeliner pipeliner) {
+        super(pipeliner);
+        this.pipeliner = pipeliner;
+    }
+
+    @Override
+    protected int getMaxReservations() {
+        return pipeliner.getMaxPipelinedRequests();
+    }
+
+    @Override
+    protected void onConnected(Connection<HttpClientResponse<Object>, Object> c) {
+        /*Subscribe to the input before any request is written, responses are read by this subscriber in order.*/
+        c.unsafeNettyChannel().attr(HttpClientToConnectionBridge.PIPELINING_ATTR).set(true);
+        responseSubscriber = new ResponseSubscriber();
+        c.getInput().unsafeSubscribe(responseSubscriber);
+        ready(c);
+    }
+
+    @Override
+    protected void processPending() {
+        Exchange<?> exchange;
+        while (null != (exchange = pollPending())) {
+            if (closed) {
+                /*Never written, so not a replay*/
+                pipeliner.submit(exchange);
+            } else if (exchange.isUnsubscribed()) {
+                if (onRequestComplete()) {
+                    release();
+                }
+            } else {
+                inFlight.add(exchange);
+                if (inFlight.size() == 1) {
+                    startHeadOfLineTimeout(exchange);
+                }
+                write(exchange);
+            }
+        }
+    }
+
+    private void write(Exchange<?> exchange) {
+        final Connection<HttpClientResponse<Object>, Object> connection = getConnection();
+        final Channel channel = connection.unsafeNettyChannel();
+        final HttpClientEventsListener eventsListener =
+                channel.attr(HttpChannelProvider.HTTP_CLIENT_EVENT_LISTENER).get();
+        final EventPublisher eventPublisher = channel.attr(EventAttributeKeys.EVENT_PUBLISHER).get();
+
+        @SuppressWarnings("unchecked")
+        Observable<Object> request = exchange.getRequest().unsafeRawRequest().asObservable(connection);
+        connection.write(request)
+                  .lift(new RequestWriteMetricsOperator(eventsListener, eventPublisher))
+                  .subscribe(Actions.empty(), new Action1<Throwable>() {
+                      @Override
+                      public void call(final Throwable throwable) {
+                          if (channel.eventLoop().inEventLoop()) {
+                              onBroken(throwable, null);
+                          } else {
+                              channel.eventLoop().execute(new Runnable() {
+                                  @Override
+                                  public void run() {
+                                      onBroken(throwable, null);
+                                  }
+                              });
+                          }
+                      }
+                  });
+    }
+
+    private void onResponse(HttpClientResponse<Object> response) {
+        final Exchange<?> exchange = inFlight.poll();
+        if (null == exchange) {
+            onBroken(new IllegalStateException("Response received without a request."), null);
+            return;
+        }
+
+        cancelHeadOfLineTimeout();
+        if (!inFlight.isEmpty()) {
+            startHeadOfLineTimeout(inFlight.peek());
+        }
+
+        if (!response.isKeepAlive()) {
+            /*Connection will be closed after this response, requests in flight are replayed on close.*/
+            closeReservations();
+        }
+
+        emitResponse(exchange, response);
+
+        if (onRequestComplete() || isClosedForReservations() && inFlight.isEmpty() && !hasPending()) {
+            release();
+        }
+    }
+
+    private void emitResponse(Exchange<?> exchange, HttpClientResponse<Object> unsafeResponse) {
+        final HttpClientResponse<Object> response = HttpClientResponseImpl.newInstance(unsafeResponse,
+                                                                                       getConnection());
+        if (exchange.isUnsubscribed()) {
+            /*Content must still be read, to read the responses after it.*/
+            response.discardContent().subscribe(Actions.empty(), Actions.<Throwable>toAction1(Actions.empty()));
+            return;
+        }
+
+        /*
+         * Content is subscribed eagerly, as the content of the next response is read right after this one and the
+         * read demand of the connection is shared by all responses. It is buffered till the subscriber of this
+         * response subscribes to the content.
+         */
+        final UnicastSubject<Object> content = UnicastSubject.create();
+        response.getContent().subscribe(content);
+        exchange.onResponse(response.transformContent(new Transformer<Object, Object>() {
+            @Override
+            public Observable<Object> call(Observable<Object> ignored) {
+                return content;
+            }
+        }));
+    }
+
+    /**
+     * Releases the reservation of a completed request.
+     *
+     * @return {@code true} if this connection has no more outstanding requests and does not accept more requests.
+     */
+    private boolean onRequestComplete() {
+        return releaseReservation() && closeReservationsIfIdle();
+    }
+
+    private void release() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeReservations();
+        cancelHeadOfLineTimeout();
+        /*Unsubscribing the input, releases the connection, once the content of the last response is read.*/
+        getConnection().unsafeNettyChannel().attr(HttpClientToConnectionBridge.PIPELINING_ATTR).set(false);
+        responseSubscriber.unsubscribe();
+    }
+
+    private void onBroken(Throwable cause, Exchange<?> timedOut) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeReservations();
+        cancelHeadOfLineTimeout();
+
+        final Connection<HttpClientResponse<Object>, Object> connection = getConnection();
+        final Channel channel = connection.unsafeNettyChannel();
+        channel.attr(ClientConnectionToChannelBridge.DISCARD_CONNECTION).set(true);
+        channel.attr(HttpClientToConnectionBridge.PIPELINING_ATTR).set(false);
+        responseSubscriber.unsubscribe();
+        connection.closeNow();
+
+        Exchange<?> exchange;
+        while (null != (exchange = inFlight.poll())) {
+            if (exchange == timedOut) {
+                exchange.onError(new TimeoutException("Response not received within "
+                                                      + pipeliner.getHeadOfLineTimeoutMillis()
+                                                      + " milliseconds, for a pipelined request."));
+            } else if (exchange.tryReplay(MAX_REPLAYS)) {
+                pipeliner.submit(exchange);
+            } else {
+                exchange.onError(cause);
+            }
+        }
+        resubmitPending();
+    }
+
+    private void startHeadOfLineTimeout(final Exchange<?> head) {
+        final long timeoutMillis = pipeliner.getHeadOfLineTimeoutMillis();
+        if (timeoutMillis <= 0) {
+            return;
+        }
+        headOfLineTimeout = getConnection().unsafeNettyChannel().eventLoop().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (inFlight.peek() == head) {
+                    onBroken(new TimeoutException("Head of line request timed out."), head);
+                }
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelHeadOfLineTimeout() {
+        if (null != headOfLineTimeout) {
+            headOfLineTimeout.cancel(false);
+            headOfLineTimeout = null;
+        }
+    }
+
+    private final class ResponseSubscriber extends Subscriber<HttpClientResponse<Object>> {
+
+        @Override
+        public void onCompleted() {
+            onBroken(new ClosedChannelException(), null);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            onBroken(e, null);
+        }
+
+        @Override
+        public void onNext(HttpClientResponse<Object> response) {
+            onResponse(response);
+        }
+    }
+}
@@ -27,6 +27,7 @@ import io.netty.handler.codec.http.cookie.ClientCookieEncoder;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.reactivex.netty.channel.Connection;
 import io.reactivex.netty.channel.FlushSelectorOperator;
+import io.reactivex.netty.protocol.http.internal.HttpDateFormatter;
 import rx.Observable;
 import rx.functions.Func1;
 
@@ -80,21 +81,21 @@ public final class RawRequest<I, O> {
 
     public RawRequest<I, O> addDateHeader(CharSequence name, Date value) {
         HttpRequest headersCopy = _copyHeaders();
-        headersCopy.headers().add(name, value);
+        headersCopy.headers().add(name, HttpDateFormatter.format(value));
         return new RawRequest<>(headersCopy, content, flushSelector, hasTrailers, redirector);
     }
 
     public RawRequest<I, O> addDateHeader(CharSequence name, Iterable<Date> values) {
         HttpRequest headersCopy = _copyHeaders();
         for (Date value : values) {
-            headersCopy.headers().add(name, value);
+            headersCopy.headers().add(name, HttpDateFormatter.format(value));
         }
         return new RawRequest<>(headersCopy, content, flushSelector, hasTrailers, redirector);
     }
 
     public RawRequest<I, O> setDateHeader(CharSequence name, Date value) {
         HttpRequest headersCopy = _copyHeaders();
-        headersCopy.headers().set(name, value);
+        headersCopy.headers().set(name, HttpDateFormatter.format(value));
         return new RawRequest<>(headersCopy, content, flushSelector, hasTrailers, redirector);
     }
 
@@ -123,9 +124,9 @@ public final class RawRequest<I, O> {
         boolean addNow = false;
         for (Date value : values) {
             if (addNow) {
-                headersCopy.headers().add(name, value);
+                headersCopy.headers().add(name, HttpDateFormatter.format(value));
             } else {
-                headersCopy.headers().set(name, value);
+                headersCopy.headers().set(name, HttpDateFormatter.format(value));
                 addNow = true;
             }
         }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.internal;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import io.reactivex.netty.protocol.tcp.client.TcpClient;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelines HTTP/1.1 requests on the connections of a client, i.e. writes upto {@code maxPipelinedRequests} requests
+ * on a connection without waiting for the responses, and matches the responses to the requests in the order they
+ * were written. <p>
+ *
+ * A request is sent on the connection with the least outstanding requests, and a new connection is acquired from the
+ * client only when all connections have {@code maxPipelinedRequests} outstanding requests. A connection is held (i.e.
+ * not released to the pool) till it has no outstanding requests. <p>
+ *
+ * Only idempotent requests without content and redirects are pipelined, see
+ * {@link #canPipeline(HttpClientRequestImpl)}.
+ * If the response for the request at the head of a connection is not received within the head of line timeout, or
+ * the connection is closed, the connection is discarded and the requests written on it, for which no response was
+ * received, are replayed on another connection. The request at the head that timed out, fails with a
+ * {@link java.util.concurrent.TimeoutException}.
+ */
+public final class RequestPipeliner extends ConnectionHolder<HttpClientResponse<Object>> {
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = new HashSet<>(
+            Arrays.asList(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.TRACE, HttpMethod.PUT,
+                          HttpMethod.DELETE));
+
+    private final int maxPipelinedRequests;
+    private final long headOfLineTimeoutMillis;
+
+    public RequestPipeliner(TcpClient<?, ?> client, int maxPipelinedRequests, long headOfLineTimeout,
+                            TimeUnit timeUnit) {
+        super(client);
+        if (maxPipelinedRequests < 1) {
+            throw new IllegalArgumentException("Maximum pipelined requests must be at least 1. Provided: "
+                                               + maxPipelinedRequests);
+        }
+        this.maxPipelinedRequests = maxPipelinedRequests;
+        headOfLineTimeoutMillis = timeUnit.toMillis(headOfLineTimeout);
+    }
+
+    /**
+     * Returns {@code true} if the passed request can be pipelined, i.e. it is an idempotent HTTP/1.1 request, without
+     * content and redirects, created from the client of this pipeliner.
+     */
+    public boolean canPipeline(HttpClientRequestImpl<?, ?> request) {
+        final RawRequest<?, ?> rawRequest = request.unsafeRawRequest();
+        final HttpRequest headers = rawRequest.getHeaders();
+        return isFromClient(request) && null == rawRequest.getContent() && null == rawRequest.getRedirector()
+               && HttpVersion.HTTP_1_1.equals(headers.protocolVersion())
+               && IDEMPOTENT_METHODS.contains(headers.method());
+    }
+
+    public int getMaxPipelinedRequests() {
+        return maxPipelinedRequests;
+    }
+
+    public long getHeadOfLineTimeoutMillis() {
+        return headOfLineTimeoutMillis;
+    }
+
+    @Override
+    protected HeldConnection<HttpClientResponse<Object>> newConnection() {
+        return new PipelinedConnection(this);
+    }
+}
@@ -24,21 +24,31 @@ import io.reactivex.netty.protocol.http.client.events.HttpClientEventsListener;
 import io.reactivex.netty.protocol.http.client.loadbalancer.EWMABasedP2CStrategy.HttpClientListenerImpl;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * A power of two choices strategy using an exponentially weighted moving average (EWMA) of the latency of a host,
+ * sensitive to peaks, multiplied by the number of requests pending for the host.
+ *
+ * The listener for every host is lock-free, as it is updated by all eventloops and read on every host selection.
+ * The decay factors ({@code exp(-elapsed/tau)}) are looked up from tables computed once per strategy, instead of
+ * computing {@link Math#exp(double)} for every update.
+ */
 public class EWMABasedP2CStrategy<W, R> extends AbstractP2CStrategy<W, R, ClientEventListener> {
     private static final double STARTUP_PENALTY = Long.MAX_VALUE >> 12;
-    private final double tauUp;
-    private final double tauDown;
+    private final DecayTable decayUp;
+    private final DecayTable decayDown;
     private double penaltyOnConnectionFailure;
     private double penaltyOn503;
 
     public EWMABasedP2CStrategy(double tauUp, double tauDown, double penaltyOnConnectionFailure,
                                 double penaltyOn503) {
-        this.tauUp = tauUp;
-        this.tauDown = tauDown;
+        decayUp = new DecayTable(tauUp);
+        decayDown = new DecayTable(tauDown);
         this.penaltyOnConnectionFailure = penaltyOnConnectionFailure;
         this.penaltyOn503 = penaltyOn503;
     }
@@ -58,28 +68,37 @@ public class EWMABasedP2CStrategy<W, R> extends AbstractP2CStrategy<W, R, Client
     }
 
     public class HttpClientListenerImpl extends HttpClientEventsListener {
-        private final long epoch = System.nanoTime();
-        private long stamp = epoch;  // last timestamp in nanos we observed an rtt
-        private int pending = 0;     // instantaneous rate
-        private double cost = 0.0;   // ewma of rtt, sensitive to peaks.
+        private final AtomicInteger pending = new AtomicInteger(); // instantaneous rate
+        private final AtomicReference<Cost> cost = new AtomicReference<>(new Cost(0.0, System.nanoTime()));
 
         public double getWeight() {
-            observe(0.0);
-            if (cost == 0.0 && pending != 0) {
-                return STARTUP_PENALTY + pending;
+            return getWeight(System.nanoTime());
+        }
+
+        /*Visible for testing*/ double getWeight(long nowNanos) {
+            /*
+             * Same weight as observing a zero rtt now, as decay over consecutive intervals is the same as decay over
+             * the entire interval. Unlike observing, the timestamp of the last observed rtt is not moved, so reading
+             * the weight does not change how the next observed rtt is weighted.
+             */
+            final Cost current = cost.get();
+            final int _pending = pending.get();
+            final double decayedCost = current.value * decayDown.weight(nowNanos - current.stamp);
+            if (decayedCost == 0.0 && _pending != 0) {
+                return STARTUP_PENALTY + _pending;
             } else {
-                return cost * (pending+1);
+                return decayedCost * (_pending + 1);
             }
         }
 
         @Override
-        public synchronized void onRequestWriteComplete(long duration, TimeUnit timeUnit) {
-            pending += 1;
+        public void onRequestWriteComplete(long duration, TimeUnit timeUnit) {
+            pending.incrementAndGet();
         }
 
         @Override
-        public synchronized void onResponseReceiveComplete(long duration, TimeUnit timeUnit) {
-            pending -= 1;
+        public void onResponseReceiveComplete(long duration, TimeUnit timeUnit) {
+            pending.decrementAndGet();
             observe(NANOSECONDS.convert(duration, timeUnit));
         }
 
@@ -96,16 +115,71 @@ public class EWMABasedP2CStrategy<W, R> extends AbstractP2CStrategy<W, R, Client
         }
 
         private void observe(double rtt) {
-            long t = System.nanoTime();
-            long td = Math.max(t - stamp, 0L);
-            if (rtt > cost) {
-                double w = Math.exp(-td / tauUp);
-                cost = cost * w + rtt * (1.0 - w);
-            } else {
-                double w = Math.exp(-td / tauDown);
-                cost = cost * w + rtt * (1.0 - w);
+            observe(rtt, System.nanoTime());
+        }
+
+        /*Visible for testing*/ void observe(double rtt, long nowNanos) {
+            for (;;) {
+                final Cost current = cost.get();
+                /*A concurrent observation may be stamped later than now, never move the stamp back.*/
+                final long t = Math.max(nowNanos, current.stamp);
+                final double w = rtt > current.value ? decayUp.weight(t - current.stamp)
+                                                     : decayDown.weight(t - current.stamp);
+                if (cost.compareAndSet(current, new Cost(current.value * w + rtt * (1.0 - w), t))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * An immutable pair of the EWMA of rtt and the last timestamp in nanos we observed an rtt, so that both can be
+     * updated atomically.
+     */
+    private static final class Cost {
+        private final double value;
+        private final long stamp;
+
+        private Cost(double value, long stamp) {
+            this.value = value;
+            this.stamp = stamp;
+        }
+    }
+
+    /**
+     * A lookup table for {@code exp(-elapsed/tau)}, linearly interpolated between entries. Elapsed time beyond
+     * {@link #MAX_TAUS} times tau, decays fully.
+     */
+    /*Visible for testing*/ static final class DecayTable {
+
+        private static final int SIZE = 1024;
+        private static final int MAX_TAUS = 16;
+
+        private final double[] weights = new double[SIZE + 1];
+        private final double stepNanos;
+
+        DecayTable(double tauNanos) {
+            if (!(tauNanos > 0)) {
+                throw new IllegalArgumentException("Tau must be greater than zero. Provided: " + tauNanos);
+            }
+            stepNanos = tauNanos * MAX_TAUS / SIZE;
+            for (int i = 0; i <= SIZE; i++) {
+                weights[i] = Math.exp(-i * stepNanos / tauNanos);
+            }
+            weights[SIZE] = 0.0;
+        }
+
+        double weight(long elapsedNanos) {
+            if (elapsedNanos <= 0) {
+                return 1.0;
+            }
+            final double position = elapsedNanos / stepNanos;
+            if (position >= SIZE) {
+                return 0.0;
             }
-            stamp = t;
+            final int index = (int) position;
+            final double fraction = position - index;
+            return weights[index] + (weights[index + 1] - weights[index]) * fraction;
         }
     }
 }
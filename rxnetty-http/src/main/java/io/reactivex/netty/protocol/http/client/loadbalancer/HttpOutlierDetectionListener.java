@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.loadbalancer;
+
+import io.reactivex.netty.client.events.ClientEventListener;
+import io.reactivex.netty.client.loadbalancer.HostHealth;
+import io.reactivex.netty.client.loadbalancer.OutlierDetectionConfig;
+import io.reactivex.netty.protocol.http.client.events.HttpClientEventsListener;
+import rx.functions.Func1;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A listener for outlier detection of HTTP hosts, that records a response with a 5XX status code, a failed response
+ * (eg: timeout) or a connect failure, as a failure and any other response as a success.
+ *
+ * Use with {@link OutlierDetectionConfig#listenerFactory(Func1)} via {@link #factory()}.
+ */
+public class HttpOutlierDetectionListener extends HttpClientEventsListener {
+
+    private final HostHealth health;
+
+    public HttpOutlierDetectionListener(HostHealth health) {
+        this.health = health;
+    }
+
+    @Override
+    public void onResponseHeadersReceived(int responseCode, long duration, TimeUnit timeUnit) {
+        if (responseCode >= 500) {
+            health.recordFailure();
+        } else {
+            health.recordSuccess();
+        }
+    }
+
+    @Override
+    public void onResponseFailed(Throwable throwable) {
+        health.recordFailure();
+    }
+
+    @Override
+    public void onConnectFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        health.recordFailure();
+    }
+
+    public static Func1<HostHealth, ClientEventListener> factory() {
+        return new Func1<HostHealth, ClientEventListener>() {
+            @Override
+            public ClientEventListener call(HostHealth health) {
+                return new HttpOutlierDetectionListener(health);
+            }
+        };
+    }
+}
@@ -241,6 +241,15 @@ public abstract class AbstractHttpConnectionBridge<C> extends ChannelDuplexHandl
         // No Op.
     }
 
+    /**
+     * Returns {@code true} if multiple messages are read by the same connection input subscriber (pipelining), in
+     * which case, the input is not unsubscribed when the content of a message completes, but only when the connection
+     * input subscriber unsubscribes.
+     */
+    protected boolean isPipelining(Channel channel) {
+        return false;
+    }
+
     protected long getHeaderWriteStartTimeNanos() {
         return headerWriteStartTimeNanos;
     }
@@ -363,6 +372,11 @@ public abstract class AbstractHttpConnectionBridge<C> extends ChannelDuplexHandl
         private volatile Stage stage = Stage.Created;
 
         /*Visible for testing*/void headerReceived() {
+            if (stage == Stage.ContentComplete) {
+                /*Next message on the same subscriber (pipelining), content subscription is per message.*/
+                contentSub = null;
+                raiseErrorOnInputSubscription = null;
+            }
             headerReceivedTimeNanos = Clock.newStartTimeNanos();
             stage = Stage.HeaderReceived;
         }
@@ -530,8 +544,11 @@ public abstract class AbstractHttpConnectionBridge<C> extends ChannelDuplexHandl
         public void run() {
             if (state.contentSub != null) {
                 if (state.contentSub.isUnsubscribed()) {
-                    // Content sub exists and unsubscribed, so unsubscribe from input.
-                    unsubscribe();
+                    // Content sub exists and unsubscribed, so unsubscribe from input, unless more messages are
+                    // expected by the header sub.
+                    if (!isPipelining(channel) || state.headerSub.isUnsubscribed()) {
+                        unsubscribe();
+                    }
                 } else if (state.headerSub.isUnsubscribed() && !state.receiveStarted()) {
                     // Header sub unsubscribed before request started, unsubscribe from input.
                     unsubscribe();
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+
+import java.util.List;
+
+/**
+ * Converts the content written to an HTTP/2 stream, which the HTTP/1.1 codecs accept as is, to {@link HttpContent} for
+ * the {@link Http2StreamFrameToHttpObjectCodec}.
+ */
+@Sharable
+public final class Http2StreamContentEncoder extends MessageToMessageEncoder<ByteBuf> {
+
+    public static final Http2StreamContentEncoder INSTANCE = new Http2StreamContentEncoder();
+
+    private Http2StreamContentEncoder() {
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf content, List<Object> out) throws Exception {
+        out.add(new DefaultHttpContent(content.retain()));
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.internal;
+
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http2.Http2Frame;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Discards the frames of an HTTP/2 stream that are not converted to HTTP objects by the
+ * {@link Http2StreamFrameToHttpObjectCodec}, eg: {@code WINDOW_UPDATE} frames received when the peer returns the flow
+ * control window of the stream. Such frames are handled by the HTTP/2 codec of the connection and must not reach the
+ * connection bridge of the stream, which expects only HTTP objects.
+ */
+@Sharable
+public final class Http2StreamControlFrameFilter extends ChannelInboundHandlerAdapter {
+
+    public static final Http2StreamControlFrameFilter INSTANCE = new Http2StreamControlFrameFilter();
+
+    private Http2StreamControlFrameFilter() {
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof Http2Frame) {
+            ReferenceCountUtil.release(msg);
+        } else {
+            ctx.fireChannelRead(msg);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.AsciiString;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.reactivex.netty.protocol.http.internal.HttpDateFormatter;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Headers added by {@link HttpServer} to every response, before it is passed to the {@link RequestHandler}.
+ *
+ * Header names and values are stored as {@link AsciiString}, so that they are copied as is to the wire by the encoder.
+ * The {@code Date} header is formatted at most once a second per thread (i.e. per eventloop, as responses are created
+ * on the eventloop of the connection) and shared between all responses created in that second.
+ *
+ * Instances are immutable.
+ */
+final class DefaultResponseHeaders {
+
+    static final DefaultResponseHeaders NONE = new DefaultResponseHeaders(false, new AsciiString[0],
+                                                                          new AsciiString[0]);
+
+    private static final FastThreadLocal<CachedDate> CACHED_DATE = new FastThreadLocal<CachedDate>() {
+        @Override
+        protected CachedDate initialValue() {
+            return new CachedDate();
+        }
+    };
+
+    private final boolean addDate;
+    private final AsciiString[] names;
+    private final AsciiString[] values;
+
+    private DefaultResponseHeaders(boolean addDate, AsciiString[] names, AsciiString[] values) {
+        this.addDate = addDate;
+        this.names = names;
+        this.values = values;
+    }
+
+    DefaultResponseHeaders withDate() {
+        return new DefaultResponseHeaders(true, names, values);
+    }
+
+    DefaultResponseHeaders withHeader(CharSequence name, CharSequence value) {
+        AsciiString[] newNames = Arrays.copyOf(names, names.length + 1);
+        AsciiString[] newValues = Arrays.copyOf(values, values.length + 1);
+        newNames[names.length] = AsciiString.of(name);
+        newValues[values.length] = AsciiString.of(value);
+        return new DefaultResponseHeaders(addDate, newNames, newValues);
+    }
+
+    void addTo(HttpHeaders headers) {
+        if (addDate) {
+            headers.set(HttpHeaderNames.DATE, currentDate());
+        }
+        for (int i = 0; i < names.length; i++) {
+            headers.add(names[i], values[i]);
+        }
+    }
+
+    /*Visible for testing*/ static AsciiString currentDate() {
+        return CACHED_DATE.get().get(System.currentTimeMillis());
+    }
+
+    private static final class CachedDate {
+
+        private long second = Long.MIN_VALUE;
+        private AsciiString date;
+
+        private AsciiString get(long nowMillis) {
+            final long nowSecond = nowMillis / 1000;
+            if (nowSecond != second) {
+                date = new AsciiString(HttpDateFormatter.format(new Date(nowSecond * 1000)));
+                second = nowSecond;
+            }
+            return date;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCounted;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of open files and their metadata, used to serve files via {@link HttpServerResponse#sendFile(Path)}.
+ *
+ * The metadata (size and last modified time) of a file is trusted for {@link #metadataTtlMillis} after which the file
+ * is stat-ed again and, if it was modified, re-opened. At most {@link #maxOpenFiles} files are kept open, the least
+ * recently used file is closed when this limit is exceeded.
+ *
+ * A {@link CachedFile} is reference counted, the cache holds one reference and every {@link #acquire(Path)} adds one.
+ * The underlying {@link FileChannel} is closed once the file is evicted from the cache and all responses using it are
+ * complete. Since, all reads from the channel are positional, it can be shared between concurrent responses.
+ */
+final class FileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileCache.class);
+
+    static final FileCache DEFAULT = new FileCache(256, TimeUnit.SECONDS.toMillis(1));
+
+    private final int maxOpenFiles;
+    private final long metadataTtlMillis;
+    private final LinkedHashMap<Path, CachedFile> files; /*Guarded by this*/
+
+    FileCache(int maxOpenFiles, long metadataTtlMillis) {
+        this.maxOpenFiles = maxOpenFiles;
+        this.metadataTtlMillis = metadataTtlMillis;
+        files = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached file for the passed path, opening it if required. The caller must release the returned file
+     * when done.
+     *
+     * @param path Path of the file.
+     *
+     * @return Cached file with an additional reference held by the caller.
+     *
+     * @throws NoSuchFileException If the file does not exist or is not a regular file.
+     * @throws IOException If the file can not be opened.
+     */
+    CachedFile acquire(Path path) throws IOException {
+        final long now = System.currentTimeMillis();
+        synchronized (this) {
+            CachedFile cached = files.get(path);
+            if (null != cached && now - cached.checkedAtMillis < metadataTtlMillis) {
+                cached.retain();
+                return cached;
+            }
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        if (!attributes.isRegularFile()) {
+            throw new NoSuchFileException(path.toString(), null, "Not a regular file.");
+        }
+        final long length = attributes.size();
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+
+        synchronized (this) {
+            CachedFile cached = files.get(path);
+            if (null != cached && cached.length == length && cached.lastModifiedMillis == lastModified) {
+                cached.checkedAtMillis = now;
+                cached.retain();
+                return cached;
+            }
+        }
+
+        CachedFile newFile = new CachedFile(FileChannel.open(path, StandardOpenOption.READ), length, lastModified,
+                                            now);
+        synchronized (this) {
+            CachedFile existing = files.put(path, newFile);
+            if (null != existing) {
+                existing.release();
+            }
+            Iterator<Entry<Path, CachedFile>> lru = files.entrySet().iterator();
+            while (files.size() > maxOpenFiles && lru.hasNext()) {
+                CachedFile evicted = lru.next().getValue();
+                lru.remove();
+                evicted.release();
+            }
+            newFile.retain();
+        }
+        return newFile;
+    }
+
+    synchronized int getOpenFilesCount() {
+        return files.size();
+    }
+
+    static final class CachedFile extends AbstractReferenceCounted {
+
+        private final FileChannel channel;
+        private final long length;
+        private final long lastModifiedMillis;
+        private final String etag;
+        private volatile long checkedAtMillis;
+
+        private CachedFile(FileChannel channel, long length, long lastModifiedMillis, long checkedAtMillis) {
+            this.channel = channel;
+            this.length = length;
+            this.lastModifiedMillis = lastModifiedMillis;
+            this.checkedAtMillis = checkedAtMillis;
+            etag = '"' + Long.toHexString(length) + '-' + Long.toHexString(lastModifiedMillis) + '"';
+        }
+
+        FileChannel channel() {
+            return channel;
+        }
+
+        long length() {
+            return length;
+        }
+
+        long lastModifiedMillis() {
+            return lastModifiedMillis;
+        }
+
+        String etag() {
+            return etag;
+        }
+
+        @Override
+        public ReferenceCounted touch(Object hint) {
+            return this;
+        }
+
+        @Override
+        protected void deallocate() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.error("Failed to close cached file.", e);
+            }
+        }
+    }
+}
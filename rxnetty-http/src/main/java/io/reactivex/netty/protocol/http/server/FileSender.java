@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.reactivex.netty.protocol.http.internal.HttpDateFormatter;
+import io.reactivex.netty.protocol.http.server.FileCache.CachedFile;
+import rx.Observable;
+
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.file.Path;
+import java.util.Date;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+
+/**
+ * Sends a {@link CachedFile} as the content of a response, handling conditional ({@code If-None-Match},
+ * {@code If-Modified-Since}) and single range ({@code Range}, {@code If-Range}) requests.
+ *
+ * Multiple ranges in a request are not supported and such requests are served the entire file, as permitted by
+ * RFC 7233.
+ */
+final class FileSender {
+
+    private static final String BYTES_UNIT = "bytes";
+    private static final String BYTES_UNIT_PREFIX = BYTES_UNIT + '=';
+
+    private FileSender() {
+    }
+
+    /**
+     * Sends the passed file, the reference to the file held by the caller is transferred to this method.
+     */
+    static Observable<Void> send(HttpServerResponseImpl<?> response, HttpServerRequest<?> request, Path path,
+                                 CachedFile file) {
+        final long length = file.length();
+        final String lastModified = HttpDateFormatter.format(new Date(file.lastModifiedMillis()));
+
+        response.setHeader(ETAG, file.etag())
+                .setHeader(LAST_MODIFIED, lastModified)
+                .setHeader(ACCEPT_RANGES, BYTES_UNIT);
+        if (!response.containsHeader(CONTENT_TYPE)) {
+            String contentType = URLConnection.guessContentTypeFromName(String.valueOf(path.getFileName()));
+            if (null != contentType) {
+                response.setHeader(CONTENT_TYPE, contentType);
+            }
+        }
+
+        final HttpMethod method = request.getHttpMethod();
+        final boolean getOrHead = HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+
+        if (getOrHead && isNotModified(request, file)) {
+            /*Content-Length of a 304 is the length of the content that would have been sent with a 200.*/
+            response.setStatus(HttpResponseStatus.NOT_MODIFIED)
+                    .setHeader(CONTENT_LENGTH, length);
+            return writeNoContent(response, file);
+        }
+
+        long offset = 0;
+        long count = length;
+        String range = request.getHeader(RANGE);
+        if (getOrHead && null != range && isRangeApplicable(request, file, lastModified)) {
+            long[] selected = parseRange(range, length);
+            if (null == selected) {
+                response.setStatus(HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .setHeader(CONTENT_RANGE, BYTES_UNIT + " */" + length)
+                        .setHeader(CONTENT_LENGTH, 0);
+                return writeNoContent(response, file);
+            }
+            if (selected.length > 0) {
+                offset = selected[0];
+                count = selected[1] - selected[0] + 1;
+                response.setStatus(HttpResponseStatus.PARTIAL_CONTENT)
+                        .setHeader(CONTENT_RANGE, BYTES_UNIT + ' ' + selected[0] + '-' + selected[1] + '/' + length);
+            }
+        }
+
+        response.setHeader(CONTENT_LENGTH, count);
+
+        if (HttpMethod.HEAD.equals(method) || 0 == count) {
+            return writeNoContent(response, file);
+        }
+
+        final Object content;
+        try {
+            content = response.newFileContent(file, offset, count);
+        } catch (IOException e) {
+            file.release();
+            return Observable.error(e);
+        }
+        return rawResponse(response).write(Observable.just(content));
+    }
+
+    private static Observable<Void> writeNoContent(HttpServerResponse<?> response, CachedFile file) {
+        file.release();
+        return rawResponse(response).write(Observable.empty());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static HttpServerResponse<Object> rawResponse(HttpServerResponse<?> response) {
+        /*File contents are written as FileRegion or ChunkedInput, irrespective of the content type of the response.*/
+        return (HttpServerResponse) response;
+    }
+
+    private static boolean isNotModified(HttpServerRequest<?> request, CachedFile file) {
+        String ifNoneMatch = request.getHeader(IF_NONE_MATCH);
+        if (null != ifNoneMatch) {
+            /*If-Modified-Since is ignored when If-None-Match is present (RFC 7232, section 3.3)*/
+            return matchesEtag(ifNoneMatch, file.etag(), true);
+        }
+
+        String ifModifiedSince = request.getHeader(IF_MODIFIED_SINCE);
+        if (null != ifModifiedSince) {
+            Date since = DateFormatter.parseHttpDate(ifModifiedSince);
+            /*HTTP dates have a resolution of seconds.*/
+            return null != since && file.lastModifiedMillis() / 1000 <= since.getTime() / 1000;
+        }
+        return false;
+    }
+
+    private static boolean isRangeApplicable(HttpServerRequest<?> request, CachedFile file, String lastModified) {
+        String ifRange = request.getHeader(IF_RANGE);
+        if (null == ifRange) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        return ifRange.startsWith("\"") ? ifRange.equals(file.etag()) : ifRange.equals(lastModified);
+    }
+
+    private static boolean matchesEtag(String header, String etag, boolean weak) {
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if ("*".equals(candidate)) {
+                return true;
+            }
+            if (weak && candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a {@code Range} header.
+     *
+     * @return {@code null} if the range is not satisfiable, an empty array if the header should be ignored (multiple
+     * ranges or malformed), else an array of the first and last byte positions (inclusive).
+     */
+    /*Visible for testing*/ static long[] parseRange(String range, long length) {
+        range = range.trim();
+        if (!range.startsWith(BYTES_UNIT_PREFIX) || range.indexOf(',') >= 0) {
+            return new long[0];
+        }
+
+        String spec = range.substring(BYTES_UNIT_PREFIX.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+
+        final long first;
+        final long last;
+        try {
+            String firstPos = spec.substring(0, dash).trim();
+            String lastPos = spec.substring(dash + 1).trim();
+            if (firstPos.isEmpty()) {
+                /*Suffix range: last N bytes.*/
+                long suffixLength = Long.parseLong(lastPos);
+                if (suffixLength <= 0 || length == 0) {
+                    return suffixLength < 0 ? new long[0] : null;
+                }
+                first = Math.max(0, length - suffixLength);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(firstPos);
+                last = lastPos.isEmpty() ? length - 1 : Math.min(Long.parseLong(lastPos), length - 1);
+                if (first < 0 || (!lastPos.isEmpty() && Long.parseLong(lastPos) < first)) {
+                    return new long[0];
+                }
+            }
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+
+        if (first >= length) {
+            return null;
+        }
+        return new long[] {first, last};
+    }
+}
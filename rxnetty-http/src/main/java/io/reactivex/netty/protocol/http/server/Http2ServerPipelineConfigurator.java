@@ -0,0 +1,231 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler.SourceCodec;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler.UpgradeCodec;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler.UpgradeCodecFactory;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.Http2MultiplexCodec;
+import io.netty.handler.codec.http2.Http2MultiplexCodecBuilder;
+import io.netty.handler.codec.http2.Http2ServerUpgradeCodec;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.util.AsciiString;
+import io.netty.util.ReferenceCountUtil;
+import io.reactivex.netty.HandlerNames;
+import io.reactivex.netty.channel.BackpressureManagingHandler;
+import io.reactivex.netty.channel.WriteTransformer;
+import io.reactivex.netty.protocol.http.HttpHandlerNames;
+import io.reactivex.netty.protocol.http.internal.Http2StreamContentEncoder;
+import io.reactivex.netty.protocol.http.internal.Http2StreamControlFrameFilter;
+import io.reactivex.netty.protocol.http.server.events.HttpServerEventPublisher;
+import io.reactivex.netty.protocol.tcp.server.ConnectionHandler;
+import io.reactivex.netty.protocol.tcp.server.TcpServerConnectionToChannelBridge;
+import io.reactivex.netty.protocol.tcp.server.events.TcpServerEventPublisher;
+import rx.functions.Action1;
+
+import java.util.List;
+
+/**
+ * Configures the pipeline of an HTTP/1.1 server connection to switch to HTTP/2 if the client sends the HTTP/2
+ * connection preface (prior knowledge for cleartext and ALPN negotiated h2 for secure connections) or requests an
+ * {@code h2c} upgrade. <p>
+ *
+ * On switching, the HTTP/1.1 handlers of the connection are replaced by a {@link Http2MultiplexCodec}, and every stream
+ * is a child channel with the same HTTP handlers and {@link ConnectionHandler} that a HTTP/1.1 connection has, so
+ * every stream is handled exactly like an HTTP/1.1 connection carrying a single request. <p>
+ *
+ * <h2>Flow control</h2>
+ *
+ * Backpressure on an HTTP/2 connection is applied by the HTTP/2 flow control windows, instead of the reads of the
+ * connection as done for HTTP/1.1:
+ *
+ * <ul>
+ <li>Streams have auto-read disabled, and the read of a stream is managed by the {@link BackpressureManagingHandler}
+ of the stream, the same way as for an HTTP/1.1 connection, i.e. content of a request is read only when there is demand
+ from the subscriber of the content.</li>
+ <li>The flow control window of the stream and the connection is returned to the client only when the content is read
+ by the stream. So, the content received by a connection and not yet read by its streams is bounded by the connection
+ window, irrespective of the number of streams.</li>
+ <li>The connection itself is always read, as it carries the frames of all streams and the connection level frames
+ ({@code SETTINGS}, {@code PING}, {@code WINDOW_UPDATE}, {@code GOAWAY}), so not reading it, because a single stream
+ has no demand, would stall every other stream. Hence, the connection level frames are not passed to the
+ {@link BackpressureManagingHandler} of the connection, see {@link ConnectionFrameHandler}.</li>
+ </ul>
+ */
+final class Http2ServerPipelineConfigurator implements Action1<ChannelPipeline> {
+
+    /*Maximum content of a request asking for an h2c upgrade, as it is buffered till the upgrade.*/
+    private static final int MAX_UPGRADE_REQUEST_CONTENT_LENGTH = 64 * 1024;
+
+    /*TCP events are published for the connection, so streams do not publish any.*/
+    private static final TcpServerEventPublisher STREAM_EVENT_PUBLISHER = new TcpServerEventPublisher();
+
+    private final int maxConcurrentStreams;
+    private final StreamInitializer streamInitializer;
+
+    Http2ServerPipelineConfigurator(int maxConcurrentStreams, HttpServerEventPublisher eventPublisher) {
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        streamInitializer = new StreamInitializer(eventPublisher);
+    }
+
+    @Override
+    public void call(ChannelPipeline pipeline) {
+        pipeline.addBefore(HttpHandlerNames.HttpServerEncoder.getName(),
+                           HttpHandlerNames.Http2ServerPrefaceDetector.getName(), new PrefaceDetector());
+        pipeline.addAfter(HttpHandlerNames.HttpServerDecoder.getName(),
+                          HttpHandlerNames.Http2ServerUpgradeHandler.getName(),
+                          new HttpServerUpgradeHandler(Http1SourceCodec.INSTANCE, new UpgradeCodecFactory() {
+                              @Override
+                              public UpgradeCodec newUpgradeCodec(CharSequence protocol) {
+                                  if (AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)) {
+                                      return new Http2ServerUpgradeCodec(HttpHandlerNames.Http2ServerCodec.getName(),
+                                                                         newCodec());
+                                  }
+                                  return null;
+                              }
+                          }, MAX_UPGRADE_REQUEST_CONTENT_LENGTH));
+    }
+
+    private Http2MultiplexCodec newCodec() {
+        return Http2MultiplexCodecBuilder.forServer(streamInitializer)
+                                         .initialSettings(Http2Settings.defaultSettings()
+                                                                       .maxConcurrentStreams(maxConcurrentStreams))
+                                         .build();
+    }
+
+    /**
+     * Removes the HTTP/1.1 handlers from the pipeline, except the upgrade handler which removes itself on upgrade.
+     */
+    private static void removeHttp1Handlers(ChannelPipeline pipeline) {
+        pipeline.remove(HttpHandlerNames.HttpServerEncoder.getName());
+        pipeline.remove(HttpHandlerNames.HttpServerDecoder.getName());
+        if (null != pipeline.get(HttpHandlerNames.HttpServerCompressor.getName())) {
+            pipeline.remove(HttpHandlerNames.HttpServerCompressor.getName());
+        }
+        if (null != pipeline.get(HttpHandlerNames.WsServerUpgradeHandler.getName())) {
+            pipeline.remove(HttpHandlerNames.WsServerUpgradeHandler.getName());
+        }
+        pipeline.replace(HttpServerToConnectionBridge.class,
+                         HttpHandlerNames.Http2ServerConnectionFrameHandler.getName(),
+                         ConnectionFrameHandler.INSTANCE);
+    }
+
+    /**
+     * Switches to HTTP/2 if the connection starts with the HTTP/2 connection preface, else removes itself leaving the
+     * connection as HTTP/1.1.
+     */
+    private final class PrefaceDetector extends ByteToMessageDecoder {
+
+        private final ByteBuf preface = Http2CodecUtil.connectionPrefaceBuf();
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+            final int prefaceLength = preface.readableBytes();
+            final int bytesRead = Math.min(in.readableBytes(), prefaceLength);
+
+            if (!ByteBufUtil.equals(preface, preface.readerIndex(), in, in.readerIndex(), bytesRead)) {
+                ctx.pipeline().remove(this);
+            } else if (bytesRead == prefaceLength) {
+                final ChannelPipeline pipeline = ctx.pipeline();
+                removeHttp1Handlers(pipeline);
+                pipeline.remove(HttpHandlerNames.Http2ServerUpgradeHandler.getName());
+                pipeline.addAfter(ctx.name(), HttpHandlerNames.Http2ServerCodec.getName(), newCodec());
+                /*Read bytes, including the preface, are passed to the codec on removal.*/
+                pipeline.remove(this);
+            }
+        }
+
+        @Override
+        protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+            preface.release();
+        }
+    }
+
+    private static final class Http1SourceCodec implements SourceCodec {
+
+        private static final Http1SourceCodec INSTANCE = new Http1SourceCodec();
+
+        @Override
+        public void upgradeFrom(ChannelHandlerContext ctx) {
+            removeHttp1Handlers(ctx.pipeline());
+        }
+    }
+
+    /**
+     * Discards the connection level frames that reach the end of the connection pipeline, so that the
+     * {@link ConnectionHandler} of the connection does not receive them. These frames are already processed by the
+     * {@link Http2MultiplexCodec} and do not carry any content, so discarding them does not affect the flow control of
+     * the connection, which only depends on the content read by the streams.
+     */
+    @Sharable
+    private static final class ConnectionFrameHandler extends ChannelInboundHandlerAdapter {
+
+        private static final ConnectionFrameHandler INSTANCE = new ConnectionFrameHandler();
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    /**
+     * Initializes a stream with the same handlers as an HTTP/1.1 connection, with the HTTP/2 frame to HTTP object
+     * conversion replacing the HTTP/1.1 codec. Streams are handled by the {@link ConnectionHandler} of the connection.
+     */
+    @Sharable
+    private static final class StreamInitializer extends ChannelInitializer<Channel> {
+
+        private final HttpServerEventPublisher eventPublisher;
+
+        private StreamInitializer(HttpServerEventPublisher eventPublisher) {
+            this.eventPublisher = eventPublisher;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected void initChannel(Channel stream) throws Exception {
+            final TcpServerConnectionToChannelBridge connectionBridge =
+                    stream.parent().pipeline().get(TcpServerConnectionToChannelBridge.class);
+
+            stream.config().setAutoRead(false);
+
+            final ChannelPipeline pipeline = stream.pipeline();
+            pipeline.addLast(HandlerNames.WriteTransformer.getName(), new WriteTransformer());
+            pipeline.addLast(HttpHandlerNames.Http2ServerStreamCodec.getName(),
+                             new Http2StreamFrameToHttpObjectCodec(true));
+            pipeline.addLast(HttpHandlerNames.Http2StreamControlFrameFilter.getName(),
+                             Http2StreamControlFrameFilter.INSTANCE);
+            pipeline.addLast(HttpHandlerNames.Http2StreamContentEncoder.getName(),
+                             Http2StreamContentEncoder.INSTANCE);
+            pipeline.addLast(new HttpServerToConnectionBridge<>(eventPublisher));
+            TcpServerConnectionToChannelBridge.addToPipeline(pipeline, connectionBridge.getConnectionHandler(),
+                                                             STREAM_EVENT_PUBLISHER, false);
+        }
+    }
+}
@@ -44,12 +44,19 @@ public class HttpConnectionHandler<I, O> implements ConnectionHandler<HttpServer
     private final RequestHandler<I, O> requestHandler;
     private final HttpServerEventPublisher eventPublisher;
     private final boolean sendHttp10ResponseFor10Request;
+    private final DefaultResponseHeaders defaultResponseHeaders;
 
     public HttpConnectionHandler(RequestHandler<I, O> requestHandler, HttpServerEventPublisher eventPublisher,
                                  boolean sendHttp10ResponseFor10Request) {
+        this(requestHandler, eventPublisher, sendHttp10ResponseFor10Request, DefaultResponseHeaders.NONE);
+    }
+
+    HttpConnectionHandler(RequestHandler<I, O> requestHandler, HttpServerEventPublisher eventPublisher,
+                          boolean sendHttp10ResponseFor10Request, DefaultResponseHeaders defaultResponseHeaders) {
         this.requestHandler = requestHandler;
         this.eventPublisher = eventPublisher;
         this.sendHttp10ResponseFor10Request = sendHttp10ResponseFor10Request;
+        this.defaultResponseHeaders = defaultResponseHeaders;
     }
 
     @Override
@@ -183,6 +190,7 @@ public class HttpConnectionHandler<I, O> implements ConnectionHandler<HttpServer
         } else {
             responseHeaders = new DefaultHttpResponse(version, OK);
         }
+        defaultResponseHeaders.addTo(responseHeaders.headers());
         HttpServerResponse<O> response = HttpServerResponseImpl.create(request, c, responseHeaders);
         setConnectionHeader(request, response);
         return response;
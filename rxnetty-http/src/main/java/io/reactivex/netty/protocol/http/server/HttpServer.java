@@ -303,6 +303,67 @@ public abstract class HttpServer<I, O> implements EventSource<HttpServerEventsLi
      */
     public abstract HttpServer<I, O> sendHttp10ResponseFor10Request(boolean sendHttp10ResponseFor10Request);
 
+    /**
+     * Creates a new server instances, inheriting all configurations from this server and adding a {@code Date} header
+     * to all responses. <p>
+     *
+     * The header value is formatted at most once a second per eventloop and shared by all responses created in that
+     * second, so this is cheaper than setting the header from a {@link RequestHandler}.
+     *
+     * @return A new {@link HttpServer} instance.
+     */
+    public abstract HttpServer<I, O> enableDateHeader();
+
+    /**
+     * Creates a new server instances, inheriting all configurations from this server and adding the passed header to
+     * all responses, eg: a {@code Server} header. A {@link RequestHandler} can override the header by setting it on
+     * the response. <p>
+     *
+     * The name and value are encoded once, when this method is called, and are written as is for every response.
+     *
+     * @param name Name of the header.
+     * @param value Value of the header.
+     *
+     * @return A new {@link HttpServer} instance.
+     */
+    public abstract HttpServer<I, O> addResponseHeader(CharSequence name, CharSequence value);
+
+    /**
+     * Creates a new server instances, inheriting all configurations from this server and compressing the content of
+     * HTTP/1.1 responses with {@code gzip} or {@code deflate}, as accepted by the {@code Accept-Encoding} header of the
+     * request. <p>
+     *
+     * The content is compressed as it is written, so streaming responses are not buffered. Responses are not
+     * compressed if they already have a {@code Content-Encoding}, have a {@code Content-Length} smaller than the
+     * passed minimum, or have a {@code Content-Type} that is typically already compressed (eg: images, audio, video
+     * and archives).
+     *
+     * @param minContentLength Minimum {@code Content-Length} of a response to be compressed. Responses without a
+     * {@code Content-Length} are always compressed.
+     *
+     * @return A new {@link HttpServer} instance.
+     */
+    public abstract HttpServer<I, O> enableCompression(int minContentLength);
+
+    /**
+     * Creates a new server instances, inheriting all configurations from this server and accepting HTTP/2 connections
+     * along with HTTP/1.1 connections. A connection uses HTTP/2 if the client sends the HTTP/2 connection preface
+     * (prior knowledge for cleartext connections, or {@code h2} negotiated via ALPN for secure connections) or
+     * requests an {@code h2c} upgrade. For ALPN, the {@link SSLEngine} of the server must be configured to select
+     * {@code h2}. <p>
+     *
+     * Every stream of an HTTP/2 connection is handled as an ordinary {@link HttpServerRequest} and
+     * {@link HttpServerResponse} by the {@link RequestHandler} of the server. The content of a request is read from
+     * the stream only when requested by the subscriber of the content, so the HTTP/2 flow control of a stream follows
+     * the backpressure of the content subscriber. Any handlers added to the server are added to the connection and
+     * not the streams.
+     *
+     * @param maxConcurrentStreams Maximum number of concurrent streams, advertised to the clients, on a connection.
+     *
+     * @return A new {@link HttpServer} instance.
+     */
+    public abstract HttpServer<I, O> http2(int maxConcurrentStreams);
+
     /**
      * Returns the port at which this server is running.
      * <p/>
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+
+/**
+ * Compresses the content of HTTP/1.1 responses with {@code gzip} or {@code deflate}, as negotiated by the
+ * {@code Accept-Encoding} header of the request. <p>
+ *
+ * Every content chunk written is compressed and flushed from the compressor as it is written, so streaming responses
+ * (eg: server sent events) are received by the client as they are written. {@link Deflater} instances are pooled per
+ * eventloop (thread), so a connection does not create a new {@link Deflater} per response. <p>
+ *
+ * A response is not compressed if it already has a {@code Content-Encoding}, has a {@code Content-Length} smaller than
+ * the configured minimum, or has a {@code Content-Type} that is typically already compressed (images, audio, video and
+ * archives). A {@link FullHttpResponse} is never compressed.
+ */
+final class HttpServerCompressor extends ChannelDuplexHandler {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    /*Maximum deflaters retained per pool, these many responses can be compressed concurrently without allocations.*/
+    private static final int MAX_POOLED_DEFLATERS = 64;
+
+    private static final FastThreadLocal<ArrayDeque<Deflater>> GZIP_DEFLATERS = new DeflaterPool();
+    private static final FastThreadLocal<ArrayDeque<Deflater>> ZLIB_DEFLATERS = new DeflaterPool();
+
+    private final int minContentLength;
+    /*Accept-Encoding of the requests for which a response is yet to be written, empty if there is none.*/
+    private final ArrayDeque<String> acceptEncodings = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private byte[] scratch = new byte[0];
+
+    /*Non-null, only when the content of the current response is being compressed.*/
+    private Deflater deflater;
+    private boolean gzip;
+    private boolean gzipHeaderWritten;
+
+    HttpServerCompressor(int minContentLength) {
+        this.minContentLength = minContentLength;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            String acceptEncoding = request.headers().get(ACCEPT_ENCODING);
+            acceptEncodings.add(null == acceptEncoding || HttpMethod.HEAD.equals(request.method()) ? ""
+                                                                                                   : acceptEncoding);
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof HttpResponse) {
+            HttpResponse response = (HttpResponse) msg;
+            if (response.status().codeClass() != HttpStatusClass.INFORMATIONAL) {
+                /*Polled for every response, so that the next response is matched with the next request.*/
+                String acceptEncoding = acceptEncodings.poll();
+                if (msg instanceof FullHttpResponse) {
+                    releaseDeflater(); /*If the last response did not complete.*/
+                } else {
+                    beginResponse(response, null == acceptEncoding ? "" : acceptEncoding);
+                }
+            }
+            ctx.write(msg, promise);
+        } else if (null != deflater && (msg instanceof ByteBuf || msg instanceof HttpContent)) {
+            writeCompressed(ctx, msg, promise);
+        } else {
+            ctx.write(msg, promise);
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        releaseDeflater();
+        super.handlerRemoved(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releaseDeflater();
+        super.channelInactive(ctx);
+    }
+
+    private void beginResponse(HttpResponse response, String acceptEncoding) {
+        releaseDeflater(); /*If the last response did not complete.*/
+
+        HttpHeaders headers = response.headers();
+        if (!isCompressible(response)) {
+            return;
+        }
+
+        headers.add(VARY, ACCEPT_ENCODING);
+        String encoding = selectEncoding(acceptEncoding);
+        if (null == encoding) {
+            return;
+        }
+
+        gzip = HttpHeaderValues.GZIP.contentEquals(encoding);
+        deflater = (gzip ? GZIP_DEFLATERS : ZLIB_DEFLATERS).get().poll();
+        if (null == deflater) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, gzip);
+        }
+        crc.reset();
+        gzipHeaderWritten = false;
+
+        headers.remove(CONTENT_LENGTH);
+        headers.set(TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+        headers.set(CONTENT_ENCODING, encoding);
+    }
+
+    /**
+     * Returns {@code true} if the passed response, for a request with the passed {@code Accept-Encoding}, will be
+     * compressed by this handler.
+     */
+    boolean willCompress(HttpResponse response, String acceptEncoding) {
+        return isCompressible(response) && null != selectEncoding(acceptEncoding);
+    }
+
+    private boolean isCompressible(HttpResponse response) {
+        int status = response.status().code();
+        if (status == 204 || status == 304 || HttpVersion.HTTP_1_0.equals(response.protocolVersion())) {
+            return false;
+        }
+
+        HttpHeaders headers = response.headers();
+        String contentEncoding = headers.get(CONTENT_ENCODING);
+        if (null != contentEncoding && !HttpHeaderValues.IDENTITY.contentEqualsIgnoreCase(contentEncoding)) {
+            return false;
+        }
+        if (HttpUtil.isContentLengthSet(response) && HttpUtil.getContentLength(response) < minContentLength) {
+            return false;
+        }
+
+        String contentType = headers.get(CONTENT_TYPE);
+        if (null == contentType) {
+            return true;
+        }
+        contentType = contentType.toLowerCase(Locale.ENGLISH);
+        if (contentType.startsWith("image/")) {
+            return contentType.startsWith("image/svg");
+        }
+        return !contentType.startsWith("audio/")
+               && !contentType.startsWith("video/")
+               && !contentType.startsWith("font/woff")
+               && !contentType.startsWith("application/zip")
+               && !contentType.startsWith("application/gzip")
+               && !contentType.startsWith("application/x-gzip")
+               && !contentType.startsWith("application/x-bzip2")
+               && !contentType.startsWith("application/x-7z-compressed")
+               && !contentType.startsWith("application/x-rar-compressed")
+               && !contentType.startsWith("application/octet-stream");
+    }
+
+    /**
+     * Selects {@code gzip} or {@code deflate}, whichever has the higher quality in the passed {@code Accept-Encoding},
+     * preferring {@code gzip} on a tie.
+     */
+    /*Visible for testing*/ static String selectEncoding(String acceptEncoding) {
+        float gzipQ = -1;
+        float deflateQ = -1;
+        float starQ = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            float q = 1.0f;
+            int paramsStart = coding.indexOf(';');
+            if (paramsStart >= 0) {
+                String params = coding.substring(paramsStart + 1).trim();
+                coding = coding.substring(0, paramsStart);
+                if (params.startsWith("q=")) {
+                    try {
+                        q = Float.parseFloat(params.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            coding = coding.trim().toLowerCase(Locale.ENGLISH);
+            if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+                gzipQ = Math.max(gzipQ, q);
+            } else if ("deflate".equals(coding)) {
+                deflateQ = q;
+            } else if ("*".equals(coding)) {
+                starQ = q;
+            }
+        }
+
+        if (gzipQ < 0) {
+            gzipQ = starQ;
+        }
+        if (deflateQ < 0) {
+            deflateQ = starQ;
+        }
+        if (gzipQ > 0 && gzipQ >= deflateQ) {
+            return HttpHeaderValues.GZIP.toString();
+        }
+        return deflateQ > 0 ? HttpHeaderValues.DEFLATE.toString() : null;
+    }
+
+    private void writeCompressed(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        final ByteBuf content = msg instanceof ByteBuf ? (ByteBuf) msg : ((HttpContent) msg).content();
+        final boolean last = msg instanceof LastHttpContent;
+        ByteBuf compressed = ctx.alloc().heapBuffer(Math.max(64, content.readableBytes() / 2 + 32));
+        try {
+            if (gzip && !gzipHeaderWritten) {
+                compressed.writeBytes(GZIP_HEADER);
+                gzipHeaderWritten = true;
+            }
+            deflate(content, compressed);
+            if (last) {
+                finish(compressed);
+            }
+        } catch (RuntimeException e) {
+            compressed.release();
+            throw e;
+        } finally {
+            ReferenceCountUtil.release(msg);
+        }
+
+        if (last) {
+            LastHttpContent lastContent = new DefaultLastHttpContent(compressed, false);
+            lastContent.trailingHeaders().set(((LastHttpContent) msg).trailingHeaders());
+            releaseDeflater();
+            ctx.write(lastContent, promise);
+        } else {
+            ctx.write(new DefaultHttpContent(compressed), promise);
+        }
+    }
+
+    private void deflate(ByteBuf content, ByteBuf out) {
+        final int length = content.readableBytes();
+        if (0 == length) {
+            return;
+        }
+
+        final byte[] input;
+        final int offset;
+        if (content.hasArray()) {
+            input = content.array();
+            offset = content.arrayOffset() + content.readerIndex();
+        } else {
+            if (scratch.length < length) {
+                scratch = new byte[length];
+            }
+            content.getBytes(content.readerIndex(), scratch, 0, length);
+            input = scratch;
+            offset = 0;
+        }
+
+        if (gzip) {
+            crc.update(input, offset, length);
+        }
+        deflater.setInput(input, offset, length);
+        /*SYNC_FLUSH makes every chunk decodable by the client as soon as it is received. The output is complete only
+         * when the deflater does not fill the entire output buffer.*/
+        int writable;
+        int written;
+        do {
+            out.ensureWritable(Math.max(64, length / 4));
+            writable = out.writableBytes();
+            written = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), writable,
+                                       Deflater.SYNC_FLUSH);
+            out.writerIndex(out.writerIndex() + written);
+        } while (written == writable);
+    }
+
+    private void finish(ByteBuf out) {
+        deflater.finish();
+        while (!deflater.finished()) {
+            out.ensureWritable(64);
+            int written = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes());
+            out.writerIndex(out.writerIndex() + written);
+        }
+        if (gzip) {
+            out.ensureWritable(GZIP_TRAILER_LENGTH);
+            out.writeIntLE((int) crc.getValue());
+            out.writeIntLE((int) deflater.getBytesRead());
+        }
+    }
+
+    private void releaseDeflater() {
+        if (null != deflater) {
+            deflater.reset();
+            ArrayDeque<Deflater> pool = (gzip ? GZIP_DEFLATERS : ZLIB_DEFLATERS).get();
+            if (pool.size() < MAX_POOLED_DEFLATERS) {
+                pool.offer(deflater);
+            } else {
+                deflater.end();
+            }
+            deflater = null;
+        }
+    }
+
+    private static final class DeflaterPool extends FastThreadLocal<ArrayDeque<Deflater>> {
+
+        @Override
+        protected ArrayDeque<Deflater> initialValue() throws Exception {
+            return new ArrayDeque<>();
+        }
+
+        @Override
+        protected void onRemoval(ArrayDeque<Deflater> deflaters) throws Exception {
+            for (Deflater deflater : deflaters) {
+                deflater.end();
+            }
+        }
+    }
+}
@@ -50,6 +50,7 @@ public final class HttpServerImpl<I, O> extends HttpServer<I, O> {
     private final TcpServer<HttpServerRequest<I>, Object> server;
     private final HttpServerEventPublisher eventPublisher;
     private boolean sendHttp10ResponseFor10Request;
+    private DefaultResponseHeaders defaultResponseHeaders = DefaultResponseHeaders.NONE;
 
     private HttpServerImpl(TcpServer<HttpServerRequest<I>, Object> server, HttpServerEventPublisher eventPublisher) {
         this.server = server;
@@ -166,6 +167,46 @@ public final class HttpServerImpl<I, O> extends HttpServer<I, O> {
         return toReturn;
     }
 
+    @Override
+    public HttpServer<I, O> enableDateHeader() {
+        HttpServerImpl<I, O> toReturn = _copy(server, eventPublisher);
+        toReturn.defaultResponseHeaders = defaultResponseHeaders.withDate();
+        return toReturn;
+    }
+
+    @Override
+    public HttpServer<I, O> addResponseHeader(CharSequence name, CharSequence value) {
+        HttpServerImpl<I, O> toReturn = _copy(server, eventPublisher);
+        toReturn.defaultResponseHeaders = defaultResponseHeaders.withHeader(name, value);
+        return toReturn;
+    }
+
+    @Override
+    public HttpServer<I, O> enableCompression(final int minContentLength) {
+        if (minContentLength < 0) {
+            throw new IllegalArgumentException("Minimum content length can not be negative. Provided: "
+                                               + minContentLength);
+        }
+        return _copy(HttpServerImpl.<I>castServer(server.pipelineConfigurator(new Action1<ChannelPipeline>() {
+            @Override
+            public void call(ChannelPipeline pipeline) {
+                pipeline.addAfter(HttpHandlerNames.HttpServerDecoder.getName(),
+                                  HttpHandlerNames.HttpServerCompressor.getName(),
+                                  new HttpServerCompressor(minContentLength));
+            }
+        })), eventPublisher);
+    }
+
+    @Override
+    public HttpServer<I, O> http2(int maxConcurrentStreams) {
+        if (maxConcurrentStreams < 1) {
+            throw new IllegalArgumentException("Maximum concurrent streams must be at least 1. Provided: "
+                                               + maxConcurrentStreams);
+        }
+        return _copy(HttpServerImpl.<I>castServer(server.pipelineConfigurator(
+                new Http2ServerPipelineConfigurator(maxConcurrentStreams, eventPublisher))), eventPublisher);
+    }
+
     @Override
     public int getServerPort() {
         return server.getServerPort();
@@ -178,7 +219,8 @@ public final class HttpServerImpl<I, O> extends HttpServer<I, O> {
 
     @Override
     public HttpServer<I, O> start(RequestHandler<I, O> requestHandler) {
-        server.start(new HttpConnectionHandler<>(requestHandler, eventPublisher, sendHttp10ResponseFor10Request));
+        server.start(new HttpConnectionHandler<>(requestHandler, eventPublisher, sendHttp10ResponseFor10Request,
+                                                 defaultResponseHeaders));
         return this;
     }
 
@@ -216,9 +258,13 @@ public final class HttpServerImpl<I, O> extends HttpServer<I, O> {
         return (TcpServer<HttpServerRequest<II>, Object>)rawTypes;
     }
 
-    private static <II, OO> HttpServerImpl<II, OO> _copy(TcpServer<HttpServerRequest<II>, Object> newServer,
-                                                         HttpServerEventPublisher oldEventPublisher) {
-        return new HttpServerImpl<>(newServer, oldEventPublisher.copy(newServer.getEventPublisher()));
+    private <II, OO> HttpServerImpl<II, OO> _copy(TcpServer<HttpServerRequest<II>, Object> newServer,
+                                                  HttpServerEventPublisher oldEventPublisher) {
+        HttpServerImpl<II, OO> copy = new HttpServerImpl<>(newServer,
+                                                           oldEventPublisher.copy(newServer.getEventPublisher()));
+        copy.sendHttp10ResponseFor10Request = sendHttp10ResponseFor10Request;
+        copy.defaultResponseHeaders = defaultResponseHeaders;
+        return copy;
     }
 
     @Override
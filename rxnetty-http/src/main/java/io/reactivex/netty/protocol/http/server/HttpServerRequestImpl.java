@@ -28,6 +28,7 @@ import io.netty.util.ReferenceCountUtil;
 import io.reactivex.netty.channel.ContentSource;
 import io.reactivex.netty.protocol.http.CookiesHolder;
 import io.reactivex.netty.protocol.http.internal.HttpContentSubscriberEvent;
+import io.reactivex.netty.protocol.http.internal.HttpDateFormatter;
 import io.reactivex.netty.protocol.http.ws.server.WebSocketHandshaker;
 import rx.Observable;
 import rx.Observable.Transformer;
@@ -219,14 +220,14 @@ class HttpServerRequestImpl<T> extends HttpServerRequest<T> {
 
     @Override
     public HttpServerRequest<T> addDateHeader(CharSequence name, Date value) {
-        nettyRequest.headers().add(name, value);
+        nettyRequest.headers().add(name, HttpDateFormatter.format(value));
         return this;
     }
 
     @Override
     public HttpServerRequest<T> addDateHeader(CharSequence name, Iterable<Date> values) {
         for (Date value : values) {
-            nettyRequest.headers().add(name, value);
+            nettyRequest.headers().add(name, HttpDateFormatter.format(value));
         }
         return this;
     }
@@ -239,7 +240,7 @@ class HttpServerRequestImpl<T> extends HttpServerRequest<T> {
 
     @Override
     public HttpServerRequest<T> setDateHeader(CharSequence name, Date value) {
-        nettyRequest.headers().set(name, value);
+        nettyRequest.headers().set(name, HttpDateFormatter.format(value));
         return this;
     }
 
@@ -252,7 +253,7 @@ class HttpServerRequestImpl<T> extends HttpServerRequest<T> {
     @Override
     public HttpServerRequest<T> setDateHeader(CharSequence name, Iterable<Date> values) {
         for (Date value : values) {
-            nettyRequest.headers().set(name, value);
+            nettyRequest.headers().set(name, HttpDateFormatter.format(value));
         }
         return this;
     }
@@ -29,6 +29,7 @@ import io.reactivex.netty.protocol.http.ws.server.WebSocketHandshaker;
 import rx.Observable;
 import rx.annotations.Experimental;
 
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.List;
@@ -334,6 +335,27 @@ public abstract class HttpServerResponse<C> extends ResponseContentWriter<C> {
      */
     public abstract ResponseContentWriter<C> sendHeaders();
 
+    /**
+     * Sends the passed file as the content of this response, when the returned {@code Observable} is subscribed.
+     *
+     * This sets the {@code Content-Length}, {@code ETag}, {@code Last-Modified} and {@code Accept-Ranges} headers and
+     * a {@code Content-Type} guessed from the file name, if not already set. Conditional requests
+     * ({@code If-None-Match}, {@code If-Modified-Since}) are responded with a {@code 304} and single range requests
+     * ({@code Range}, {@code If-Range}) with a {@code 206} or a {@code 416}.
+     *
+     * On a plain HTTP/1.x connection, the file is transferred without copying it to user space (sendfile), unless the
+     * response is compressed. Otherwise, i.e. over TLS, HTTP/2 or when compressed, the file is read in chunks.
+     *
+     * Open files and their metadata are cached for a short duration (one second), so that serving a frequently
+     * requested file does not access the file system for every request.
+     *
+     * @param file File to send.
+     *
+     * @return An {@code Observable} that sends the file on subscription. It emits an error (without sending any
+     * headers) if the file does not exist, is not a regular file or can not be opened.
+     */
+    public abstract Observable<Void> sendFile(Path file);
+
     /**
      * Converts this response to enable writing {@link ServerSentEvent}s.
      *
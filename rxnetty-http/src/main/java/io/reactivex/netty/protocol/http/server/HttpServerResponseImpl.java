@@ -17,18 +17,25 @@
 package io.reactivex.netty.protocol.http.server;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.reactivex.netty.channel.AllocatingTransformer;
 import io.reactivex.netty.channel.ChannelOperations;
 import io.reactivex.netty.channel.Connection;
 import io.reactivex.netty.channel.MarkAwarePipeline;
 import io.reactivex.netty.protocol.http.HttpHandlerNames;
 import io.reactivex.netty.protocol.http.TrailingHeaders;
+import io.reactivex.netty.protocol.http.internal.HttpDateFormatter;
+import io.reactivex.netty.protocol.http.server.FileCache.CachedFile;
 import io.reactivex.netty.protocol.http.sse.ServerSentEvent;
 import io.reactivex.netty.protocol.http.sse.server.ServerSentEventEncoder;
 import io.reactivex.netty.protocol.http.ws.server.WebSocketHandler;
@@ -40,12 +47,16 @@ import rx.functions.Func0;
 import rx.functions.Func1;
 import rx.functions.Func2;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
 public final class HttpServerResponseImpl<C> extends HttpServerResponse<C> {
 
+    private static final int FILE_CHUNK_SIZE = 8192;
+
     private final State<C> state;
 
     private HttpServerResponseImpl(final State<C> state) {
@@ -132,7 +143,7 @@ public final class HttpServerResponseImpl<C> extends HttpServerResponse<C> {
     @Override
     public HttpServerResponse<C> addDateHeader(CharSequence name, Date value) {
         if (state.allowUpdate()) {
-            state.headers.headers().add(name, value);
+            state.headers.headers().add(name, HttpDateFormatter.format(value));
         }
         return this;
     }
@@ -141,7 +152,7 @@ public final class HttpServerResponseImpl<C> extends HttpServerResponse<C> {
     public HttpServerResponse<C> addDateHeader(CharSequence name, Iterable<Date> values) {
         if (state.allowUpdate()) {
             for (Date value : values) {
-                state.headers.headers().add(name, value);
+                state.headers.headers().add(name, HttpDateFormatter.format(value));
             }
         }
         return this;
@@ -158,7 +169,7 @@ public final class HttpServerResponseImpl<C> extends HttpServerResponse<C> {
     @Override
     public HttpServerResponse<C> setDateHeader(CharSequence name, Date value) {
         if (state.allowUpdate()) {
-            state.headers.headers().set(name, value);
+            state.headers.headers().set(name, HttpDateFormatter.format(value));
         }
         return this;
     }
@@ -175,7 +186,7 @@ public final class HttpServerResponseImpl<C> extends HttpServerResponse<C> {
     public HttpServerResponse<C> setDateHeader(CharSequence name, Iterable<Date> values) {
         if (state.allowUpdate()) {
             for (Date value : values) {
-                state.headers.headers().set(name, value);
+                state.headers.headers().set(name, HttpDateFormatter.format(value));
             }
         }
         return this;
@@ -225,11 +236,29 @@ public final class HttpServerResponseImpl<C> extends HttpServerResponse<C> {
         return state.sendHeaders();
     }
 
+    @Override
+    public Observable<Void> sendFile(final Path file) {
+        return Observable.defer(new Func0<Observable<Void>>() {
+            @Override
+            public Observable<Void> call() {
+                final CachedFile cachedFile;
+                try {
+                    cachedFile = FileCache.DEFAULT.acquire(file);
+                } catch (IOException e) {
+                    return Observable.error(e);
+                }
+                return FileSender.send(HttpServerResponseImpl.this, state.request, file, cachedFile);
+            }
+        });
+    }
+
     @Override
     public HttpServerResponse<ServerSentEvent> transformToServerSentEvents() {
-        markAwarePipeline().addAfter(HttpHandlerNames.HttpServerEncoder.getName(),
-                                            HttpHandlerNames.SseServerCodec.getName(),
-                                            new ServerSentEventEncoder());
+        final MarkAwarePipeline pipeline = markAwarePipeline();
+        /*Events are encoded before being compressed. HTTP/2 streams do not have the HTTP/1.1 encoder, events are
+          encoded before being converted to HttpContent.*/
+        pipeline.addAfter(contentEncoderName(pipeline), HttpHandlerNames.SseServerCodec.getName(),
+                          new ServerSentEventEncoder());
         return _cast();
     }
 
@@ -379,6 +408,42 @@ public final class HttpServerResponseImpl<C> extends HttpServerResponse<C> {
         return state.connection.getResettableChannelPipeline().markIfNotYetMarked();
     }
 
+    /**
+     * Returns the file content to be written for the passed range of the file. The reference to the file held by the
+     * caller is transferred to the returned content.
+     */
+    Object newFileContent(CachedFile file, long offset, long count) throws IOException {
+        final ChannelPipeline pipeline = state.connection.unsafeNettyChannel().pipeline();
+        final HttpServerCompressor compressor =
+                (HttpServerCompressor) pipeline.get(HttpHandlerNames.HttpServerCompressor.getName());
+
+        /*A FileRegion is written as is by the HTTP/1.1 encoder, so it can only be used when the bytes on the wire are
+          the bytes in the file.*/
+        final String acceptEncoding = state.request.getHeader(HttpHeaderNames.ACCEPT_ENCODING, "");
+        if (null != pipeline.get(HttpHandlerNames.HttpServerEncoder.getName())
+            && null == pipeline.get(SslHandler.class)
+            && (null == compressor || !compressor.willCompress(state.headers, acceptEncoding))) {
+            return new CachedFileRegion(file, offset, count);
+        }
+
+        final MarkAwarePipeline markAwarePipeline = markAwarePipeline();
+        if (null == markAwarePipeline.get(HttpHandlerNames.HttpServerChunkedWriter.getName())) {
+            markAwarePipeline.addAfter(contentEncoderName(markAwarePipeline),
+                                       HttpHandlerNames.HttpServerChunkedWriter.getName(), new ChunkedWriteHandler());
+        }
+        return new CachedChunkedFile(file, offset, count);
+    }
+
+    private static String contentEncoderName(ChannelPipeline pipeline) {
+        if (null != pipeline.get(HttpHandlerNames.HttpServerCompressor.getName())) {
+            return HttpHandlerNames.HttpServerCompressor.getName();
+        } else if (null != pipeline.get(HttpHandlerNames.HttpServerEncoder.getName())) {
+            return HttpHandlerNames.HttpServerEncoder.getName();
+        } else {
+            return HttpHandlerNames.Http2StreamContentEncoder.getName();
+        }
+    }
+
     private static class State<T> {
 
         private final HttpResponse headers;
@@ -429,4 +494,44 @@ public final class HttpServerResponseImpl<C> extends HttpServerResponse<C> {
             return headersSent;
         }
     }
+
+    /**
+     * A {@link DefaultFileRegion} that releases the {@link CachedFile} instead of closing the shared channel.
+     */
+    private static final class CachedFileRegion extends DefaultFileRegion {
+
+        private final CachedFile file;
+
+        private CachedFileRegion(CachedFile file, long position, long count) {
+            super(file.channel(), position, count);
+            this.file = file;
+        }
+
+        @Override
+        protected void deallocate() {
+            file.release();
+        }
+    }
+
+    /**
+     * A {@link ChunkedNioFile} that releases the {@link CachedFile} instead of closing the shared channel.
+     */
+    private static final class CachedChunkedFile extends ChunkedNioFile {
+
+        private final CachedFile file;
+        private boolean closed;
+
+        private CachedChunkedFile(CachedFile file, long offset, long length) throws IOException {
+            super(file.channel(), offset, length, FILE_CHUNK_SIZE);
+            this.file = file;
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (!closed) {
+                closed = true;
+                file.release();
+            }
+        }
+    }
 }
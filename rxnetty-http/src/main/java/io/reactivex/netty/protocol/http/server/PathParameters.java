@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.util.CharsetUtil;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Parameters captured from the path of a request by a {@link Router}, eg: for a route {@code /users/{id}} and a
+ * request {@code /users/42}, the parameter {@code id} has the value {@code 42}. <p>
+ *
+ * Only the positions of the values in the request URI are captured while routing, the values are extracted and
+ * percent-decoded (as UTF-8) when requested.
+ */
+public final class PathParameters {
+
+    static final PathParameters EMPTY = new PathParameters("", new String[0], new int[0]);
+
+    private final String uri;
+    private final String[] names;
+    private final int[] positions; /*start and end (exclusive) offset in the uri for every parameter.*/
+
+    PathParameters(String uri, String[] names, int[] positions) {
+        this.uri = uri;
+        this.names = names;
+        this.positions = positions;
+    }
+
+    /**
+     * Returns the decoded value of the passed parameter.
+     *
+     * @param name Name of the parameter, as in the route template.
+     *
+     * @return The decoded value, {@code null} if the route does not have this parameter.
+     */
+    public String get(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return decode(uri, positions[2 * i], positions[2 * i + 1]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of parameters.
+     *
+     * @return The number of parameters.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of the parameter at the passed index, in the order they appear in the route template.
+     *
+     * @param index Index of the parameter.
+     *
+     * @return Name of the parameter.
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the decoded value of the parameter at the passed index, in the order they appear in the route template.
+     *
+     * @param index Index of the parameter.
+     *
+     * @return The decoded value.
+     */
+    public String get(int index) {
+        return decode(uri, positions[2 * index], positions[2 * index + 1]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder toString = new StringBuilder("PathParameters{");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                toString.append(", ");
+            }
+            toString.append(names[i]).append('=').append(get(i));
+        }
+        return toString.append('}').toString();
+    }
+
+    /**
+     * Percent-decodes a part of a path. Unlike {@code application/x-www-form-urlencoded} decoding, a {@code +} is not
+     * decoded to a space. Malformed escape sequences are retained as is.
+     */
+    /*Visible for testing*/ static String decode(String uri, int start, int end) {
+        int firstEscape = uri.indexOf('%', start);
+        if (firstEscape < 0 || firstEscape >= end) {
+            return uri.substring(start, end);
+        }
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(end - start);
+        for (int i = start; i < end; i++) {
+            char c = uri.charAt(i);
+            if (c == '%' && i + 2 < end) {
+                int high = Character.digit(uri.charAt(i + 1), 16);
+                int low = Character.digit(uri.charAt(i + 2), 16);
+                if (high >= 0 && low >= 0) {
+                    decoded.write((high << 4) + low);
+                    i += 2;
+                    continue;
+                }
+            }
+            /*The HTTP decoder maps every byte of the request line to a char, so this is the original byte.*/
+            decoded.write(c);
+        }
+        return new String(decoded.toByteArray(), CharsetUtil.UTF_8);
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.concurrent.FastThreadLocal;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+
+/**
+ * A {@link RequestHandler} that dispatches requests to {@link RouteHandler}s by HTTP method and path. A typical usage
+ * is:
+ *
+ <PRE>
+    HttpServer.newServer()
+              .start(Router.&lt;ByteBuf, ByteBuf&gt;newRouter()
+                           .get("/users/{id}", getUserHandler)
+                           .post("/users", createUserHandler)
+                           .get("/static/{*path}", staticContentHandler));
+ </PRE>
+ *
+ * <h2>Templates</h2>
+ *
+ * A route template is a path, where a segment can be a parameter {@code {name}}, matching any non-empty segment, and
+ * the last segment can be a catch-all parameter {@code {*name}}, matching the rest of the path (including slashes).
+ * The values are available to the handler as {@link PathParameters}. When more than one route matches a path, a
+ * static segment is preferred over a parameter and a parameter over a catch-all, eg: {@code /users/new} is preferred
+ * over {@code /users/{id}} for a request {@code /users/new}.
+ *
+ * <h2>Matching</h2>
+ *
+ * Templates are stored in a radix tree (i.e. a trie with common prefixes merged), which is matched against the raw
+ * path of the request URI, without decoding it or parsing the query. So, static segments in templates must be in their
+ * percent-encoded form and trailing slashes are significant. Matching a route does not allocate, except for the
+ * {@link PathParameters} of a route with parameters.
+ *
+ * A {@code HEAD} request is dispatched to the {@code GET} handler of a route, if the route does not have a
+ * {@code HEAD} handler. A request matching a route but not any of its methods is responded with a {@code 405} and a
+ * request not matching any route is sent to the {@link #notFound(RequestHandler)} handler, which by default responds
+ * with a {@code 404}.
+ *
+ * <h2>Thread safety</h2>
+ *
+ * All routes must be added before the router is used to handle requests, a router is not safe to modify concurrently
+ * with routing.
+ *
+ * @param <I> The type of objects received as content from the request.
+ * @param <O> The type of objects written as content from the response.
+ */
+public final class Router<I, O> implements RequestHandler<I, O> {
+
+    private static final FastThreadLocal<int[]> CAPTURES = new FastThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[16];
+        }
+    };
+
+    private final Node<I, O> root = new Node<>("");
+    private int maxParameters;
+    private RequestHandler<I, O> notFoundHandler = new RequestHandler<I, O>() {
+        @Override
+        public Observable<Void> handle(HttpServerRequest<I> request, HttpServerResponse<O> response) {
+            return response.setStatus(HttpResponseStatus.NOT_FOUND)
+                           .write(Observable.<O>empty());
+        }
+    };
+
+    private Router() {
+    }
+
+    /**
+     * Creates a new router without any routes.
+     *
+     * @return A new router.
+     */
+    public static <I, O> Router<I, O> newRouter() {
+        return new Router<>();
+    }
+
+    /**
+     * Adds a route for the passed method and template.
+     *
+     * @param method HTTP method of the route.
+     * @param template Path template of the route.
+     * @param handler Handler for the route.
+     *
+     * @return This router.
+     *
+     * @throws IllegalArgumentException If the template is invalid or the route already exists.
+     */
+    public Router<I, O> addRoute(HttpMethod method, String template, RouteHandler<I, O> handler) {
+        if (null == method || null == handler) {
+            throw new NullPointerException("Method and handler can not be null.");
+        }
+        if (null == template || !template.startsWith("/")) {
+            throw new IllegalArgumentException("Route template must start with a '/'. Provided: " + template);
+        }
+
+        final List<String> parameterNames = new ArrayList<>();
+        Node<I, O> node = root;
+        int staticStart = 0;
+        int pos = 0;
+        while (pos < template.length()) {
+            if (template.charAt(pos) != '{') {
+                pos++;
+                continue;
+            }
+
+            int close = template.indexOf('}', pos);
+            if (template.charAt(pos - 1) != '/' || close < 0
+                || (close + 1 < template.length() && template.charAt(close + 1) != '/')) {
+                throw new IllegalArgumentException("A parameter must be an entire path segment. Template: "
+                                                   + template);
+            }
+            node = node.addStatic(template.substring(staticStart, pos));
+
+            boolean catchAll = template.charAt(pos + 1) == '*';
+            String name = template.substring(pos + (catchAll ? 2 : 1), close);
+            if (name.isEmpty() || parameterNames.contains(name)) {
+                throw new IllegalArgumentException("Parameter names must be non-empty and unique. Template: "
+                                                   + template);
+            }
+            if (catchAll && close + 1 != template.length()) {
+                throw new IllegalArgumentException("A catch-all parameter must be the last segment. Template: "
+                                                   + template);
+            }
+            parameterNames.add(name);
+            node = node.addParameter(catchAll);
+            pos = staticStart = close + 1;
+        }
+        node = node.addStatic(template.substring(staticStart));
+
+        if (null == node.route) {
+            node.route = new Route<>(template, parameterNames.toArray(new String[parameterNames.size()]));
+        } else if (!Arrays.equals(node.route.parameterNames, parameterNames.toArray())) {
+            throw new IllegalArgumentException("Route " + template + " conflicts with " + node.route.template);
+        }
+        node.route.addHandler(method, handler);
+        maxParameters = Math.max(maxParameters, parameterNames.size());
+        return this;
+    }
+
+    /**
+     * Adds a route for {@code GET} requests, same as {@code addRoute(HttpMethod.GET, template, handler)}.
+     *
+     * @param template Path template of the route.
+     * @param handler Handler for the route.
+     *
+     * @return This router.
+     */
+    public Router<I, O> get(String template, RouteHandler<I, O> handler) {
+        return addRoute(HttpMethod.GET, template, handler);
+    }
+
+    /**
+     * Adds a route for {@code POST} requests, same as {@code addRoute(HttpMethod.POST, template, handler)}.
+     *
+     * @param template Path template of the route.
+     * @param handler Handler for the route.
+     *
+     * @return This router.
+     */
+    public Router<I, O> post(String template, RouteHandler<I, O> handler) {
+        return addRoute(HttpMethod.POST, template, handler);
+    }
+
+    /**
+     * Adds a route for {@code PUT} requests, same as {@code addRoute(HttpMethod.PUT, template, handler)}.
+     *
+     * @param template Path template of the route.
+     * @param handler Handler for the route.
+     *
+     * @return This router.
+     */
+    public Router<I, O> put(String template, RouteHandler<I, O> handler) {
+        return addRoute(HttpMethod.PUT, template, handler);
+    }
+
+    /**
+     * Adds a route for {@code DELETE} requests, same as {@code addRoute(HttpMethod.DELETE, template, handler)}.
+     *
+     * @param template Path template of the route.
+     * @param handler Handler for the route.
+     *
+     * @return This router.
+     */
+    public Router<I, O> delete(String template, RouteHandler<I, O> handler) {
+        return addRoute(HttpMethod.DELETE, template, handler);
+    }
+
+    /**
+     * Sets the handler for requests not matching any route.
+     *
+     * @param handler Handler for requests not matching any route.
+     *
+     * @return This router.
+     */
+    public Router<I, O> notFound(RequestHandler<I, O> handler) {
+        if (null == handler) {
+            throw new NullPointerException("Handler can not be null.");
+        }
+        notFoundHandler = handler;
+        return this;
+    }
+
+    @Override
+    public Observable<Void> handle(HttpServerRequest<I> request, HttpServerResponse<O> response) {
+        final String uri = request.getUri();
+        final int pathStart = pathStart(uri);
+        final int pathEnd = pathEnd(uri, pathStart);
+
+        int[] captures = CAPTURES.get();
+        if (captures.length < 2 * maxParameters) {
+            captures = new int[2 * maxParameters];
+            CAPTURES.set(captures);
+        }
+
+        final Route<I, O> route = pathStart < 0 ? null : root.match(uri, pathStart, pathEnd, captures, 0);
+        if (null == route) {
+            return notFoundHandler.handle(request, response);
+        }
+
+        final RouteHandler<I, O> handler = route.handlerFor(request.getHttpMethod());
+        if (null == handler) {
+            return response.setStatus(HttpResponseStatus.METHOD_NOT_ALLOWED)
+                           .setHeader(ALLOW, route.allowedMethods)
+                           .write(Observable.<O>empty());
+        }
+
+        final PathParameters parameters = 0 == route.parameterNames.length
+                ? PathParameters.EMPTY
+                : new PathParameters(uri, route.parameterNames,
+                                     Arrays.copyOf(captures, 2 * route.parameterNames.length));
+        return handler.handle(request, response, parameters);
+    }
+
+    /**
+     * Returns the start of the path in the passed request URI, which can be absolute (eg: for requests to a proxy) or
+     * {@code -1} if there is no path (eg: {@code *}).
+     */
+    private static int pathStart(String uri) {
+        if (uri.startsWith("/")) {
+            return 0;
+        }
+        int schemeEnd = uri.indexOf("://");
+        if (schemeEnd < 0) {
+            return -1;
+        }
+        return uri.indexOf('/', schemeEnd + 3);
+    }
+
+    private static int pathEnd(String uri, int pathStart) {
+        for (int i = Math.max(pathStart, 0); i < uri.length(); i++) {
+            char c = uri.charAt(i);
+            if (c == '?' || c == '#') {
+                return i;
+            }
+        }
+        return uri.length();
+    }
+
+    private static final class Node<I, O> {
+
+        private String label; /*null for parameter nodes.*/
+        private Node<I, O>[] staticChildren = newNodeArray(0);
+        private Node<I, O> parameterChild;
+        private Node<I, O> catchAllChild;
+        private Route<I, O> route;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Adds the passed static path below this node, splitting nodes with a partially common prefix, and returns the
+         * node at the end of the path.
+         */
+        private Node<I, O> addStatic(String path) {
+            if (path.isEmpty()) {
+                return this;
+            }
+
+            for (int i = 0; i < staticChildren.length; i++) {
+                Node<I, O> child = staticChildren[i];
+                if (child.label.charAt(0) != path.charAt(0)) {
+                    continue;
+                }
+
+                int common = 1;
+                int max = Math.min(child.label.length(), path.length());
+                while (common < max && child.label.charAt(common) == path.charAt(common)) {
+                    common++;
+                }
+
+                if (common < child.label.length()) {
+                    /*Split the child into the common prefix and the rest.*/
+                    Node<I, O> prefix = new Node<>(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    prefix.staticChildren = newNodeArray(1);
+                    prefix.staticChildren[0] = child;
+                    staticChildren[i] = prefix;
+                    child = prefix;
+                }
+                return child.addStatic(path.substring(common));
+            }
+
+            Node<I, O> child = new Node<>(path);
+            staticChildren = Arrays.copyOf(staticChildren, staticChildren.length + 1);
+            staticChildren[staticChildren.length - 1] = child;
+            return child;
+        }
+
+        private Node<I, O> addParameter(boolean catchAll) {
+            if (catchAll) {
+                if (null == catchAllChild) {
+                    catchAllChild = new Node<>(null);
+                }
+                return catchAllChild;
+            }
+            if (null == parameterChild) {
+                parameterChild = new Node<>(null);
+            }
+            return parameterChild;
+        }
+
+        /**
+         * Matches the path from {@code pos} (the part of the path matched by this node is already consumed) against
+         * the children of this node, preferring static over parameter over catch-all children and backtracking if a
+         * preferred child does not lead to a route.
+         */
+        private Route<I, O> match(String uri, int pos, int end, int[] captures, int captureCount) {
+            if (pos == end && null != route) {
+                return route;
+            }
+
+            if (pos < end) {
+                final char first = uri.charAt(pos);
+                for (Node<I, O> child : staticChildren) {
+                    final String childLabel = child.label;
+                    if (childLabel.charAt(0) == first && pos + childLabel.length() <= end
+                        && uri.regionMatches(pos + 1, childLabel, 1, childLabel.length() - 1)) {
+                        Route<I, O> matched = child.match(uri, pos + childLabel.length(), end, captures, captureCount);
+                        if (null != matched) {
+                            return matched;
+                        }
+                        break; /*Static children of a node have distinct first characters.*/
+                    }
+                }
+
+                if (null != parameterChild) {
+                    int segmentEnd = pos;
+                    while (segmentEnd < end && uri.charAt(segmentEnd) != '/') {
+                        segmentEnd++;
+                    }
+                    if (segmentEnd > pos) {
+                        captures[2 * captureCount] = pos;
+                        captures[2 * captureCount + 1] = segmentEnd;
+                        Route<I, O> matched = parameterChild.match(uri, segmentEnd, end, captures, captureCount + 1);
+                        if (null != matched) {
+                            return matched;
+                        }
+                    }
+                }
+            }
+
+            if (null != catchAllChild && null != catchAllChild.route) {
+                captures[2 * captureCount] = pos;
+                captures[2 * captureCount + 1] = end;
+                return catchAllChild.route;
+            }
+
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <I, O> Node<I, O>[] newNodeArray(int size) {
+            return new Node[size];
+        }
+    }
+
+    private static final class Route<I, O> {
+
+        private final String template;
+        private final String[] parameterNames;
+        private HttpMethod[] methods = new HttpMethod[0];
+        private RouteHandler<I, O>[] handlers = newHandlerArray(0);
+        private String allowedMethods = "";
+
+        private Route(String template, String[] parameterNames) {
+            this.template = template;
+            this.parameterNames = parameterNames;
+        }
+
+        private void addHandler(HttpMethod method, RouteHandler<I, O> handler) {
+            for (HttpMethod existing : methods) {
+                if (existing.equals(method)) {
+                    throw new IllegalArgumentException("Route " + method + ' ' + template + " already exists.");
+                }
+            }
+            methods = Arrays.copyOf(methods, methods.length + 1);
+            methods[methods.length - 1] = method;
+            handlers = Arrays.copyOf(handlers, handlers.length + 1);
+            handlers[handlers.length - 1] = handler;
+            allowedMethods = allowedMethods.isEmpty() ? method.name() : allowedMethods + ", " + method.name();
+        }
+
+        private RouteHandler<I, O> handlerFor(HttpMethod method) {
+            RouteHandler<I, O> getHandler = null;
+            for (int i = 0; i < methods.length; i++) {
+                /*Netty returns the same instance for standard methods, so identity check is the common case.*/
+                if (methods[i] == method || methods[i].equals(method)) {
+                    return handlers[i];
+                }
+                if (methods[i] == HttpMethod.GET) {
+                    getHandler = handlers[i];
+                }
+            }
+            return HttpMethod.HEAD.equals(method) ? getHandler : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <I, O> RouteHandler<I, O>[] newHandlerArray(int size) {
+            return new RouteHandler[size];
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+
+/**
+ * A {@link RequestHandler} that serves files from a directory, using {@link HttpServerResponse#sendFile(Path)}. The
+ * decoded path of a request is resolved against the directory and any path that resolves outside the directory, does
+ * not exist or is not a regular file is responded with a {@code 404}. Only {@code GET} and {@code HEAD} requests are
+ * allowed, any other method is responded with a {@code 405}.
+ *
+ * A typical usage is:
+ *
+ <PRE>
+    HttpServer.newServer()
+              .start(StaticFileHandler.&lt;ByteBuf, ByteBuf&gt;create(Paths.get("/var/www")));
+ </PRE>
+ *
+ * @param <I> The type of objects received as content from the request.
+ * @param <O> The type of objects written as content from the response.
+ */
+public final class StaticFileHandler<I, O> implements RequestHandler<I, O> {
+
+    private static final String ALLOWED_METHODS = HttpMethod.GET + ", " + HttpMethod.HEAD;
+
+    private final Path root;
+
+    private StaticFileHandler(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public Observable<Void> handle(HttpServerRequest<I> request, final HttpServerResponse<O> response) {
+        final HttpMethod method = request.getHttpMethod();
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+            return response.setStatus(HttpResponseStatus.METHOD_NOT_ALLOWED)
+                           .setHeader(ALLOW, ALLOWED_METHODS)
+                           .write(Observable.<O>empty());
+        }
+
+        final Path file = resolve(request.getDecodedPath());
+        if (null == file) {
+            return sendNotFound(response);
+        }
+
+        return response.sendFile(file)
+                       .onErrorResumeNext(new Func1<Throwable, Observable<Void>>() {
+                           @Override
+                           public Observable<Void> call(Throwable throwable) {
+                               if (throwable instanceof NoSuchFileException) {
+                                   return sendNotFound(response);
+                               }
+                               return Observable.error(throwable);
+                           }
+                       });
+    }
+
+    /**
+     * Creates a new handler serving files from the passed directory.
+     *
+     * @param root Directory containing the files to serve.
+     *
+     * @return A new handler.
+     */
+    public static <I, O> StaticFileHandler<I, O> create(Path root) {
+        return new StaticFileHandler<>(root);
+    }
+
+    private Path resolve(String decodedPath) {
+        String relativePath = decodedPath;
+        while (relativePath.startsWith("/")) {
+            relativePath = relativePath.substring(1);
+        }
+        if (relativePath.isEmpty()) {
+            return null;
+        }
+
+        final Path file;
+        try {
+            file = root.resolve(relativePath).normalize();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+        /*Disallows paths like "/../etc/passwd" that escape the root.*/
+        return file.startsWith(root) ? file : null;
+    }
+
+    private static <O> Observable<Void> sendNotFound(HttpServerResponse<O> response) {
+        return response.setStatus(HttpResponseStatus.NOT_FOUND)
+                       .write(Observable.<O>empty());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.CharsetUtil;
+import io.reactivex.netty.protocol.http.server.HttpServer;
+import io.reactivex.netty.protocol.http.server.HttpServerRequest;
+import io.reactivex.netty.protocol.http.server.HttpServerResponse;
+import io.reactivex.netty.protocol.http.server.RequestHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CachingInterceptorTest {
+
+    private HttpServer<ByteBuf, ByteBuf> server;
+    private List<String> receivedRequests;
+    private TestScheduler testScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        receivedRequests = new CopyOnWriteArrayList<>();
+        testScheduler = Schedulers.test();
+        server = HttpServer.newServer()
+                           .start(new RequestHandler<ByteBuf, ByteBuf>() {
+                               @Override
+                               public Observable<Void> handle(HttpServerRequest<ByteBuf> request,
+                                                              HttpServerResponse<ByteBuf> response) {
+                                   String etag = request.getHeader(HttpHeaderNames.IF_NONE_MATCH);
+                                   receivedRequests.add(request.getUri() + (null == etag ? "" : " " + etag));
+                                   String cacheControl = request.getUri().substring(1).replace('_', '=');
+                                   response.setHeader(HttpHeaderNames.CACHE_CONTROL, cacheControl)
+                                           .setHeader(HttpHeaderNames.ETAG, "\"v1\"");
+                                   if ("\"v1\"".equals(etag)) {
+                                       return response.setStatus(HttpResponseStatus.NOT_MODIFIED);
+                                   }
+                                   return response.writeString(Observable.just("hello"));
+                               }
+                           });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        server.awaitShutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void testFreshResponseServedFromCache() throws Exception {
+        CachingInterceptor<ByteBuf> cache = newCache(1024);
+        InterceptingHttpClient<ByteBuf, ByteBuf> client = newClient(cache);
+
+        assertThat("Unexpected content.", get(client, "/max-age_60"), is("hello"));
+        assertThat("Unexpected content from cache.", get(client, "/max-age_60"), is("hello"));
+
+        assertThat("Fresh response not served from cache.", receivedRequests, contains("/max-age_60"));
+        assertThat("Unexpected cached responses.", cache.getCachedResponsesCount(), is(1));
+        assertThat("Unexpected cached bytes.", cache.getCachedBytes(), is(5L));
+    }
+
+    @Test(timeout = 60000)
+    public void testStaleResponseRevalidated() throws Exception {
+        CachingInterceptor<ByteBuf> cache = newCache(1024);
+        InterceptingHttpClient<ByteBuf, ByteBuf> client = newClient(cache);
+
+        assertThat("Unexpected content.", get(client, "/max-age_10"), is("hello"));
+        testScheduler.advanceTimeBy(11, TimeUnit.SECONDS);
+        assertThat("Unexpected content after revalidation.", get(client, "/max-age_10"), is("hello"));
+        assertThat("Unexpected content after refresh.", get(client, "/max-age_10"), is("hello"));
+
+        assertThat("Stale response not revalidated.", receivedRequests,
+                   contains("/max-age_10", "/max-age_10 \"v1\""));
+        assertThat("Unexpected cached responses.", cache.getCachedResponsesCount(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testNoStoreNotCached() throws Exception {
+        CachingInterceptor<ByteBuf> cache = newCache(1024);
+        InterceptingHttpClient<ByteBuf, ByteBuf> client = newClient(cache);
+
+        get(client, "/no-store");
+        get(client, "/no-store");
+
+        assertThat("No-store response served from cache.", receivedRequests, hasSize(2));
+        assertThat("No-store response cached.", cache.getCachedResponsesCount(), is(0));
+    }
+
+    @Test(timeout = 60000)
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        CachingInterceptor<ByteBuf> cache = newCache(12);
+        InterceptingHttpClient<ByteBuf, ByteBuf> client = newClient(cache);
+
+        get(client, "/max-age_60");
+        get(client, "/max-age_61");
+        get(client, "/max-age_60");
+        get(client, "/max-age_62");
+
+        assertThat("Unexpected cached bytes.", cache.getCachedBytes(), is(10L));
+        get(client, "/max-age_60");
+        get(client, "/max-age_61");
+
+        assertThat("Unexpected requests sent.", receivedRequests,
+                   contains("/max-age_60", "/max-age_61", "/max-age_62", "/max-age_61"));
+    }
+
+    private CachingInterceptor<ByteBuf> newCache(long maxBytes) {
+        return new CachingInterceptor<>(maxBytes, 1024, testScheduler);
+    }
+
+    private InterceptingHttpClient<ByteBuf, ByteBuf> newClient(CachingInterceptor<ByteBuf> cache) {
+        return HttpClient.newClient(new InetSocketAddress("127.0.0.1", server.getServerPort()))
+                         .intercept()
+                         .next(cache)
+                         .finish();
+    }
+
+    private static String get(InterceptingHttpClient<ByteBuf, ByteBuf> client, String uri) {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        client.createGet(uri)
+              .flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<String>>() {
+                  @Override
+                  public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+                      return response.getContent()
+                                     .map(new Func1<ByteBuf, String>() {
+                                         @Override
+                                         public String call(ByteBuf byteBuf) {
+                                             String content = byteBuf.toString(CharsetUtil.UTF_8);
+                                             byteBuf.release();
+                                             return content;
+                                         }
+                                     })
+                                     .reduce("", new Func2<String, String, String>() {
+                                         @Override
+                                         public String call(String s, String s2) {
+                                             return s + s2;
+                                         }
+                                     });
+                  }
+              })
+              .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        return subscriber.getOnNextEvents().get(0);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.CharsetUtil;
+import io.reactivex.netty.protocol.http.server.HttpServer;
+import io.reactivex.netty.protocol.http.server.HttpServerRequest;
+import io.reactivex.netty.protocol.http.server.HttpServerResponse;
+import io.reactivex.netty.protocol.http.server.RequestHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.observers.TestSubscriber;
+import rx.subjects.ReplaySubject;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CoalescingInterceptorTest {
+
+    private HttpServer<ByteBuf, ByteBuf> server;
+    private AtomicInteger receivedRequests;
+    private ReplaySubject<String> responseGate;
+
+    @Before
+    public void setUp() throws Exception {
+        receivedRequests = new AtomicInteger();
+        responseGate = ReplaySubject.create();
+        server = HttpServer.newServer()
+                           .start(new RequestHandler<ByteBuf, ByteBuf>() {
+                               @Override
+                               public Observable<Void> handle(HttpServerRequest<ByteBuf> request,
+                                                              HttpServerResponse<ByteBuf> response) {
+                                   receivedRequests.incrementAndGet();
+                                   return response.writeString(responseGate.take(1));
+                               }
+                           });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        server.awaitShutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void testIdenticalRequestsCoalesced() throws Exception {
+        CoalescingInterceptor<ByteBuf> coalescer = CoalescingInterceptor.create();
+        InterceptingHttpClient<ByteBuf, ByteBuf> client = newClient(coalescer);
+
+        List<TestSubscriber<String>> subscribers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            subscribers.add(sendRequest(client.createGet("/")));
+        }
+
+        awaitReceivedRequests(1);
+        assertThat("Unexpected in flight requests.", coalescer.getInFlightRequestsCount(), is(1));
+        responseGate.onNext("hello");
+
+        for (TestSubscriber<String> subscriber : subscribers) {
+            subscriber.awaitTerminalEvent();
+            subscriber.assertNoErrors();
+            subscriber.assertValue("hello");
+        }
+        assertThat("Requests not coalesced.", receivedRequests.get(), is(1));
+        assertThat("Unexpected in flight requests.", coalescer.getInFlightRequestsCount(), is(0));
+    }
+
+    @Test(timeout = 60000)
+    public void testRequestsWithDifferentKeyHeadersNotCoalesced() throws Exception {
+        InterceptingHttpClient<ByteBuf, ByteBuf> client = newClient(CoalescingInterceptor.<ByteBuf>create("X-Tenant"));
+
+        TestSubscriber<String> sub1 = sendRequest(client.createGet("/").setHeader("X-Tenant", "a"));
+        TestSubscriber<String> sub2 = sendRequest(client.createGet("/").setHeader("X-Tenant", "b"));
+
+        awaitReceivedRequests(2);
+        responseGate.onNext("hello");
+
+        sub1.awaitTerminalEvent();
+        sub1.assertValue("hello");
+        sub2.awaitTerminalEvent();
+        sub2.assertValue("hello");
+    }
+
+    @Test(timeout = 60000)
+    public void testNonIdempotentRequestsNotCoalesced() throws Exception {
+        InterceptingHttpClient<ByteBuf, ByteBuf> client = newClient(CoalescingInterceptor.<ByteBuf>create());
+
+        TestSubscriber<String> sub1 = sendRequest(client.createPost("/"));
+        TestSubscriber<String> sub2 = sendRequest(client.createPost("/"));
+
+        awaitReceivedRequests(2);
+        responseGate.onNext("hello");
+
+        sub1.awaitTerminalEvent();
+        sub1.assertValue("hello");
+        sub2.awaitTerminalEvent();
+        sub2.assertValue("hello");
+    }
+
+    @Test(timeout = 60000)
+    public void testRequestSentAfterCompletion() throws Exception {
+        responseGate.onNext("hello");
+        InterceptingHttpClient<ByteBuf, ByteBuf> client = newClient(CoalescingInterceptor.<ByteBuf>create());
+
+        TestSubscriber<String> sub1 = sendRequest(client.createGet("/"));
+        sub1.awaitTerminalEvent();
+        TestSubscriber<String> sub2 = sendRequest(client.createGet("/"));
+        sub2.awaitTerminalEvent();
+
+        sub2.assertValue("hello");
+        assertThat("Completed request reused.", receivedRequests.get(), is(2));
+    }
+
+    private void awaitReceivedRequests(int count) throws InterruptedException {
+        while (receivedRequests.get() < count) {
+            Thread.sleep(10);
+        }
+    }
+
+    private InterceptingHttpClient<ByteBuf, ByteBuf> newClient(CoalescingInterceptor<ByteBuf> coalescer) {
+        return HttpClient.newClient(new InetSocketAddress("127.0.0.1", server.getServerPort()))
+                         .intercept()
+                         .next(coalescer)
+                         .finish();
+    }
+
+    private static TestSubscriber<String> sendRequest(Observable<HttpClientResponse<ByteBuf>> request) {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        request.flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<String>>() {
+            @Override
+            public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+                return response.getContent()
+                               .map(new Func1<ByteBuf, String>() {
+                                   @Override
+                                   public String call(ByteBuf byteBuf) {
+                                       String content = byteBuf.toString(CharsetUtil.UTF_8);
+                                       byteBuf.release();
+                                       return content;
+                                   }
+                               })
+                               .reduce("", new Func2<String, String, String>() {
+                                   @Override
+                                   public String call(String s, String s2) {
+                                       return s + s2;
+                                   }
+                               });
+            }
+        }).subscribe(subscriber);
+        return subscriber;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class HedgingInterceptorTest {
+
+    private TestScheduler testScheduler;
+    private List<PublishSubject<HttpClientResponse<String>>> attempts;
+    private Observable<HttpClientResponse<String>> source;
+
+    @Before
+    public void setUp() throws Exception {
+        testScheduler = Schedulers.test();
+        attempts = new ArrayList<>();
+        source = Observable.defer(new Func0<Observable<HttpClientResponse<String>>>() {
+            @Override
+            public Observable<HttpClientResponse<String>> call() {
+                PublishSubject<HttpClientResponse<String>> attempt = PublishSubject.create();
+                attempts.add(attempt);
+                return attempt;
+            }
+        });
+    }
+
+    @Test(timeout = 60000)
+    public void testNoHedgeForFastResponse() throws Exception {
+        HedgingInterceptor<String, String> hedger = HedgingInterceptor.fixedDelay(10, TimeUnit.MILLISECONDS,
+                                                                                  testScheduler);
+        TestSubscriber<HttpClientResponse<String>> subscriber = new TestSubscriber<>();
+        hedger.hedge(HttpMethod.GET, source).subscribe(subscriber);
+
+        HttpClientResponse<String> response = newResponse();
+        attempts.get(0).onNext(response);
+        attempts.get(0).onCompleted();
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        subscriber.assertValue(response);
+        subscriber.assertCompleted();
+        assertThat("Unexpected hedged request.", attempts, hasSize(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testHedgeWinsAndPrimaryCancelled() throws Exception {
+        HedgingInterceptor<String, String> hedger = HedgingInterceptor.fixedDelay(10, TimeUnit.MILLISECONDS,
+                                                                                  testScheduler);
+        TestSubscriber<HttpClientResponse<String>> subscriber = new TestSubscriber<>();
+        hedger.hedge(HttpMethod.GET, source).subscribe(subscriber);
+
+        testScheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+        assertThat("Request not hedged.", attempts, hasSize(2));
+
+        HttpClientResponse<String> response = newResponse();
+        attempts.get(1).onNext(response);
+        attempts.get(1).onCompleted();
+
+        subscriber.assertValue(response);
+        subscriber.assertCompleted();
+        assertThat("Primary request not cancelled.", attempts.get(0).hasObservers(), is(false));
+    }
+
+    @Test(timeout = 60000)
+    public void testErrorIgnoredWhenHedgeInFlight() throws Exception {
+        HedgingInterceptor<String, String> hedger = HedgingInterceptor.fixedDelay(10, TimeUnit.MILLISECONDS,
+                                                                                  testScheduler);
+        TestSubscriber<HttpClientResponse<String>> subscriber = new TestSubscriber<>();
+        hedger.hedge(HttpMethod.GET, source).subscribe(subscriber);
+
+        testScheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+        attempts.get(0).onError(new IllegalStateException("Deliberate exception"));
+        subscriber.assertNoTerminalEvent();
+
+        attempts.get(1).onError(new IllegalStateException("Deliberate exception"));
+        subscriber.assertError(IllegalStateException.class);
+    }
+
+    @Test(timeout = 60000)
+    public void testNonIdempotentNotHedged() throws Exception {
+        HedgingInterceptor<String, String> hedger = HedgingInterceptor.fixedDelay(10, TimeUnit.MILLISECONDS,
+                                                                                  testScheduler);
+        TestSubscriber<HttpClientResponse<String>> subscriber = new TestSubscriber<>();
+        hedger.hedge(HttpMethod.POST, source).subscribe(subscriber);
+
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertThat("Non idempotent request hedged.", attempts, hasSize(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testLatencyPercentileDelay() throws Exception {
+        HedgingInterceptor<String, String> hedger = HedgingInterceptor.latencyPercentile(0.9, 1, TimeUnit.MILLISECONDS,
+                                                                                         testScheduler);
+        assertThat("Hedged without observed latencies.", hedger.getHedgeDelay(TimeUnit.MILLISECONDS), is(-1L));
+
+        for (int i = 0; i < 100; i++) {
+            hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(i < 90 ? 10 : 500));
+        }
+
+        assertThat("Unexpected hedge delay.", hedger.getHedgeDelay(TimeUnit.MICROSECONDS),
+                   allOf(greaterThanOrEqualTo(10000L), lessThan(12000L)));
+    }
+
+    @Test(timeout = 60000)
+    public void testLatencyFromFirstRequestWhenHedgeWins() throws Exception {
+        HedgingInterceptor<String, String> hedger = HedgingInterceptor.latencyPercentile(0.9, 0, TimeUnit.MILLISECONDS,
+                                                                                         testScheduler);
+        for (int i = 0; i < 100; i++) {
+            hedger.recordLatency(TimeUnit.MICROSECONDS.toNanos(10));
+        }
+
+        /*Hedges win 28 of 128 requests, which is above the 90th percentile.*/
+        for (int i = 0; i < 28; i++) {
+            attempts.clear();
+            TestSubscriber<HttpClientResponse<String>> subscriber = new TestSubscriber<>();
+            hedger.hedge(HttpMethod.GET, source).subscribe(subscriber);
+            Thread.sleep(10);
+            testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+            assertThat("Request not hedged.", attempts, hasSize(2));
+
+            attempts.get(1).onNext(newResponse());
+            attempts.get(1).onCompleted();
+            subscriber.assertCompleted();
+        }
+
+        assertThat("Latency not measured from the first request.", hedger.getHedgeDelay(TimeUnit.MILLISECONDS),
+                   greaterThanOrEqualTo(10L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpClientResponse<String> newResponse() {
+        HttpClientResponse<String> response = Mockito.mock(HttpClientResponse.class);
+        Mockito.when(response.discardContent()).thenReturn(Observable.<Void>empty());
+        return response;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.util.CharsetUtil;
+import io.reactivex.netty.protocol.http.server.HttpServer;
+import io.reactivex.netty.protocol.http.server.HttpServerRequest;
+import io.reactivex.netty.protocol.http.server.HttpServerResponse;
+import io.reactivex.netty.protocol.http.server.RequestHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.observers.TestSubscriber;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class HttpClientDecompressionTest {
+
+    private static final String CHUNK = "{\"name\": \"rxnetty\", \"description\": \"reactive netty\"}";
+
+    private HttpServer<ByteBuf, ByteBuf> server;
+    private List<String> acceptEncodings;
+
+    @Before
+    public void setUp() throws Exception {
+        acceptEncodings = new CopyOnWriteArrayList<>();
+        server = HttpServer.newServer()
+                           .enableCompression(0)
+                           .start(new RequestHandler<ByteBuf, ByteBuf>() {
+                               @Override
+                               public Observable<Void> handle(HttpServerRequest<ByteBuf> request,
+                                                              HttpServerResponse<ByteBuf> response) {
+                                   acceptEncodings.add(String.valueOf(
+                                           request.getHeader(HttpHeaderNames.ACCEPT_ENCODING)));
+                                   return response.writeStringAndFlushOnEach(Observable.just(CHUNK, CHUNK, CHUNK));
+                               }
+                           });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        server.awaitShutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void testGzipContentDecompressed() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newClient().enableDecompression();
+
+        TestSubscriber<String> subscriber = sendRequest(client.createGet("/"));
+
+        subscriber.assertValues("null", CHUNK + CHUNK + CHUNK);
+        assertThat("Accept-Encoding not advertised.", acceptEncodings, contains("gzip, deflate"));
+    }
+
+    @Test(timeout = 60000)
+    public void testRequestedEncodingNotOverridden() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newClient().enableDecompression();
+
+        TestSubscriber<String> subscriber = sendRequest(client.createGet("/")
+                                                              .setHeader(HttpHeaderNames.ACCEPT_ENCODING,
+                                                                         "deflate"));
+
+        subscriber.assertValues("null", CHUNK + CHUNK + CHUNK);
+        assertThat("Accept-Encoding overridden.", acceptEncodings, contains("deflate"));
+    }
+
+    @Test(timeout = 60000)
+    public void testNoDecompressionByDefault() throws Exception {
+        TestSubscriber<String> subscriber = sendRequest(newClient().createGet("/")
+                                                                   .setHeader(HttpHeaderNames.ACCEPT_ENCODING,
+                                                                              "gzip"));
+
+        assertThat("Unexpected content encoding.", subscriber.getOnNextEvents().get(0), is("gzip"));
+    }
+
+    private HttpClient<ByteBuf, ByteBuf> newClient() {
+        return HttpClient.newClient(new InetSocketAddress("127.0.0.1", server.getServerPort()));
+    }
+
+    /**
+     * Emits the {@code Content-Encoding} of the response followed by the content.
+     */
+    private static TestSubscriber<String> sendRequest(Observable<HttpClientResponse<ByteBuf>> request) {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        request.flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<String>>() {
+            @Override
+            public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+                String contentEncoding = String.valueOf(response.getHeader(HttpHeaderNames.CONTENT_ENCODING));
+                return Observable.just(contentEncoding)
+                                 .concatWith(response.getContent()
+                                                     .map(new Func1<ByteBuf, String>() {
+                                                         @Override
+                                                         public String call(ByteBuf byteBuf) {
+                                                             String content = byteBuf.toString(CharsetUtil.UTF_8);
+                                                             byteBuf.release();
+                                                             return content;
+                                                         }
+                                                     })
+                                                     .reduce("", new Func2<String, String, String>() {
+                                                         @Override
+                                                         public String call(String s, String s2) {
+                                                             return s + s2;
+                                                         }
+                                                     }));
+            }
+        }).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        return subscriber;
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http2.Http2MultiplexCodecBuilder;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.handler.ssl.util.SelfSignedCertificate;
+import io.netty.util.CharsetUtil;
+import io.reactivex.netty.ssl.SslCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.observers.TestSubscriber;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class HttpClientHttp2Test {
+
+    private EventLoopGroup serverGroup;
+    private Channel serverChannel;
+    private Channel secureServerChannel;
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+    private final AtomicInteger acceptedSecureConnections = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        serverGroup = new NioEventLoopGroup(1);
+        serverChannel = new ServerBootstrap().group(serverGroup)
+                                             .channel(NioServerSocketChannel.class)
+                                             .childHandler(new ChannelInitializer<Channel>() {
+                                                 @Override
+                                                 protected void initChannel(Channel ch) throws Exception {
+                                                     acceptedConnections.incrementAndGet();
+                                                     addServerCodec(ch.pipeline(), ApplicationProtocolNames.HTTP_2);
+                                                 }
+                                             })
+                                             .bind(0).sync().channel();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        serverChannel.close().sync();
+        if (null != secureServerChannel) {
+            secureServerChannel.close().sync();
+        }
+        serverGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+
+    @Test(timeout = 60000)
+    public void testRequestsMultiplexedOnOneConnection() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newClient().http2(10);
+
+        List<Observable<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            responses.add(client.createGet("/" + i).flatMap(new ContentToString()));
+        }
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        Observable.merge(responses).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+
+        assertThat("Unexpected responses.", subscriber.getOnNextEvents(),
+                   containsInAnyOrder("GET /0", "GET /1", "GET /2", "GET /3", "GET /4"));
+        assertThat("Requests not multiplexed on one connection.", acceptedConnections.get(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testRequestWithContent() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newClient().http2(10);
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        client.createPost("/echo")
+              .writeStringContent(Observable.just("Hello"))
+              .flatMap(new ContentToString())
+              .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        subscriber.assertValue("POST /echo Hello");
+    }
+
+    @Test(timeout = 60000)
+    public void testContentLargerThanFlowControlWindow() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newClient().http2(10);
+
+        /*Larger than the default stream and connection window, so window updates are received by the stream.*/
+        final String content = new String(new char[100 * 1024]).replace('\0', 'a');
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        client.createPost("/large")
+              .writeStringContent(Observable.just(content))
+              .flatMap(new ContentToString())
+              .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        subscriber.assertValue("POST /large " + content);
+    }
+
+    @Test(timeout = 60000)
+    public void testNewConnectionWhenStreamsExhausted() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newClient().http2(1);
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        Observable.merge(client.createGet("/1").flatMap(new ContentToString()),
+                         client.createGet("/2").flatMap(new ContentToString()))
+                  .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        subscriber.assertValueCount(2);
+        assertThat("Unexpected connections.", acceptedConnections.get(), is(2));
+    }
+
+    @Test(timeout = 60000)
+    public void testSequentialRequestsReuseConnection() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newClient().http2(1);
+
+        for (int i = 0; i < 3; i++) {
+            TestSubscriber<String> subscriber = new TestSubscriber<>();
+            client.createGet("/" + i).flatMap(new ContentToString()).subscribe(subscriber);
+            subscriber.awaitTerminalEvent();
+            subscriber.assertNoErrors();
+            subscriber.assertValue("GET /" + i);
+        }
+
+        assertThat("Connection not reused.", acceptedConnections.get(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testAlpnNegotiatesHttp2() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newSecureClient(ApplicationProtocolNames.HTTP_2).http2(10);
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        Observable.merge(client.createGet("/1").flatMap(new ContentToString()),
+                         client.createGet("/2").flatMap(new ContentToString()))
+                  .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+
+        assertThat("Unexpected responses.", subscriber.getOnNextEvents(), containsInAnyOrder("GET /1", "GET /2"));
+        assertThat("Requests not multiplexed on one connection.", acceptedSecureConnections.get(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testAlpnFallbackToHttp1() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newSecureClient(ApplicationProtocolNames.HTTP_1_1).http2(10);
+
+        for (int i = 0; i < 2; i++) {
+            TestSubscriber<String> subscriber = new TestSubscriber<>();
+            client.createGet("/" + i).flatMap(new ContentToString()).subscribe(subscriber);
+            subscriber.awaitTerminalEvent();
+            subscriber.assertNoErrors();
+            subscriber.assertValue("GET /" + i);
+        }
+
+        /*
+         * The connection that negotiated HTTP/1.1 is closed and every request then uses a new (as the client is not
+         * pooled) HTTP/1.1 connection, without negotiating again.
+         */
+        assertThat("Unexpected connections.", acceptedSecureConnections.get(), is(3));
+    }
+
+    private HttpClient<ByteBuf, ByteBuf> newClient() {
+        return HttpClient.newClient((InetSocketAddress) serverChannel.localAddress());
+    }
+
+    /**
+     * Starts a secure server that uses the passed protocol and returns a client for that server, for which the passed
+     * protocol is negotiated via ALPN. <p>
+     *
+     * ALPN with the JDK SSL provider is only supported by netty on java 9+, so the negotiation result is simulated.
+     */
+    private HttpClient<ByteBuf, ByteBuf> newSecureClient(final String protocol) throws Exception {
+        SelfSignedCertificate certificate = new SelfSignedCertificate();
+        final SslContext serverContext = SslContextBuilder.forServer(certificate.certificate(),
+                                                                     certificate.privateKey())
+                                                          .build();
+        secureServerChannel = new ServerBootstrap().group(serverGroup)
+                                                   .channel(NioServerSocketChannel.class)
+                                                   .childHandler(new ChannelInitializer<Channel>() {
+                                                       @Override
+                                                       protected void initChannel(Channel ch) throws Exception {
+                                                           acceptedSecureConnections.incrementAndGet();
+                                                           ch.pipeline().addLast(serverContext.newHandler(ch.alloc()));
+                                                           addServerCodec(ch.pipeline(), protocol);
+                                                       }
+                                                   })
+                                                   .bind(0).sync().channel();
+
+        final SslContext clientContext = SslContextBuilder.forClient()
+                                                          .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                                                          .build();
+        return HttpClient.<ByteBuf, ByteBuf>newClient((InetSocketAddress) secureServerChannel.localAddress())
+                         .secure(new SslCodec() {
+                             @Override
+                             protected SslHandler newSslHandler(ChannelPipeline pipeline) {
+                                 return new SslHandler(clientContext.newEngine(pipeline.channel().alloc())) {
+                                     @Override
+                                     public String applicationProtocol() {
+                                         return protocol;
+                                     }
+                                 };
+                             }
+                         });
+    }
+
+    private static void addServerCodec(ChannelPipeline pipeline, String protocol) {
+        if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
+            pipeline.addLast(Http2MultiplexCodecBuilder.forServer(new EchoStreamInitializer()).build());
+        } else {
+            pipeline.addLast(new HttpServerCodec(), new HttpObjectAggregator(1024 * 1024), new EchoHandler());
+        }
+    }
+
+    private static class ContentToString implements Func1<HttpClientResponse<ByteBuf>, Observable<String>> {
+
+        @Override
+        public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+            return response.getContent()
+                           .map(new Func1<ByteBuf, String>() {
+                               @Override
+                               public String call(ByteBuf byteBuf) {
+                                   return byteBuf.toString(CharsetUtil.UTF_8);
+                               }
+                           })
+                           .reduce("", new Func2<String, String, String>() {
+                               @Override
+                               public String call(String s, String s2) {
+                                   return s + s2;
+                               }
+                           });
+        }
+    }
+
+    private static class EchoStreamInitializer extends ChannelInitializer<Channel> {
+
+        @Override
+        protected void initChannel(Channel stream) throws Exception {
+            stream.pipeline().addLast(new Http2StreamFrameToHttpObjectCodec(true),
+                                      new HttpObjectAggregator(1024 * 1024),
+                                      new EchoHandler());
+        }
+    }
+
+    private static class EchoHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+            String echo = request.method() + " " + request.uri();
+            if (request.content().isReadable()) {
+                echo += " " + request.content().toString(CharsetUtil.UTF_8);
+            }
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                                                                    Unpooled.copiedBuffer(echo, CharsetUtil.UTF_8));
+            response.headers().set(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+            ctx.writeAndFlush(response);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.reactivex.netty.client.ClientConnectionToChannelBridge;
+import io.reactivex.netty.protocol.http.client.HttpClientPoolTest.PooledHttpClientRule;
+import org.junit.Rule;
+import org.junit.Test;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class HttpClientPipeliningTest {
+
+    @Rule
+    public final PooledHttpClientRule clientRule = new PooledHttpClientRule();
+
+    @Test(timeout = 60000)
+    public void testResponsesMatchedInRequestOrder() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = clientRule.getHttpClient().pipelining(2, 0, TimeUnit.SECONDS);
+
+        TestSubscriber<HttpClientResponse<ByteBuf>> sub1 = clientRule.sendRequest(client.createGet("/1"));
+        TestSubscriber<HttpClientResponse<ByteBuf>> sub2 = clientRule.sendRequest(client.createGet("/2"));
+
+        assertThat("Requests not pipelined on one connection.", clientRule.getCreatedChannels(), hasSize(1));
+        clientRule.assertRequestHeadersWritten(HttpMethod.GET, "/1");
+        clientRule.assertRequestHeadersWritten(HttpMethod.GET, "/2");
+
+        clientRule.feedResponseAndComplete(newResponse("1"));
+        clientRule.feedResponseAndComplete(newResponse("2"));
+
+        assertThat("Unexpected response for the first request.", readResponseSeq(sub1), is("1"));
+        assertThat("Unexpected response for the second request.", readResponseSeq(sub2), is("2"));
+
+        clientRule.getLastCreatedChannel().runPendingTasks();
+        clientRule.assertIdleConnections(1);
+    }
+
+    @Test(timeout = 60000)
+    public void testNewConnectionWhenPipelineFull() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = clientRule.getHttpClient().pipelining(1, 0, TimeUnit.SECONDS);
+
+        clientRule.sendRequest(client.createGet("/1"));
+        clientRule.sendRequest(client.createGet("/2"));
+
+        assertThat("Unexpected connections.", clientRule.getCreatedChannels(), hasSize(2));
+    }
+
+    @Test(timeout = 60000)
+    public void testNonIdempotentRequestNotPipelined() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = clientRule.getHttpClient().pipelining(2, 0, TimeUnit.SECONDS);
+
+        clientRule.sendRequest(client.createGet("/1"));
+        clientRule.sendRequest(client.createPost("/2"));
+
+        assertThat("Non-idempotent request pipelined.", clientRule.getCreatedChannels(), hasSize(2));
+    }
+
+    @Test(timeout = 60000)
+    public void testRequestWithContentNotPipelined() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = clientRule.getHttpClient().pipelining(2, 0, TimeUnit.SECONDS);
+
+        clientRule.sendRequest(client.createGet("/1"));
+        clientRule.sendRequest(client.createGet("/2").writeStringContent(Observable.just("Hello")));
+
+        assertThat("Request with content pipelined.", clientRule.getCreatedChannels(), hasSize(2));
+    }
+
+    @Test(timeout = 60000)
+    public void testHeadOfLineTimeoutReplaysRequests() throws Exception {
+        /*
+         * The embedded eventloop runs due scheduled tasks along with every pending task, so the timeout must not
+         * expire while the requests are written, else the first request times out before the second is pipelined.
+         */
+        HttpClient<ByteBuf, ByteBuf> client = clientRule.getHttpClient().pipelining(2, 500, TimeUnit.MILLISECONDS);
+
+        TestSubscriber<HttpClientResponse<ByteBuf>> sub1 = clientRule.sendRequest(client.createGet("/1"));
+        TestSubscriber<HttpClientResponse<ByteBuf>> sub2 = clientRule.sendRequest(client.createGet("/2"));
+
+        assertThat("Requests not pipelined on one connection.", clientRule.getCreatedChannels(), hasSize(1));
+        clientRule.assertRequestHeadersWritten(HttpMethod.GET, "/1");
+        clientRule.assertRequestHeadersWritten(HttpMethod.GET, "/2");
+
+        final EmbeddedChannel firstChannel = clientRule.getLastCreatedChannel();
+        /*Run scheduled tasks as they are due till the timeout discards the connection, instead of a fixed sleep.*/
+        long nextTaskDelayNanos;
+        while (firstChannel.isOpen() && (nextTaskDelayNanos = firstChannel.runScheduledPendingTasks()) >= 0) {
+            TimeUnit.NANOSECONDS.sleep(nextTaskDelayNanos);
+        }
+
+        sub1.awaitTerminalEvent();
+        sub1.assertError(TimeoutException.class);
+        assertThat("Pipeline not discarded.", firstChannel.isOpen(), is(false));
+        assertThat("Pipeline not discarded.",
+                   firstChannel.attr(ClientConnectionToChannelBridge.DISCARD_CONNECTION).get(), is(true));
+
+        assertThat("Request not replayed on a new connection.", clientRule.getCreatedChannels(), hasSize(2));
+        clientRule.assertRequestHeadersWritten(HttpMethod.GET, "/2");
+        clientRule.feedResponseAndComplete(newResponse("2"));
+
+        assertThat("Unexpected response for the replayed request.", readResponseSeq(sub2), is("2"));
+    }
+
+    private static HttpResponse newResponse(String seq) {
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers().set("X-Seq", seq);
+        return response;
+    }
+
+    private String readResponseSeq(TestSubscriber<HttpClientResponse<ByteBuf>> subscriber) {
+        return clientRule.discardResponseContent(subscriber).getHeader("X-Seq");
+    }
+}
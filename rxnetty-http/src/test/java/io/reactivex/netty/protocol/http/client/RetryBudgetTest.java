@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import org.junit.Test;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class RetryBudgetTest {
+
+    @Test(timeout = 60000)
+    public void testDepositAndWithdraw() throws Exception {
+        RetryBudget budget = new RetryBudget(0.25, 0, 10, Schedulers.test());
+
+        assertThat("Retry allowed without successes.", budget.tryWithdraw(), is(false));
+
+        for (int i = 0; i < 4; i++) {
+            budget.deposit();
+        }
+
+        assertThat("Retry not allowed after successes.", budget.tryWithdraw(), is(true));
+        assertThat("Retry allowed beyond ratio.", budget.tryWithdraw(), is(false));
+    }
+
+    @Test(timeout = 60000)
+    public void testMaxBalance() throws Exception {
+        RetryBudget budget = new RetryBudget(1, 0, 2, Schedulers.test());
+
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+
+        assertThat("Balance not capped.", budget.getBalance(), is(2.0));
+    }
+
+    @Test(timeout = 60000)
+    public void testMinRetriesRefill() throws Exception {
+        TestScheduler testScheduler = Schedulers.test();
+        RetryBudget budget = new RetryBudget(0, 2, 10, testScheduler);
+
+        assertThat("Unexpected initial balance.", budget.getBalance(), is(2.0));
+        assertThat("Retry not allowed.", budget.tryWithdraw(), is(true));
+        assertThat("Retry not allowed.", budget.tryWithdraw(), is(true));
+        assertThat("Retry allowed beyond minimum.", budget.tryWithdraw(), is(false));
+
+        testScheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        assertThat("Budget not refilled.", budget.tryWithdraw(), is(true));
+        assertThat("Budget refilled beyond rate.", budget.tryWithdraw(), is(false));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.reactivex.netty.protocol.http.client.events.HttpClientEventPublisher;
+import io.reactivex.netty.protocol.http.client.events.HttpClientEventsListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class RetryingInterceptorTest {
+
+    private TestScheduler testScheduler;
+    private List<PublishSubject<HttpClientResponse<String>>> attempts;
+    private Observable<HttpClientResponse<String>> source;
+    private AtomicInteger retryEvents;
+    private AtomicInteger budgetExhaustedEvents;
+    private HttpClientEventPublisher eventPublisher;
+
+    @Before
+    public void setUp() throws Exception {
+        testScheduler = Schedulers.test();
+        attempts = new ArrayList<>();
+        source = Observable.defer(new Func0<Observable<HttpClientResponse<String>>>() {
+            @Override
+            public Observable<HttpClientResponse<String>> call() {
+                PublishSubject<HttpClientResponse<String>> attempt = PublishSubject.create();
+                attempts.add(attempt);
+                return attempt;
+            }
+        });
+        retryEvents = new AtomicInteger();
+        budgetExhaustedEvents = new AtomicInteger();
+        eventPublisher = new HttpClientEventPublisher();
+        eventPublisher.subscribe(new HttpClientEventsListener() {
+            @Override
+            public void onRequestRetry(int retryCount, long backoff, TimeUnit timeUnit) {
+                retryEvents.incrementAndGet();
+            }
+
+            @Override
+            public void onRetryBudgetExhausted() {
+                budgetExhaustedEvents.incrementAndGet();
+            }
+        });
+    }
+
+    @Test(timeout = 60000)
+    public void testRetryOnStatus() throws Exception {
+        TestSubscriber<HttpClientResponse<String>> subscriber = retry(HttpMethod.GET, newPolicy());
+
+        HttpClientResponse<String> unavailable = newResponse(HttpResponseStatus.SERVICE_UNAVAILABLE);
+        attempts.get(0).onNext(unavailable);
+        attempts.get(0).onCompleted();
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertThat("Request not retried.", attempts, hasSize(2));
+        Mockito.verify(unavailable).discardContent();
+
+        HttpClientResponse<String> ok = newResponse(HttpResponseStatus.OK);
+        attempts.get(1).onNext(ok);
+        attempts.get(1).onCompleted();
+
+        subscriber.assertValue(ok);
+        subscriber.assertCompleted();
+        assertThat("Unexpected retry events.", retryEvents.get(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testMaxRetries() throws Exception {
+        TestSubscriber<HttpClientResponse<String>> subscriber = retry(HttpMethod.GET, newPolicy().maxRetries(1));
+
+        attempts.get(0).onError(new IOException("Deliberate exception"));
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertThat("Request not retried.", attempts, hasSize(2));
+
+        attempts.get(1).onError(new IOException("Deliberate exception"));
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertThat("Request retried more than max retries.", attempts, hasSize(2));
+        subscriber.assertError(IOException.class);
+    }
+
+    @Test(timeout = 60000)
+    public void testNonIdempotentRetriedOnlyOnConnectFailure() throws Exception {
+        TestSubscriber<HttpClientResponse<String>> subscriber = retry(HttpMethod.POST, newPolicy());
+
+        attempts.get(0).onError(new ConnectException("Deliberate exception"));
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertThat("Connect failure not retried.", attempts, hasSize(2));
+
+        HttpClientResponse<String> unavailable = newResponse(HttpResponseStatus.SERVICE_UNAVAILABLE);
+        attempts.get(1).onNext(unavailable);
+        attempts.get(1).onCompleted();
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertThat("Non idempotent request retried on status.", attempts, hasSize(2));
+        subscriber.assertValue(unavailable);
+    }
+
+    @Test(timeout = 60000)
+    public void testRetryBudgetExhausted() throws Exception {
+        RetryBudget budget = new RetryBudget(0.5, 0, 10, testScheduler);
+        /*Initial balance is zero without a refill, two successes fund a single retry.*/
+        budget.deposit();
+        budget.deposit();
+
+        TestSubscriber<HttpClientResponse<String>> subscriber = retry(HttpMethod.GET,
+                                                                      newPolicy().maxRetries(5).budget(budget));
+
+        attempts.get(0).onError(new IOException("Deliberate exception"));
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        attempts.get(1).onError(new IOException("Deliberate exception"));
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertThat("Retries not capped by the budget.", attempts, hasSize(2));
+        assertThat("Unexpected budget exhausted events.", budgetExhaustedEvents.get(), is(1));
+        subscriber.assertError(IOException.class);
+    }
+
+    private RetryPolicy newPolicy() {
+        return new RetryPolicy().scheduler(testScheduler)
+                                .backoff(10, 100, TimeUnit.MILLISECONDS)
+                                .budget(new RetryBudget(0.2, 10, 100, testScheduler));
+    }
+
+    private TestSubscriber<HttpClientResponse<String>> retry(HttpMethod method, RetryPolicy policy) {
+        RetryingInterceptor<String, String> interceptor = new RetryingInterceptor<>(policy, eventPublisher);
+        TestSubscriber<HttpClientResponse<String>> subscriber = new TestSubscriber<>();
+        interceptor.retry(method, source).subscribe(subscriber);
+        return subscriber;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpClientResponse<String> newResponse(HttpResponseStatus status) {
+        HttpClientResponse<String> response = Mockito.mock(HttpClientResponse.class);
+        Mockito.when(response.getStatus()).thenReturn(status);
+        Mockito.when(response.discardContent()).thenReturn(Observable.<Void>empty());
+        return response;
+    }
+}
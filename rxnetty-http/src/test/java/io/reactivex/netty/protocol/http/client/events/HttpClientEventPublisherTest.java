@@ -110,6 +110,21 @@ public class HttpClientEventPublisherTest {
         assertThat("Listener not called with time unit.", rule.listener.getTimeUnit(), is(MILLISECONDS));
     }
 
+    @Test(timeout = 60000)
+    public void testOnRequestRetry() throws Exception {
+        rule.publisher.onRequestRetry(1, 10, MILLISECONDS);
+        rule.listener.assertMethodCalled(HttpEvent.ReqRetry);
+
+        assertThat("Listener not called with backoff.", rule.listener.getDuration(), is(10L));
+        assertThat("Listener not called with time unit.", rule.listener.getTimeUnit(), is(MILLISECONDS));
+    }
+
+    @Test(timeout = 60000)
+    public void testOnRetryBudgetExhausted() throws Exception {
+        rule.publisher.onRetryBudgetExhausted();
+        rule.listener.assertMethodCalled(HttpEvent.RetryBudgetExhausted);
+    }
+
     @Test(timeout = 60000)
     public void testOnConnectionCloseFailed() throws Exception {
         final Throwable expected = new NullPointerException();
@@ -29,7 +29,7 @@ public class HttpClientEventsListenerImpl extends HttpClientEventsListener {
 
     public enum HttpEvent {
         ReqSubmitted, ReqWriteStart, ReqWriteSuccess, ReqWriteFailed, ResHeadersReceived, ResContentReceived,
-        ResReceiveComplete, RespFailed, ProcessingComplete
+        ResReceiveComplete, RespFailed, ProcessingComplete, ReqRetry, RetryBudgetExhausted
     }
 
     private final MockClientEventListener tcpDelegate;
@@ -102,6 +102,18 @@ public class HttpClientEventsListenerImpl extends HttpClientEventsListener {
         methodsCalled.add(HttpEvent.ProcessingComplete);
     }
 
+    @Override
+    public void onRequestRetry(int retryCount, long backoff, TimeUnit timeUnit) {
+        duration = backoff;
+        this.timeUnit = timeUnit;
+        methodsCalled.add(HttpEvent.ReqRetry);
+    }
+
+    @Override
+    public void onRetryBudgetExhausted() {
+        methodsCalled.add(HttpEvent.RetryBudgetExhausted);
+    }
+
     public int getResponseCode() {
         return responseCode;
     }
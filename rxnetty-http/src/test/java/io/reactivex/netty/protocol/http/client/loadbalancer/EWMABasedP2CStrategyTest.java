@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.loadbalancer;
+
+import io.reactivex.netty.protocol.http.client.loadbalancer.EWMABasedP2CStrategy.DecayTable;
+import io.reactivex.netty.protocol.http.client.loadbalancer.EWMABasedP2CStrategy.HttpClientListenerImpl;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class EWMABasedP2CStrategyTest {
+
+    @Test(timeout = 60000)
+    public void testDecayTableAccuracy() throws Exception {
+        final double tau = TimeUnit.SECONDS.toNanos(1);
+        DecayTable table = new DecayTable(tau);
+
+        assertThat("Unexpected weight with no elapsed time.", table.weight(0), is(1.0));
+        assertThat("Unexpected weight with negative elapsed time.", table.weight(-10), is(1.0));
+        for (long elapsed = 1; elapsed < 10 * tau; elapsed += tau / 7) {
+            assertThat("Unexpected weight for elapsed: " + elapsed, table.weight(elapsed),
+                       closeTo(Math.exp(-elapsed / tau), 0.0001));
+        }
+        assertThat("Unexpected weight beyond the table.", table.weight(TimeUnit.SECONDS.toNanos(100)), is(0.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecayTableZeroTau() throws Exception {
+        new DecayTable(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecayTableNegativeTau() throws Exception {
+        new DecayTable(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecayTableNaNTau() throws Exception {
+        new DecayTable(Double.NaN);
+    }
+
+    @Test(timeout = 60000)
+    public void testWeightSameAsStateMutatingRead() throws Exception {
+        HttpClientListenerImpl listener = new EWMABasedP2CStrategy<>().newListener(null);
+        long now = System.nanoTime();
+        StateMutatingListener reference = new StateMutatingListener(TimeUnit.SECONDS.toNanos(1),
+                                                                    TimeUnit.SECONDS.toNanos(15), now);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100; i++) {
+            now += TimeUnit.MILLISECONDS.toNanos(random.nextInt(2000));
+            final double rtt = TimeUnit.MILLISECONDS.toNanos(random.nextInt(100));
+            listener.observe(rtt, now);
+            reference.observe(rtt, now);
+
+            /*Reads of the reference change its state, so read a copy to keep the next observation comparable.*/
+            StateMutatingListener readReference = reference.copy();
+            long readAt = now;
+            for (int j = 0; j < 5; j++) {
+                readAt += TimeUnit.MILLISECONDS.toNanos(random.nextInt(1000));
+                final double expected = readReference.getWeight(readAt);
+                assertThat("Unexpected weight after observation: " + i + ", read: " + j, listener.getWeight(readAt),
+                           closeTo(expected, expected * 0.001));
+            }
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testStartupPenalty() throws Exception {
+        HttpClientListenerImpl listener = new EWMABasedP2CStrategy<>().newListener(null);
+
+        assertThat("Unexpected weight with no requests.", listener.getWeight(), is(0.0));
+
+        listener.onRequestWriteComplete(1, TimeUnit.MILLISECONDS);
+        assertThat("No startup penalty with pending requests.", listener.getWeight(),
+                   greaterThan((double) Integer.MAX_VALUE));
+
+        listener.onResponseReceiveComplete(1, TimeUnit.MILLISECONDS);
+        assertThat("Unexpected weight after response.", listener.getWeight(),
+                   allOf(greaterThan(0.0), lessThanOrEqualTo((double) TimeUnit.MILLISECONDS.toNanos(1))));
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentUpdates() throws Exception {
+        final HttpClientListenerImpl listener = new EWMABasedP2CStrategy<>().newListener(null);
+        final int threads = 4;
+        final int requestsPerThread = 10000;
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        listener.onRequestWriteComplete(1, TimeUnit.MILLISECONDS);
+                        listener.getWeight();
+                        listener.onResponseReceiveComplete(1, TimeUnit.MILLISECONDS);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        done.await();
+
+        /*No pending requests, so the weight is the cost i.e. never more than the observed latency.*/
+        assertThat("Unexpected weight after all responses.", listener.getWeight(),
+                   allOf(greaterThan(0.0), lessThanOrEqualTo((double) TimeUnit.MILLISECONDS.toNanos(1))));
+    }
+
+    /**
+     * The listener as implemented before the lock-free listener, where reading the weight observed a zero rtt, i.e.
+     * decayed and stamped the cost, and every decay factor was computed with {@link Math#exp(double)}.
+     */
+    private static class StateMutatingListener {
+
+        private final double tauUp;
+        private final double tauDown;
+        private long stamp;
+        private double cost;
+
+        private StateMutatingListener(double tauUp, double tauDown, long stamp) {
+            this.tauUp = tauUp;
+            this.tauDown = tauDown;
+            this.stamp = stamp;
+        }
+
+        private double getWeight(long now) {
+            observe(0.0, now);
+            return cost;
+        }
+
+        private void observe(double rtt, long now) {
+            long td = Math.max(now - stamp, 0L);
+            if (rtt > cost) {
+                double w = Math.exp(-td / tauUp);
+                cost = cost * w + rtt * (1.0 - w);
+            } else {
+                double w = Math.exp(-td / tauDown);
+                cost = cost * w + rtt * (1.0 - w);
+            }
+            stamp = now;
+        }
+
+        private StateMutatingListener copy() {
+            StateMutatingListener copy = new StateMutatingListener(tauUp, tauDown, stamp);
+            copy.cost = cost;
+            return copy;
+        }
+    }
+}
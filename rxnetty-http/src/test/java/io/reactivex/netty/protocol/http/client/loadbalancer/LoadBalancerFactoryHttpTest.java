@@ -0,0 +1,319 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.client.loadbalancer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.reactivex.netty.client.ConnectionProvider;
+import io.reactivex.netty.client.ConnectionProviderFactory;
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.HostConnector;
+import io.reactivex.netty.client.loadbalancer.ApertureHostCollector;
+import io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategy;
+import io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategy.OutstandingRequestsListener;
+import io.reactivex.netty.client.loadbalancer.LoadBalancerFactory;
+import io.reactivex.netty.client.loadbalancer.MaglevHashStrategy;
+import io.reactivex.netty.client.loadbalancer.OutlierDetectionConfig;
+import io.reactivex.netty.client.loadbalancer.WeightedRoundRobinStrategy;
+import io.reactivex.netty.client.pool.PoolConfig;
+import io.reactivex.netty.client.pool.PooledConnectionProvider;
+import io.reactivex.netty.protocol.http.client.HttpClient;
+import io.reactivex.netty.protocol.http.client.HedgingInterceptor;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import io.reactivex.netty.protocol.http.client.InterceptingHttpClient;
+import io.reactivex.netty.protocol.http.client.RetryPolicy;
+import io.reactivex.netty.protocol.http.server.HttpServer;
+import io.reactivex.netty.protocol.http.server.HttpServerRequest;
+import io.reactivex.netty.protocol.http.server.HttpServerResponse;
+import io.reactivex.netty.protocol.http.server.RequestHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class LoadBalancerFactoryHttpTest {
+
+    private HttpServer<ByteBuf, ByteBuf> server1;
+    private HttpServer<ByteBuf, ByteBuf> server2;
+    private final AtomicInteger hits1 = new AtomicInteger();
+    private final AtomicInteger hits2 = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server1 = HttpServer.newServer().start(newHandler(hits1, true));
+        server2 = HttpServer.newServer().start(newHandler(hits2, false));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server1.shutdown();
+        server2.shutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void testLeastOutstandingWithPooledConnections() throws Exception {
+        final List<OutstandingRequestsListener> listeners = new CopyOnWriteArrayList<>();
+        LeastOutstandingRequestsStrategy<ByteBuf, ByteBuf> strategy =
+                new LeastOutstandingRequestsStrategy<ByteBuf, ByteBuf>() {
+                    @Override
+                    protected OutstandingRequestsListener newListener(Host host) {
+                        OutstandingRequestsListener listener = super.newListener(host);
+                        listeners.add(listener);
+                        return listener;
+                    }
+                };
+
+        HttpClient<ByteBuf, ByteBuf> client = HttpClient.newClient(pooled(LoadBalancerFactory.create(strategy)),
+                                                                   hosts());
+
+        for (int i = 0; i < 10; i++) {
+            /*Alternate between reusable connections and connections closed by the server.*/
+            assertThat("Unexpected response.", execute(client, i % 2 == 0 ? "/" : "/close"), is("Hello"));
+        }
+
+        assertThat("Unexpected number of requests.", hits1.get() + hits2.get(), is(10));
+        for (OutstandingRequestsListener listener : listeners) {
+            awaitNoOutstanding(listener);
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testWeightedRoundRobin() throws Exception {
+        final int port1 = server1.getServerPort();
+        WeightedRoundRobinStrategy<ByteBuf, ByteBuf> strategy =
+                new WeightedRoundRobinStrategy<>(new Func1<Host, Integer>() {
+                    @Override
+                    public Integer call(Host host) {
+                        return ((InetSocketAddress) host.getHost()).getPort() == port1 ? 3 : 1;
+                    }
+                });
+
+        HttpClient<ByteBuf, ByteBuf> client = HttpClient.newClient(LoadBalancerFactory.create(strategy), hosts());
+
+        for (int i = 0; i < 8; i++) {
+            assertThat("Unexpected response.", execute(client, "/"), is("Hello"));
+        }
+
+        assertThat("Unexpected requests on the heavier host.", hits1.get(), is(6));
+        assertThat("Unexpected requests on the lighter host.", hits2.get(), is(2));
+    }
+
+    @Test(timeout = 60000)
+    public void testMaglevHashSameKeySameHost() throws Exception {
+        MaglevHashStrategy<ByteBuf, ByteBuf> strategy = new MaglevHashStrategy<>(new Func0<Object>() {
+            @Override
+            public Object call() {
+                return "key";
+            }
+        });
+
+        HttpClient<ByteBuf, ByteBuf> client = HttpClient.newClient(pooled(LoadBalancerFactory.create(strategy)),
+                                                                   hosts());
+
+        for (int i = 0; i < 10; i++) {
+            assertThat("Unexpected response.", execute(client, i % 2 == 0 ? "/" : "/close"), is("Hello"));
+        }
+
+        assertThat("Same key sent to different hosts.", Math.max(hits1.get(), hits2.get()), is(10));
+    }
+
+    @Test(timeout = 60000)
+    public void testOutlierDetectionWithDefaultListener() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        final int deadPort = socket.getLocalPort();
+        socket.close();
+
+        OutlierDetectionConfig config = new OutlierDetectionConfig().consecutiveFailures(2)
+                                                                    .baseEjectionTime(1, TimeUnit.MINUTES);
+        HttpClient<ByteBuf, ByteBuf> client = HttpClient.newClient(
+                LoadBalancerFactory.create(new WeightedRoundRobinStrategy<ByteBuf, ByteBuf>(), config),
+                Observable.just(new Host(new InetSocketAddress("127.0.0.1", server1.getServerPort())),
+                                new Host(new InetSocketAddress("127.0.0.1", deadPort))));
+
+        int failures = 0;
+        for (int i = 0; i < 10; i++) {
+            try {
+                execute(client, "/");
+            } catch (Exception e) {
+                failures++;
+            }
+        }
+
+        assertThat("Unexpected failures before ejection.", failures, is(2));
+        for (int i = 0; i < 10; i++) {
+            assertThat("Unexpected response after ejection.", execute(client, "/"), is("Hello"));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testApertureSubset() throws Exception {
+        ApertureHostCollector collector = new ApertureHostCollector(0, 2, 1, 1, 0.5, 2.0, Observable.<Long>never());
+        HttpClient<ByteBuf, ByteBuf> client = HttpClient.newClient(
+                pooled(LoadBalancerFactory.create(new LeastOutstandingRequestsStrategy<ByteBuf, ByteBuf>(),
+                                                  collector)), hosts());
+
+        for (int i = 0; i < 10; i++) {
+            assertThat("Unexpected response.", execute(client, "/"), is("Hello"));
+        }
+
+        assertThat("Requests sent outside the subset.", Math.max(hits1.get(), hits2.get()), is(10));
+    }
+
+    @Test(timeout = 60000)
+    public void testHedgeSentToDifferentHost() throws Exception {
+        final int port1 = server1.getServerPort();
+        /*Every request is sent to the first host, unless excluded.*/
+        WeightedRoundRobinStrategy<ByteBuf, ByteBuf> strategy =
+                new WeightedRoundRobinStrategy<>(new Func1<Host, Integer>() {
+                    @Override
+                    public Integer call(Host host) {
+                        return ((InetSocketAddress) host.getHost()).getPort() == port1 ? 1000 : 1;
+                    }
+                });
+
+        HttpClient<ByteBuf, ByteBuf> client = HttpClient.newClient(LoadBalancerFactory.create(strategy), hosts());
+        InterceptingHttpClient<ByteBuf, ByteBuf> hedging =
+                client.intercept()
+                      .next(HedgingInterceptor.<ByteBuf, ByteBuf>fixedDelay(100, TimeUnit.MILLISECONDS))
+                      .finish();
+
+        String content = hedging.createGet("/slow")
+                                .flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<String>>() {
+                                    @Override
+                                    public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+                                        return response.getContent().map(new Func1<ByteBuf, String>() {
+                                            @Override
+                                            public String call(ByteBuf content) {
+                                                return content.toString(Charset.defaultCharset());
+                                            }
+                                        });
+                                    }
+                                })
+                                .toBlocking()
+                                .single();
+
+        assertThat("Unexpected response.", content, is("Hello"));
+        assertThat("Hedge not sent to the other host.", hits2.get(), is(1));
+    }
+
+    @Test(timeout = 60000)
+    public void testRetrySentToDifferentHost() throws Exception {
+        final int port1 = server1.getServerPort();
+        /*Every request is sent to the first host, unless excluded.*/
+        WeightedRoundRobinStrategy<ByteBuf, ByteBuf> strategy =
+                new WeightedRoundRobinStrategy<>(new Func1<Host, Integer>() {
+                    @Override
+                    public Integer call(Host host) {
+                        return ((InetSocketAddress) host.getHost()).getPort() == port1 ? 1000 : 1;
+                    }
+                });
+
+        HttpClient<ByteBuf, ByteBuf> client = HttpClient.newClient(LoadBalancerFactory.create(strategy), hosts());
+        InterceptingHttpClient<ByteBuf, ByteBuf> retrying =
+                client.intercept()
+                      .nextWithRetry(new RetryPolicy().maxRetries(1).backoff(1, 1, TimeUnit.MILLISECONDS))
+                      .finish();
+
+        HttpClientResponse<ByteBuf> response = retrying.createGet("/unavailable").toBlocking().single();
+
+        assertThat("Unexpected response status.", response.getStatus(), is(HttpResponseStatus.OK));
+        assertThat("Unexpected requests on the first host.", hits1.get(), is(1));
+        assertThat("Retry not sent to the other host.", hits2.get(), is(1));
+    }
+
+    private Observable<Host> hosts() {
+        return Observable.just(new Host(new InetSocketAddress("127.0.0.1", server1.getServerPort())),
+                               new Host(new InetSocketAddress("127.0.0.1", server2.getServerPort())));
+    }
+
+    private static String execute(HttpClient<ByteBuf, ByteBuf> client, String uri) {
+        return client.createGet(uri)
+                     .flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<String>>() {
+                         @Override
+                         public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+                             return response.getContent().map(new Func1<ByteBuf, String>() {
+                                 @Override
+                                 public String call(ByteBuf content) {
+                                     return content.toString(Charset.defaultCharset());
+                                 }
+                             });
+                         }
+                     })
+                     .toBlocking()
+                     .single();
+    }
+
+    private static void awaitNoOutstanding(OutstandingRequestsListener listener) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (listener.getOutstandingRequests() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat("Outstanding requests leaked.", listener.getOutstandingRequests(), is(0));
+    }
+
+    private static RequestHandler<ByteBuf, ByteBuf> newHandler(final AtomicInteger hits, final boolean faulty) {
+        return new RequestHandler<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Void> handle(HttpServerRequest<ByteBuf> request, HttpServerResponse<ByteBuf> response) {
+                final int hit = hits.incrementAndGet();
+                if (request.getDecodedPath().startsWith("/close")) {
+                    response.setHeader(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+                }
+                if (faulty && request.getDecodedPath().startsWith("/unavailable")) {
+                    response.setStatus(HttpResponseStatus.SERVICE_UNAVAILABLE);
+                    return response;
+                }
+                if (request.getDecodedPath().startsWith("/slow") && faulty && hit == 1) {
+                    /*First request to the first host is slow, so that it is hedged.*/
+                    return response.writeString(Observable.just("Hello").delay(5, TimeUnit.SECONDS));
+                }
+                return response.writeString(Observable.just("Hello"));
+            }
+        };
+    }
+
+    private static <W, R> ConnectionProviderFactory<W, R> pooled(final ConnectionProviderFactory<W, R> delegate) {
+        return new ConnectionProviderFactory<W, R>() {
+            @Override
+            public ConnectionProvider<W, R> newProvider(Observable<HostConnector<W, R>> hosts) {
+                return delegate.newProvider(hosts.map(new Func1<HostConnector<W, R>, HostConnector<W, R>>() {
+                    @Override
+                    public HostConnector<W, R> call(HostConnector<W, R> connector) {
+                        return new HostConnector<>(connector,
+                                                   PooledConnectionProvider.create(new PoolConfig<W, R>(),
+                                                                                   connector));
+                    }
+                }));
+            }
+        };
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+import io.reactivex.netty.protocol.http.client.HttpClient;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.observers.TestSubscriber;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class HttpServerCompressionTest {
+
+    private static final String CHUNK = "{\"name\": \"rxnetty\", \"description\": \"reactive netty\"}";
+
+    private HttpServer<ByteBuf, ByteBuf> server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.newServer()
+                           .enableCompression(100)
+                           .start(new RequestHandler<ByteBuf, ByteBuf>() {
+                               @Override
+                               public Observable<Void> handle(HttpServerRequest<ByteBuf> request,
+                                                              HttpServerResponse<ByteBuf> response) {
+                                   switch (request.getDecodedPath()) {
+                                   case "/small":
+                                       return response.setHeader(HttpHeaderNames.CONTENT_LENGTH, CHUNK.length())
+                                                      .writeString(Observable.just(CHUNK));
+                                   case "/png":
+                                       return response.setHeader(HttpHeaderNames.CONTENT_TYPE, "image/png")
+                                                      .writeString(Observable.just(CHUNK));
+                                   default:
+                                       return response.writeStringAndFlushOnEach(Observable.just(CHUNK, CHUNK,
+                                                                                                 CHUNK));
+                                   }
+                               }
+                           });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        server.awaitShutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void testGzipStreamingResponse() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            /*Repeated, to use pooled deflaters.*/
+            ReceivedResponse response = sendRequest("/stream", "gzip, deflate");
+
+            assertThat("Unexpected content encoding.", response.contentEncoding, is("gzip"));
+            assertThat("Unexpected content.", inflate(new GZIPInputStream(response.inputStream())),
+                       is(CHUNK + CHUNK + CHUNK));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testDeflateResponse() throws Exception {
+        ReceivedResponse response = sendRequest("/stream", "gzip;q=0.5, deflate");
+
+        assertThat("Unexpected content encoding.", response.contentEncoding, is("deflate"));
+        assertThat("Unexpected content.", inflate(new InflaterInputStream(response.inputStream())),
+                   is(CHUNK + CHUNK + CHUNK));
+    }
+
+    @Test(timeout = 60000)
+    public void testNotCompressedWithoutAcceptEncoding() throws Exception {
+        ReceivedResponse response = sendRequest("/stream", null);
+
+        assertThat("Unexpected content encoding.", response.contentEncoding, is(nullValue()));
+        assertThat("Vary header not set.", response.vary, is("accept-encoding"));
+        assertThat("Unexpected content.", new String(response.content, CharsetUtil.UTF_8), is(CHUNK + CHUNK + CHUNK));
+    }
+
+    @Test(timeout = 60000)
+    public void testSmallResponseNotCompressed() throws Exception {
+        ReceivedResponse response = sendRequest("/small", "gzip");
+
+        assertThat("Small response compressed.", response.contentEncoding, is(nullValue()));
+        assertThat("Unexpected content.", new String(response.content, CharsetUtil.UTF_8), is(CHUNK));
+    }
+
+    @Test(timeout = 60000)
+    public void testCompressedContentTypeNotCompressed() throws Exception {
+        ReceivedResponse response = sendRequest("/png", "gzip");
+
+        assertThat("Image response compressed.", response.contentEncoding, is(nullValue()));
+        assertThat("Unexpected content.", new String(response.content, CharsetUtil.UTF_8), is(CHUNK));
+    }
+
+    @Test(timeout = 60000)
+    public void testEncodingSelection() throws Exception {
+        assertThat("Unexpected encoding.", HttpServerCompressor.selectEncoding("deflate, gzip"), is("gzip"));
+        assertThat("Unexpected encoding.", HttpServerCompressor.selectEncoding("gzip;q=0.2, deflate;q=0.8"),
+                   is("deflate"));
+        assertThat("Unexpected encoding.", HttpServerCompressor.selectEncoding("*"), is("gzip"));
+        assertThat("Unexpected encoding.", HttpServerCompressor.selectEncoding("gzip;q=0, identity"),
+                   is(nullValue()));
+        assertThat("Unexpected encoding.", HttpServerCompressor.selectEncoding("br"), is(nullValue()));
+    }
+
+    @Test(timeout = 60000)
+    public void testFullResponseConsumesAcceptEncoding() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpServerCompressor(0));
+        channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/full"));
+        HttpRequest second = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/streaming");
+        second.headers().set(HttpHeaderNames.ACCEPT_ENCODING, HttpHeaderValues.GZIP);
+        channel.writeInbound(second);
+
+        channel.writeOutbound(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                                                          Unpooled.copiedBuffer(CHUNK, CharsetUtil.UTF_8)));
+        channel.writeOutbound(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+
+        FullHttpResponse full = channel.readOutbound();
+        assertThat("Full response compressed.", full.headers().get(HttpHeaderNames.CONTENT_ENCODING),
+                   is(nullValue()));
+        full.release();
+
+        HttpResponse streaming = channel.readOutbound();
+        assertThat("Response not compressed with the encoding accepted by its request.",
+                   streaming.headers().get(HttpHeaderNames.CONTENT_ENCODING), is("gzip"));
+
+        channel.finishAndReleaseAll();
+    }
+
+    private ReceivedResponse sendRequest(String uri, String acceptEncoding) {
+        HttpClient<ByteBuf, ByteBuf> client = HttpClient.newClient(new InetSocketAddress("127.0.0.1",
+                                                                                         server.getServerPort()));
+        TestSubscriber<ReceivedResponse> subscriber = new TestSubscriber<>();
+        Observable<HttpClientResponse<ByteBuf>> request = null == acceptEncoding
+                ? client.createGet(uri)
+                : client.createGet(uri).setHeader(HttpHeaderNames.ACCEPT_ENCODING, acceptEncoding);
+
+        request.flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<ReceivedResponse>>() {
+            @Override
+            public Observable<ReceivedResponse> call(final HttpClientResponse<ByteBuf> response) {
+                return response.getContent()
+                               .reduce(new ByteArrayOutputStream(),
+                                       new Func2<ByteArrayOutputStream, ByteBuf, ByteArrayOutputStream>() {
+                                           @Override
+                                           public ByteArrayOutputStream call(ByteArrayOutputStream out,
+                                                                             ByteBuf content) {
+                                               byte[] bytes = new byte[content.readableBytes()];
+                                               content.readBytes(bytes);
+                                               content.release();
+                                               out.write(bytes, 0, bytes.length);
+                                               return out;
+                                           }
+                                       })
+                               .map(new Func1<ByteArrayOutputStream, ReceivedResponse>() {
+                                   @Override
+                                   public ReceivedResponse call(ByteArrayOutputStream out) {
+                                       return new ReceivedResponse(response, out.toByteArray());
+                                   }
+                               });
+            }
+        }).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        return subscriber.getOnNextEvents().get(0);
+    }
+
+    private static String inflate(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), CharsetUtil.UTF_8);
+    }
+
+    private static class ReceivedResponse {
+
+        private final String contentEncoding;
+        private final String vary;
+        private final byte[] content;
+
+        private ReceivedResponse(HttpClientResponse<ByteBuf> response, byte[] content) {
+            contentEncoding = response.getHeader(HttpHeaderNames.CONTENT_ENCODING);
+            vary = response.getHeader(HttpHeaderNames.VARY);
+            this.content = content;
+        }
+
+        private InputStream inputStream() {
+            return new ByteArrayInputStream(content);
+        }
+    }
+}
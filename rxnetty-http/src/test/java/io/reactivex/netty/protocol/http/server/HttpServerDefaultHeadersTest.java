@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.reactivex.netty.protocol.http.client.HttpClient;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import org.junit.After;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+
+import java.net.InetSocketAddress;
+import java.util.Date;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class HttpServerDefaultHeadersTest {
+
+    private HttpServer<ByteBuf, ByteBuf> server;
+
+    @After
+    public void tearDown() throws Exception {
+        if (null != server) {
+            server.shutdown();
+            server.awaitShutdown();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testDateHeader() throws Exception {
+        server = HttpServer.newServer().enableDateHeader().start(new HelloHandler());
+
+        long before = System.currentTimeMillis() / 1000 * 1000;
+        HttpClientResponse<ByteBuf> response = sendRequest();
+        long after = System.currentTimeMillis();
+
+        String date = response.getHeader(HttpHeaderNames.DATE);
+        assertThat("Date header not set.", date, is(notNullValue()));
+        Date parsed = DateFormatter.parseHttpDate(date);
+        assertThat("Date header not parseable.", parsed, is(notNullValue()));
+        assertThat("Unexpected date.", parsed.getTime(), allOf(greaterThanOrEqualTo(before),
+                                                               lessThanOrEqualTo(after)));
+    }
+
+    @Test(timeout = 60000)
+    public void testConstantHeaders() throws Exception {
+        server = HttpServer.newServer()
+                           .addResponseHeader(HttpHeaderNames.SERVER, "rxnetty")
+                           .addResponseHeader("X-Overridden", "default")
+                           .start(new HelloHandler());
+
+        HttpClientResponse<ByteBuf> response = sendRequest();
+
+        assertThat("Unexpected server header.", response.getHeader(HttpHeaderNames.SERVER), is("rxnetty"));
+        assertThat("Header not overridden by handler.", response.getAllHeaderValues("X-Overridden"),
+                   contains("handler"));
+        assertThat("Date header set when not enabled.", response.containsHeader(HttpHeaderNames.DATE), is(false));
+    }
+
+    @Test(timeout = 60000)
+    public void testDateCachedWithinASecond() throws Exception {
+        long now = System.currentTimeMillis();
+        if (now % 1000 > 900) {
+            /*Avoids crossing a second boundary between the two calls.*/
+            Thread.sleep(150);
+        }
+        assertThat("Date not cached.", DefaultResponseHeaders.currentDate(),
+                   is(sameInstance(DefaultResponseHeaders.currentDate())));
+    }
+
+    private HttpClientResponse<ByteBuf> sendRequest() {
+        TestSubscriber<HttpClientResponse<ByteBuf>> subscriber = new TestSubscriber<>();
+        HttpClient.newClient(new InetSocketAddress("127.0.0.1", server.getServerPort()))
+                  .createGet("/")
+                  .flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<HttpClientResponse<ByteBuf>>>() {
+                      @Override
+                      public Observable<HttpClientResponse<ByteBuf>> call(HttpClientResponse<ByteBuf> response) {
+                          return response.discardContent()
+                                         .ignoreElements()
+                                         .map(new Func1<Void, HttpClientResponse<ByteBuf>>() {
+                                             @Override
+                                             public HttpClientResponse<ByteBuf> call(Void aVoid) {
+                                                 return null; /*Never invoked as there are no elements.*/
+                                             }
+                                         })
+                                         .concatWith(Observable.just(response));
+                      }
+                  })
+                  .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        return subscriber.getOnNextEvents().get(0);
+    }
+
+    private static class HelloHandler implements RequestHandler<ByteBuf, ByteBuf> {
+
+        @Override
+        public Observable<Void> handle(HttpServerRequest<ByteBuf> request, HttpServerResponse<ByteBuf> response) {
+            return response.setHeader("X-Overridden", "handler")
+                           .writeString(Observable.just("Hello"));
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.HttpConversionUtil.ExtensionHeaderNames;
+import io.netty.util.CharsetUtil;
+import io.reactivex.netty.protocol.http.client.HttpClient;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.observers.TestSubscriber;
+import rx.subjects.BehaviorSubject;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class HttpServerHttp2Test {
+
+    private HttpServer<ByteBuf, ByteBuf> server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.newServer()
+                           .http2(100)
+                           .start(new RequestHandler<ByteBuf, ByteBuf>() {
+                               @Override
+                               public Observable<Void> handle(final HttpServerRequest<ByteBuf> request,
+                                                              final HttpServerResponse<ByteBuf> response) {
+                                   final String protocol =
+                                           request.containsHeader(ExtensionHeaderNames.STREAM_ID.text())
+                                                   ? "h2" : "http/1.1";
+                                   return request.getContent()
+                                                 .map(new Func1<ByteBuf, String>() {
+                                                     @Override
+                                                     public String call(ByteBuf content) {
+                                                         return content.toString(CharsetUtil.UTF_8);
+                                                     }
+                                                 })
+                                                 .reduce(protocol + " " + request.getUri(),
+                                                         new Func2<String, String, String>() {
+                                                             @Override
+                                                             public String call(String s, String content) {
+                                                                 return s + " " + content;
+                                                             }
+                                                         })
+                                                 .flatMap(new Func1<String, Observable<Void>>() {
+                                                     @Override
+                                                     public Observable<Void> call(String echo) {
+                                                         return response.writeString(Observable.just(echo));
+                                                     }
+                                                 });
+                               }
+                           });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        server.awaitShutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void testPriorKnowledgeStreams() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newClient().http2(10);
+
+        List<Observable<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            responses.add(client.createGet("/" + i).flatMap(new ContentToString()));
+        }
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        Observable.merge(responses).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+
+        assertThat("Unexpected responses.", subscriber.getOnNextEvents(),
+                   containsInAnyOrder("h2 /0", "h2 /1", "h2 /2", "h2 /3", "h2 /4"));
+    }
+
+    @Test(timeout = 60000)
+    public void testStreamWithRequestContent() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newClient().http2(10);
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        client.createPost("/echo")
+              .writeStringContent(Observable.just("Hello"))
+              .flatMap(new ContentToString())
+              .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        subscriber.assertValue("h2 /echo Hello");
+    }
+
+    @Test(timeout = 60000)
+    public void testContentLargerThanFlowControlWindow() throws Exception {
+        HttpClient<ByteBuf, ByteBuf> client = newClient().http2(10);
+
+        /*Echoed content is larger than the client window, so window updates are received by the stream.*/
+        final String content = new String(new char[100 * 1024]).replace('\0', 'a');
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        client.createPost("/large")
+              .writeStringContent(Observable.just(content))
+              .flatMap(new ContentToString())
+              .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        subscriber.assertValueCount(1);
+
+        /*Content chunks are echoed separated by a space.*/
+        assertThat("Unexpected response.", subscriber.getOnNextEvents().get(0).replace(" ", ""),
+                   equalTo("h2/large" + content));
+    }
+
+    @Test(timeout = 60000)
+    public void testHttp1StillAccepted() throws Exception {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        newClient().createGet("/1").flatMap(new ContentToString()).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        subscriber.assertValue("http/1.1 /1");
+    }
+
+    @Test(timeout = 60000)
+    public void testH2cUpgrade() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", server.getServerPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /upgrade HTTP/1.1\r\n"
+                       + "Host: localhost\r\n"
+                       + "Connection: Upgrade, HTTP2-Settings\r\n"
+                       + "Upgrade: h2c\r\n"
+                       + "HTTP2-Settings: AAMAAABkAARAAAAAAAIAAAAA\r\n"
+                       + "\r\n").getBytes(CharsetUtil.US_ASCII));
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            byte[] statusLine = new byte["HTTP/1.1 101".length()];
+            int read = 0;
+            while (read < statusLine.length) {
+                int count = in.read(statusLine, read, statusLine.length - read);
+                assertThat("Connection closed before upgrade response.", count, greaterThan(0));
+                read += count;
+            }
+
+            assertThat("Unexpected upgrade response.", new String(statusLine, CharsetUtil.US_ASCII),
+                       is("HTTP/1.1 101"));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testConnectionWindowBoundsSlowStreams() throws Exception {
+        final int streams = 4;
+        final int contentLength = 64 * 1024;
+        final AtomicLong bytesRead = new AtomicLong();
+        final CountDownLatch requestsReceived = new CountDownLatch(streams);
+        final BehaviorSubject<Boolean> consume = BehaviorSubject.create();
+
+        HttpServer<ByteBuf, ByteBuf> slowServer =
+                HttpServer.newServer()
+                          .http2(100)
+                          .<ByteBuf, ByteBuf>addChannelHandlerFirst("bytes-read-counter", new Func0<ChannelHandler>() {
+                              @Override
+                              public ChannelHandler call() {
+                                  return new ChannelInboundHandlerAdapter() {
+                                      @Override
+                                      public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                                          bytesRead.addAndGet(((ByteBuf) msg).readableBytes());
+                                          super.channelRead(ctx, msg);
+                                      }
+                                  };
+                              }
+                          })
+                          .start(new RequestHandler<ByteBuf, ByteBuf>() {
+                              @Override
+                              public Observable<Void> handle(final HttpServerRequest<ByteBuf> request,
+                                                             final HttpServerResponse<ByteBuf> response) {
+                                  requestsReceived.countDown();
+                                  return consume.first()
+                                                .flatMap(new Func1<Boolean, Observable<Integer>>() {
+                                                    @Override
+                                                    public Observable<Integer> call(Boolean aBoolean) {
+                                                        return new ContentLength().call(request.getContent());
+                                                    }
+                                                })
+                                                .flatMap(new Func1<Integer, Observable<Void>>() {
+                                                    @Override
+                                                    public Observable<Void> call(Integer length) {
+                                                        return response.writeString(Observable.just("" + length));
+                                                    }
+                                                });
+                              }
+                          });
+
+        try {
+            HttpClient<ByteBuf, ByteBuf> client =
+                    HttpClient.newClient(new InetSocketAddress("127.0.0.1", slowServer.getServerPort())).http2(10);
+
+            List<Observable<String>> responses = new ArrayList<>();
+            for (int i = 0; i < streams; i++) {
+                responses.add(client.createPost("/" + i)
+                                    .writeContent(Observable.just(Unpooled.wrappedBuffer(new byte[contentLength])))
+                                    .flatMap(new ContentToString()));
+            }
+
+            TestSubscriber<String> subscriber = new TestSubscriber<>();
+            Observable.merge(responses).subscribe(subscriber);
+
+            assertThat("Requests not received.", requestsReceived.await(30, TimeUnit.SECONDS), is(true));
+            /*Give the client time to send more than the connection window if it was returned without demand.*/
+            Thread.sleep(500);
+
+            assertThat("Content read beyond the connection window without demand.", bytesRead.get(),
+                       lessThan((long) 2 * Http2CodecUtil.DEFAULT_WINDOW_SIZE));
+
+            consume.onNext(true);
+
+            subscriber.awaitTerminalEvent();
+            subscriber.assertNoErrors();
+
+            assertThat("Unexpected responses.", subscriber.getOnNextEvents(), contains("" + contentLength,
+                                                                                       "" + contentLength,
+                                                                                       "" + contentLength,
+                                                                                       "" + contentLength));
+            assertThat("Content not read.", bytesRead.get(), greaterThan((long) streams * contentLength));
+        } finally {
+            slowServer.shutdown();
+            slowServer.awaitShutdown();
+        }
+    }
+
+    private HttpClient<ByteBuf, ByteBuf> newClient() {
+        return HttpClient.newClient(new InetSocketAddress("127.0.0.1", server.getServerPort()));
+    }
+
+    private static class ContentLength implements Func1<Observable<ByteBuf>, Observable<Integer>> {
+
+        @Override
+        public Observable<Integer> call(Observable<ByteBuf> content) {
+            return content.map(new Func1<ByteBuf, Integer>() {
+                              @Override
+                              public Integer call(ByteBuf byteBuf) {
+                                  return byteBuf.readableBytes();
+                              }
+                          })
+                          .reduce(0, new Func2<Integer, Integer, Integer>() {
+                              @Override
+                              public Integer call(Integer sum, Integer length) {
+                                  return sum + length;
+                              }
+                          });
+        }
+    }
+
+    private static class ContentToString implements Func1<HttpClientResponse<ByteBuf>, Observable<String>> {
+
+        @Override
+        public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+            return response.getContent()
+                           .map(new Func1<ByteBuf, String>() {
+                               @Override
+                               public String call(ByteBuf byteBuf) {
+                                   return byteBuf.toString(CharsetUtil.UTF_8);
+                               }
+                           })
+                           .reduce("", new Func2<String, String, String>() {
+                               @Override
+                               public String call(String s, String s2) {
+                                   return s + s2;
+                               }
+                           });
+        }
+    }
+}
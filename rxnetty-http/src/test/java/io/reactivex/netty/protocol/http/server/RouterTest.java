@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.CharsetUtil;
+import io.reactivex.netty.protocol.http.client.HttpClient;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.observers.TestSubscriber;
+
+import java.net.InetSocketAddress;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class RouterTest {
+
+    private HttpServer<ByteBuf, ByteBuf> server;
+    private HttpClient<ByteBuf, ByteBuf> client;
+
+    @Before
+    public void setUp() throws Exception {
+        Router<ByteBuf, ByteBuf> router = Router.<ByteBuf, ByteBuf>newRouter()
+                                                .get("/", new EchoRouteHandler("root"))
+                                                .get("/users", new EchoRouteHandler("list"))
+                                                .get("/users/new", new EchoRouteHandler("new"))
+                                                .get("/users/{id}", new EchoRouteHandler("get"))
+                                                .put("/users/{id}", new EchoRouteHandler("put"))
+                                                .get("/users/{id}/posts/{post}", new EchoRouteHandler("post"))
+                                                .get("/userspace", new EchoRouteHandler("userspace"))
+                                                .get("/files/{*path}", new EchoRouteHandler("files"));
+        server = HttpServer.newServer().start(router);
+        client = HttpClient.newClient(new InetSocketAddress("127.0.0.1", server.getServerPort()));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        server.awaitShutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void testStaticRoutes() throws Exception {
+        assertThat("Unexpected route.", sendRequest(client.createGet("/")), is("root {}"));
+        assertThat("Unexpected route.", sendRequest(client.createGet("/users")), is("list {}"));
+        assertThat("Unexpected route.", sendRequest(client.createGet("/userspace")), is("userspace {}"));
+        assertThat("Unexpected route.", sendRequest(client.createGet("/users?limit=10")), is("list {}"));
+    }
+
+    @Test(timeout = 60000)
+    public void testParameters() throws Exception {
+        assertThat("Unexpected route.", sendRequest(client.createGet("/users/42")), is("get {id=42}"));
+        assertThat("Unexpected route.", sendRequest(client.createGet("/users/42/posts/7?x=y")),
+                   is("post {id=42, post=7}"));
+        assertThat("Parameter not decoded.", sendRequest(client.createGet("/users/a%20b+c")),
+                   is("get {id=a b+c}"));
+    }
+
+    @Test(timeout = 60000)
+    public void testStaticPreferredOverParameter() throws Exception {
+        assertThat("Unexpected route.", sendRequest(client.createGet("/users/new")), is("new {}"));
+        assertThat("Unexpected route.", sendRequest(client.createGet("/users/newer")), is("get {id=newer}"));
+    }
+
+    @Test(timeout = 60000)
+    public void testCatchAll() throws Exception {
+        assertThat("Unexpected route.", sendRequest(client.createGet("/files/a/b/c.txt")),
+                   is("files {path=a/b/c.txt}"));
+    }
+
+    @Test(timeout = 60000)
+    public void testMethodDispatch() throws Exception {
+        assertThat("Unexpected route.", sendRequest(client.createPut("/users/1")), is("put {id=1}"));
+        assertThat("Unexpected status.", getStatus(client.createPost("/users/1")),
+                   is(HttpResponseStatus.METHOD_NOT_ALLOWED));
+        assertThat("HEAD not routed to GET.", getStatus(client.createHead("/users/1")), is(HttpResponseStatus.OK));
+    }
+
+    @Test(timeout = 60000)
+    public void testNotFound() throws Exception {
+        assertThat("Unexpected status.", getStatus(client.createGet("/unknown")), is(HttpResponseStatus.NOT_FOUND));
+        assertThat("Unexpected status.", getStatus(client.createGet("/users/1/")), is(HttpResponseStatus.NOT_FOUND));
+        assertThat("Unexpected status.", getStatus(client.createGet("/users/1/posts/")),
+                   is(HttpResponseStatus.NOT_FOUND));
+    }
+
+    @Test(timeout = 60000)
+    public void testInvalidTemplates() throws Exception {
+        Router<ByteBuf, ByteBuf> router = Router.newRouter();
+        router.get("/a/{id}", new EchoRouteHandler("a"));
+        assertInvalid(router, "a");
+        assertInvalid(router, "/a{id}");
+        assertInvalid(router, "/{*rest}/b");
+        assertInvalid(router, "/{id}/{id}");
+        assertInvalid(router, "/a/{name}");
+        assertInvalid(router, "/a/{id}");
+    }
+
+    private static void assertInvalid(Router<ByteBuf, ByteBuf> router, String template) {
+        try {
+            router.addRoute(HttpMethod.GET, template, new EchoRouteHandler("invalid"));
+            throw new AssertionError("Invalid template accepted: " + template);
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static String sendRequest(HttpClientRequest<ByteBuf, ByteBuf> request) {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        request.flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<String>>() {
+            @Override
+            public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+                return response.getContent()
+                               .reduce("", new Func2<String, ByteBuf, String>() {
+                                   @Override
+                                   public String call(String content, ByteBuf buf) {
+                                       String toReturn = content + buf.toString(CharsetUtil.UTF_8);
+                                       buf.release();
+                                       return toReturn;
+                                   }
+                               });
+            }
+        }).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        return subscriber.getOnNextEvents().get(0);
+    }
+
+    private static HttpResponseStatus getStatus(HttpClientRequest<ByteBuf, ByteBuf> request) {
+        TestSubscriber<HttpResponseStatus> subscriber = new TestSubscriber<>();
+        request.flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<HttpResponseStatus>>() {
+            @Override
+            public Observable<HttpResponseStatus> call(final HttpClientResponse<ByteBuf> response) {
+                return response.discardContent()
+                               .ignoreElements()
+                               .map(new Func1<Void, HttpResponseStatus>() {
+                                   @Override
+                                   public HttpResponseStatus call(Void aVoid) {
+                                       return null; /*Never invoked as there are no elements.*/
+                                   }
+                               })
+                               .concatWith(Observable.just(response.getStatus()));
+            }
+        }).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        return subscriber.getOnNextEvents().get(0);
+    }
+
+    private static class EchoRouteHandler implements RouteHandler<ByteBuf, ByteBuf> {
+
+        private final String name;
+
+        private EchoRouteHandler(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Observable<Void> handle(HttpServerRequest<ByteBuf> request, HttpServerResponse<ByteBuf> response,
+                                       PathParameters parameters) {
+            String content = name + ' ' + parameters.toString().substring("PathParameters".length());
+            return response.setHeader(HttpHeaderNames.CONTENT_LENGTH, content.length())
+                           .writeString(Observable.just(content));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.CharsetUtil;
+import io.reactivex.netty.protocol.http.client.HttpClient;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.observers.TestSubscriber;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class StaticFileHandlerTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private String fileContent;
+    private HttpServer<ByteBuf, ByteBuf> server;
+
+    @Before
+    public void setUp() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; content.length() < 64 * 1024; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+        fileContent = content.toString();
+
+        Path root = folder.newFolder("www").toPath();
+        Files.write(root.resolve("file.txt"), fileContent.getBytes(CharsetUtil.UTF_8));
+        Files.write(folder.getRoot().toPath().resolve("secret.txt"), "secret".getBytes(CharsetUtil.UTF_8));
+
+        server = HttpServer.newServer().start(StaticFileHandler.<ByteBuf, ByteBuf>create(root));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        server.awaitShutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void testFullContent() throws Exception {
+        ReceivedResponse response = sendRequest(newClient().createGet("/file.txt"));
+
+        assertThat("Unexpected status.", response.status, is(HttpResponseStatus.OK));
+        assertThat("Unexpected content length.", response.contentLength, is(String.valueOf(fileContent.length())));
+        assertThat("Unexpected content type.", response.contentType, is("text/plain"));
+        assertThat("ETag not set.", response.etag, is(notNullValue()));
+        assertThat("Unexpected content.", response.content, equalTo(fileContent));
+    }
+
+    @Test(timeout = 60000)
+    public void testRange() throws Exception {
+        ReceivedResponse response = sendRequest(newClient().createGet("/file.txt")
+                                                           .setHeader(HttpHeaderNames.RANGE, "bytes=10-19"));
+
+        assertThat("Unexpected status.", response.status, is(HttpResponseStatus.PARTIAL_CONTENT));
+        assertThat("Unexpected content range.", response.contentRange,
+                   is("bytes 10-19/" + fileContent.length()));
+        assertThat("Unexpected content.", response.content, equalTo(fileContent.substring(10, 20)));
+
+        response = sendRequest(newClient().createGet("/file.txt")
+                                          .setHeader(HttpHeaderNames.RANGE, "bytes=" + fileContent.length() + '-'));
+
+        assertThat("Unexpected status.", response.status, is(HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE));
+        assertThat("Unexpected content range.", response.contentRange, is("bytes */" + fileContent.length()));
+    }
+
+    @Test(timeout = 60000)
+    public void testConditionalRequest() throws Exception {
+        ReceivedResponse response = sendRequest(newClient().createGet("/file.txt"));
+
+        ReceivedResponse notModified = sendRequest(newClient().createGet("/file.txt")
+                                                              .setHeader(HttpHeaderNames.IF_NONE_MATCH,
+                                                                         response.etag));
+        assertThat("Unexpected status.", notModified.status, is(HttpResponseStatus.NOT_MODIFIED));
+        assertThat("Unexpected content.", notModified.content, isEmptyString());
+
+        ReceivedResponse modified = sendRequest(newClient().createGet("/file.txt")
+                                                           .setHeader(HttpHeaderNames.IF_NONE_MATCH, "\"other\""));
+        assertThat("Unexpected status.", modified.status, is(HttpResponseStatus.OK));
+    }
+
+    @Test(timeout = 60000)
+    public void testNotFound() throws Exception {
+        assertThat("Unexpected status.", sendRequest(newClient().createGet("/missing.txt")).status,
+                   is(HttpResponseStatus.NOT_FOUND));
+        assertThat("Unexpected status for a directory.", sendRequest(newClient().createGet("/")).status,
+                   is(HttpResponseStatus.NOT_FOUND));
+        assertThat("Unexpected status for a path outside root.",
+                   sendRequest(newClient().createGet("/%2e%2e/secret.txt")).status,
+                   is(HttpResponseStatus.NOT_FOUND));
+    }
+
+    @Test(timeout = 60000)
+    public void testCompressedContent() throws Exception {
+        HttpServer<ByteBuf, ByteBuf> compressingServer =
+                HttpServer.newServer()
+                          .enableCompression(100)
+                          .start(StaticFileHandler.<ByteBuf, ByteBuf>create(folder.getRoot().toPath()
+                                                                                  .resolve("www")));
+        try {
+            HttpClient<ByteBuf, ByteBuf> client =
+                    HttpClient.newClient(new InetSocketAddress("127.0.0.1", compressingServer.getServerPort()))
+                              .enableDecompression();
+            ReceivedResponse response = sendRequest(client.createGet("/file.txt"));
+
+            assertThat("Unexpected status.", response.status, is(HttpResponseStatus.OK));
+            assertThat("Unexpected content.", response.content, equalTo(fileContent));
+        } finally {
+            compressingServer.shutdown();
+            compressingServer.awaitShutdown();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testRangeParsing() throws Exception {
+        assertThat("Unexpected range.", FileSender.parseRange("bytes=0-99", 50), is(new long[] {0, 49}));
+        assertThat("Unexpected range.", FileSender.parseRange("bytes=-10", 50), is(new long[] {40, 49}));
+        assertThat("Unexpected range.", FileSender.parseRange("bytes=45-", 50), is(new long[] {45, 49}));
+        assertThat("Unsatisfiable range.", FileSender.parseRange("bytes=50-", 50), is(nullValue()));
+        assertThat("Multiple ranges not ignored.", FileSender.parseRange("bytes=0-1,5-6", 50), is(new long[0]));
+        assertThat("Malformed range not ignored.", FileSender.parseRange("bytes=5-1", 50), is(new long[0]));
+    }
+
+    private HttpClient<ByteBuf, ByteBuf> newClient() {
+        return HttpClient.newClient(new InetSocketAddress("127.0.0.1", server.getServerPort()));
+    }
+
+    private static ReceivedResponse sendRequest(HttpClientRequest<ByteBuf, ByteBuf> request) {
+        TestSubscriber<ReceivedResponse> subscriber = new TestSubscriber<>();
+        request.flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<ReceivedResponse>>() {
+            @Override
+            public Observable<ReceivedResponse> call(final HttpClientResponse<ByteBuf> response) {
+                return response.getContent()
+                               .reduce(new StringBuilder(), new Func2<StringBuilder, ByteBuf, StringBuilder>() {
+                                   @Override
+                                   public StringBuilder call(StringBuilder content, ByteBuf buf) {
+                                       content.append(buf.toString(CharsetUtil.UTF_8));
+                                       buf.release();
+                                       return content;
+                                   }
+                               })
+                               .map(new Func1<StringBuilder, ReceivedResponse>() {
+                                   @Override
+                                   public ReceivedResponse call(StringBuilder content) {
+                                       return new ReceivedResponse(response, content.toString());
+                                   }
+                               });
+            }
+        }).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertNoErrors();
+        return subscriber.getOnNextEvents().get(0);
+    }
+
+    private static class ReceivedResponse {
+
+        private final HttpResponseStatus status;
+        private final String contentLength;
+        private final String contentType;
+        private final String contentRange;
+        private final String etag;
+        private final String content;
+
+        private ReceivedResponse(HttpClientResponse<ByteBuf> response, String content) {
+            status = response.getStatus();
+            contentLength = response.getHeader(HttpHeaderNames.CONTENT_LENGTH);
+            contentType = response.getHeader(HttpHeaderNames.CONTENT_TYPE);
+            contentRange = response.getHeader(HttpHeaderNames.CONTENT_RANGE);
+            etag = response.getHeader(HttpHeaderNames.ETAG);
+            this.content = content;
+        }
+    }
+}
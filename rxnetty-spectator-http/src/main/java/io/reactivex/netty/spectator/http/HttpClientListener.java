@@ -17,6 +17,7 @@
 
 package io.reactivex.netty.spectator.http;
 
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Spectator;
 import io.reactivex.netty.protocol.http.client.events.HttpClientEventsListener;
@@ -26,6 +27,8 @@ import io.reactivex.netty.spectator.tcp.TcpClientListener;
 
 import java.util.concurrent.TimeUnit;
 
+import static io.reactivex.netty.spectator.internal.SpectatorUtils.*;
+
 /**
  * HttpClientListener.
  */
@@ -34,6 +37,8 @@ public class HttpClientListener extends HttpClientEventsListener {
     private final EventMetric requestWrite;
     private final EventMetric requestProcessing;
     private final EventMetric response;
+    private final Counter retries;
+    private final Counter retryBudgetExhausted;
 
     private final ResponseCodesHolder responseCodesHolder;
     private final TcpClientListener tcpDelegate;
@@ -42,6 +47,8 @@ public class HttpClientListener extends HttpClientEventsListener {
         requestWrite = new EventMetric(registry, "request", monitorId, "action", "write");
         requestProcessing = new EventMetric(registry, "request", monitorId, "action", "processing");
         response = new EventMetric(registry, "response", monitorId, "action", "read");
+        retries = newCounter(registry, "request", monitorId, "action", "retry");
+        retryBudgetExhausted = newCounter(registry, "request", monitorId, "action", "retryBudgetExhausted");
 
         responseCodesHolder = new ResponseCodesHolder(registry, monitorId);
         tcpDelegate = new TcpClientListener(registry, monitorId);
@@ -76,6 +83,16 @@ public class HttpClientListener extends HttpClientEventsListener {
         response.failure();
     }
 
+    @Override
+    public void onRequestRetry(int retryCount, long backoff, TimeUnit timeUnit) {
+        retries.increment();
+    }
+
+    @Override
+    public void onRetryBudgetExhausted() {
+        retryBudgetExhausted.increment();
+    }
+
     @Override
     public void onRequestWriteComplete(long duration, TimeUnit timeUnit) {
         requestWrite.success(duration, timeUnit);
@@ -158,6 +175,21 @@ public class HttpClientListener extends HttpClientEventsListener {
         tcpDelegate.onPoolAcquireFailed(duration, timeUnit, throwable);
     }
 
+    @Override
+    public void onPoolAcquireWaitStart(int pendingAcquires) {
+        tcpDelegate.onPoolAcquireWaitStart(pendingAcquires);
+    }
+
+    @Override
+    public void onPoolAcquireWaitSuccess(long duration, TimeUnit timeUnit) {
+        tcpDelegate.onPoolAcquireWaitSuccess(duration, timeUnit);
+    }
+
+    @Override
+    public void onPoolAcquireWaitFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        tcpDelegate.onPoolAcquireWaitFailed(duration, timeUnit, throwable);
+    }
+
     @Override
     public void onPoolAcquireSuccess(long duration, TimeUnit timeUnit) {
         tcpDelegate.onPoolAcquireSuccess(duration, timeUnit);
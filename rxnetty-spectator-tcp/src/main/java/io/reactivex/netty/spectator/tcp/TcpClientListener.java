@@ -24,6 +24,7 @@ import io.reactivex.netty.protocol.tcp.client.events.TcpClientEventListener;
 import io.reactivex.netty.spectator.internal.EventMetric;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.reactivex.netty.spectator.internal.SpectatorUtils.*;
 
@@ -36,6 +37,8 @@ public class TcpClientListener extends TcpClientEventListener {
     private final EventMetric connectionClose;
     private final EventMetric poolAcquire;
     private final EventMetric poolRelease;
+    private final EventMetric poolAcquireWait;
+    private final AtomicInteger pendingPoolAcquires;
     private final Counter poolEvictions;
     private final Counter poolReuse;
 
@@ -51,6 +54,9 @@ public class TcpClientListener extends TcpClientEventListener {
         connectionClose = new EventMetric(registry, "connection", monitorId, "action", "handle");
         poolAcquire = new EventMetric(registry, "connection.pool", monitorId, "action", "acquire");
         poolRelease = new EventMetric(registry, "connection.pool", monitorId, "action", "release");
+        poolAcquireWait = new EventMetric(registry, "connection.pool", monitorId, "action", "acquireWait");
+        pendingPoolAcquires = newGauge(registry, "connection.pool", monitorId, new AtomicInteger(), "action",
+                                       "pendingAcquires");
         poolEvictions = newCounter(registry, "connection.pool", monitorId, "action", "evict");
         poolReuse = newCounter(registry, "connection.pool", monitorId, "action", "reuse");
 
@@ -130,6 +136,24 @@ public class TcpClientListener extends TcpClientEventListener {
         poolAcquire.failure(duration, timeUnit);
     }
 
+    @Override
+    public void onPoolAcquireWaitStart(int pendingAcquires) {
+        pendingPoolAcquires.incrementAndGet();
+        poolAcquireWait.start();
+    }
+
+    @Override
+    public void onPoolAcquireWaitSuccess(long duration, TimeUnit timeUnit) {
+        pendingPoolAcquires.decrementAndGet();
+        poolAcquireWait.success(duration, timeUnit);
+    }
+
+    @Override
+    public void onPoolAcquireWaitFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        pendingPoolAcquires.decrementAndGet();
+        poolAcquireWait.failure(duration, timeUnit);
+    }
+
     @Override
     public void onPoolAcquireSuccess(long duration, TimeUnit timeUnit) {
         poolAcquire.success(duration, timeUnit);
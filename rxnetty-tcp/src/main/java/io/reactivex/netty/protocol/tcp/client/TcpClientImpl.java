@@ -267,7 +267,8 @@ public final class TcpClientImpl<W, R> extends TcpClient<W, R> {
                                                                                  hostEventPublisher);
             return new HostConnector<>(host, new TerminalConnectionProvider<>(hostEventPublisher, host,
                                                                               channelProvider, state),
-                                       hostEventPublisher, hostEventPublisher, hostEventPublisher);
+                                       TcpClientEventPublisher.asClientEventSource(hostEventPublisher),
+                                       hostEventPublisher, hostEventPublisher);
         }
     }
 
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.tcp.client.events;
+
+import io.reactivex.netty.client.events.ClientEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adapts a {@link ClientEventListener}, that is not a {@link TcpClientEventListener}, so that it can be subscribed to a
+ * {@link TcpClientEventPublisher}, eg: listeners created by load balancing strategies which are agnostic of the
+ * protocol.
+ */
+final class ClientEventListenerAdapter extends TcpClientEventListener {
+
+    private final ClientEventListener delegate;
+
+    ClientEventListenerAdapter(ClientEventListener delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onCompleted() {
+        delegate.onCompleted();
+    }
+
+    @Override
+    public void onConnectStart() {
+        delegate.onConnectStart();
+    }
+
+    @Override
+    public void onConnectSuccess(long duration, TimeUnit timeUnit) {
+        delegate.onConnectSuccess(duration, timeUnit);
+    }
+
+    @Override
+    public void onConnectFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        delegate.onConnectFailed(duration, timeUnit, throwable);
+    }
+
+    @Override
+    public void onPoolReleaseStart() {
+        delegate.onPoolReleaseStart();
+    }
+
+    @Override
+    public void onPoolReleaseSuccess(long duration, TimeUnit timeUnit) {
+        delegate.onPoolReleaseSuccess(duration, timeUnit);
+    }
+
+    @Override
+    public void onPoolReleaseFailed(long duration, TimeUnit timeUnit,
+                                    Throwable throwable) {
+        delegate.onPoolReleaseFailed(duration, timeUnit, throwable);
+    }
+
+    @Override
+    public void onPooledConnectionEviction() {
+        delegate.onPooledConnectionEviction();
+    }
+
+    @Override
+    public void onPooledConnectionReuse() {
+        delegate.onPooledConnectionReuse();
+    }
+
+    @Override
+    public void onPoolAcquireStart() {
+        delegate.onPoolAcquireStart();
+    }
+
+    @Override
+    public void onPoolAcquireSuccess(long duration, TimeUnit timeUnit) {
+        delegate.onPoolAcquireSuccess(duration, timeUnit);
+    }
+
+    @Override
+    public void onPoolAcquireFailed(long duration, TimeUnit timeUnit,
+                                    Throwable throwable) {
+        delegate.onPoolAcquireFailed(duration, timeUnit, throwable);
+    }
+
+    @Override
+    public void onPoolAcquireWaitStart(int pendingAcquires) {
+        delegate.onPoolAcquireWaitStart(pendingAcquires);
+    }
+
+    @Override
+    public void onPoolAcquireWaitSuccess(long duration, TimeUnit timeUnit) {
+        delegate.onPoolAcquireWaitSuccess(duration, timeUnit);
+    }
+
+    @Override
+    public void onPoolAcquireWaitFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        delegate.onPoolAcquireWaitFailed(duration, timeUnit, throwable);
+    }
+
+    @Override
+    public void onByteRead(long bytesRead) {
+        delegate.onByteRead(bytesRead);
+    }
+
+    @Override
+    public void onByteWritten(long bytesWritten) {
+        delegate.onByteWritten(bytesWritten);
+    }
+
+    @Override
+    public void onFlushStart() {
+        delegate.onFlushStart();
+    }
+
+    @Override
+    public void onFlushComplete(long duration, TimeUnit timeUnit) {
+        delegate.onFlushComplete(duration, timeUnit);
+    }
+
+    @Override
+    public void onWriteStart() {
+        delegate.onWriteStart();
+    }
+
+    @Override
+    public void onWriteSuccess(long duration, TimeUnit timeUnit) {
+        delegate.onWriteSuccess(duration, timeUnit);
+    }
+
+    @Override
+    public void onWriteFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        delegate.onWriteFailed(duration, timeUnit, throwable);
+    }
+
+    @Override
+    public void onConnectionCloseStart() {
+        delegate.onConnectionCloseStart();
+    }
+
+    @Override
+    public void onConnectionCloseSuccess(long duration, TimeUnit timeUnit) {
+        delegate.onConnectionCloseSuccess(duration, timeUnit);
+    }
+
+    @Override
+    public void onConnectionCloseFailed(long duration, TimeUnit timeUnit,
+                                        Throwable throwable) {
+        delegate.onConnectionCloseFailed(duration, timeUnit, throwable);
+    }
+
+    @Override
+    public void onCustomEvent(Object event) {
+        delegate.onCustomEvent(event);
+    }
+
+    @Override
+    public void onCustomEvent(Object event, long duration, TimeUnit timeUnit) {
+        delegate.onCustomEvent(event, duration, timeUnit);
+    }
+
+    @Override
+    public void onCustomEvent(Object event, long duration, TimeUnit timeUnit, Throwable throwable) {
+        delegate.onCustomEvent(event, duration, timeUnit, throwable);
+    }
+
+    @Override
+    public void onCustomEvent(Object event, Throwable throwable) {
+        delegate.onCustomEvent(event, throwable);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClientEventListenerAdapter)) {
+            return false;
+        }
+
+        ClientEventListenerAdapter that = (ClientEventListenerAdapter) o;
+
+        return delegate.equals(that.delegate);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+}
@@ -116,6 +116,27 @@ final class SafeTcpClientEventListener extends TcpClientEventListener implements
         }
     }
 
+    @Override
+    public void onPoolAcquireWaitStart(int pendingAcquires) {
+        if (!completed.get()) {
+            delegate.onPoolAcquireWaitStart(pendingAcquires);
+        }
+    }
+
+    @Override
+    public void onPoolAcquireWaitSuccess(long duration, TimeUnit timeUnit) {
+        if (!completed.get()) {
+            delegate.onPoolAcquireWaitSuccess(duration, timeUnit);
+        }
+    }
+
+    @Override
+    public void onPoolAcquireWaitFailed(long duration, TimeUnit timeUnit, Throwable throwable) {
+        if (!completed.get()) {
+            delegate.onPoolAcquireWaitFailed(duration, timeUnit, throwable);
+        }
+    }
+
     @Override
     public void onByteRead(long bytesRead) {
         if (!completed.get()) {
@@ -17,12 +17,14 @@
 package io.reactivex.netty.protocol.tcp.client.events;
 
 import io.reactivex.netty.channel.events.ConnectionEventPublisher;
+import io.reactivex.netty.client.events.ClientEventListener;
 import io.reactivex.netty.events.EventPublisher;
 import io.reactivex.netty.events.EventSource;
 import io.reactivex.netty.events.ListenersHolder;
 import io.reactivex.netty.events.internal.SafeEventListener;
 import rx.Subscription;
 import rx.functions.Action1;
+import rx.functions.Action2;
 import rx.functions.Action3;
 import rx.functions.Action4;
 import rx.subscriptions.CompositeSubscription;
@@ -92,6 +94,30 @@ public final class TcpClientEventPublisher extends TcpClientEventListener
                 }
             };
 
+    public static final Action2<TcpClientEventListener, Integer> ACQUIRE_WAIT_START_ACTION =
+            new Action2<TcpClientEventListener, Integer>() {
+                @Override
+                public void call(TcpClientEventListener l, Integer pendingAcquires) {
+                    l.onPoolAcquireWaitStart(pendingAcquires);
+                }
+            };
+
+    public static final Action3<TcpClientEventListener, Long, TimeUnit> ACQUIRE_WAIT_SUCCESS_ACTION =
+            new Action3<TcpClientEventListener, Long, TimeUnit>() {
+                @Override
+                public void call(TcpClientEventListener l, Long duration, TimeUnit timeUnit) {
+                    l.onPoolAcquireWaitSuccess(duration, timeUnit);
+                }
+            };
+
+    public static final Action4<TcpClientEventListener, Long, TimeUnit, Throwable> ACQUIRE_WAIT_FAILED_ACTION =
+            new Action4<TcpClientEventListener, Long, TimeUnit, Throwable>() {
+                @Override
+                public void call(TcpClientEventListener l, Long duration, TimeUnit timeUnit, Throwable t) {
+                    l.onPoolAcquireWaitFailed(duration, timeUnit, t);
+                }
+            };
+
     public static final Action1<TcpClientEventListener> RELEASE_START_ACTION = new Action1<TcpClientEventListener>() {
         @Override
         public void call(TcpClientEventListener l) {
@@ -183,6 +209,21 @@ public final class TcpClientEventPublisher extends TcpClientEventListener
         listeners.invokeListeners(ACQUIRE_FAILED_ACTION, duration, timeUnit, throwable);
     }
 
+    @Override
+    public void onPoolAcquireWaitStart(final int pendingAcquires) {
+        listeners.invokeListeners(ACQUIRE_WAIT_START_ACTION, pendingAcquires);
+    }
+
+    @Override
+    public void onPoolAcquireWaitSuccess(final long duration, final TimeUnit timeUnit) {
+        listeners.invokeListeners(ACQUIRE_WAIT_SUCCESS_ACTION, duration, timeUnit);
+    }
+
+    @Override
+    public void onPoolAcquireWaitFailed(final long duration, final TimeUnit timeUnit, final Throwable throwable) {
+        listeners.invokeListeners(ACQUIRE_WAIT_FAILED_ACTION, duration, timeUnit, throwable);
+    }
+
     @Override
     public void onByteRead(long bytesRead) {
         connDelegate.onByteRead(bytesRead);
@@ -274,6 +315,29 @@ public final class TcpClientEventPublisher extends TcpClientEventListener
         return new TcpClientEventPublisher(this);
     }
 
+    /**
+     * Returns an {@link EventSource} accepting any {@link ClientEventListener}, for the passed source of TCP client
+     * events. A listener that is not a {@link TcpClientEventListener} is adapted before subscribing to the source, so
+     * that protocol agnostic listeners (eg: ones created by load balancing strategies) can be subscribed to a
+     * {@link io.reactivex.netty.client.HostConnector}.
+     *
+     * @param source Source of TCP client events.
+     *
+     * @return An {@link EventSource} accepting any {@link ClientEventListener}.
+     */
+    public static EventSource<ClientEventListener> asClientEventSource(
+            final EventSource<TcpClientEventListener> source) {
+        return new EventSource<ClientEventListener>() {
+            @Override
+            public Subscription subscribe(ClientEventListener listener) {
+                if (listener instanceof TcpClientEventListener) {
+                    return source.subscribe((TcpClientEventListener) listener);
+                }
+                return source.subscribe(new ClientEventListenerAdapter(listener));
+            }
+        };
+    }
+
     /*Visible for testing*/ ListenersHolder<TcpClientEventListener> getListeners() {
         return listeners;
     }
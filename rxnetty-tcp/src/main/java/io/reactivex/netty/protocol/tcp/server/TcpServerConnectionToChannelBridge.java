@@ -72,6 +72,15 @@ public class TcpServerConnectionToChannelBridge<R, W> extends AbstractConnection
         super.channelRegistered(ctx);
     }
 
+    /**
+     * Returns the handler of the connections emitted by this bridge.
+     *
+     * @return The handler of the connections emitted by this bridge.
+     */
+    public ConnectionHandler<R, W> getConnectionHandler() {
+        return connectionHandler;
+    }
+
     public static <R, W> TcpServerConnectionToChannelBridge<R, W> addToPipeline(ChannelPipeline pipeline,
                                                                              ConnectionHandler<R, W> connectionHandler,
                                                                              TcpServerEventPublisher eventPublisher,
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactivex.netty.protocol.tcp.client;
+
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.channel.Connection;
+import io.reactivex.netty.client.ConnectionProvider;
+import io.reactivex.netty.client.ConnectionProviderFactory;
+import io.reactivex.netty.client.Host;
+import io.reactivex.netty.client.HostConnector;
+import io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategy;
+import io.reactivex.netty.client.loadbalancer.LeastOutstandingRequestsStrategy.OutstandingRequestsListener;
+import io.reactivex.netty.client.loadbalancer.LoadBalancerFactory;
+import io.reactivex.netty.client.loadbalancer.WeightedRoundRobinStrategy;
+import io.reactivex.netty.client.pool.PoolConfig;
+import io.reactivex.netty.client.pool.PooledConnectionProvider;
+import io.reactivex.netty.protocol.tcp.server.ConnectionHandler;
+import io.reactivex.netty.protocol.tcp.server.TcpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+public class LoadBalancerFactoryTcpTest {
+
+    private TcpServer<ByteBuf, ByteBuf> server1;
+    private TcpServer<ByteBuf, ByteBuf> server2;
+    private final AtomicInteger connections1 = new AtomicInteger();
+    private final AtomicInteger connections2 = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server1 = TcpServer.newServer().start(newHandler(connections1));
+        server2 = TcpServer.newServer().start(newHandler(connections2));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server1.shutdown();
+        server2.shutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void testLeastOutstandingWithPooledConnections() throws Exception {
+        final List<OutstandingRequestsListener> listeners = new CopyOnWriteArrayList<>();
+        LeastOutstandingRequestsStrategy<ByteBuf, ByteBuf> strategy =
+                new LeastOutstandingRequestsStrategy<ByteBuf, ByteBuf>() {
+                    @Override
+                    protected OutstandingRequestsListener newListener(Host host) {
+                        OutstandingRequestsListener listener = super.newListener(host);
+                        listeners.add(listener);
+                        return listener;
+                    }
+                };
+
+        TcpClient<ByteBuf, ByteBuf> client = TcpClient.newClient(pooled(LoadBalancerFactory.create(strategy)),
+                                                                 hosts());
+
+        for (int i = 0; i < 6; i++) {
+            assertThat("Unexpected echo.", echo(client, "Hello"), is("Hello"));
+        }
+
+        assertThat("No listeners created.", listeners, not(empty()));
+        for (OutstandingRequestsListener listener : listeners) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (listener.getOutstandingRequests() != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat("Outstanding requests leaked.", listener.getOutstandingRequests(), is(0));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testWeightedRoundRobin() throws Exception {
+        final int port1 = server1.getServerPort();
+        WeightedRoundRobinStrategy<ByteBuf, ByteBuf> strategy =
+                new WeightedRoundRobinStrategy<>(new Func1<Host, Integer>() {
+                    @Override
+                    public Integer call(Host host) {
+                        return ((InetSocketAddress) host.getHost()).getPort() == port1 ? 3 : 1;
+                    }
+                });
+
+        TcpClient<ByteBuf, ByteBuf> client = TcpClient.newClient(LoadBalancerFactory.create(strategy), hosts());
+
+        for (int i = 0; i < 8; i++) {
+            assertThat("Unexpected echo.", echo(client, "Hello"), is("Hello"));
+        }
+
+        assertThat("Unexpected connections on the heavier host.", connections1.get(), is(6));
+        assertThat("Unexpected connections on the lighter host.", connections2.get(), is(2));
+    }
+
+    private Observable<Host> hosts() {
+        return Observable.just(new Host(new InetSocketAddress("127.0.0.1", server1.getServerPort())),
+                               new Host(new InetSocketAddress("127.0.0.1", server2.getServerPort())));
+    }
+
+    private static String echo(TcpClient<ByteBuf, ByteBuf> client, final String message) {
+        return client.createConnectionRequest()
+                     .flatMap(new Func1<Connection<ByteBuf, ByteBuf>, Observable<String>>() {
+                         @Override
+                         public Observable<String> call(final Connection<ByteBuf, ByteBuf> connection) {
+                             return connection.writeString(Observable.just(message))
+                                              .cast(ByteBuf.class)
+                                              .concatWith(connection.getInput().take(1))
+                                              .map(new Func1<ByteBuf, String>() {
+                                                  @Override
+                                                  public String call(ByteBuf content) {
+                                                      return content.toString(Charset.defaultCharset());
+                                                  }
+                                              })
+                                              .concatWith(connection.close().cast(String.class));
+                         }
+                     })
+                     .toBlocking()
+                     .single();
+    }
+
+    private static ConnectionHandler<ByteBuf, ByteBuf> newHandler(final AtomicInteger connections) {
+        return new ConnectionHandler<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Void> handle(Connection<ByteBuf, ByteBuf> newConnection) {
+                connections.incrementAndGet();
+                return newConnection.writeAndFlushOnEach(newConnection.getInput());
+            }
+        };
+    }
+
+    private static <W, R> ConnectionProviderFactory<W, R> pooled(final ConnectionProviderFactory<W, R> delegate) {
+        return new ConnectionProviderFactory<W, R>() {
+            @Override
+            public ConnectionProvider<W, R> newProvider(Observable<HostConnector<W, R>> hosts) {
+                return delegate.newProvider(hosts.map(new Func1<HostConnector<W, R>, HostConnector<W, R>>() {
+                    @Override
+                    public HostConnector<W, R> call(HostConnector<W, R> connector) {
+                        return new HostConnector<>(connector,
+                                                   PooledConnectionProvider.create(new PoolConfig<W, R>(),
+                                                                                   connector));
+                    }
+                }));
+            }
+        };
+    }
+}